@@ -0,0 +1,36 @@
+// Copyright 2021 The Apache Software Foundation
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.apache.tapestry5.beanmodel;
+
+/**
+ * Class defining constants for symbols used by the bean model library, when used with Tapestry IoC.
+ *
+ * @since 5.7.0
+ */
+public final class BeanModelSymbolConstants
+{
+    /**
+     * If true, {@link org.apache.tapestry5.beanmodel.services.PropertyConduitSource} builds conduits for property
+     * paths (such as "user.address.city" or "user?.name", possibly ending with a method invocation without parameters)
+     * from method handles, rather than by generating a class for each expression. This reduces metaspace usage and the
+     * time taken to create conduits (and so, the time to first render each page), at the cost of somewhat slower
+     * access to the properties themselves. Other expressions always use generated classes. The default is "false".
+     */
+    public static final String METHOD_HANDLE_PROPERTY_CONDUITS = "tapestry.method-handle-property-conduits";
+
+    private BeanModelSymbolConstants()
+    {
+    }
+}
@@ -0,0 +1,241 @@
+// Copyright 2021 The Apache Software Foundation
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.apache.tapestry5.beanmodel.internal.services;
+
+import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.Type;
+
+import org.apache.tapestry5.beanmodel.internal.InternalPropertyConduit;
+import org.apache.tapestry5.commons.AnnotationProvider;
+
+/**
+ * A PropertyConduit for a property path (a series of property reads or method invocations without parameters), built
+ * from method handles rather than as a generated class. The conduit itself only identifies the root type and
+ * expression (for error messages); the work is done by a {@link Path}, which is shared between all conduits
+ * whose terms resolve to the same members, whatever their root type or expression.
+ *
+ * @see org.apache.tapestry5.beanmodel.BeanModelSymbolConstants#METHOD_HANDLE_PROPERTY_CONDUITS
+ * @since 5.7.0
+ */
+final class MethodHandlePropertyConduit implements InternalPropertyConduit
+{
+    /**
+     * One term of the path, leading from one object to the next.
+     */
+    static final class Step
+    {
+        /**
+         * Reads the term, with type (Object)Object.
+         */
+        final MethodHandle getter;
+
+        /**
+         * Describes the term, for use in error messages.
+         */
+        final String description;
+
+        /**
+         * If true (the "?." operator), a null value ends navigation; otherwise, a null value is an error.
+         */
+        final boolean allowNull;
+
+        Step(MethodHandle getter, String description, boolean allowNull)
+        {
+            this.getter = getter;
+            this.description = description;
+            this.allowNull = allowNull;
+        }
+    }
+
+    /**
+     * Navigation to, and access of, the final property.
+     */
+    static final class Path
+    {
+        final Step[] steps;
+
+        /**
+         * Reads the final property, with type (Object)Object; null if the property is write-only.
+         */
+        final MethodHandle getter;
+
+        /**
+         * Updates the final property, with type (Object,Object)void; null if the property is read-only.
+         */
+        final MethodHandle setter;
+
+        final String propertyName;
+
+        final Class propertyType;
+
+        final Type propertyGenericType;
+
+        final AnnotationProvider annotationProvider;
+
+        Path(Step[] steps, MethodHandle getter, MethodHandle setter, String propertyName, Class propertyType,
+             Type propertyGenericType, AnnotationProvider annotationProvider)
+        {
+            this.steps = steps;
+            this.getter = getter;
+            this.setter = setter;
+            this.propertyName = propertyName;
+            this.propertyType = propertyType;
+            this.propertyGenericType = propertyGenericType;
+            this.annotationProvider = annotationProvider;
+        }
+    }
+
+    private final Class rootType;
+
+    private final String expression;
+
+    private final Path path;
+
+    MethodHandlePropertyConduit(Class rootType, String expression, Path path)
+    {
+        this.rootType = rootType;
+        this.expression = expression;
+        this.path = path;
+    }
+
+    public Object get(Object instance)
+    {
+        if (path.getter == null)
+        {
+            throw new RuntimeException(String.format("Expression '%s' for class %s is write-only.", expression,
+                    rootType.getName()));
+        }
+
+        Object target = navigate(instance);
+
+        if (target == null)
+        {
+            return null;
+        }
+
+        try
+        {
+            return (Object) path.getter.invokeExact(target);
+        } catch (Throwable ex)
+        {
+            throw rethrow(ex);
+        }
+    }
+
+    public void set(Object instance, Object value)
+    {
+        if (path.setter == null)
+        {
+            throw new RuntimeException(String.format("Expression '%s' for class %s is read-only.", expression,
+                    rootType.getName()));
+        }
+
+        Object target = navigate(instance);
+
+        if (target == null)
+        {
+            return;
+        }
+
+        try
+        {
+            path.setter.invokeExact(target, value);
+        } catch (Throwable ex)
+        {
+            throw rethrow(ex);
+        }
+    }
+
+    /**
+     * Navigates from the root object to the object containing the final property.
+     *
+     * @return the object, or null if navigation ended at a null term (via the "?." operator)
+     */
+    private Object navigate(Object root)
+    {
+        if (root == null)
+        {
+            throw new NullPointerException(String.format("Root object of property expression '%s' is null.",
+                    expression));
+        }
+
+        Object value = rootType.cast(root);
+
+        for (Step step : path.steps)
+        {
+            try
+            {
+                value = (Object) step.getter.invokeExact(value);
+            } catch (Throwable ex)
+            {
+                throw rethrow(ex);
+            }
+
+            if (value == null)
+            {
+                if (step.allowNull)
+                {
+                    return null;
+                }
+
+                throw PropertyConduitSourceImpl.nullTerm(step.description, expression, root);
+            }
+        }
+
+        return value;
+    }
+
+    private static RuntimeException rethrow(Throwable ex)
+    {
+        if (ex instanceof RuntimeException)
+        {
+            return (RuntimeException) ex;
+        }
+
+        if (ex instanceof Error)
+        {
+            throw (Error) ex;
+        }
+
+        return new RuntimeException(ex);
+    }
+
+    public Class getPropertyType()
+    {
+        return path.propertyType;
+    }
+
+    public Type getPropertyGenericType()
+    {
+        return path.propertyGenericType;
+    }
+
+    public <T extends Annotation> T getAnnotation(Class<T> annotationClass)
+    {
+        return path.annotationProvider.getAnnotation(annotationClass);
+    }
+
+    public String getPropertyName()
+    {
+        return path.propertyName;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("PropertyConduit[%s %s]", rootType.getName(), expression);
+    }
+}
@@ -35,6 +35,9 @@ import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Field;
 import java.lang.reflect.Member;
 import java.lang.reflect.Method;
@@ -48,6 +51,7 @@ import java.util.Map;
 import org.antlr.runtime.ANTLRInputStream;
 import org.antlr.runtime.CommonTokenStream;
 import org.antlr.runtime.tree.Tree;
+import org.apache.tapestry5.beanmodel.BeanModelSymbolConstants;
 import org.apache.tapestry5.beanmodel.PropertyConduit;
 import org.apache.tapestry5.beanmodel.PropertyConduit2;
 import org.apache.tapestry5.beanmodel.internal.InternalPropertyConduit;
@@ -72,7 +76,9 @@ import org.apache.tapestry5.commons.util.IntegerRange;
 import org.apache.tapestry5.commons.util.MultiKey;
 import org.apache.tapestry5.commons.util.UnknownValueException;
 import org.apache.tapestry5.ioc.annotations.ComponentClasses;
+import org.apache.tapestry5.ioc.annotations.Inject;
 import org.apache.tapestry5.ioc.annotations.PostInjection;
+import org.apache.tapestry5.ioc.annotations.Symbol;
 import org.apache.tapestry5.plastic.Condition;
 import org.apache.tapestry5.plastic.InstructionBuilder;
 import org.apache.tapestry5.plastic.InstructionBuilderCallback;
@@ -136,6 +142,10 @@ public class PropertyConduitSourceImpl implements PropertyConduitSource
     private static final String[] SINGLE_OBJECT_ARGUMENT = new String[]
             {Object.class.getName()};
 
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
     @SuppressWarnings("unchecked")
     private static Method getMethod(Class containingClass, String name, Class... parameterTypes)
     {
@@ -239,6 +249,17 @@ public class PropertyConduitSourceImpl implements PropertyConduitSource
      */
     private final Map<MultiKey, PropertyConduit> cache = CollectionFactory.newConcurrentMap();
 
+    private final boolean methodHandleConduits;
+
+    private final MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+
+    /**
+     * Paths used by method handle conduits, keyed on the members (and null handling) of each term. Conduits for the
+     * same expression on different root classes (or for different expressions that resolve to the same members) share
+     * a single path.
+     */
+    private final Map<List<Object>, MethodHandlePropertyConduit.Path> paths = CollectionFactory.newConcurrentMap();
+
     private final Invariant invariantAnnotation = new Invariant()
     {
         public Class<? extends Annotation> annotationType()
@@ -552,29 +573,6 @@ public class PropertyConduitSourceImpl implements PropertyConduitSource
             implementSetter(adapter);
         }
 
-        private Type getGenericType(PropertyAdapter adapter)
-        {
-            Type genericType = null;
-            if (adapter.getField() != null)
-            {
-                genericType = adapter.getField().getGenericType();
-            }
-            else if (adapter.getReadMethod() != null)
-            {
-                genericType = adapter.getReadMethod().getGenericReturnType(); 
-            }
-            else if (adapter.getWriteMethod() != null)
-            {
-                genericType = adapter.getWriteMethod().getGenericParameterTypes()[0];
-            }
-            else
-            {
-                throw new RuntimeException("Could not find accessor for property " + adapter.getName());
-            }
-            
-            return genericType == null ? adapter.getType() : genericType;
-        }
-
         private void implementSetter(PropertyAdapter adapter)
         {
             if (adapter.getWriteMethod() != null)
@@ -1184,24 +1182,6 @@ public class PropertyConduitSourceImpl implements PropertyConduitSource
                     adapter.getBeanType().getName()));
         }
 
-        public PropertyAdapter findPropertyAdapter(Type activeType, String propertyName)
-        {
-            Class activeClass = GenericsUtils.asClass(activeType);
-
-            ClassPropertyAdapter classAdapter = access.getAdapter(activeClass);
-            PropertyAdapter adapter = classAdapter.getPropertyAdapter(propertyName);
-
-            if (adapter == null)
-            {
-                final List<String> names = classAdapter.getPropertyNames();
-                final String className = activeClass.getName();
-                throw new UnknownValueException(String.format(
-                        "Class %s does not contain a property (or public field) named '%s'.", className, propertyName),
-                        new AvailableValues("Properties (and public fields)", names));
-            }
-            return adapter;
-        }
-
         private Term buildGetterMethodAccessTerm(final Type activeType, String propertyName, final Method readMethod)
         {
             Type returnType = GenericsUtils.extractActualType(activeType, readMethod);
@@ -1304,32 +1284,6 @@ public class PropertyConduitSourceImpl implements PropertyConduitSource
             );
         }
 
-        private Method findMethod(Class activeType, String methodName, int parameterCount)
-        {
-            Class searchType = activeType;
-
-            while (true)
-            {
-
-                for (Method method : searchType.getMethods())
-                {
-                    if (method.getParameterTypes().length == parameterCount
-                            && method.getName().equalsIgnoreCase(methodName))
-                        return method;
-                }
-
-                // TAP5-330
-                if (searchType != Object.class)
-                {
-                    searchType = Object.class;
-                } else
-                {
-                    throw new RuntimeException(String.format("Class %s does not contain a public method named '%s()'.",
-                            activeType.getName(), methodName));
-                }
-            }
-        }
-
         public void boxIfPrimitive(InstructionBuilder builder, Type termType)
         {
             boxIfPrimitive(builder, GenericsUtils.asClass(termType));
@@ -1369,13 +1323,95 @@ public class PropertyConduitSourceImpl implements PropertyConduitSource
         }
     }
 
+    private PropertyAdapter findPropertyAdapter(Type activeType, String propertyName)
+    {
+        Class activeClass = GenericsUtils.asClass(activeType);
+
+        ClassPropertyAdapter classAdapter = access.getAdapter(activeClass);
+        PropertyAdapter adapter = classAdapter.getPropertyAdapter(propertyName);
+
+        if (adapter == null)
+        {
+            final List<String> names = classAdapter.getPropertyNames();
+            final String className = activeClass.getName();
+            throw new UnknownValueException(String.format(
+                    "Class %s does not contain a property (or public field) named '%s'.", className, propertyName),
+                    new AvailableValues("Properties (and public fields)", names));
+        }
+        return adapter;
+    }
+
+    private static Type getGenericType(PropertyAdapter adapter)
+    {
+        Type genericType = null;
+        if (adapter.getField() != null)
+        {
+            genericType = adapter.getField().getGenericType();
+        }
+        else if (adapter.getReadMethod() != null)
+        {
+            genericType = adapter.getReadMethod().getGenericReturnType(); 
+        }
+        else if (adapter.getWriteMethod() != null)
+        {
+            genericType = adapter.getWriteMethod().getGenericParameterTypes()[0];
+        }
+        else
+        {
+            throw new RuntimeException("Could not find accessor for property " + adapter.getName());
+        }
+        
+        return genericType == null ? adapter.getType() : genericType;
+    }
+
+    private static Method findMethod(Class activeType, String methodName, int parameterCount)
+    {
+        Class searchType = activeType;
+
+        while (true)
+        {
+
+            for (Method method : searchType.getMethods())
+            {
+                if (method.getParameterTypes().length == parameterCount
+                        && method.getName().equalsIgnoreCase(methodName))
+                    return method;
+            }
+
+            // TAP5-330
+            if (searchType != Object.class)
+            {
+                searchType = Object.class;
+            } else
+            {
+                throw new RuntimeException(String.format("Class %s does not contain a public method named '%s()'.",
+                        activeType.getName(), methodName));
+            }
+        }
+    }
+
+    public PropertyConduitSourceImpl(PropertyAccess access, PlasticProxyFactory proxyFactory, TypeCoercer typeCoercer,
+                                     StringInterner interner)
+    {
+        this(access, proxyFactory, typeCoercer, interner, false);
+    }
+
+    /**
+     * @param methodHandleConduits
+     *         if true, conduits for property paths are built from method handles, rather than generated classes
+     * @since 5.7.0
+     */
+    @Inject
     public PropertyConduitSourceImpl(PropertyAccess access, @ComponentLayer
-    PlasticProxyFactory proxyFactory, TypeCoercer typeCoercer, StringInterner interner)
+    PlasticProxyFactory proxyFactory, TypeCoercer typeCoercer, StringInterner interner,
+                                     @Symbol(BeanModelSymbolConstants.METHOD_HANDLE_PROPERTY_CONDUITS)
+                                     boolean methodHandleConduits)
     {
         this.access = access;
         this.proxyFactory = proxyFactory;
         this.typeCoercer = typeCoercer;
         this.interner = interner;
+        this.methodHandleConduits = methodHandleConduits;
 
         literalTrue = createLiteralConduit(Boolean.class, true);
         literalFalse = createLiteralConduit(Boolean.class, false);
@@ -1388,6 +1424,7 @@ public class PropertyConduitSourceImpl implements PropertyConduitSource
     public void listenForInvalidations(@ComponentClasses InvalidationEventHub hub)
     {
         hub.clearOnInvalidation(cache);
+        hub.clearOnInvalidation(paths);
     }
 
 
@@ -1488,6 +1525,16 @@ public class PropertyConduitSourceImpl implements PropertyConduitSource
                     break;
             }
 
+            if (methodHandleConduits)
+            {
+                PropertyConduit conduit = buildMethodHandleConduit(rootClass, expression, tree);
+
+                if (conduit != null)
+                {
+                    return conduit;
+                }
+            }
+
             return proxyFactory.createProxy(InternalPropertyConduit.class,
                     new PropertyConduitBuilder(rootClass, expression, tree)).newInstance();
         } catch (Exception ex)
@@ -1497,6 +1544,202 @@ public class PropertyConduitSourceImpl implements PropertyConduitSource
         }
     }
 
+    /**
+     * Builds a conduit from method handles, for an expression that is a simple property path: a series of property
+     * reads, or method invocations without parameters, optionally using the "?." operator.
+     *
+     * @return the conduit, or null if the expression is not a simple property path, or involves a member that can not
+     *         be accessed via a method handle; in which case a conduit class is generated, as usual (this is also how
+     *         errors in the expression are reported)
+     */
+    private PropertyConduit buildMethodHandleConduit(Class rootClass, String expression, Tree tree)
+    {
+        List<Object> key = CollectionFactory.newList();
+
+        List<MethodHandlePropertyConduit.Step> steps = CollectionFactory.newList();
+
+        Type activeType = rootClass;
+
+        Tree node = tree;
+
+        try
+        {
+            while (node.getType() == DEREF || node.getType() == SAFEDEREF)
+            {
+                Tree termNode = node.getChild(0);
+
+                boolean allowNull = node.getType() == SAFEDEREF;
+
+                Member member = findReadMember(activeType, termNode);
+
+                if (member == null)
+                {
+                    return null;
+                }
+
+                String description = member instanceof Method && termNode.getType() == INVOKE
+                        ? toUniqueId((Method) member)
+                        : termNode.getText();
+
+                steps.add(new MethodHandlePropertyConduit.Step(toGetter(member), description, allowNull));
+
+                key.add(member);
+                key.add(allowNull);
+
+                activeType = member instanceof Method
+                        ? GenericsUtils.extractActualType(activeType, (Method) member)
+                        : GenericsUtils.extractActualType(activeType, (Field) member);
+
+                node = node.getChild(1);
+            }
+
+            MethodHandlePropertyConduit.Path path;
+
+            switch (node.getType())
+            {
+                case IDENTIFIER:
+
+                    PropertyAdapter adapter = findPropertyAdapter(activeType, node.getText());
+
+                    key.add(adapter);
+
+                    path = paths.get(key);
+
+                    if (path == null)
+                    {
+                        path = new MethodHandlePropertyConduit.Path(steps.toArray(new MethodHandlePropertyConduit.Step[0]),
+                                findGetter(adapter), findSetter(adapter), node.getText(), adapter.getType(),
+                                getGenericType(adapter), adapter);
+                    }
+
+                    break;
+
+                case INVOKE:
+
+                    if (node.getChildCount() != 1)
+                    {
+                        return null;
+                    }
+
+                    Method method = findMethod(GenericsUtils.asClass(activeType), node.getChild(0).getText(), 0);
+
+                    if (method.getReturnType() == void.class)
+                    {
+                        return null;
+                    }
+
+                    Class returnType = GenericsUtils.asClass(GenericsUtils.extractActualType(activeType, method));
+
+                    key.add(method);
+                    key.add(returnType);
+
+                    path = paths.get(key);
+
+                    if (path == null)
+                    {
+                        path = new MethodHandlePropertyConduit.Path(steps.toArray(new MethodHandlePropertyConduit.Step[0]),
+                                toGetter(method), null, toUniqueId(method), returnType, returnType,
+                                InternalCommonsUtils.toAnnotationProvider(method));
+                    }
+
+                    break;
+
+                default:
+                    return null;
+            }
+
+            paths.put(key, path);
+
+            return new MethodHandlePropertyConduit(rootClass, expression, path);
+        } catch (Exception ex)
+        {
+            // Let the normal path report any problem with the expression.
+
+            return null;
+        }
+    }
+
+    /**
+     * Finds the field or method for an intermediate term, or returns null if not a simple property read or method
+     * invocation without parameters.
+     */
+    private Member findReadMember(Type activeType, Tree termNode)
+    {
+        switch (termNode.getType())
+        {
+            case IDENTIFIER:
+
+                PropertyAdapter adapter = findPropertyAdapter(activeType, termNode.getText());
+
+                return adapter.getReadMethod() != null ? adapter.getReadMethod() : adapter.getField();
+
+            case INVOKE:
+
+                if (termNode.getChildCount() != 1)
+                {
+                    return null;
+                }
+
+                Method method = findMethod(GenericsUtils.asClass(activeType), termNode.getChild(0).getText(), 0);
+
+                return method.getReturnType() == void.class ? null : method;
+
+            default:
+                return null;
+        }
+    }
+
+    private MethodHandle findGetter(PropertyAdapter adapter) throws IllegalAccessException
+    {
+        if (adapter.getReadMethod() != null)
+        {
+            return toGetter(adapter.getReadMethod());
+        }
+
+        return adapter.getField() == null ? null : toGetter(adapter.getField());
+    }
+
+    private MethodHandle findSetter(PropertyAdapter adapter) throws IllegalAccessException
+    {
+        if (adapter.getWriteMethod() != null)
+        {
+            return lookup.unreflect(adapter.getWriteMethod()).asType(SETTER_TYPE);
+        }
+
+        Field field = adapter.getField();
+
+        if (field == null || !adapter.isUpdate())
+        {
+            return null;
+        }
+
+        MethodHandle handle = lookup.unreflectSetter(field);
+
+        if (Modifier.isStatic(field.getModifiers()))
+        {
+            handle = MethodHandles.dropArguments(handle, 0, Object.class);
+        }
+
+        return handle.asType(SETTER_TYPE);
+    }
+
+    /**
+     * Returns a method handle, of type (Object)Object, that reads the field or invokes the method.
+     */
+    private MethodHandle toGetter(Member member) throws IllegalAccessException
+    {
+        MethodHandle handle = member instanceof Method
+                ? lookup.unreflect((Method) member)
+                : lookup.unreflectGetter((Field) member);
+
+        if (Modifier.isStatic(member.getModifiers()))
+        {
+            handle = MethodHandles.dropArguments(handle, 0, Object.class);
+        }
+
+        return handle.asType(GETTER_TYPE);
+    }
+
     private PropertyConduit createLiteralThisPropertyConduit(final Class rootClass)
     {
         return new PropertyConduit()
@@ -0,0 +1,275 @@
+// Copyright 2021 The Apache Software Foundation
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.apache.tapestry5.beanmodel.internal.services;
+
+import org.apache.tapestry5.beaneditor.Width;
+import org.apache.tapestry5.beanmodel.PropertyConduit;
+import org.apache.tapestry5.beanmodel.services.PlasticProxyFactoryImpl;
+import org.apache.tapestry5.beanmodel.services.PropertyConduitSource;
+import org.apache.tapestry5.commons.internal.services.StringInternerImpl;
+import org.apache.tapestry5.commons.internal.services.TypeCoercerImpl;
+import org.apache.tapestry5.commons.services.CoercionTuple;
+import org.apache.tapestry5.commons.util.CollectionFactory;
+import org.slf4j.LoggerFactory;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+
+import static org.testng.Assert.*;
+
+/**
+ * Tests the method handle based conduits created by {@link PropertyConduitSourceImpl}, when enabled.
+ */
+public class MethodHandlePropertyConduitTest
+{
+    public static class SimpleBean
+    {
+        private String firstName;
+
+        private String lastName;
+
+        private int age;
+
+        public String getFirstName()
+        {
+            return firstName;
+        }
+
+        public void setFirstName(String firstName)
+        {
+            this.firstName = firstName;
+        }
+
+        public String getLastName()
+        {
+            return lastName;
+        }
+
+        public void setLastName(String lastName)
+        {
+            this.lastName = lastName;
+        }
+
+        @Width(2)
+        public int getAge()
+        {
+            return age;
+        }
+
+        public void setAge(int age)
+        {
+            this.age = age;
+        }
+    }
+
+    public static class SimpleBeanSubclass extends SimpleBean
+    {
+        @Override
+        public void setAge(int age)
+        {
+            super.setAge(age);
+        }
+    }
+
+    public static class CompositeBean
+    {
+        private SimpleBean simple = new SimpleBean();
+
+        public SimpleBean getSimple()
+        {
+            return simple;
+        }
+
+        public void setSimple(SimpleBean simple)
+        {
+            this.simple = simple;
+        }
+    }
+
+    public static class PublicFieldBean
+    {
+        public int intField;
+    }
+
+    public static class PublicFieldBeanHolder
+    {
+        public PublicFieldBean bean;
+
+        public PublicFieldBeanHolder(PublicFieldBean bean)
+        {
+            this.bean = bean;
+        }
+    }
+
+    private PropertyConduitSource source;
+
+    @BeforeClass
+    public void setup()
+    {
+        source = new PropertyConduitSourceImpl(new PropertyAccessImpl(),
+                new PlasticProxyFactoryImpl(getClass().getClassLoader(), LoggerFactory.getLogger(PlasticProxyFactoryImpl.class)),
+                new TypeCoercerImpl(CollectionFactory.<CoercionTuple.Key, CoercionTuple>newMap()),
+                new StringInternerImpl(), true);
+    }
+
+    @Test
+    public void simple_property()
+    {
+        PropertyConduit pc = source.create(SimpleBean.class, "firstName");
+        SimpleBean bean = new SimpleBean();
+
+        pc.set(bean, "Howard");
+
+        assertEquals(bean.getFirstName(), "Howard");
+        assertEquals(pc.get(bean), "Howard");
+        assertEquals(pc.getPropertyType(), String.class);
+        assertEquals(pc.toString(), "PropertyConduit[" + SimpleBean.class.getName() + " firstName]");
+    }
+
+    @Test
+    public void primitive_property()
+    {
+        PropertyConduit pc = source.create(SimpleBean.class, "age");
+        SimpleBean bean = new SimpleBean();
+
+        pc.set(bean, 42);
+
+        assertEquals(bean.getAge(), 42);
+        assertEquals(pc.get(bean), 42);
+        assertEquals(pc.getPropertyType(), int.class);
+        assertEquals(pc.getAnnotation(Width.class).value(), 2);
+    }
+
+    @Test
+    public void nested_property()
+    {
+        PropertyConduit pc = source.create(CompositeBean.class, "simple.lastName");
+        CompositeBean bean = new CompositeBean();
+
+        pc.set(bean, "Lewis Ship");
+
+        assertEquals(bean.getSimple().getLastName(), "Lewis Ship");
+        assertEquals(pc.get(bean), "Lewis Ship");
+    }
+
+    @Test
+    public void public_fields()
+    {
+        PropertyConduit pc = source.create(PublicFieldBeanHolder.class, "bean.intField");
+        PublicFieldBeanHolder holder = new PublicFieldBeanHolder(new PublicFieldBean());
+
+        pc.set(holder, 99);
+
+        assertEquals(holder.bean.intField, 99);
+        assertEquals(pc.get(holder), 99);
+    }
+
+    @Test
+    public void method_invocation()
+    {
+        PropertyConduit pc = source.create(CompositeBean.class, "simple.firstName.length()");
+        CompositeBean bean = new CompositeBean();
+
+        bean.getSimple().setFirstName("Howard");
+
+        assertEquals(pc.get(bean), 6);
+        assertEquals(pc.getPropertyType(), int.class);
+
+        try
+        {
+            pc.set(bean, 5);
+            fail();
+        } catch (RuntimeException ex)
+        {
+            assertEquals(ex.getMessage(), "Expression 'simple.firstName.length()' for class "
+                    + CompositeBean.class.getName() + " is read-only.");
+        }
+    }
+
+    @Test
+    public void null_safe_dereference()
+    {
+        PropertyConduit pc = source.create(CompositeBean.class, "simple?.firstName");
+        CompositeBean bean = new CompositeBean();
+
+        bean.setSimple(null);
+
+        assertNull(pc.get(bean));
+
+        // A set is simply ignored.
+
+        pc.set(bean, "Howard");
+    }
+
+    @Test
+    public void null_intermediate_term()
+    {
+        PropertyConduit pc = source.create(CompositeBean.class, "simple.firstName");
+        CompositeBean bean = new CompositeBean();
+
+        bean.setSimple(null);
+
+        try
+        {
+            pc.get(bean);
+            fail();
+        } catch (NullPointerException ex)
+        {
+            assertTrue(ex.getMessage().startsWith(
+                    "Property 'simple' (within property expression 'simple.firstName', of "));
+            assertTrue(ex.getMessage().endsWith(") is null."));
+        }
+    }
+
+    @Test
+    public void null_root()
+    {
+        PropertyConduit pc = source.create(SimpleBean.class, "firstName");
+
+        try
+        {
+            pc.get(null);
+            fail();
+        } catch (NullPointerException ex)
+        {
+            assertEquals(ex.getMessage(), "Root object of property expression 'firstName' is null.");
+        }
+    }
+
+    @Test
+    public void subclass_uses_inherited_accessors()
+    {
+        PropertyConduit pc = source.create(SimpleBeanSubclass.class, "lastName");
+        SimpleBeanSubclass bean = new SimpleBeanSubclass();
+
+        pc.set(bean, "Ship");
+
+        assertEquals(pc.get(bean), "Ship");
+    }
+
+    @Test
+    public void other_expressions_use_generated_conduits()
+    {
+        PropertyConduit pc = source.create(CompositeBean.class, "[ simple.age, 2 ]");
+        CompositeBean bean = new CompositeBean();
+
+        bean.getSimple().setAge(1);
+
+        // Numeric literals are longs.
+
+        assertEquals(pc.get(bean), Arrays.asList(1, 2L));
+    }
+}
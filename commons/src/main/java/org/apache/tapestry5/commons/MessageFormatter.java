@@ -1,4 +1,4 @@
-// Copyright 2006 The Apache Software Foundation
+// Copyright 2006, 2021 The Apache Software Foundation
 //
 // Licensed under the Apache License, Version 2.0 (the "License");
 // you may not use this file except in compliance with the License.
@@ -29,4 +29,18 @@ public interface MessageFormatter
      * @return formatted string
      */
     String format(Object... args);
+
+    /**
+     * Formats the message, as with {@link #format(Object...)}, appending the result to the builder. This allows a
+     * single builder to be reused when formatting many messages.
+     *
+     * @param builder
+     *         receives the formatted message
+     * @param args
+     * @since 5.7.0
+     */
+    default void formatTo(StringBuilder builder, Object... args)
+    {
+        builder.append(format(args));
+    }
 }
@@ -12,6 +12,8 @@
 
 package org.apache.tapestry5.commons.internal.services;
 
+import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.LinkedList;
@@ -19,11 +21,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.tapestry5.commons.internal.util.InheritanceSearch;
 import org.apache.tapestry5.commons.internal.util.InternalCommonsUtils;
-import org.apache.tapestry5.commons.internal.util.LockSupport;
 import org.apache.tapestry5.commons.services.Coercion;
 import org.apache.tapestry5.commons.services.CoercionTuple;
 import org.apache.tapestry5.commons.services.TypeCoercer;
@@ -35,32 +36,103 @@ import org.apache.tapestry5.func.F;
 import org.apache.tapestry5.plastic.PlasticUtils;
 
 @SuppressWarnings("all")
-public class TypeCoercerImpl extends LockSupport implements TypeCoercer
+public class TypeCoercerImpl implements TypeCoercer
 {
     // Constructed from the service's configuration.
 
     private final Map<Class, List<CoercionTuple>> sourceTypeToTuple = CollectionFactory.newMap();
 
+    /**
+     * The basic types (strings, booleans and numbers) that are overwhelmingly the most common source and target types
+     * of coercions, for example when reading parameters. Coercions between these types are resolved once, when the
+     * TypeCoercer is constructed, and stored in {@link #basicCoercions}, which is never modified afterwards, and so is
+     * read without any locking or allocation. Void (null) is only used as a source type.
+     */
+    private static final Class[] BASIC_TYPES =
+            {Void.class, String.class, Boolean.class, Byte.class, Short.class, Integer.class, Long.class, Float.class,
+                    Double.class, BigInteger.class, BigDecimal.class};
+
+    private static final Map<Class, Integer> BASIC_TYPE_INDEX = CollectionFactory.newMap();
+
+    static
+    {
+        for (int i = 0; i < BASIC_TYPES.length; i++)
+        {
+            BASIC_TYPE_INDEX.put(BASIC_TYPES[i], i);
+        }
+    }
+
+    /**
+     * Indexed by the source type and then the target type, as {@link #BASIC_TYPES} indexes. A null entry means that
+     * no coercion is necessary, or that none exists (which is reported via the normal, slower path).
+     */
+    private final Coercion[][] basicCoercions = new Coercion[BASIC_TYPES.length][BASIC_TYPES.length];
+
+    /**
+     * Incremented each time the {@linkplain #clearCache() cache is cleared}; each TargetCoercion discards its cached
+     * coercions when it sees that the generation has changed.
+     */
+    private final AtomicInteger cacheGeneration = new AtomicInteger();
+
+    /**
+     * Cache of coercions from specific source types to a single target type. A ClassValue, rather than a map, is used
+     * for all the caches in the TypeCoercer; reads require no locking, and the cached values do not prevent classes
+     * (and their class loaders) from being reclaimed, for example when component classes are reloaded.
+     *
+     * Each class holds its ClassValue values strongly, and a value that (even indirectly) references its own
+     * ClassValue can never be released. So neither this class nor TargetCoercion may reference the TypeCoercer
+     * (which holds {@link #targetCoercions}); they are static, and are passed the data they need.
+     */
+    private static final class CoercionCache extends ClassValue<Coercion>
+    {
+        private final Map<Class, List<CoercionTuple>> sourceTypeToTuple;
+
+        private final Class targetType;
+
+        private final int generation;
+
+        CoercionCache(Map<Class, List<CoercionTuple>> sourceTypeToTuple, Class targetType, int generation)
+        {
+            this.sourceTypeToTuple = sourceTypeToTuple;
+            this.targetType = targetType;
+            this.generation = generation;
+        }
+
+        @Override
+        protected Coercion computeValue(Class sourceType)
+        {
+            return findOrCreateCoercion(sourceTypeToTuple, sourceType, targetType);
+        }
+    }
+
     /**
      * A coercion to a specific target type. Manages a cache of coercions to specific types.
      */
-    private class TargetCoercion
+    private static final class TargetCoercion implements Coercion<Object, Object>
     {
+        private final Map<Class, List<CoercionTuple>> sourceTypeToTuple;
+
+        private final Coercion[][] basicCoercions;
+
+        private final AtomicInteger cacheGeneration;
+
         private final Class type;
 
-        private final Map<Class, Coercion> cache = CollectionFactory.newConcurrentMap();
+        private volatile CoercionCache cache;
 
-        TargetCoercion(Class type)
+        TargetCoercion(Map<Class, List<CoercionTuple>> sourceTypeToTuple, Coercion[][] basicCoercions, AtomicInteger cacheGeneration,
+                       Class type)
         {
+            this.sourceTypeToTuple = sourceTypeToTuple;
+            this.basicCoercions = basicCoercions;
+            this.cacheGeneration = cacheGeneration;
             this.type = type;
-        }
 
-        void clearCache()
-        {
-            cache.clear();
+            cache = new CoercionCache(sourceTypeToTuple, type, cacheGeneration.get());
         }
 
-        Object coerce(Object input)
+        @Override
+        public Object coerce(Object input)
         {
             Class sourceType = input != null ? input.getClass() : Void.class;
 
@@ -69,15 +141,9 @@ public class TypeCoercerImpl extends LockSupport implements TypeCoercer
                 return input;
             }
 
-            Coercion c = getCoercion(sourceType);
+            Coercion c = findBasicCoercion(basicCoercions, sourceType, type);
 
-            try
-            {
-                return type.cast(c.coerce(input));
-            } catch (Exception ex)
-            {
-                throw new RuntimeException(ServiceMessages.failedCoercion(input, type, c, ex), ex);
-            }
+            return apply(c != null ? c : getCoercion(sourceType), input, type);
         }
 
         String explain(Class sourceType)
@@ -87,22 +153,40 @@ public class TypeCoercerImpl extends LockSupport implements TypeCoercer
 
         private Coercion getCoercion(Class sourceType)
         {
-            Coercion c = cache.get(sourceType);
+            CoercionCache c = cache;
 
-            if (c == null)
+            int current = cacheGeneration.get();
+
+            if (c.generation != current)
             {
-                c = findOrCreateCoercion(sourceType, type);
-                cache.put(sourceType, c);
+                // On a race, two threads may each replace the cache; the only cost is that some coercions
+                // are located twice.
+
+                c = new CoercionCache(sourceTypeToTuple, type, current);
+                cache = c;
             }
 
-            return c;
+            return c.get(sourceType);
+        }
+
+        @Override
+        public String toString()
+        {
+            return String.format("Object --> %s", PlasticUtils.toTypeName(type));
         }
     }
 
     /**
-     * Map from a target type to a TargetCoercion for that type.
+     * The TargetCoercion for each target type.
      */
-    private final Map<Class, TargetCoercion> typeToTargetCoercion = new WeakHashMap<Class, TargetCoercion>();
+    private final ClassValue<TargetCoercion> targetCoercions = new ClassValue<TargetCoercion>()
+    {
+        @Override
+        protected TargetCoercion computeValue(Class type)
+        {
+            return new TargetCoercion(sourceTypeToTuple, basicCoercions, cacheGeneration, type);
+        }
+    };
 
     private static final Coercion NO_COERCION = new Coercion<Object, Object>()
     {
@@ -136,6 +220,60 @@ public class TypeCoercerImpl extends LockSupport implements TypeCoercer
 
             InternalCommonsUtils.addToMapList(sourceTypeToTuple, key, tuple);
         }
+
+        for (int source = 0; source < BASIC_TYPES.length; source++)
+        {
+            // Void is only a source type; target types start at 1.
+
+            for (int target = 1; target < BASIC_TYPES.length; target++)
+            {
+                if (source != target)
+                {
+                    basicCoercions[source][target] = findBasicCoercionIfExists(BASIC_TYPES[source], BASIC_TYPES[target]);
+                }
+            }
+        }
+    }
+
+    private Coercion findBasicCoercionIfExists(Class sourceType, Class targetType)
+    {
+        try
+        {
+            return findOrCreateCoercion(sourceTypeToTuple, sourceType, targetType);
+        } catch (UnknownValueException ex)
+        {
+            return null;
+        }
+    }
+
+    /**
+     * Finds a coercion between two basic types, using the table built when the TypeCoercer was constructed.
+     *
+     * @return the coercion, or null if the coercion must be found the normal way
+     */
+    private static Coercion findBasicCoercion(Coercion[][] basicCoercions, Class sourceType, Class targetType)
+    {
+        Integer targetIndex = BASIC_TYPE_INDEX.get(targetType);
+
+        if (targetIndex != null)
+        {
+            Integer sourceIndex = BASIC_TYPE_INDEX.get(sourceType);
+
+            return sourceIndex == null ? null : basicCoercions[sourceIndex][targetIndex];
+        }
+
+        return null;
+    }
+
+    private static Object apply(Coercion coercion, Object input, Class targetType)
+    {
+        try
+        {
+            return targetType.cast(coercion.coerce(input));
+        } catch (Exception ex)
+        {
+            throw new RuntimeException(ServiceMessages.failedCoercion(input, targetType, coercion, ex), ex);
+        }
     }
 
     @Override
@@ -151,10 +289,25 @@ public class TypeCoercerImpl extends LockSupport implements TypeCoercer
             return input;
         }
 
+        Coercion basic = findBasicCoercion(basicCoercions, input != null ? input.getClass() : Void.class, effectiveTargetType);
+
+        if (basic != null)
+        {
+            return apply(basic, input, effectiveTargetType);
+        }
 
         return getTargetCoercion(effectiveTargetType).coerce(input);
     }
 
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> Coercion<Object, T> getCoercionTo(Class<T> targetType)
+    {
+        assert targetType != null;
+
+        return (Coercion) getTargetCoercion(PlasticUtils.toWrapperType(targetType));
+    }
+
     @Override
     @SuppressWarnings("unchecked")
     public <S, T> Coercion<S, T> getCoercion(Class<S> sourceType, Class<T> targetType)
@@ -170,6 +323,13 @@ public class TypeCoercerImpl extends LockSupport implements TypeCoercer
             return NO_COERCION;
         }
 
+        Coercion basic = findBasicCoercion(basicCoercions, effectiveSourceType, effectiveTargetType);
+
+        if (basic != null)
+        {
+            return basic;
+        }
+
         return getTargetCoercion(effectiveTargetType).getCoercion(effectiveSourceType);
     }
 
@@ -196,64 +356,17 @@ public class TypeCoercerImpl extends LockSupport implements TypeCoercer
 
     private TargetCoercion getTargetCoercion(Class targetType)
     {
-        try
-        {
-            acquireReadLock();
-
-            TargetCoercion tc = typeToTargetCoercion.get(targetType);
-
-            return tc != null ? tc : createAndStoreNewTargetCoercion(targetType);
-        } finally
-        {
-            releaseReadLock();
-        }
-    }
-
-    private TargetCoercion createAndStoreNewTargetCoercion(Class targetType)
-    {
-        try
-        {
-            upgradeReadLockToWriteLock();
-
-            // Inner check since some other thread may have beat us to it.
-
-            TargetCoercion tc = typeToTargetCoercion.get(targetType);
-
-            if (tc == null)
-            {
-                tc = new TargetCoercion(targetType);
-                typeToTargetCoercion.put(targetType, tc);
-            }
-
-            return tc;
-        } finally
-        {
-            downgradeWriteLockToReadLock();
-        }
+        return targetCoercions.get(targetType);
     }
 
     @Override
     public void clearCache()
     {
-        try
-        {
-            acquireReadLock();
-
-            // There's no need to clear the typeToTargetCoercion map, as it is a WeakHashMap and
-            // will release the keys for classes that are no longer in existence. On the other hand,
-            // there's likely all sorts of references to unloaded classes inside each TargetCoercion's
-            // individual cache, so clear all those.
-
-            for (TargetCoercion tc : typeToTargetCoercion.values())
-            {
-                // Can tc ever be null?
+        // The TargetCoercions themselves are kept: each is specific to its target type, and a reloaded class is a
+        // different target type. Each TargetCoercion's cache, on the other hand, may contain coercions located
+        // before the reload, so each will start over with a new cache.
 
-                tc.clearCache();
-            }
-        } finally
-        {
-            releaseReadLock();
-        }
+        cacheGeneration.incrementAndGet();
     }
 
     /**
@@ -281,16 +394,17 @@ public class TypeCoercerImpl extends LockSupport implements TypeCoercer
      * @return coercer from sourceType to targetType
      */
     @SuppressWarnings("unchecked")
-    private Coercion findOrCreateCoercion(Class sourceType, Class targetType)
+    private static Coercion findOrCreateCoercion(Map<Class, List<CoercionTuple>> sourceTypeToTuple, Class sourceType,
+                                                 Class targetType)
     {
         if (sourceType == Void.class)
         {
-            return searchForNullCoercion(targetType);
+            return searchForNullCoercion(sourceTypeToTuple, targetType);
         }
         
         // Trying to find exact match.
         Optional<CoercionTuple> maybeTuple = 
-                getTuples(sourceType, targetType).stream()
+                getTuples(sourceTypeToTuple, sourceType, targetType).stream()
                     .filter((t) -> sourceType.equals(t.getSourceType()) && 
                             targetType.equals(t.getTargetType())).findFirst();
         
@@ -307,7 +421,7 @@ public class TypeCoercerImpl extends LockSupport implements TypeCoercer
         Set<CoercionTuple> consideredTuples = CollectionFactory.newSet();
         LinkedList<CoercionTuple> queue = CollectionFactory.newLinkedList();
 
-        seedQueue(sourceType, targetType, consideredTuples, queue);
+        seedQueue(sourceTypeToTuple, sourceType, targetType, consideredTuples, queue);
 
         while (!queue.isEmpty())
         {
@@ -332,14 +446,14 @@ public class TypeCoercerImpl extends LockSupport implements TypeCoercer
             // Now we're going to look for conversions from the intermediate type
             // to some other type.
 
-            queueIntermediates(sourceType, targetType, tuple, consideredTuples, queue);
+            queueIntermediates(sourceTypeToTuple, sourceType, targetType, tuple, consideredTuples, queue);
         }
 
         // Not found anywhere. Identify the source and target type and a (sorted) list of
         // all the known coercions.
 
         throw new UnknownValueException(String.format("Could not find a coercion from type %s to type %s.",
-                sourceType.getName(), targetType.getName()), buildCoercionCatalog());
+                sourceType.getName(), targetType.getName()), buildCoercionCatalog(sourceTypeToTuple));
     }
 
     /**
@@ -351,9 +465,9 @@ public class TypeCoercerImpl extends LockSupport implements TypeCoercer
      *         desired type
      * @return the coercion
      */
-    private Coercion searchForNullCoercion(Class targetType)
+    private static Coercion searchForNullCoercion(Map<Class, List<CoercionTuple>> sourceTypeToTuple, Class targetType)
     {
-        List<CoercionTuple> tuples = getTuples(Void.class, targetType);
+        List<CoercionTuple> tuples = getTuples(sourceTypeToTuple, Void.class, targetType);
 
         for (CoercionTuple tuple : tuples)
         {
@@ -374,7 +488,7 @@ public class TypeCoercerImpl extends LockSupport implements TypeCoercer
      * alphabetically.
      */
     @SuppressWarnings("unchecked")
-    private AvailableValues buildCoercionCatalog()
+    private static AvailableValues buildCoercionCatalog(Map<Class, List<CoercionTuple>> sourceTypeToTuple)
     {
         List<CoercionTuple> masterList = CollectionFactory.newList();
 
@@ -389,14 +503,14 @@ public class TypeCoercerImpl extends LockSupport implements TypeCoercer
     /**
      * Seeds the pool with the initial set of coercions for the given type.
      */
-    private void seedQueue(Class sourceType, Class targetType, Set<CoercionTuple> consideredTuples,
-                           LinkedList<CoercionTuple> queue)
+    private static void seedQueue(Map<Class, List<CoercionTuple>> sourceTypeToTuple, Class sourceType, Class targetType,
+                                  Set<CoercionTuple> consideredTuples, LinkedList<CoercionTuple> queue)
     {
         // Work from the source type up looking for tuples
 
         for (Class c : new InheritanceSearch(sourceType))
         {
-            List<CoercionTuple> tuples = getTuples(c, targetType);
+            List<CoercionTuple> tuples = getTuples(sourceTypeToTuple, c, targetType);
 
             if (tuples == null)
             {
@@ -438,14 +552,15 @@ public class TypeCoercerImpl extends LockSupport implements TypeCoercer
      *         the work queue of tuples
      */
     @SuppressWarnings("unchecked")
-    private void queueIntermediates(Class sourceType, Class targetType, CoercionTuple intermediateTuple,
-                                    Set<CoercionTuple> consideredTuples, LinkedList<CoercionTuple> queue)
+    private static void queueIntermediates(Map<Class, List<CoercionTuple>> sourceTypeToTuple, Class sourceType, Class targetType,
+                                           CoercionTuple intermediateTuple, Set<CoercionTuple> consideredTuples,
+                                           LinkedList<CoercionTuple> queue)
     {
         Class intermediateType = intermediateTuple.getTargetType();
 
         for (Class c : new InheritanceSearch(intermediateType))
         {
-            for (CoercionTuple tuple : getTuples(c, targetType))
+            for (CoercionTuple tuple : getTuples(sourceTypeToTuple, c, targetType))
             {
                 if (consideredTuples.contains(tuple))
                 {
@@ -493,7 +608,7 @@ public class TypeCoercerImpl extends LockSupport implements TypeCoercer
      *         used to add synthetic tuples
      * @return non-null list of tuples
      */
-    private List<CoercionTuple> getTuples(Class sourceType, Class targetType)
+    private static List<CoercionTuple> getTuples(Map<Class, List<CoercionTuple>> sourceTypeToTuple, Class sourceType, Class targetType)
     {
         List<CoercionTuple> tuples = sourceTypeToTuple.get(sourceType);
 
@@ -1,4 +1,4 @@
-// Copyright 2006-2013 The Apache Software Foundation
+// Copyright 2006-2013, 2021 The Apache Software Foundation
 //
 // Licensed under the Apache License, Version 2.0 (the "License");
 // you may not use this file except in compliance with the License.
@@ -14,26 +14,343 @@
 
 package org.apache.tapestry5.commons.internal.util;
 
+import java.text.DecimalFormatSymbols;
+import java.util.ArrayList;
+import java.util.Formattable;
+import java.util.Formatter;
+import java.util.IllegalFormatException;
+import java.util.List;
 import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import org.apache.tapestry5.commons.MessageFormatter;
 import org.apache.tapestry5.commons.util.ExceptionUtils;
 
-
+/**
+ * Formats with {@link String#format(Locale, String, Object...)} semantics, but parses the format only once, into a
+ * list of segments: runs of literal text, and slots for the arguments. Plain <code>%s</code> and <code>%d</code> slots
+ * are appended directly; any other specifier is passed to a {@link Formatter}. Formats that this can not parse, or that
+ * are invalid, or calls that are missing arguments, are simply passed to {@link String#format(Locale, String, Object...)},
+ * so that the result, or the exception, is unchanged.
+ */
 public class MessageFormatterImpl implements MessageFormatter
 {
+    /**
+     * Matches a format specifier, as {@link Formatter} does.
+     */
+    private static final Pattern SPECIFIER = Pattern.compile(
+            "%(\\d+\\$)?([-#+ 0,(<]*)?(\\d+)?(\\.\\d+)?([tT])?([a-zA-Z%])");
+
+    private static final String LINE_SEPARATOR = System.getProperty("line.separator");
+
+    private static abstract class Segment
+    {
+        /**
+         * Index of the argument, or -1 for literal text.
+         */
+        final int argumentIndex;
+
+        Segment(int argumentIndex)
+        {
+            this.argumentIndex = argumentIndex;
+        }
+
+        abstract void append(StringBuilder builder, Object[] args, Locale locale, boolean localizedDigits);
+    }
+
+    private static final class Literal extends Segment
+    {
+        private final String text;
+
+        Literal(String text)
+        {
+            super(-1);
+
+            this.text = text;
+        }
+
+        @Override
+        void append(StringBuilder builder, Object[] args, Locale locale, boolean localizedDigits)
+        {
+            builder.append(text);
+        }
+    }
+
+    /**
+     * Any specifier other than a plain <code>%s</code> or <code>%d</code>, without its argument index.
+     */
+    private static class Specifier extends Segment
+    {
+        private final String specifier;
+
+        Specifier(int argumentIndex, String specifier)
+        {
+            super(argumentIndex);
+
+            this.specifier = specifier;
+        }
+
+        @Override
+        void append(StringBuilder builder, Object[] args, Locale locale, boolean localizedDigits)
+        {
+            new Formatter(builder, locale).format(specifier, args[argumentIndex]);
+        }
+    }
+
+    private static final class StringSlot extends Specifier
+    {
+        StringSlot(int argumentIndex)
+        {
+            super(argumentIndex, "%s");
+        }
+
+        @Override
+        void append(StringBuilder builder, Object[] args, Locale locale, boolean localizedDigits)
+        {
+            Object arg = args[argumentIndex];
+
+            if (arg instanceof Formattable)
+            {
+                super.append(builder, args, locale, localizedDigits);
+            } else
+            {
+                builder.append(arg);
+            }
+        }
+    }
+
+    private static final class DecimalSlot extends Specifier
+    {
+        DecimalSlot(int argumentIndex)
+        {
+            super(argumentIndex, "%d");
+        }
+
+        @Override
+        void append(StringBuilder builder, Object[] args, Locale locale, boolean localizedDigits)
+        {
+            Object arg = args[argumentIndex];
+
+            // Negative values get the locale's minus sign, on some JDKs.
+
+            if (!localizedDigits && (arg instanceof Integer || arg instanceof Long || arg instanceof Short
+                    || arg instanceof Byte) && ((Number) arg).longValue() >= 0)
+            {
+                builder.append(((Number) arg).longValue());
+            } else
+            {
+                super.append(builder, args, locale, localizedDigits);
+            }
+        }
+    }
+
     private final String format;
 
     private final Locale locale;
 
+    /**
+     * The parsed format, or null if the format can only be handled by String.format().
+     */
+    private final Segment[] segments;
+
+    /**
+     * The number of arguments referenced by the format.
+     */
+    private final int argumentCount;
+
+    private final int estimatedLength;
+
+    /**
+     * True if the locale formats numbers with digits other than '0' to '9'.
+     */
+    private final boolean localizedDigits;
+
     public MessageFormatterImpl(String format, Locale locale)
     {
         this.format = format;
         this.locale = locale;
+
+        Segment[] parsed = parse(format);
+
+        int maxIndex = -1;
+        int length = 0;
+
+        if (parsed != null)
+        {
+            for (Segment segment : parsed)
+            {
+                maxIndex = Math.max(maxIndex, segment.argumentIndex);
+                length += segment instanceof Literal ? ((Literal) segment).text.length() : 16;
+            }
+        }
+
+        // String.format() checks the entire format before formatting any of it; when that check fails, it must still
+        // be String.format() that reports it.
+
+        segments = parsed != null && isValid(format, locale, maxIndex + 1) ? parsed : null;
+        argumentCount = maxIndex + 1;
+        estimatedLength = length;
+        localizedDigits = locale != null && DecimalFormatSymbols.getInstance(locale).getZeroDigit() != '0';
+    }
+
+    private static boolean isValid(String format, Locale locale, int argumentCount)
+    {
+        try
+        {
+            String.format(locale, format, new Object[argumentCount]);
+
+            return true;
+        } catch (IllegalFormatException ex)
+        {
+            return false;
+        }
+    }
+
+    private static Segment[] parse(String format)
+    {
+        List<Segment> result = new ArrayList<Segment>();
+
+        StringBuilder literal = new StringBuilder();
+
+        Matcher matcher = SPECIFIER.matcher(format);
+
+        int ordinaryIndex = 0;
+        int cursor = 0;
+
+        while (cursor < format.length())
+        {
+            int percentx = format.indexOf('%', cursor);
+
+            if (percentx < 0)
+            {
+                literal.append(format, cursor, format.length());
+                break;
+            }
+
+            literal.append(format, cursor, percentx);
+
+            matcher.region(percentx, format.length());
+
+            if (!matcher.lookingAt())
+            {
+                return null;
+            }
+
+            cursor = matcher.end();
+
+            String explicitIndex = matcher.group(1);
+            String flags = matcher.group(2) == null ? "" : matcher.group(2);
+            String specifier = format.substring(percentx, cursor);
+            char conversion = specifier.charAt(specifier.length() - 1);
+
+            if (specifier.equals("%%"))
+            {
+                literal.append('%');
+                continue;
+            }
+
+            if (specifier.equals("%n"))
+            {
+                literal.append(LINE_SEPARATOR);
+                continue;
+            }
+
+            // Relative indexes, and odd uses of %% and %n, are left to String.format().
+
+            if (flags.indexOf('<') >= 0 || conversion == '%' || conversion == 'n')
+            {
+                return null;
+            }
+
+            int argumentIndex;
+
+            if (explicitIndex == null)
+            {
+                argumentIndex = ordinaryIndex++;
+            } else
+            {
+                argumentIndex = Integer.parseInt(explicitIndex.substring(0, explicitIndex.length() - 1)) - 1;
+
+                if (argumentIndex < 0)
+                {
+                    return null;
+                }
+
+                specifier = "%" + specifier.substring(explicitIndex.length() + 1);
+            }
+
+            if (literal.length() > 0)
+            {
+                result.add(new Literal(literal.toString()));
+                literal.setLength(0);
+            }
+
+            if (specifier.equals("%s"))
+            {
+                result.add(new StringSlot(argumentIndex));
+            } else if (specifier.equals("%d"))
+            {
+                result.add(new DecimalSlot(argumentIndex));
+            } else
+            {
+                result.add(new Specifier(argumentIndex, specifier));
+            }
+        }
+
+        if (literal.length() > 0)
+        {
+            result.add(new Literal(literal.toString()));
+        }
+
+        return result.toArray(new Segment[result.size()]);
     }
 
     @Override
     public String format(Object... args)
+    {
+        convertThrowables(args);
+
+        if (!isCompiled(args))
+        {
+            return String.format(locale, format, args);
+        }
+
+        StringBuilder builder = new StringBuilder(estimatedLength);
+
+        appendSegments(builder, args);
+
+        return builder.toString();
+    }
+
+    @Override
+    public void formatTo(StringBuilder builder, Object... args)
+    {
+        convertThrowables(args);
+
+        if (!isCompiled(args))
+        {
+            builder.append(String.format(locale, format, args));
+            return;
+        }
+
+        appendSegments(builder, args);
+    }
+
+    private boolean isCompiled(Object[] args)
+    {
+        return segments != null && argumentCount <= args.length;
+    }
+
+    private void appendSegments(StringBuilder builder, Object[] args)
+    {
+        for (Segment segment : segments)
+        {
+            segment.append(builder, args, locale, localizedDigits);
+        }
+    }
+
+    private static void convertThrowables(Object[] args)
     {
         for (int i = 0; i < args.length; i++)
         {
@@ -44,11 +361,6 @@ public class MessageFormatterImpl implements MessageFormatter
                 args[i] = ExceptionUtils.toMessage((Throwable) arg);
             }
         }
-
-        // Might be tempting to create a Formatter object and just keep reusing it ... but
-        // Formatters are not threadsafe.
-
-        return String.format(locale, format, args);
     }
 
     /**
@@ -12,7 +12,10 @@
 
 package org.apache.tapestry5.commons.services;
 
+import java.util.Collections;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * An object which manages a list of {@link org.apache.tapestry5.commons.services.InvalidationListener}s. There are multiple
@@ -55,4 +58,25 @@ public interface InvalidationEventHub
      * @since 5.4
      */
     void clearOnInvalidation(Map<?,?> map);
+
+    /**
+     * Adds a callback that is invoked when underlying tracked resources have changed, and is passed the URLs (in
+     * external form) of the changed resources. When the hub can not narrow the change down to specific resources, the
+     * set is empty, and the callback should discard everything it has cached. Callbacks added with
+     * {@link #addInvalidationCallback(Runnable)} are invoked for every change. Does nothing in production mode.
+     *
+     * The default implementation always passes an empty set.
+     *
+     * @since 5.7.0
+     */
+    default void addResourceInvalidationCallback(final Consumer<Set<String>> callback)
+    {
+        addInvalidationCallback(new Runnable()
+        {
+            public void run()
+            {
+                callback.accept(Collections.<String>emptySet());
+            }
+        });
+    }
 }
@@ -63,6 +63,35 @@ public interface TypeCoercer
      */
     <S, T> Coercion<S, T> getCoercion(Class<S> sourceType, Class<T> targetType);
 
+    /**
+     * Returns a coercion from any value to the target type; the equivalent of invoking {@link #coerce(Object, Class)}
+     * with the given target type, but without the cost of locating the coercions to the target type each time. This is
+     * intended for code that coerces many values to the same type, and can keep the result (for example, in a
+     * parameter conduit, for the type of the parameter field).
+     *
+     * Coercions from specific types are still resolved (and cached) as needed; the returned coercion remains valid after
+     * the {@linkplain #clearCache() cache is cleared}. As with {@link #getCoercion(Class, Class)}, holding the returned
+     * coercion will keep the target type (and its ClassLoader) from being reclaimed.
+     *
+     * @param <T>
+     *            target type (output)
+     * @param targetType
+     *            defines the target type; primitive types are coerced to the equivalent wrapper type
+     * @return a coercion that coerces its input (which may be null) to the target type
+     * @since 5.7.0
+     */
+    default <T> Coercion<Object, T> getCoercionTo(final Class<T> targetType)
+    {
+        return new Coercion<Object, T>()
+        {
+            @Override
+            public T coerce(Object input)
+            {
+                return TypeCoercer.this.coerce(input, targetType);
+            }
+        };
+    }
+
     /**
      * Used primarily inside test suites, this method performs the same steps as {@link #coerce(Object, Class)}, but
      * returns a string describing the series of coercions, such as "Object --&gt; String --&gt; Long --&gt; Integer".
@@ -1,4 +1,4 @@
-// Copyright 2011, 2012 The Apache Software Foundation
+// Copyright 2011, 2012, 2021 The Apache Software Foundation
 //
 // Licensed under the Apache License, Version 2.0 (the "License");
 // you may not use this file except in compliance with the License.
@@ -63,7 +63,7 @@ class MethodAdviceManager
         isVoid = description.returnType.equals("void");
 
         invocationClassName = String.format("%s$Invocation_%s_%s", plasticClass.className, description.methodName,
-                PlasticUtils.nextUID());
+                plasticClass.nextUID());
 
         invocationClassNode = new ClassNode();
 
@@ -79,7 +79,7 @@ class MethodAdviceManager
 
         createGetParameter();
 
-        newMethodName = String.format("advised$%s_%s", description.methodName, PlasticUtils.nextUID());
+        newMethodName = String.format("advised$%s_%s", description.methodName, plasticClass.nextUID());
 
         createProceedToAdvisedMethod();
     }
@@ -373,7 +373,7 @@ class MethodAdviceManager
         plasticClass.pool.realize(plasticClass.className, ClassType.METHOD_INVOCATION, invocationClassNode);
 
         String fieldName = String.format("methodinvocationbundle_%s_%s", description.methodName,
-                PlasticUtils.nextUID());
+                plasticClass.nextUID());
 
         MethodAdvice[] adviceArray = advice.toArray(new MethodAdvice[advice.size()]);
         MethodInvocationBundle bundle = new MethodInvocationBundle(plasticClass.className, description, adviceArray);
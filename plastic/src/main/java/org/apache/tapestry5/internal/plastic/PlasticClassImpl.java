@@ -109,12 +109,18 @@ public class PlasticClassImpl extends Lockable implements PlasticClass, Internal
 
     /**
      * Methods that require special attention inside {@link #createInstantiator()} because they
-     * have method advice.
+     * have method advice. This, and the other sets of fields, methods and method nodes, keep their insertion order, so
+     * that transforming the class the same way always results in the same bytecode.
      */
-    final Set<PlasticMethodImpl> advisedMethods = PlasticInternalUtils.newSet();
+    final Set<PlasticMethodImpl> advisedMethods = new LinkedHashSet<>();
 
     final NameCache nameCache = new NameCache();
 
+    /**
+     * Used to generate unique names for the members and classes introduced into this class; see {@link #nextUID()}.
+     */
+    private int uidCounter;
+
     // This is generated from fields, as necessary
     List<PlasticField> unclaimedFields;
 
@@ -127,11 +133,11 @@ public class PlasticClassImpl extends Lockable implements PlasticClass, Internal
     // MethodNodes in which field transformations should occur; this is most existing and
     // introduced methods, outside of special access methods.
 
-    final Set<MethodNode> fieldTransformMethods = PlasticInternalUtils.newSet();
+    final Set<MethodNode> fieldTransformMethods = new LinkedHashSet<>();
 
     // Tracks any methods that the Shim class uses to gain access to fields; used to ensure that
     // such methods are not optimized away incorrectly.
-    final Set<MethodNode> shimInvokedMethods = PlasticInternalUtils.newSet();
+    final Set<MethodNode> shimInvokedMethods = new LinkedHashSet<>();
 
 
     /**
@@ -161,11 +167,11 @@ public class PlasticClassImpl extends Lockable implements PlasticClass, Internal
 
     // Set of fields that need to contribute to the shim and gain access to it
 
-    final Set<PlasticFieldImpl> shimFields = PlasticInternalUtils.newSet();
+    final Set<PlasticFieldImpl> shimFields = new LinkedHashSet<>();
 
     // Set of methods that need to contribute to the shim and gain access to it
 
-    final Set<PlasticMethodImpl> shimMethods = PlasticInternalUtils.newSet();
+    final Set<PlasticMethodImpl> shimMethods = new LinkedHashSet<>();
 
     final ClassNode implementationClassNode;
 
@@ -898,7 +904,18 @@ public class PlasticClassImpl extends Lockable implements PlasticClass, Internal
 
     String makeUnique(Set<String> values, String input)
     {
-        return values.contains(input) ? input + "$" + PlasticUtils.nextUID() : input;
+        return values.contains(input) ? input + "$" + nextUID() : input;
+    }
+
+    /**
+     * Returns a string to make the name of a member or class introduced into this class unique. Unlike
+     * {@link PlasticUtils#nextUID()}, this is the same each time the class is transformed in the same way, so that
+     * the resulting bytecode is the same (which is what allows it to be {@linkplain org.apache.tapestry5.plastic.ClassBytecodeCache
+     * cached}). The class name's hash code keeps the names distinct from those introduced into a base or sub-class.
+     */
+    String nextUID()
+    {
+        return Integer.toHexString(className.hashCode()) + "_" + Integer.toHexString(uidCounter++);
     }
 
     @Override
@@ -1076,7 +1093,7 @@ public class PlasticClassImpl extends Lockable implements PlasticClass, Internal
 
     public PlasticClassHandleShim createShimInstance()
     {
-        String shimClassName = String.format("%s$Shim_%s", classNode.name, PlasticUtils.nextUID());
+        String shimClassName = String.format("%s$Shim_%s", classNode.name, nextUID());
 
         ClassNode shimClassNode = new ClassNode();
 
@@ -27,6 +27,8 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Modifier;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
 import java.util.concurrent.CopyOnWriteArrayList;
 
@@ -104,6 +106,8 @@ public class PlasticClassPool implements ClassLoaderDelegate, Opcodes, PlasticCl
 
     private final Set<TransformationOption> options;
 
+    private final ClassBytecodeCache bytecodeCache;
+
     /**
      * Creates the pool with a set of controlled packages; all classes in the controlled packages are loaded by the
      * pool's class loader, and all top-level classes in the controlled packages are transformed via the delegate.
@@ -119,11 +123,26 @@ public class PlasticClassPool implements ClassLoaderDelegate, Opcodes, PlasticCl
      */
     public PlasticClassPool(ClassLoader parentLoader, PlasticManagerDelegate delegate, Set<String> controlledPackages,
                             Set<TransformationOption> options)
+    {
+        this(parentLoader, delegate, controlledPackages, options, null);
+    }
+
+    /**
+     * As with {@link #PlasticClassPool(ClassLoader, PlasticManagerDelegate, Set, Set)}, but with an optional cache
+     * of final bytecode.
+     *
+     * @param bytecodeCache
+     *         used to reuse the bytecode of classes from a prior run; may be null
+     * @since 5.7.0
+     */
+    public PlasticClassPool(ClassLoader parentLoader, PlasticManagerDelegate delegate, Set<String> controlledPackages,
+                            Set<TransformationOption> options, ClassBytecodeCache bytecodeCache)
     {
         loader = new PlasticClassLoader(parentLoader, this);
         this.delegate = delegate;
         this.controlledPackages = controlledPackages;
         this.options = options;
+        this.bytecodeCache = bytecodeCache;
     }
 
     public ClassLoader getClassLoader()
@@ -201,6 +220,36 @@ public class PlasticClassPool implements ClassLoaderDelegate, Opcodes, PlasticCl
     }
 
     private byte[] toBytecode(ClassNode classNode)
+    {
+        if (bytecodeCache == null)
+        {
+            return computeBytecode(classNode);
+        }
+
+        String className = PlasticInternalUtils.toClassName(classNode.name);
+
+        // Writing the class without computing frames or maximums is much cheaper than the real thing, and
+        // is sufficient to identify the class's content.
+
+        ClassWriter writer = new ClassWriter(0);
+
+        classNode.accept(writer);
+
+        String fingerprint = fingerprint(writer.toByteArray());
+
+        byte[] bytecode = bytecodeCache.get(className, fingerprint);
+
+        if (bytecode == null)
+        {
+            bytecode = computeBytecode(classNode);
+
+            bytecodeCache.put(className, fingerprint, bytecode);
+        }
+
+        return bytecode;
+    }
+
+    private byte[] computeBytecode(ClassNode classNode)
     {
         ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_FRAMES | ClassWriter.COMPUTE_MAXS);
 
@@ -209,6 +258,26 @@ public class PlasticClassPool implements ClassLoaderDelegate, Opcodes, PlasticCl
         return writer.toByteArray();
     }
 
+    private static String fingerprint(byte[] bytecode)
+    {
+        try
+        {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(bytecode);
+
+            StringBuilder builder = new StringBuilder(digest.length * 2);
+
+            for (byte b : digest)
+            {
+                builder.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+            }
+
+            return builder.toString();
+        } catch (NoSuchAlgorithmException ex)
+        {
+            throw new RuntimeException(ex);
+        }
+    }
+
     public AnnotationAccess createAnnotationAccess(String className)
     {
         try
@@ -287,7 +287,7 @@ class PlasticMethodImpl extends PlasticMember implements PlasticMethod, Comparab
 
     private String createAccessMethod()
     {
-        String name = String.format("%s$access%s", node.name, PlasticUtils.nextUID());
+        String name = String.format("%s$access%s", node.name, plasticClass.nextUID());
 
         // Kind of awkward that exceptions are specified as String[] when what we have handy is List<String>
         MethodNode mn = new MethodNode(Opcodes.ACC_SYNTHETIC | Opcodes.ACC_FINAL, name, node.desc, node.signature, null);
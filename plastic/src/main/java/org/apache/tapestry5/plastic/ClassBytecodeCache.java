@@ -0,0 +1,57 @@
+// Copyright 2021 The Apache Software Foundation
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.apache.tapestry5.plastic;
+
+/**
+ * Optional cache for the final bytecode of classes loaded by the {@link PlasticManager}. Computing stack map frames
+ * for transformed and generated classes is the most expensive part of turning a class into bytecode, and the
+ * result depends only on the class itself (and the hierarchy of the classes it references). With a cache, each class
+ * is first fingerprinted (using a cheap, frame-less rendering of its bytecode); if bytecode for that fingerprint was
+ * stored previously (typically, by an earlier run of the same application), it is reused.
+ *
+ * The transformations themselves are still executed; they are responsible for the state (injected values, conduits,
+ * and so forth) that transformed classes obtain at runtime, and that can not be cached.
+ *
+ * Implementations must be thread safe, and should never throw an exception; a cache that fails should simply behave
+ * as if empty.
+ *
+ * @see PlasticManager.PlasticManagerBuilder#bytecodeCache(ClassBytecodeCache)
+ * @since 5.7.0
+ */
+public interface ClassBytecodeCache
+{
+    /**
+     * Returns previously stored bytecode.
+     *
+     * @param className
+     *         fully qualified name of the class
+     * @param fingerprint
+     *         identifies the content of the class; a hex string
+     * @return the bytecode, or null if not cached
+     */
+    byte[] get(String className, String fingerprint);
+
+    /**
+     * Stores bytecode for later reuse.
+     *
+     * @param className
+     *         fully qualified name of the class
+     * @param fingerprint
+     *         identifies the content of the class; a hex string
+     * @param bytecode
+     *         the complete bytecode, including stack map frames
+     */
+    void put(String className, String fingerprint, byte[] bytecode);
+}
@@ -48,6 +48,8 @@ public class PlasticManager implements PlasticClassListenerHub
 
         private final Set<TransformationOption> options = EnumSet.noneOf(TransformationOption.class);
 
+        private ClassBytecodeCache bytecodeCache;
+
         private PlasticManagerBuilder(ClassLoader loader)
         {
             assert loader != null;
@@ -92,6 +94,22 @@ public class PlasticManager implements PlasticClassListenerHub
             return this;
         }
 
+        /**
+         * Sets a cache used to reuse the bytecode of classes loaded in an earlier run. By default, there is no cache.
+         *
+         * @since 5.7.0
+         */
+        public PlasticManagerBuilder bytecodeCache(ClassBytecodeCache cache)
+        {
+            assert cache != null;
+
+            check();
+
+            this.bytecodeCache = cache;
+
+            return this;
+        }
+
         /**
          * Creates the PlasticManager with the current set of options.
          * 
@@ -101,7 +119,7 @@ public class PlasticManager implements PlasticClassListenerHub
         {
             lock();
 
-            return new PlasticManager(loader, delegate, packages, options);
+            return new PlasticManager(loader, delegate, packages, options, bytecodeCache);
         }
     }
 
@@ -132,15 +150,17 @@ public class PlasticManager implements PlasticClassListenerHub
      *            (or sub-packages) will be passed to the delegate for transformation
      * @param options
      *            used when transforming classes
+     * @param bytecodeCache
+     *            cache of final bytecode, or null
      */
     private PlasticManager(ClassLoader parentClassLoader, PlasticManagerDelegate delegate,
-            Set<String> controlledPackageNames, Set<TransformationOption> options)
+            Set<String> controlledPackageNames, Set<TransformationOption> options, ClassBytecodeCache bytecodeCache)
     {
         assert parentClassLoader != null;
         assert delegate != null;
         assert controlledPackageNames != null;
 
-        pool = new PlasticClassPool(parentClassLoader, delegate, controlledPackageNames, options);
+        pool = new PlasticClassPool(parentClassLoader, delegate, controlledPackageNames, options, bytecodeCache);
     }
 
     /**
@@ -0,0 +1,119 @@
+package org.apache.tapestry5.plastic
+
+import org.apache.tapestry5.internal.plastic.StandardDelegate
+import testsubjects.InjectionSubject
+import testsubjects.MultipleFields
+import testsubjects.MultipleMethods
+
+class BytecodeCaching extends AbstractPlasticSpecification {
+
+    class MapCache implements ClassBytecodeCache {
+
+        def storage = [:]
+
+        def hits = 0
+
+        byte[] get(String className, String fingerprint) {
+            def result = storage["$className:$fingerprint"]
+
+            if (result != null) hits++
+
+            return result
+        }
+
+        void put(String className, String fingerprint, byte[] bytecode) {
+            storage["$className:$fingerprint"] = bytecode
+        }
+    }
+
+    PlasticManager createCachingMgr(ClassBytecodeCache cache, PlasticClassTransformer transformer) {
+        PlasticManager.withContextClassLoader()
+            .delegate(new StandardDelegate(transformer))
+            .packages(["testsubjects"])
+            .bytecodeCache(cache)
+            .create()
+    }
+
+    def "bytecode is reused by a later manager"() {
+        def cache = new MapCache()
+        def transformer = { it.introduceField(String, "cachedField") } as PlasticClassTransformer
+
+        when:
+
+        def first = createCachingMgr(cache, transformer).getClassInstantiator(InjectionSubject.name).newInstance()
+
+        then:
+
+        cache.storage.size() == 1
+        cache.hits == 0
+
+        when:
+
+        def second = createCachingMgr(cache, transformer).getClassInstantiator(InjectionSubject.name).newInstance()
+
+        then:
+
+        cache.storage.size() == 1
+        cache.hits == 1
+
+        first.class != second.class
+        second.class.getDeclaredField("cachedField").type == String
+    }
+
+    def "a different transformation is not satisfied from the cache"() {
+        def cache = new MapCache()
+
+        when:
+
+        createCachingMgr(cache, { it.introduceField(String, "first") } as PlasticClassTransformer)
+            .getClassInstantiator(InjectionSubject.name)
+
+        createCachingMgr(cache, { it.introduceField(String, "second") } as PlasticClassTransformer)
+            .getClassInstantiator(InjectionSubject.name)
+
+        then:
+
+        cache.storage.size() == 2
+        cache.hits == 0
+    }
+
+    def "classes with advice, handles and a shim are satisfied from the cache"() {
+        def cache = new MapCache()
+        def justProceed = { inv -> inv.proceed() } as MethodAdvice
+        def transformer = { PlasticClass pc ->
+            pc.allFields.each { it.handle }
+            pc.methods.each {
+                it.handle
+                it.addAdvice(justProceed)
+            }
+        } as PlasticClassTransformer
+
+        when:
+
+        def mgr = createCachingMgr(cache, transformer)
+        mgr.getClassInstantiator(MultipleFields.name)
+        mgr.getClassInstantiator(MultipleMethods.name)
+
+        def stored = cache.storage.size()
+
+        then:
+
+        // Each class, its shim and a MethodInvocation for each method.
+
+        stored > 4
+        cache.hits == 0
+
+        when:
+
+        mgr = createCachingMgr(cache, transformer)
+        mgr.getClassInstantiator(MultipleFields.name)
+        def o = mgr.getClassInstantiator(MultipleMethods.name).newInstance()
+
+        o.betty(1, 2)
+
+        then:
+
+        cache.storage.size() == stored
+        cache.hits == stored
+    }
+}
@@ -0,0 +1,35 @@
+// Copyright 2021 The Apache Software Foundation
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.apache.tapestry5.benchmarks;
+
+import org.apache.tapestry5.test.PageTester;
+
+/**
+ * Creates the {@link PageTester} for the benchmark application (in package
+ * {@code org.apache.tapestry5.benchmarks.app}), used by the benchmarks that need Tapestry services or render pages.
+ */
+final class BenchmarkApplication
+{
+    static final String APP_PACKAGE = "org.apache.tapestry5.benchmarks.app";
+
+    private BenchmarkApplication()
+    {
+    }
+
+    static PageTester create()
+    {
+        return new PageTester(APP_PACKAGE, "benchmark", "src/main/webapp");
+    }
+}
@@ -0,0 +1,131 @@
+// Copyright 2021 The Apache Software Foundation
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.apache.tapestry5.benchmarks;
+
+import org.apache.tapestry5.services.ClientDataEncoder;
+import org.apache.tapestry5.services.ClientDataSink;
+import org.apache.tapestry5.test.PageTester;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encodes and decodes client data (as used for form data and client-persistent fields) with the
+ * {@link ClientDataEncoder}; that is, serialization, compression, HMAC signing and Base64 encoding.
+ *
+ * The compressors, inflaters and MACs used are pooled, so much of the cost is in allocation; run with
+ * {@code -Pjmh.include=ClientDataEncoder -Pjmh.args="-prof gc"} to report the bytes allocated per operation
+ * ({@code gc.alloc.rate.norm}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClientDataEncoderBenchmark
+{
+    /**
+     * Number of values stored in the client data.
+     */
+    @Param({"10", "500"})
+    public int size;
+
+    private PageTester tester;
+
+    private ClientDataEncoder encoder;
+
+    private ArrayList<Object> payload;
+
+    private String clientData;
+
+    @Setup
+    public void setup() throws IOException
+    {
+        tester = BenchmarkApplication.create();
+
+        encoder = tester.getService(ClientDataEncoder.class);
+
+        payload = new ArrayList<Object>();
+
+        for (int i = 0; i < size; i++)
+        {
+            payload.add(i % 2 == 0 ? "field_" + i : Integer.valueOf(i));
+        }
+
+        clientData = encode();
+    }
+
+    @TearDown
+    public void shutdown()
+    {
+        tester.shutdown();
+    }
+
+    @Benchmark
+    public String encode() throws IOException
+    {
+        ClientDataSink sink = encoder.createSink();
+
+        ObjectOutputStream stream = sink.getObjectOutputStream();
+
+        stream.writeObject(payload);
+
+        return sink.getClientData();
+    }
+
+    @Benchmark
+    public Object decode() throws IOException, ClassNotFoundException
+    {
+        ObjectInputStream stream = encoder.decodeClientData(clientData);
+
+        try
+        {
+            return stream.readObject();
+        } finally
+        {
+            stream.close();
+        }
+    }
+
+    @Benchmark
+    public Object round_trip() throws IOException, ClassNotFoundException
+    {
+        ObjectInputStream stream = encoder.decodeClientData(encode());
+
+        try
+        {
+            return stream.readObject();
+        } finally
+        {
+            stream.close();
+        }
+    }
+}
@@ -0,0 +1,106 @@
+// Copyright 2021 The Apache Software Foundation
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.apache.tapestry5.benchmarks;
+
+import org.apache.tapestry5.ioc.services.PerThreadValue;
+import org.apache.tapestry5.ioc.services.PerthreadManager;
+import org.apache.tapestry5.test.PageTester;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mutable component fields are stored per-thread (as {@link PerThreadValue}s), as page instances are shared between
+ * threads. This renders a page of many components with many fields, and measures the underlying
+ * {@link PerthreadManager} operations: reading and writing a set of values (as a component render does), followed by
+ * the cleanup at the end of a request.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FieldAccessBenchmark
+{
+    private PageTester tester;
+
+    private PerthreadManager perthreadManager;
+
+    private PerThreadValue<Object>[] values;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup()
+    {
+        tester = BenchmarkApplication.create();
+
+        // The first render loads the page, which is not what is being measured.
+
+        tester.renderPage("FieldsDemo");
+
+        perthreadManager = tester.getService(PerthreadManager.class);
+
+        values = new PerThreadValue[200];
+
+        for (int i = 0; i < values.length; i++)
+        {
+            values[i] = perthreadManager.createValue();
+        }
+    }
+
+    @TearDown
+    public void shutdown()
+    {
+        tester.shutdown();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public String render_field_heavy_page()
+    {
+        return tester.renderPage("FieldsDemo").toString();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void read_and_write_values(Blackhole blackhole)
+    {
+        for (PerThreadValue<Object> value : values)
+        {
+            value.set(value);
+        }
+
+        for (int pass = 0; pass < 4; pass++)
+        {
+            for (PerThreadValue<Object> value : values)
+            {
+                blackhole.consume(value.get());
+            }
+        }
+
+        perthreadManager.cleanup();
+    }
+}
@@ -0,0 +1,70 @@
+// Copyright 2021 The Apache Software Foundation
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.apache.tapestry5.benchmarks;
+
+import org.apache.tapestry5.test.PageTester;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A complete render, via {@link PageTester}, of a page containing a large
+ * {@link org.apache.tapestry5.corelib.components.Grid}; this covers the request pipeline, page pooling, the component
+ * rendering state machine, property conduits, type coercion and markup generation together (the rendered DOM is
+ * converted to markup, as it would be when streamed to the client). The state is
+ * per-thread, as a {@link PageTester} renders on the thread that invokes it.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GridRenderBenchmark
+{
+    private PageTester tester;
+
+    @Setup
+    public void setup()
+    {
+        tester = BenchmarkApplication.create();
+
+        // The first render loads the page, which is not what is being measured.
+
+        tester.renderPage("GridDemo");
+    }
+
+    @TearDown
+    public void shutdown()
+    {
+        tester.shutdown();
+    }
+
+    @Benchmark
+    public String render_grid_page()
+    {
+        return tester.renderPage("GridDemo").toString();
+    }
+}
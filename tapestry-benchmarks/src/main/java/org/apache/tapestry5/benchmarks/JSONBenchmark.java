@@ -0,0 +1,84 @@
+// Copyright 2021 The Apache Software Foundation
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.apache.tapestry5.benchmarks;
+
+import org.apache.tapestry5.json.JSONArray;
+import org.apache.tapestry5.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parses and serializes a {@link JSONObject} shaped like a typical partial page render response.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JSONBenchmark
+{
+    private JSONObject object;
+
+    private String compact;
+
+    @Setup
+    public void setup()
+    {
+        JSONArray inits = new JSONArray();
+
+        for (int i = 0; i < 50; i++)
+        {
+            inits.put(new JSONArray("t5/core/zone", new JSONObject("id", "zone_" + i, "update", "show",
+                    "index", i, "visible", i % 2 == 0, "ratio", i / 3.0)));
+        }
+
+        object = new JSONObject(
+                "content", "<div class=\"t-zone\">\n  \"Quoted\" & <escaped> content \u00e9\u00e8</div>",
+                "_tapestry", new JSONObject("inits", inits,
+                "libraries", new JSONArray("/assets/meta/core/t5-core.js", "/assets/meta/core/zone.js"),
+                "stylesheets", new JSONArray()));
+
+        compact = object.toCompactString();
+    }
+
+    @Benchmark
+    public Object parse()
+    {
+        return new JSONObject(compact);
+    }
+
+    @Benchmark
+    public String serialize_compact()
+    {
+        return object.toCompactString();
+    }
+
+    @Benchmark
+    public String serialize_pretty()
+    {
+        return object.toString(false);
+    }
+}
@@ -0,0 +1,116 @@
+// Copyright 2021 The Apache Software Foundation
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.apache.tapestry5.benchmarks;
+
+import org.apache.tapestry5.EventContext;
+import org.apache.tapestry5.commons.services.TypeCoercer;
+import org.apache.tapestry5.http.services.RequestGlobals;
+import org.apache.tapestry5.internal.services.ArrayEventContext;
+import org.apache.tapestry5.internal.test.TestableRequest;
+import org.apache.tapestry5.internal.test.TestableResponse;
+import org.apache.tapestry5.services.ComponentEventLinkEncoder;
+import org.apache.tapestry5.services.ComponentEventRequestParameters;
+import org.apache.tapestry5.services.PageRenderRequestParameters;
+import org.apache.tapestry5.test.PageTester;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Creates and decodes page render and component event links with {@link ComponentEventLinkEncoder}. The state is
+ * per-thread, as the request (and the per-thread services that depend on it) must be set up on the thread that runs
+ * the benchmark.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LinkEncoderBenchmark
+{
+    private PageTester tester;
+
+    private ComponentEventLinkEncoder encoder;
+
+    private TestableRequest request;
+
+    private PageRenderRequestParameters pageRenderParameters;
+
+    private ComponentEventRequestParameters componentEventParameters;
+
+    @Setup
+    public void setup()
+    {
+        tester = BenchmarkApplication.create();
+
+        encoder = tester.getService(ComponentEventLinkEncoder.class);
+        request = tester.getService(TestableRequest.class);
+
+        tester.getService(RequestGlobals.class).storeRequestResponse(request, tester.getService(TestableResponse.class));
+
+        TypeCoercer typeCoercer = tester.getService(TypeCoercer.class);
+
+        EventContext pageContext = new ArrayEventContext(typeCoercer, "alpha", 42);
+
+        pageRenderParameters = new PageRenderRequestParameters("GridDemo", pageContext, false);
+        componentEventParameters = new ComponentEventRequestParameters("GridDemo", "GridDemo", "grid.pager", "action",
+                pageContext, new ArrayEventContext(typeCoercer, 3));
+    }
+
+    @TearDown
+    public void shutdown()
+    {
+        tester.shutdown();
+    }
+
+    @Benchmark
+    public Object create_page_render_link()
+    {
+        return encoder.createPageRenderLink(pageRenderParameters).toURI();
+    }
+
+    @Benchmark
+    public Object create_component_event_link()
+    {
+        return encoder.createComponentEventLink(componentEventParameters, false).toURI();
+    }
+
+    @Benchmark
+    public Object decode_page_render_request()
+    {
+        request.clear().setPath("/griddemo/alpha/42");
+
+        return encoder.decodePageRenderRequest(request);
+    }
+
+    @Benchmark
+    public Object decode_component_event_request()
+    {
+        request.clear().setPath("/griddemo.grid.pager:action/3");
+
+        return encoder.decodeComponentEventRequest(request);
+    }
+}
@@ -0,0 +1,94 @@
+// Copyright 2021 The Apache Software Foundation
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.apache.tapestry5.benchmarks;
+
+import org.apache.tapestry5.dom.Document;
+import org.apache.tapestry5.dom.Element;
+import org.apache.tapestry5.dom.Html5MarkupModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Renders a DOM, a table of the given number of rows, to markup with {@link Element#toMarkup(PrintWriter)}. The
+ * cells contain text and attribute values that must be escaped.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MarkupBenchmark
+{
+    @Param({"10", "1000"})
+    public int rows;
+
+    private Element root;
+
+    @Setup
+    public void setup()
+    {
+        root = buildDocument().getRootElement();
+    }
+
+    private Document buildDocument()
+    {
+        Document document = new Document(new Html5MarkupModel());
+
+        Element table = document.newRootElement("html").element("body").element("table", "class", "t-data-grid");
+
+        for (int i = 0; i < rows; i++)
+        {
+            Element row = table.element("tr", "class", i % 2 == 0 ? "even" : "odd", "data-row", String.valueOf(i));
+
+            row.element("td", "class", "id").text(String.valueOf(i));
+            row.element("td", "class", "name").text("Name <" + i + "> & \"company\"");
+            row.element("td", "class", "email").element("a", "href", "mailto:user" + i + "@example.com?x=1&y=2")
+                    .text("user" + i + "@example.com");
+            row.element("td", "class", "amount").text(String.valueOf(i * 1.25));
+        }
+
+        return document;
+    }
+
+    @Benchmark
+    public String to_markup()
+    {
+        StringWriter writer = new StringWriter();
+
+        root.toMarkup(new PrintWriter(writer));
+
+        return writer.toString();
+    }
+
+    @Benchmark
+    public String build_and_render()
+    {
+        return buildDocument().toString();
+    }
+}
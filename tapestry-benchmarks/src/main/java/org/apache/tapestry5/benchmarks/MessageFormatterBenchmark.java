@@ -0,0 +1,89 @@
+// Copyright 2021 The Apache Software Foundation
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.apache.tapestry5.benchmarks;
+
+import org.apache.tapestry5.commons.MessageFormatter;
+import org.apache.tapestry5.commons.internal.util.MessageFormatterImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Formats a typical label and a typical validation message with a {@link MessageFormatter}, compared to
+ * {@link String#format(Locale, String, Object...)}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MessageFormatterBenchmark
+{
+    private static final String LABEL = "Showing %d to %d of %d %s";
+
+    private static final String VALIDATION = "You must provide at least %d characters for %s.";
+
+    private MessageFormatter label;
+
+    private MessageFormatter validation;
+
+    private final StringBuilder builder = new StringBuilder();
+
+    @Setup
+    public void setup()
+    {
+        label = new MessageFormatterImpl(LABEL, Locale.ENGLISH);
+        validation = new MessageFormatterImpl(VALIDATION, Locale.ENGLISH);
+    }
+
+    @Benchmark
+    public String string_format_label()
+    {
+        return String.format(Locale.ENGLISH, LABEL, 26, 50, 1250, "rows");
+    }
+
+    @Benchmark
+    public String format_label()
+    {
+        return label.format(26, 50, 1250, "rows");
+    }
+
+    @Benchmark
+    public int format_label_to_reused_builder()
+    {
+        builder.setLength(0);
+
+        label.formatTo(builder, 26, 50, 1250, "rows");
+
+        return builder.length();
+    }
+
+    @Benchmark
+    public String format_validation_message()
+    {
+        return validation.format(8, "Password");
+    }
+}
@@ -0,0 +1,114 @@
+// Copyright 2021 The Apache Software Foundation
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.apache.tapestry5.benchmarks;
+
+import org.apache.tapestry5.beanmodel.PropertyConduit;
+import org.apache.tapestry5.beanmodel.internal.services.PropertyConduitSourceImpl;
+import org.apache.tapestry5.beanmodel.services.PropertyConduitSource;
+import org.apache.tapestry5.benchmarks.app.data.Row;
+import org.apache.tapestry5.commons.internal.services.StringInterner;
+import org.apache.tapestry5.commons.services.PlasticProxyFactory;
+import org.apache.tapestry5.commons.services.PropertyAccess;
+import org.apache.tapestry5.commons.services.TypeCoercer;
+import org.apache.tapestry5.ioc.Registry;
+import org.apache.tapestry5.test.PageTester;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads and updates properties through the conduits generated by {@link PropertyConduitSource}, for a simple property
+ * and for a property path. Conduits are built both as generated classes (the default), and from method handles (see
+ * {@link org.apache.tapestry5.SymbolConstants#METHOD_HANDLE_PROPERTY_CONDUITS}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PropertyConduitBenchmark
+{
+    @Param({"false", "true"})
+    public boolean methodHandles;
+
+    private PageTester tester;
+
+    private PropertyConduit nameConduit;
+
+    private PropertyConduit cityConduit;
+
+    private final Row row = Row.createRows(1).get(0);
+
+    @Setup
+    public void setup()
+    {
+        tester = BenchmarkApplication.create();
+
+        Registry registry = tester.getRegistry();
+
+        PropertyConduitSource source = new PropertyConduitSourceImpl(registry.getService(PropertyAccess.class),
+                registry.getService("PlasticProxyFactory", PlasticProxyFactory.class),
+                registry.getService(TypeCoercer.class), registry.getService(StringInterner.class), methodHandles);
+
+        nameConduit = source.create(Row.class, "name");
+        cityConduit = source.create(Row.class, "address.city");
+    }
+
+    @TearDown
+    public void shutdown()
+    {
+        tester.shutdown();
+    }
+
+    @Benchmark
+    public Object get_property()
+    {
+        return nameConduit.get(row);
+    }
+
+    @Benchmark
+    public Object get_property_path()
+    {
+        return cityConduit.get(row);
+    }
+
+    @Benchmark
+    public Row set_property()
+    {
+        nameConduit.set(row, "Howard");
+
+        return row;
+    }
+
+    @Benchmark
+    public Row set_property_path()
+    {
+        cityConduit.set(row, "Portland");
+
+        return row;
+    }
+}
@@ -0,0 +1,121 @@
+// Copyright 2021 The Apache Software Foundation
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.apache.tapestry5.benchmarks;
+
+import org.apache.tapestry5.commons.services.Coercion;
+import org.apache.tapestry5.commons.services.TypeCoercer;
+import org.apache.tapestry5.ioc.Registry;
+import org.apache.tapestry5.ioc.RegistryBuilder;
+import org.apache.tapestry5.ioc.modules.TapestryIOCModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link TypeCoercer#coerce(Object, Class)}, for a no-op coercion, simple coercions and a compound coercion; also
+ * coercion through a coercion obtained from {@link TypeCoercer#getCoercionTo(Class)}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TypeCoercerBenchmark
+{
+    private Registry registry;
+
+    private TypeCoercer typeCoercer;
+
+    private Coercion<Object, Long> toLong;
+
+    private final Integer integerValue = 42;
+
+    private final String stringValue = "12345";
+
+    private final List<String> listValue = Arrays.asList("a", "b", "c");
+
+    @Setup
+    public void setup()
+    {
+        registry = new RegistryBuilder().add(TapestryIOCModule.class).build();
+        registry.performRegistryStartup();
+
+        typeCoercer = registry.getService(TypeCoercer.class);
+
+        toLong = typeCoercer.getCoercionTo(Long.class);
+    }
+
+    @TearDown
+    public void shutdown()
+    {
+        registry.shutdown();
+    }
+
+    @Benchmark
+    public Object integer_to_integer()
+    {
+        return typeCoercer.coerce(integerValue, Integer.class);
+    }
+
+    @Benchmark
+    public Object string_to_long()
+    {
+        return typeCoercer.coerce(stringValue, Long.class);
+    }
+
+    @Benchmark
+    public Object string_to_long_via_coercion()
+    {
+        return toLong.coerce(stringValue);
+    }
+
+    @Benchmark
+    public Object integer_to_long()
+    {
+        return typeCoercer.coerce(integerValue, Long.class);
+    }
+
+    @Benchmark
+    public Object string_to_big_decimal()
+    {
+        return typeCoercer.coerce(stringValue, BigDecimal.class);
+    }
+
+    @Benchmark
+    public Object string_to_boolean()
+    {
+        return typeCoercer.coerce("true", Boolean.class);
+    }
+
+    @Benchmark
+    public Object list_to_object_array()
+    {
+        return typeCoercer.coerce(listValue, Object[].class);
+    }
+}
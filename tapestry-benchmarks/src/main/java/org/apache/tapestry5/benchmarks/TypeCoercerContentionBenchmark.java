@@ -0,0 +1,101 @@
+// Copyright 2021 The Apache Software Foundation
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.apache.tapestry5.benchmarks;
+
+import org.apache.tapestry5.commons.services.TypeCoercer;
+import org.apache.tapestry5.ioc.Registry;
+import org.apache.tapestry5.ioc.RegistryBuilder;
+import org.apache.tapestry5.ioc.modules.TapestryIOCModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Many threads coercing, through a single {@link TypeCoercer}, to target types that are not covered by the table of
+ * basic coercions; this measures contention in locating the coercions to each target type. Compare the throughput
+ * with the single threaded results from {@link TypeCoercerBenchmark}, or run with {@code -Pjmh.args="-t <n>"} for a
+ * different number of threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(Threads.MAX)
+@Fork(1)
+public class TypeCoercerContentionBenchmark
+{
+    private Registry registry;
+
+    private TypeCoercer typeCoercer;
+
+    private final Object[] arrayValue = {"a", "b", "c"};
+
+    private final List<String> listValue = Arrays.asList("a", "b", "c");
+
+    private final StringBuilder builderValue = new StringBuilder("12345");
+
+    @Setup
+    public void setup()
+    {
+        registry = new RegistryBuilder().add(TapestryIOCModule.class).build();
+        registry.performRegistryStartup();
+
+        typeCoercer = registry.getService(TypeCoercer.class);
+    }
+
+    @TearDown
+    public void shutdown()
+    {
+        registry.shutdown();
+    }
+
+    @Benchmark
+    public Object string_to_enum()
+    {
+        return typeCoercer.coerce("SECONDS", TimeUnit.class);
+    }
+
+    @Benchmark
+    public Object array_to_list()
+    {
+        return typeCoercer.coerce(arrayValue, List.class);
+    }
+
+    @Benchmark
+    public Object list_to_object_array()
+    {
+        return typeCoercer.coerce(listValue, Object[].class);
+    }
+
+    @Benchmark
+    public Object string_builder_to_long()
+    {
+        return typeCoercer.coerce(builderValue, Long.class);
+    }
+}
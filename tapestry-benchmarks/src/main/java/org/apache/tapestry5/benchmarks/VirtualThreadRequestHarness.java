@@ -0,0 +1,516 @@
+// Copyright 2021 The Apache Software Foundation
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.apache.tapestry5.benchmarks;
+
+import org.apache.tapestry5.TapestryFilter;
+import org.apache.tapestry5.http.internal.TapestryHttpInternalConstants;
+
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletContext;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Pushes thousands of concurrent requests through a {@link TapestryFilter} (for the benchmark application), each on its
+ * own virtual thread, as a servlet container that uses virtual threads would; this checks that per-request state
+ * (stored by the {@link org.apache.tapestry5.ioc.services.PerthreadManager}) does not leak between requests. Each
+ * request renders the Echo page for a distinct id, and the response must contain that id, and only that id.
+ *
+ * Virtual threads require Java 21 or later; on earlier JVMs, the requests are processed by a pool of platform threads
+ * instead. Run with {@code ./gradlew :tapestry-benchmarks:requestHarness}, optionally with
+ * {@code -Pharness.requests=<n>}. The process exits with status 1 if any request failed.
+ */
+public class VirtualThreadRequestHarness
+{
+    private static final int PLATFORM_THREADS = 200;
+
+    private final TapestryFilter filter = new TapestryFilter();
+
+    private final Map<String, Object> contextAttributes = new ConcurrentHashMap<String, Object>();
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+
+    private final AtomicInteger failures = new AtomicInteger();
+
+    private final AtomicReference<String> firstFailure = new AtomicReference<String>();
+
+    public static void main(String[] args) throws Exception
+    {
+        int requests = args.length == 0 ? 10000 : Integer.parseInt(args[0]);
+
+        VirtualThreadRequestHarness harness = new VirtualThreadRequestHarness();
+
+        boolean passed = harness.run(requests);
+
+        System.exit(passed ? 0 : 1);
+    }
+
+    private boolean run(int requests) throws Exception
+    {
+        filter.init(newFilterConfig());
+
+        try
+        {
+            // The first requests load the page.
+
+            execute(Math.max(requests / 10, 1), "warmup");
+
+            failures.set(0);
+            maxInFlight.set(0);
+
+            execute(requests, "run");
+        } finally
+        {
+            filter.destroy();
+        }
+
+        if (failures.get() != 0)
+        {
+            System.out.printf("%,d requests failed; the first: %s%n", failures.get(), firstFailure.get());
+
+            return false;
+        }
+
+        return true;
+    }
+
+    private void execute(int requests, String label) throws Exception
+    {
+        ExecutorService executor = newExecutor();
+
+        final CountDownLatch start = new CountDownLatch(1);
+
+        List<Future<?>> futures = new ArrayList<Future<?>>(requests);
+
+        for (int i = 0; i < requests; i++)
+        {
+            final String requestId = label + i;
+
+            futures.add(executor.submit(new Runnable()
+            {
+                public void run()
+                {
+                    try
+                    {
+                        start.await();
+
+                        process(requestId);
+                    } catch (Throwable ex)
+                    {
+                        fail(requestId, ex.toString());
+                    }
+                }
+            }));
+        }
+
+        long startNanos = System.nanoTime();
+
+        start.countDown();
+
+        for (Future<?> future : futures)
+        {
+            future.get();
+        }
+
+        long elapsedNanos = System.nanoTime() - startNanos;
+
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+
+        System.out.printf("%s: %,d requests in %,d ms (%,.0f requests/second), at most %,d concurrently, %,d failed%n",
+                label, requests, TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                requests / (elapsedNanos / 1e9), maxInFlight.get(), failures.get());
+    }
+
+    private void process(String requestId) throws Exception
+    {
+        int current = inFlight.incrementAndGet();
+
+        int max = maxInFlight.get();
+
+        while (current > max && !maxInFlight.compareAndSet(max, current))
+        {
+            max = maxInFlight.get();
+        }
+
+        try
+        {
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+            AtomicInteger status = new AtomicInteger(HttpServletResponse.SC_OK);
+
+            filter.doFilter(newRequest("/echo/" + requestId), newResponse(body, status), new FilterChain()
+            {
+                public void doFilter(ServletRequest request, ServletResponse response)
+                {
+                    ((HttpServletResponse) response).setStatus(HttpServletResponse.SC_NOT_FOUND);
+                }
+            });
+
+            check(requestId, status.get(), new String(body.toByteArray(), StandardCharsets.UTF_8));
+        } finally
+        {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    private void check(String requestId, int status, String content)
+    {
+        if (status != HttpServletResponse.SC_OK)
+        {
+            fail(requestId, "status " + status);
+            return;
+        }
+
+        String start = "request:" + requestId + ":";
+        String end = "end:" + requestId + ":";
+
+        // Any other id (in the same position) would indicate state shared with another request.
+
+        if (!content.contains(start) || !content.contains(end)
+                || content.indexOf("request:") != content.indexOf(start)
+                || content.indexOf("end:") != content.indexOf(end))
+        {
+            fail(requestId, "unexpected content: " + content);
+        }
+    }
+
+    private void fail(String requestId, String message)
+    {
+        failures.incrementAndGet();
+
+        firstFailure.compareAndSet(null, requestId + ": " + message);
+    }
+
+    /**
+     * Uses Executors.newVirtualThreadPerTaskExecutor(), when available.
+     */
+    private static ExecutorService newExecutor()
+    {
+        try
+        {
+            Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+
+            return (ExecutorService) method.invoke(null);
+        } catch (NoSuchMethodException ex)
+        {
+            System.out.printf("Virtual threads are not available on Java %s; using %d platform threads.%n",
+                    System.getProperty("java.version"), PLATFORM_THREADS);
+
+            return Executors.newFixedThreadPool(PLATFORM_THREADS);
+        } catch (Exception ex)
+        {
+            throw new RuntimeException(ex);
+        }
+    }
+
+    private FilterConfig newFilterConfig()
+    {
+        final Map<String, String> parameters = Collections.singletonMap(
+                TapestryHttpInternalConstants.TAPESTRY_APP_PACKAGE_PARAM, BenchmarkApplication.APP_PACKAGE);
+
+        final ServletContext context = stub(ServletContext.class, new Stub()
+        {
+            Object invoke(String name, Object[] args)
+            {
+                if (name.equals("getInitParameter"))
+                {
+                    return parameters.get(args[0]);
+                }
+
+                if (name.equals("getInitParameterNames"))
+                {
+                    return Collections.enumeration(parameters.keySet());
+                }
+
+                if (name.equals("getContextPath"))
+                {
+                    return "";
+                }
+
+                return attributes(contextAttributes, name, args);
+            }
+        });
+
+        return stub(FilterConfig.class, new Stub()
+        {
+            Object invoke(String name, Object[] args)
+            {
+                if (name.equals("getFilterName"))
+                {
+                    return "benchmark";
+                }
+
+                return name.equals("getServletContext") ? context : DEFAULT;
+            }
+        });
+    }
+
+    private static HttpServletRequest newRequest(final String path)
+    {
+        final Map<String, Object> attributes = new ConcurrentHashMap<String, Object>();
+
+        return stub(HttpServletRequest.class, new Stub()
+        {
+            Object invoke(String name, Object[] args)
+            {
+                if (name.equals("getServletPath") || name.equals("getRequestURI"))
+                {
+                    return path;
+                }
+
+                if (name.equals("getMethod"))
+                {
+                    return "GET";
+                }
+
+                if (name.equals("getContextPath"))
+                {
+                    return "";
+                }
+
+                if (name.equals("getLocale"))
+                {
+                    return Locale.ENGLISH;
+                }
+
+                if (name.equals("getLocales"))
+                {
+                    return Collections.enumeration(Collections.singleton(Locale.ENGLISH));
+                }
+
+                if (name.equals("getCharacterEncoding"))
+                {
+                    return "UTF-8";
+                }
+
+                if (name.equals("getServerName") || name.equals("getRemoteHost"))
+                {
+                    return "localhost";
+                }
+
+                if (name.equals("getServerPort") || name.equals("getLocalPort"))
+                {
+                    return 8080;
+                }
+
+                if (name.equals("getScheme"))
+                {
+                    return "http";
+                }
+
+                if (name.equals("getProtocol"))
+                {
+                    return "HTTP/1.1";
+                }
+
+                return attributes(attributes, name, args);
+            }
+        });
+    }
+
+    private static HttpServletResponse newResponse(final ByteArrayOutputStream body, final AtomicInteger status)
+    {
+        final ServletOutputStream outputStream = new ServletOutputStream()
+        {
+            @Override
+            public void write(int b)
+            {
+                body.write(b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len)
+            {
+                body.write(b, off, len);
+            }
+        };
+
+        return stub(HttpServletResponse.class, new Stub()
+        {
+            Object invoke(String name, Object[] args)
+            {
+                if (name.equals("getOutputStream"))
+                {
+                    return outputStream;
+                }
+
+                if (name.equals("getWriter"))
+                {
+                    return new PrintWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+                }
+
+                if (name.equals("getCharacterEncoding"))
+                {
+                    return "UTF-8";
+                }
+
+                if (name.equals("encodeURL") || name.equals("encodeRedirectURL"))
+                {
+                    return args[0];
+                }
+
+                if (name.equals("setStatus") || name.equals("sendError"))
+                {
+                    status.set((Integer) args[0]);
+
+                    return null;
+                }
+
+                if (name.equals("sendRedirect"))
+                {
+                    status.set(HttpServletResponse.SC_FOUND);
+
+                    return null;
+                }
+
+                if (name.equals("getStatus"))
+                {
+                    return status.get();
+                }
+
+                return DEFAULT;
+            }
+        });
+    }
+
+    /**
+     * Implements the attribute methods of the servlet API over a map.
+     */
+    private static Object attributes(Map<String, Object> attributes, String name, Object[] args)
+    {
+        if (name.equals("getAttribute"))
+        {
+            return attributes.get(args[0]);
+        }
+
+        if (name.equals("getAttributeNames"))
+        {
+            return Collections.enumeration(attributes.keySet());
+        }
+
+        if (name.equals("setAttribute") && args[1] != null)
+        {
+            attributes.put((String) args[0], args[1]);
+
+            return null;
+        }
+
+        if (name.equals("setAttribute") || name.equals("removeAttribute"))
+        {
+            attributes.remove(args[0]);
+
+            return null;
+        }
+
+        return Stub.DEFAULT;
+    }
+
+    /**
+     * Implements the methods of a servlet API interface that the harness cares about; for any other method,
+     * {@link #DEFAULT} is returned, and the method returns null, false, zero (or -1 for a date header) or an empty
+     * collection.
+     */
+    private abstract static class Stub implements InvocationHandler
+    {
+        static final Object DEFAULT = new Object();
+
+        abstract Object invoke(String name, Object[] args);
+
+        public Object invoke(Object proxy, Method method, Object[] args)
+        {
+            Object result = invoke(method.getName(), args);
+
+            return result == DEFAULT ? defaultValue(method) : result;
+        }
+
+        private static Object defaultValue(Method method)
+        {
+            Class type = method.getReturnType();
+
+            if (type == boolean.class)
+            {
+                return false;
+            }
+
+            if (type == long.class)
+            {
+                return method.getName().equals("getDateHeader") ? -1L : 0L;
+            }
+
+            if (type == int.class)
+            {
+                return method.getName().equals("getIntHeader") ? -1 : 0;
+            }
+
+            if (type == Enumeration.class)
+            {
+                return Collections.emptyEnumeration();
+            }
+
+            if (type == Map.class)
+            {
+                return Collections.emptyMap();
+            }
+
+            if (type == Set.class)
+            {
+                return Collections.emptySet();
+            }
+
+            if (type == Collection.class)
+            {
+                return Collections.emptyList();
+            }
+
+            return null;
+        }
+    }
+
+    private static <T> T stub(Class<T> type, Stub stub)
+    {
+        return type.cast(Proxy.newProxyInstance(VirtualThreadRequestHarness.class.getClassLoader(),
+                new Class[]{type}, stub));
+    }
+}
@@ -0,0 +1,62 @@
+// Copyright 2021 The Apache Software Foundation
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.apache.tapestry5.benchmarks.app.components;
+
+import org.apache.tapestry5.annotations.Parameter;
+import org.apache.tapestry5.annotations.Property;
+import org.apache.tapestry5.benchmarks.app.data.Row;
+
+/**
+ * Renders a summary of a {@link Row}, using a number of parameters and mutable fields (each of which is stored
+ * per-thread, as component instances are shared between threads).
+ */
+public class RowSummary
+{
+    @Parameter(required = true, allowNull = false)
+    @Property
+    private Row row;
+
+    @Parameter
+    @Property
+    private int index;
+
+    @Parameter(value = "literal:summary")
+    @Property
+    private String cssClass;
+
+    @Property
+    private String label;
+
+    @Property
+    private String city;
+
+    @Property
+    private boolean even;
+
+    @Property
+    private String status;
+
+    @Property
+    private long cents;
+
+    void setupRender()
+    {
+        label = row.getName() + " <" + row.getEmail() + ">";
+        city = row.getAddress().getCity();
+        even = index % 2 == 0;
+        status = row.isActive() ? "active" : "inactive";
+        cents = Math.round(row.getAmount() * 100);
+    }
+}
@@ -0,0 +1,136 @@
+// Copyright 2021 The Apache Software Foundation
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.apache.tapestry5.benchmarks.app.data;
+
+import java.util.Date;
+import java.util.List;
+
+import org.apache.tapestry5.commons.util.CollectionFactory;
+
+/**
+ * A typical row of tabular data, as displayed by the Grid component.
+ */
+public class Row
+{
+    private int id;
+
+    private String name;
+
+    private String email;
+
+    private Date created;
+
+    private double amount;
+
+    private boolean active;
+
+    private Address address = new Address();
+
+    public int getId()
+    {
+        return id;
+    }
+
+    public void setId(int id)
+    {
+        this.id = id;
+    }
+
+    public String getName()
+    {
+        return name;
+    }
+
+    public void setName(String name)
+    {
+        this.name = name;
+    }
+
+    public String getEmail()
+    {
+        return email;
+    }
+
+    public void setEmail(String email)
+    {
+        this.email = email;
+    }
+
+    public Date getCreated()
+    {
+        return created;
+    }
+
+    public void setCreated(Date created)
+    {
+        this.created = created;
+    }
+
+    public double getAmount()
+    {
+        return amount;
+    }
+
+    public void setAmount(double amount)
+    {
+        this.amount = amount;
+    }
+
+    public boolean isActive()
+    {
+        return active;
+    }
+
+    public void setActive(boolean active)
+    {
+        this.active = active;
+    }
+
+    public Address getAddress()
+    {
+        return address;
+    }
+
+    public void setAddress(Address address)
+    {
+        this.address = address;
+    }
+
+    /**
+     * Creates a list of rows with predictable content.
+     */
+    public static List<Row> createRows(int count)
+    {
+        List<Row> result = CollectionFactory.newList();
+
+        for (int i = 0; i < count; i++)
+        {
+            Row row = new Row();
+
+            row.setId(i);
+            row.setName("Name " + i);
+            row.setEmail("user" + i + "@example.com");
+            row.setCreated(new Date(1600000000000L + i * 86400000L));
+            row.setAmount(i * 1.25d);
+            row.setActive(i % 3 == 0);
+            row.getAddress().setStreet(i + " Main Street");
+            row.getAddress().setCity("City " + (i % 50));
+
+            result.add(row);
+        }
+
+        return result;
+    }
+}
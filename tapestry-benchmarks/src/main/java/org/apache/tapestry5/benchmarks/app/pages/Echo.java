@@ -0,0 +1,49 @@
+// Copyright 2021 The Apache Software Foundation
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.apache.tapestry5.benchmarks.app.pages;
+
+import java.util.List;
+
+import org.apache.tapestry5.annotations.Property;
+import org.apache.tapestry5.benchmarks.app.data.Row;
+
+/**
+ * Renders its activation context, along with a few components, so that the
+ * {@link org.apache.tapestry5.benchmarks.VirtualThreadRequestHarness} can check that each response belongs to its
+ * request.
+ */
+public class Echo
+{
+    private static final List<Row> ROWS = Row.createRows(20);
+
+    @Property
+    private String requestId;
+
+    @Property
+    private Row row;
+
+    @Property
+    private int index;
+
+    void onActivate(String requestId)
+    {
+        this.requestId = requestId;
+    }
+
+    public List<Row> getRows()
+    {
+        return ROWS;
+    }
+}
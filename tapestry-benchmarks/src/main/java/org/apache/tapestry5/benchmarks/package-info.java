@@ -0,0 +1,20 @@
+// Copyright 2021 The Apache Software Foundation
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+/**
+ * <a href="https://openjdk.java.net/projects/code-tools/jmh/">JMH</a> benchmarks of the code paths exercised by most
+ * requests. Run with {@code ./gradlew :tapestry-benchmarks:jmh}; results are written as JSON to
+ * {@code tapestry-benchmarks/build/reports/jmh/tapestry-<version>.json}, for comparison between versions.
+ */
+package org.apache.tapestry5.benchmarks;
@@ -12,6 +12,7 @@
 
 package org.apache.tapestry5;
 
+import org.apache.tapestry5.beanmodel.BeanModelSymbolConstants;
 import org.apache.tapestry5.corelib.base.AbstractField;
 import org.apache.tapestry5.corelib.components.AjaxFormLoop;
 import org.apache.tapestry5.corelib.components.BeanDisplay;
@@ -643,4 +644,166 @@ public class SymbolConstants
      * @since 5.4
      */
     public static final String PRELOADER_MODE = "tapestry.page-preload-mode";
+
+    /**
+     * The number of threads used by the {@link org.apache.tapestry5.services.pageload.PagePreloader} to load pages
+     * in parallel, using the {@link org.apache.tapestry5.ioc.services.ParallelExecutor}. The default, 1, loads the
+     * pages one at a time, in the thread that starts the Registry. Values greater than the
+     * {@linkplain org.apache.tapestry5.ioc.IOCSymbols#THREAD_POOL_MAX_SIZE maximum size} of the thread pool gain nothing.
+     *
+     * @see #PRELOADER_MODE
+     * @since 5.7.0
+     */
+    public static final String PRELOADER_PARALLELISM = "tapestry.page-preload-parallelism";
+
+    /**
+     * If true, then full page renders stream the content of the {@code <body>} to the client as each of its direct
+     * children is completed, rather than building the entire DOM and only writing it once rendering is complete.
+     * This reduces memory usage and time-to-first-byte for large pages, but is only suitable for pages that do not
+     * manipulate the DOM after the fact (for example, adding attributes to the {@code <body>}, or modifying content
+     * rendered earlier), or set response headers (including creating a session) during the render.
+     * Stylesheets imported after the {@code <head>} has been written are linked from the bottom of the
+     * {@code <body>} instead.
+     *
+     * The first 8K characters of the page are buffered, and nothing is sent to the client before then. After that,
+     * the response is committed: an exception thrown later in the render can not be reported using the exception
+     * report page, nor can the render redirect or otherwise replace the response. The exception is still logged,
+     * but the client receives a truncated page. Pages that may fail part way through rendering should not be
+     * streamed.
+     *
+     * This is also a meta-data key, and so may be overridden for individual pages (or folders of pages) via
+     * {@link org.apache.tapestry5.annotations.Meta}. The default is "false".
+     *
+     * @see org.apache.tapestry5.services.MarkupWriterFactory#newStreamingMarkupWriter(org.apache.tapestry5.internal.structure.Page, java.io.PrintWriter)
+     * @since 5.7.0
+     */
+    public static final String STREAMING_RENDER_ENABLED = "tapestry.streaming-render-enabled";
+
+    /**
+     * The maximum number of page instances (counting each combination of page and
+     * {@linkplain org.apache.tapestry5.services.pageload.ComponentResourceSelector selector} separately) kept in the
+     * page cache. When the limit is exceeded, the least recently used page is discarded. When 0 (the default), the
+     * cache is unbounded, and pages are instead softly referenced, so that they may be reclaimed by the garbage
+     * collector under memory pressure.
+     *
+     * @see org.apache.tapestry5.corelib.pages.PageCatalog
+     * @since 5.7.0
+     */
+    public static final String PAGE_CACHE_MAX_SIZE = "tapestry.page-cache-max-size";
+
+    /**
+     * Directory used to store the bytecode of transformed component classes (pages, components, mixins and their base
+     * classes), so that it may be reused when the application is restarted, rather than being regenerated. Only used in
+     * production mode; the cache is kept separately for each {@linkplain #APPLICATION_VERSION application version} and
+     * set of libraries on the classpath, and the cache for any other version is deleted on startup (so the directory
+     * should be dedicated to the cache, and not shared by applications, or versions, that run at the same time). Component class transformations
+     * still execute on each start, but the costly final generation of each class's bytecode is skipped when an
+     * identical class was cached. The default, blank, disables the cache.
+     *
+     * @since 5.7.0
+     */
+    public static final String COMPONENT_CLASS_CACHE_DIR = "tapestry.component-class-cache-dir";
+
+    /**
+     * Directory used to store parsed component templates, in a compact binary form, so that they may be restored
+     * when the application is restarted, rather than being parsed again. Each template is stored under a checksum of
+     * its content, so a changed template is simply parsed again. The cache is kept separately for each Tapestry and
+     * {@linkplain #APPLICATION_VERSION application version}, and the cache for any other version is deleted on startup
+     * (so the directory should be dedicated to the cache, and not shared with
+     * {@link #COMPONENT_CLASS_CACHE_DIR}). Only used in production mode. The default, blank, disables the cache.
+     *
+     * @since 5.7.0
+     */
+    public static final String COMPONENT_TEMPLATE_CACHE_DIR = "tapestry.component-template-cache-dir";
+
+    /**
+     * If true, property expressions that are simple property paths are implemented using method handles rather than
+     * generated classes. The default is "false".
+     * This is an alias to {@link BeanModelSymbolConstants#METHOD_HANDLE_PROPERTY_CONDUITS}.
+     *
+     * @see BeanModelSymbolConstants#METHOD_HANDLE_PROPERTY_CONDUITS
+     * @since 5.7.0
+     */
+    public static final String METHOD_HANDLE_PROPERTY_CONDUITS = BeanModelSymbolConstants.METHOD_HANDLE_PROPERTY_CONDUITS;
+
+    /**
+     * Minimum size, in bytes, of a static asset file that is memory-mapped, rather than read into a byte array on the
+     * heap, when streamed to the client. Only applies to assets that are files (not inside a JAR), are not
+     * transformed, and are not compressable (typically, images and fonts), and only in production mode. Mapped assets
+     * are written to the response in small chunks or, when the container's output stream is a
+     * {@link java.nio.channels.WritableByteChannel}, directly from the mapped buffer. The default, 0, disables
+     * memory mapping.
+     *
+     * @since 5.7.0
+     */
+    public static final String ASSET_MEMORY_MAPPING_THRESHOLD = "tapestry.asset-memory-mapping-threshold";
+
+    /**
+     * Directory used to store compressed variants of assets. When set, each compressable asset is compressed using
+     * every contributed {@link org.apache.tapestry5.services.assets.ContentEncoder} (GZip, at its best compression
+     * level, plus any others, such as Brotli, that are contributed), and the results are stored in this directory,
+     * named for a checksum of the asset's content. Each distinct asset is therefore compressed only once, even across
+     * restarts and redeployments, and across all servers of a cluster that share the directory (which may also be
+     * populated ahead of time, and deployed with the application). For each request, the smallest variant accepted by
+     * the client (based on the Accept-Encoding request header) is streamed. Only used in production mode. The
+     * default, blank, disables the store; assets are then compressed with GZip, in memory, as needed.
+     *
+     * @since 5.7.0
+     */
+    public static final String PRECOMPRESSED_ASSET_DIR = "tapestry.precompressed-asset-dir";
+
+    /**
+     * Number of background threads used to warm up the application's assets at startup. The JavaScript stacks (for
+     * each supported locale), the stacks' stylesheets, and the JavaScript modules on the classpath are all minified,
+     * aggregated and compressed ahead of the first requests for them. Until an asset has been warmed up, requests for
+     * it are satisfied using its unminified (and uncompressed) content, rather than waiting on the minimizer. Only
+     * used in production mode. The default, 0, disables the warm-up.
+     *
+     * @since 5.7.0
+     */
+    public static final String ASSET_WARMUP_PARALLELISM = "tapestry.asset-warmup-parallelism";
+
+    /**
+     * If true, changes to local files (templates, message catalogs, classes and assets) are detected using a
+     * {@link java.nio.file.WatchService}, rather than by reading the timestamp of every file that has been loaded.
+     * Changes are still processed every {@linkplain #FILE_CHECK_INTERVAL file check interval}, and when just the
+     * content of some templates and message catalogs changes, only those are reloaded. File systems that can not be
+     * watched fall back to reading timestamps. Only used when not running in production mode. The default is "false".
+     *
+     * @since 5.7.0
+     */
+    public static final String WATCH_FILE_CHANGES = "tapestry.watch-file-changes";
+
+    /**
+     * If true, client data (such as form data, and {@linkplain org.apache.tapestry5.PersistenceConstants#CLIENT
+     * client-persistent fields}) is written in a compact format, rather than using Java serialization: strings,
+     * numbers, enums, lists and maps, and values with a contributed {@link org.apache.tapestry5.services.ClientDataCodec},
+     * are written directly, and Java serialization is only used for other objects. Client data in either format may
+     * always be decoded. The default is "true".
+     *
+     * @see org.apache.tapestry5.services.ClientDataEncoder
+     * @since 5.7.0
+     */
+    public static final String COMPACT_CLIENT_DATA = "tapestry.compact-client-data";
+
+    /**
+     * The {@link javax.crypto.Mac} algorithm used to sign client data, with the key configured by
+     * {@link #HMAC_PASSPHRASE}. Client data signed with a different algorithm is rejected, unless it is the
+     * {@linkplain #LEGACY_HMAC_ALGORITHM legacy algorithm}. The default is "HmacSHA256".
+     *
+     * @see org.apache.tapestry5.services.ClientDataEncoder
+     * @since 5.7.0
+     */
+    public static final String HMAC_ALGORITHM = "tapestry.hmac-algorithm";
+
+    /**
+     * A {@link javax.crypto.Mac} algorithm that is still accepted when verifying client data, though client data is
+     * only signed using the {@link #HMAC_ALGORITHM}. The default is "HmacSHA1", as used by releases prior to 5.7.0,
+     * so that forms and links rendered before an upgrade keep working. Once such data is no longer in use, this may be
+     * set to the empty string, so that only the {@link #HMAC_ALGORITHM} is accepted.
+     *
+     * @see org.apache.tapestry5.services.ClientDataEncoder
+     * @since 5.7.0
+     */
+    public static final String LEGACY_HMAC_ALGORITHM = "tapestry.legacy-hmac-algorithm";
 }
@@ -25,6 +25,7 @@ import org.apache.tapestry5.corelib.components.Zone;
 import org.apache.tapestry5.func.*;
 import org.apache.tapestry5.http.TapestryHttpSymbolConstants;
 import org.apache.tapestry5.internal.PageCatalogTotals;
+import org.apache.tapestry5.internal.services.PageCacheStatistics;
 import org.apache.tapestry5.internal.services.PageSource;
 import org.apache.tapestry5.internal.services.ReloadHelper;
 import org.apache.tapestry5.internal.structure.Page;
@@ -142,6 +143,13 @@ public class PageCatalog
         }).toSet();
 
         totals.selectors = InternalUtils.joinSorted(selectorIds);
+
+        PageCacheStatistics statistics = pageSource.getCacheStatistics();
+
+        totals.cacheHits = statistics.hits;
+        totals.cacheMisses = statistics.misses;
+        totals.cacheEvictions = statistics.evictions;
+        totals.averageLoadTime = formatElapsed(statistics.getAverageLoadTime());
     }
 
     public List<String> getPageNames()
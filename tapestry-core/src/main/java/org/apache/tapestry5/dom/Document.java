@@ -156,6 +156,20 @@ public final class Document extends Node
 
     @Override
     public void toMarkup(Document document, PrintWriter writer, Map<String, String> namespaceURIToPrefix)
+    {
+        writePrologue(writer, namespaceURIToPrefix);
+
+        if (rootElement == null)
+            return;
+
+        rootElement.toMarkup(document, writer, createInitialNamespaceMap());
+    }
+
+    /**
+     * Writes the XML declaration (for XML documents), the DTD and any preamble content; everything that precedes the
+     * root element.
+     */
+    void writePrologue(PrintWriter writer, Map<String, String> namespaceURIToPrefix)
     {
         if (model.isXML())
         {
@@ -176,16 +190,19 @@ public final class Document extends Node
             for (Node n : preamble)
                 n.toMarkup(this, writer, namespaceURIToPrefix);
         }
+    }
 
-        if (rootElement == null)
-            return;
-
+    /**
+     * Returns the namespace mapping that is in effect when rendering the root element.
+     */
+    static Map<String, String> createInitialNamespaceMap()
+    {
         Map<String, String> initialNamespaceMap = CollectionFactory.newMap();
 
         initialNamespaceMap.put("xml", "http://www.w3.org/XML/1998/namespace");
         initialNamespaceMap.put("xmlns", "http://www.w3.org/2000/xmlns/");
 
-        rootElement.toMarkup(document, writer, initialNamespaceMap);
+        return initialNamespaceMap;
     }
 
     public Element getRootElement()
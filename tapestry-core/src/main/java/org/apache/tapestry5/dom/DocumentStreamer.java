@@ -0,0 +1,181 @@
+// Copyright 2021 The Apache Software Foundation
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.apache.tapestry5.dom;
+
+import org.apache.tapestry5.commons.util.CollectionFactory;
+
+import java.io.PrintWriter;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streams a {@link Document} to a {@link PrintWriter} incrementally, so that the complete DOM does not have to be
+ * retained until rendering finishes. A single <em>streaming container</em> element (typically, the {@code <body>}) is
+ * identified. On the first {@linkplain #flush() flush}, the document is <em>committed</em>: the prologue, the start
+ * tags of the container and each of its ancestors, and any content that precedes them (such as the {@code <head>}) are
+ * written. Each flush then writes, and removes from the DOM, the children of the container rendered so far.
+ * {@link #finish()} writes any remaining content and closes the open elements.
+ *
+ * Once the document is committed, changes to the container or its ancestors (such as new attributes), or to content
+ * that has already been flushed, will not be reflected in the output.
+ *
+ * @since 5.7.0
+ */
+public final class DocumentStreamer
+{
+    private final Document document;
+
+    private final Element container;
+
+    private final PrintWriter writer;
+
+    /**
+     * The root element, down to the container. Null until committed.
+     */
+    private List<Element> path;
+
+    /**
+     * Namespace mapping, for each element in the path.
+     */
+    private List<Map<String, String>> namespaceMaps;
+
+    /**
+     * Prefixed element name, for each element in the path; used to write the end tags.
+     */
+    private List<String> prefixedNames;
+
+    /**
+     * @param document
+     *         the document to stream
+     * @param container
+     *         the element whose children will be streamed as they are completed
+     * @param writer
+     *         output for the streamed markup
+     */
+    public DocumentStreamer(Document document, Element container, PrintWriter writer)
+    {
+        assert document != null;
+        assert container != null;
+        assert writer != null;
+
+        this.document = document;
+        this.container = container;
+        this.writer = writer;
+    }
+
+    /**
+     * Returns true once the start of the document has been written.
+     */
+    public boolean isCommitted()
+    {
+        return path != null;
+    }
+
+    /**
+     * Writes (committing the document, if necessary) and then removes all current children of the container. The
+     * caller is responsible for only invoking this method when those children are complete.
+     */
+    public void flush()
+    {
+        if (!isCommitted())
+        {
+            commit();
+        }
+
+        writeAndRemoveChildren(container, namespaceMaps.get(namespaceMaps.size() - 1), null);
+
+        writer.flush();
+    }
+
+    /**
+     * Writes all remaining content. If the document has not been committed yet, the entire document is written, as
+     * with {@link Node#toMarkup(PrintWriter)}.
+     */
+    public void finish()
+    {
+        if (!isCommitted())
+        {
+            document.toMarkup(writer);
+            return;
+        }
+
+        for (int i = path.size() - 1; i >= 0; i--)
+        {
+            Element element = path.get(i);
+
+            // The container (and each ancestor of the container) has already been written; detach it,
+            // leaving just the content that follows it.
+
+            if (i < path.size() - 1)
+            {
+                path.get(i + 1).remove();
+            }
+
+            writeAndRemoveChildren(element, namespaceMaps.get(i), null);
+
+            Element.writeEndTag(writer, prefixedNames.get(i));
+        }
+    }
+
+    private void commit()
+    {
+        path = CollectionFactory.newList();
+        namespaceMaps = CollectionFactory.newList();
+        prefixedNames = CollectionFactory.newList();
+
+        for (Element cursor = container; cursor != null; cursor = cursor.getContainer())
+        {
+            path.add(0, cursor);
+        }
+
+        document.writePrologue(writer, document.getNamespaceURIToPrefix());
+
+        MarkupModel model = document.getMarkupModel();
+
+        Map<String, String> namespaces = Document.createInitialNamespaceMap();
+
+        for (int i = 0; i < path.size(); i++)
+        {
+            Element element = path.get(i);
+
+            namespaces = element.createNamespaceURIToPrefix(namespaces);
+
+            namespaceMaps.add(namespaces);
+            prefixedNames.add(element.writeStartTag(model, writer, namespaces, false));
+
+            if (element != container)
+            {
+                writeAndRemoveChildren(element, namespaces, path.get(i + 1));
+            }
+        }
+    }
+
+    private void writeAndRemoveChildren(Element element, Map<String, String> namespaces, Node stopAt)
+    {
+        while (true)
+        {
+            Node child = element.getFirstChild();
+
+            if (child == null || child == stopAt)
+            {
+                return;
+            }
+
+            child.toMarkup(document, writer, namespaces);
+
+            child.remove();
+        }
+    }
+}
@@ -379,6 +379,34 @@ public final class Element extends Node
 
         MarkupModel markupModel = document.getMarkupModel();
 
+        EndTagStyle style = markupModel.getEndTagStyle(name);
+
+        boolean hasChildren = hasChildren();
+
+        String prefixedElementName = writeStartTag(markupModel, writer, localNamespacePrefixToURI,
+                !hasChildren && style == EndTagStyle.ABBREVIATE);
+
+        if (hasChildren)
+            writeChildMarkup(document, writer, localNamespacePrefixToURI);
+
+        if (hasChildren || style == EndTagStyle.REQUIRE)
+        {
+            writeEndTag(writer, prefixedElementName);
+        }
+    }
+
+    /**
+     * Writes the begin tag for the element, including attributes and namespace declarations.
+     *
+     * @param localNamespacePrefixToURI
+     *         namespace mapping for this element, as returned by {@link #createNamespaceURIToPrefix(java.util.Map)}
+     * @param abbreviate
+     *         if true, the tag is closed as an empty element ({@code />}) and no end tag should follow
+     * @return the prefixed element name, used to write the end tag
+     */
+    String writeStartTag(MarkupModel markupModel, PrintWriter writer, Map<String, String> localNamespacePrefixToURI,
+                         boolean abbreviate)
+    {
         StringBuilder builder = new StringBuilder();
 
         String prefixedElementName = toPrefixedName(localNamespacePrefixToURI, namespace, name);
@@ -419,26 +447,19 @@ public final class Element extends Node
             builder.append(markupModel.getAttributeQuote());
         }
 
-        EndTagStyle style = markupModel.getEndTagStyle(name);
-
-        boolean hasChildren = hasChildren();
-
-        String close = (!hasChildren && style == EndTagStyle.ABBREVIATE) ? "/>" : ">";
-
-        builder.append(close);
+        builder.append(abbreviate ? "/>" : ">");
 
         writer.print(builder.toString());
 
-        if (hasChildren)
-            writeChildMarkup(document, writer, localNamespacePrefixToURI);
+        return prefixedElementName;
+    }
 
-        if (hasChildren || style == EndTagStyle.REQUIRE)
-        {
-            // TAP5-471: Avoid use of printf().
-            writer.print("</");
-            writer.print(prefixedElementName);
-            writer.print(">");
-        }
+    static void writeEndTag(PrintWriter writer, String prefixedElementName)
+    {
+        // TAP5-471: Avoid use of printf().
+        writer.print("</");
+        writer.print(prefixedElementName);
+        writer.print(">");
     }
 
     String toPrefixedName(Map<String, String> namespaceURIToPrefix, String namespace, String name)
@@ -725,7 +746,7 @@ public final class Element extends Node
      *
      * @return a mapping from namespace URI to namespace prefix
      */
-    private Map<String, String> createNamespaceURIToPrefix(Map<String, String> containerNamespaceURIToPrefix)
+    Map<String, String> createNamespaceURIToPrefix(Map<String, String> containerNamespaceURIToPrefix)
     {
         MapHolder holder = new MapHolder(containerNamespaceURIToPrefix);
 
@@ -931,6 +952,11 @@ public final class Element extends Node
         return firstChild != null;
     }
 
+    Node getFirstChild()
+    {
+        return firstChild;
+    }
+
     void writeChildMarkup(Document document, PrintWriter writer, Map<String, String> namespaceURIToPrefix)
     {
         Node cursor = firstChild;
@@ -19,7 +19,7 @@ import org.apache.tapestry5.beaneditor.ReorderProperties;
 /**
  * @see org.apache.tapestry5.corelib.pages.PageCatalog
  */
-@ReorderProperties("definedPages,loadedPages,uniquePageNames,selectors,components")
+@ReorderProperties("definedPages,loadedPages,uniquePageNames,selectors,components,cacheHits,cacheMisses,cacheEvictions,averageLoadTime")
 public class PageCatalogTotals
 {
     /**
@@ -44,4 +44,32 @@ public class PageCatalogTotals
      * All selectors represented in the pool, often just 'en'.
      */
     public String selectors;
+
+    /**
+     * Number of page requests satisfied from the page cache.
+     *
+     * @since 5.7.0
+     */
+    public long cacheHits;
+
+    /**
+     * Number of page requests that required the page to be loaded.
+     *
+     * @since 5.7.0
+     */
+    public long cacheMisses;
+
+    /**
+     * Number of pages discarded from a bounded page cache.
+     *
+     * @since 5.7.0
+     */
+    public long cacheEvictions;
+
+    /**
+     * Average time to load a page, formatted in milliseconds.
+     *
+     * @since 5.7.0
+     */
+    public String averageLoadTime;
 }
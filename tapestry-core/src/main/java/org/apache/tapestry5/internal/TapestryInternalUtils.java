@@ -30,15 +30,20 @@ import org.apache.tapestry5.services.LinkCreationListener2;
 import org.apache.tapestry5.services.PageRenderRequestParameters;
 import org.apache.tapestry5.services.javascript.StylesheetLink;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.lang.annotation.Annotation;
 import java.lang.ref.Reference;
 import java.lang.reflect.Type;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.regex.Pattern;
 
 /**
@@ -535,5 +540,100 @@ public class TapestryInternalUtils
             threads = new Thread[threads.length * 2];
         }
     }
-}
 
+    /**
+     * Writes the content to a temporary file in the same directory (which is created if necessary), then moves it to
+     * the final file name, so that concurrent readers (including other processes) never see a partially written file.
+     *
+     * @since 5.7.0
+     */
+    public static void writeFileAtomically(File file, byte[] content) throws IOException
+    {
+        File directory = file.getParentFile();
+
+        directory.mkdirs();
+
+        File temp = File.createTempFile(file.getName(), ".tmp", directory);
+
+        try
+        {
+            Files.write(temp.toPath(), content);
+
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } finally
+        {
+            temp.delete();
+        }
+    }
+
+    /**
+     * Deletes a file, or a directory and everything within it. Failures are ignored.
+     *
+     * @return true if the file no longer exists
+     * @since 5.7.0
+     */
+    public static boolean deleteRecursively(File file)
+    {
+        File[] children = file.listFiles();
+
+        if (children != null)
+        {
+            for (File child : children)
+            {
+                deleteRecursively(child);
+            }
+        }
+
+        return file.delete() || !file.exists();
+    }
+
+    /**
+     * Deletes everything within a directory other than the one file (or subdirectory) that is to be kept. This is used
+     * to prune cache directories of content left by earlier versions of the application.
+     *
+     * @return the files that could not be deleted (an empty list on success)
+     * @since 5.7.0
+     */
+    public static List<File> deleteAllExcept(File directory, File keep)
+    {
+        List<File> result = CollectionFactory.newList();
+
+        File[] files = directory.listFiles();
+
+        if (files != null)
+        {
+            for (File file : files)
+            {
+                if (!file.equals(keep) && !deleteRecursively(file))
+                {
+                    result.add(file);
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns true if each of the values is contained in at least one of the collections.
+     *
+     * @since 5.7.0
+     */
+    public static <T> boolean isCovered(Set<T> values, Iterable<? extends Collection<T>> collections)
+    {
+        Set<T> uncovered = CollectionFactory.newSet(values);
+
+        for (Collection<T> collection : collections)
+        {
+            uncovered.removeAll(collection);
+
+            if (uncovered.isEmpty())
+            {
+                return true;
+            }
+        }
+
+        return uncovered.isEmpty();
+    }
+}
@@ -1,4 +1,4 @@
-// Copyright 2011 The Apache Software Foundation
+// Copyright 2011, 2021 The Apache Software Foundation
 //
 // Licensed under the Apache License, Version 2.0 (the "License");
 // you may not use this file except in compliance with the License.
@@ -14,13 +14,16 @@
 
 package org.apache.tapestry5.internal.dynamic;
 
+import org.apache.tapestry5.SymbolConstants;
 import org.apache.tapestry5.commons.Resource;
 import org.apache.tapestry5.commons.util.CollectionFactory;
 import org.apache.tapestry5.internal.services.PageSource;
 import org.apache.tapestry5.internal.services.TemplateParser;
 import org.apache.tapestry5.ioc.annotations.PostInjection;
+import org.apache.tapestry5.ioc.annotations.Symbol;
 import org.apache.tapestry5.ioc.internal.util.URLChangeTracker;
 import org.apache.tapestry5.ioc.services.ClasspathURLConverter;
+import org.apache.tapestry5.ioc.services.RegistryShutdownHub;
 import org.apache.tapestry5.ioc.services.UpdateListener;
 import org.apache.tapestry5.ioc.services.UpdateListenerHub;
 import org.apache.tapestry5.services.BindingSource;
@@ -41,13 +44,15 @@ public class DynamicTemplateParserImpl implements DynamicTemplateParser, UpdateL
 
     private final TemplateParser componentTemplateParser;
 
-    public DynamicTemplateParserImpl(ClasspathURLConverter converter, BindingSource bindingSource, PageSource pageSource, TemplateParser componentTemplateParser)
+    public DynamicTemplateParserImpl(ClasspathURLConverter converter, BindingSource bindingSource, PageSource pageSource, TemplateParser componentTemplateParser,
+                                     @Symbol(SymbolConstants.WATCH_FILE_CHANGES)
+                                     boolean watchFileChanges)
     {
         this.bindingSource = bindingSource;
         this.pageSource = pageSource;
         this.componentTemplateParser = componentTemplateParser;
 
-        tracker = new URLChangeTracker(converter);
+        tracker = new URLChangeTracker(converter, false, true, watchFileChanges);
     }
 
     @PostInjection
@@ -56,6 +61,18 @@ public class DynamicTemplateParserImpl implements DynamicTemplateParser, UpdateL
         hub.addUpdateListener(this);
     }
 
+    @PostInjection
+    public void closeTrackerOnShutdown(RegistryShutdownHub hub)
+    {
+        hub.addRegistryShutdownListener(new Runnable()
+        {
+            public void run()
+            {
+                tracker.close();
+            }
+        });
+    }
+
     public DynamicTemplate parseTemplate(Resource resource)
     {
         DynamicTemplate result = cache.get(resource);
@@ -18,8 +18,11 @@ import org.apache.tapestry5.commons.services.InvalidationEventHub;
 import org.apache.tapestry5.commons.services.InvalidationListener;
 import org.apache.tapestry5.commons.util.CollectionFactory;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * Base implementation class for classes (especially services) that need to manage a list of
@@ -27,7 +30,7 @@ import java.util.Map;
  */
 public class InvalidationEventHubImpl implements InvalidationEventHub
 {
-    private final List<Runnable> callbacks;
+    private final List<Consumer<Set<String>>> callbacks;
 
     protected InvalidationEventHubImpl(boolean productionMode)
     {
@@ -44,19 +47,45 @@ public class InvalidationEventHubImpl implements InvalidationEventHub
      * Notifies all listeners/callbacks.
      */
     protected final void fireInvalidationEvent()
+    {
+        fireInvalidationEvent(Collections.<String>emptySet());
+    }
+
+    /**
+     * Notifies all listeners/callbacks that specific resources have changed.
+     *
+     * @param resources
+     *         the URLs (in external form) of the changed resources, or an empty set if all resources should be
+     *         considered changed
+     * @since 5.7.0
+     */
+    protected final void fireInvalidationEvent(Set<String> resources)
     {
         if (callbacks == null)
         {
             return;
         }
 
-        for (Runnable callback : callbacks)
+        for (Consumer<Set<String>> callback : callbacks)
         {
-            callback.run();
+            callback.accept(resources);
         }
     }
 
-    public final void addInvalidationCallback(Runnable callback)
+    public final void addInvalidationCallback(final Runnable callback)
+    {
+        assert callback != null;
+
+        addResourceInvalidationCallback(new Consumer<Set<String>>()
+        {
+            public void accept(Set<String> resources)
+            {
+                callback.run();
+            }
+        });
+    }
+
+    public final void addResourceInvalidationCallback(Consumer<Set<String>> callback)
     {
         assert callback != null;
 
@@ -96,6 +96,8 @@ class ComponentAssemblerImpl implements ComponentAssembler
 
             ComponentPageElement newElement = new ComponentPageElementImpl(pageAssembly.page, instantiator, resources);
 
+            addDependencies(pageAssembly);
+
             pageAssembly.componentName.push(new ComponentName(pageAssembly.page.getName()));
 
             addRootComponentMixins(pageAssembly, newElement);
@@ -123,6 +125,8 @@ class ComponentAssemblerImpl implements ComponentAssembler
 
             page.setStats(new Page.Stats(System.currentTimeMillis() - startTime, pageAssembly.componentCount, pageAssembly.weight));
 
+            page.setDependencies(pageAssembly.dependencies);
+
             return pageAssembly.createdElement.peek();
         } catch (RuntimeException ex)
         {
@@ -138,6 +142,8 @@ class ComponentAssemblerImpl implements ComponentAssembler
 
             Instantiator mixinInstantiator = instantiatorSource.getInstantiator(className);
 
+            assembly.dependencies.addAll(assemblerSource.getDependencies(className, getSelector()));
+
             ComponentModel model = instantiator.getModel();
             element.addMixin(InternalUtils.lastTerm(className), mixinInstantiator, model.getOrderForMixin(className));
         }
@@ -177,6 +183,10 @@ class ComponentAssemblerImpl implements ComponentAssembler
 
                     pageAssembly.weight += mixinCount;
 
+                    addDependencies(pageAssembly);
+
+                    embeddedAssembler.addMixinDependencies(pageAssembly.dependencies);
+
                     runActions(pageAssembly);
 
                     popNewElement(pageAssembly);
@@ -194,6 +204,11 @@ class ComponentAssemblerImpl implements ComponentAssembler
         });
     }
 
+    private void addDependencies(PageAssembly pageAssembly)
+    {
+        pageAssembly.dependencies.addAll(assemblerSource.getDependencies(getModel().getComponentClassName(), getSelector()));
+    }
+
     private void pushNewElement(PageAssembly pageAssembly, final ComponentPageElement componentElement)
     {
         // This gets popped after all actions have executed.
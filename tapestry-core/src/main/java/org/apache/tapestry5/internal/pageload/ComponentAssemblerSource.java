@@ -16,6 +16,8 @@ package org.apache.tapestry5.internal.pageload;
 
 import org.apache.tapestry5.services.pageload.ComponentResourceSelector;
 
+import java.util.Set;
+
 /**
  * Provides access to {@link org.apache.tapestry5.internal.pageload.ComponentAssembler}s (this is used by the assemblers
  * to find related assemblers).
@@ -26,4 +28,13 @@ public interface ComponentAssemblerSource
      * Gets (and possibly creates) a component assembler for the indicated class name and selector.
      */
     public ComponentAssembler getAssembler(String className, ComponentResourceSelector selector);
+
+    /**
+     * Returns what a component of the indicated class is constructed from: the names of the class and its base
+     * classes, and the URLs of their templates and message catalogs. Returns an empty set in production mode.
+     *
+     * @see org.apache.tapestry5.internal.structure.Page#getDependencies()
+     * @since 5.7.0
+     */
+    public Set<String> getDependencies(String className, ComponentResourceSelector selector);
 }
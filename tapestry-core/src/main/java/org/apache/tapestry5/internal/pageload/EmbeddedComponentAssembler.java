@@ -66,6 +66,14 @@ interface EmbeddedComponentAssembler extends Locatable
      */
     int addMixinsToElement(ComponentPageElement newElement);
 
+    /**
+     * Adds the {@linkplain ComponentAssemblerSource#getDependencies(String, ComponentResourceSelector) dependencies}
+     * of the mixins to the set.
+     *
+     * @since 5.7.0
+     */
+    void addMixinDependencies(Set<String> dependencies);
+
     /**
      * Returns the names of all formal parameters.
      *
@@ -339,6 +339,15 @@ public class EmbeddedComponentAssemblerImpl implements EmbeddedComponentAssemble
         return mixinIdToInstantiator.size();
     }
 
+    public void addMixinDependencies(Set<String> dependencies)
+    {
+        for (Instantiator instantiator : mixinIdToInstantiator.values())
+        {
+            dependencies.addAll(assemblerSource.getDependencies(instantiator.getModel().getComponentClassName(),
+                    selector));
+        }
+    }
+
     public Location getLocation()
     {
         return location;
@@ -46,6 +46,11 @@ class PageAssembly
 
     final List<PageAssemblyAction> deferred = CollectionFactory.newList();
 
+    /**
+     * What the page is constructed from; see {@link Page#getDependencies()}.
+     */
+    final Set<String> dependencies = CollectionFactory.newSet();
+
     private final Set<String> flags = CollectionFactory.newSet();
 
     /**
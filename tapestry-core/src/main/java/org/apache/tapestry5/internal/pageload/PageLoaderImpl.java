@@ -19,6 +19,7 @@ import org.apache.tapestry5.MarkupWriter;
 import org.apache.tapestry5.beanmodel.internal.services.*;
 import org.apache.tapestry5.beanmodel.services.*;
 import org.apache.tapestry5.commons.Location;
+import org.apache.tapestry5.commons.Resource;
 import org.apache.tapestry5.commons.internal.services.StringInterner;
 import org.apache.tapestry5.commons.internal.util.TapestryException;
 import org.apache.tapestry5.commons.services.InvalidationEventHub;
@@ -26,9 +27,11 @@ import org.apache.tapestry5.commons.util.AvailableValues;
 import org.apache.tapestry5.commons.util.CollectionFactory;
 import org.apache.tapestry5.commons.util.Stack;
 import org.apache.tapestry5.commons.util.UnknownValueException;
+import org.apache.tapestry5.http.TapestryHttpSymbolConstants;
 import org.apache.tapestry5.http.services.RequestGlobals;
 import org.apache.tapestry5.internal.InternalComponentResources;
 import org.apache.tapestry5.internal.InternalConstants;
+import org.apache.tapestry5.internal.TapestryInternalUtils;
 import org.apache.tapestry5.internal.bindings.LiteralBinding;
 import org.apache.tapestry5.internal.parser.*;
 import org.apache.tapestry5.internal.services.ComponentInstantiatorSource;
@@ -42,6 +45,7 @@ import org.apache.tapestry5.ioc.Invokable;
 import org.apache.tapestry5.ioc.OperationTracker;
 import org.apache.tapestry5.ioc.annotations.ComponentClasses;
 import org.apache.tapestry5.ioc.annotations.PostInjection;
+import org.apache.tapestry5.ioc.annotations.Symbol;
 import org.apache.tapestry5.ioc.internal.util.InternalUtils;
 import org.apache.tapestry5.ioc.services.PerthreadManager;
 import org.apache.tapestry5.model.ComponentModel;
@@ -52,12 +56,17 @@ import org.apache.tapestry5.services.ComponentClassResolver;
 import org.apache.tapestry5.services.ComponentMessages;
 import org.apache.tapestry5.services.ComponentTemplates;
 import org.apache.tapestry5.services.MetaDataLocator;
+import org.apache.tapestry5.services.pageload.ComponentResourceLocator;
 import org.apache.tapestry5.services.pageload.ComponentResourceSelector;
 import org.slf4j.Logger;
 
+import java.net.URL;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * There's still a lot of room to beef up {@link org.apache.tapestry5.internal.pageload.ComponentAssembler} and
@@ -135,6 +144,11 @@ public class PageLoaderImpl implements PageLoader, ComponentAssemblerSource
 
     private final Map<Key, ComponentAssembler> cache = CollectionFactory.newConcurrentMap();
 
+    /**
+     * Only used in development mode.
+     */
+    private final Map<Key, Set<String>> dependencies = CollectionFactory.newConcurrentMap();
+
     private final ComponentInstantiatorSource instantiatorSource;
 
     private final ComponentTemplateSource templateSource;
@@ -159,11 +173,18 @@ public class PageLoaderImpl implements PageLoader, ComponentAssemblerSource
 
     private final RequestGlobals requestGlobals;
 
+    private final ComponentResourceLocator resourceLocator;
+
+    private final boolean productionMode;
+
     public PageLoaderImpl(ComponentInstantiatorSource instantiatorSource, ComponentTemplateSource templateSource,
                           PageElementFactory elementFactory, ComponentPageElementResourcesSource resourcesSource,
                           ComponentClassResolver componentClassResolver, PersistentFieldManager persistentFieldManager,
                           StringInterner interner, OperationTracker tracker, PerthreadManager perThreadManager,
-                          Logger logger, MetaDataLocator metaDataLocator, RequestGlobals requestGlobals)
+                          Logger logger, MetaDataLocator metaDataLocator, RequestGlobals requestGlobals,
+                          ComponentResourceLocator resourceLocator,
+                          @Symbol(TapestryHttpSymbolConstants.PRODUCTION_MODE)
+                          boolean productionMode)
     {
         this.instantiatorSource = instantiatorSource;
         this.templateSource = templateSource;
@@ -177,6 +198,8 @@ public class PageLoaderImpl implements PageLoader, ComponentAssemblerSource
         this.logger = logger;
         this.metaDataLocator = metaDataLocator;
         this.requestGlobals = requestGlobals;
+        this.resourceLocator = resourceLocator;
+        this.productionMode = productionMode;
     }
 
     @PostInjection
@@ -184,14 +207,62 @@ public class PageLoaderImpl implements PageLoader, ComponentAssemblerSource
                                   @ComponentTemplates InvalidationEventHub templatesHub,
                                   @ComponentMessages InvalidationEventHub messagesHub)
     {
-        classesHub.clearOnInvalidation(cache);
-        templatesHub.clearOnInvalidation(cache);
-        messagesHub.clearOnInvalidation(cache);
+        classesHub.addInvalidationCallback(new Runnable()
+        {
+            public void run()
+            {
+                clearCache();
+            }
+        });
+
+        templatesHub.addResourceInvalidationCallback(new Consumer<Set<String>>()
+        {
+            public void accept(Set<String> resources)
+            {
+                invalidate(resources, false);
+            }
+        });
+
+        messagesHub.addResourceInvalidationCallback(new Consumer<Set<String>>()
+        {
+            public void accept(Set<String> resources)
+            {
+                invalidate(resources, true);
+            }
+        });
     }
 
     public void clearCache()
     {
         cache.clear();
+        dependencies.clear();
+    }
+
+    /**
+     * Discards just the assemblers that depend on any of the changed resources (or all of them, if the changed
+     * resources are not known). A changed message catalog that is not a dependency of any assembler is likely the
+     * application message catalog, which all components depend upon.
+     */
+    private void invalidate(Set<String> resources, boolean messageCatalogs)
+    {
+        if (resources.isEmpty() || messageCatalogs && !TapestryInternalUtils.isCovered(resources, dependencies.values()))
+        {
+            clearCache();
+            return;
+        }
+
+        Iterator<Map.Entry<Key, Set<String>>> iterator = dependencies.entrySet().iterator();
+
+        while (iterator.hasNext())
+        {
+            Map.Entry<Key, Set<String>> entry = iterator.next();
+
+            if (!Collections.disjoint(entry.getValue(), resources))
+            {
+                cache.remove(entry.getKey());
+                iterator.remove();
+            }
+        }
     }
 
     public Page loadPage(final String logicalPageName, final ComponentResourceSelector selector)
@@ -254,11 +325,69 @@ public class PageLoaderImpl implements PageLoader, ComponentAssemblerSource
             result = createAssembler(className, selector);
 
             cache.put(key, result);
+
+            // Ensures the assembler can be discarded when what it depends on changes.
+
+            getDependencies(className, selector);
         }
 
         return result;
     }
 
+    public Set<String> getDependencies(String className, ComponentResourceSelector selector)
+    {
+        if (productionMode)
+        {
+            return Collections.emptySet();
+        }
+
+        Key key = new Key(className, selector);
+
+        Set<String> result = dependencies.get(key);
+
+        if (result == null)
+        {
+            result = findDependencies(className, selector);
+
+            dependencies.put(key, result);
+        }
+
+        return result;
+    }
+
+    private Set<String> findDependencies(String className, ComponentResourceSelector selector)
+    {
+        Set<String> result = CollectionFactory.newSet();
+
+        ComponentModel model = instantiatorSource.getInstantiator(className).getModel();
+
+        while (model != null)
+        {
+            result.add(model.getComponentClassName());
+
+            addURL(result, templateSource.getTemplate(model, selector).getResource());
+
+            for (Resource catalog : resourceLocator.locateMessageCatalog(model.getBaseResource().withExtension("properties"), selector))
+            {
+                addURL(result, catalog);
+            }
+
+            model = model.getParentModel();
+        }
+
+        return result;
+    }
+
+    private static void addURL(Set<String> dependencies, Resource resource)
+    {
+        URL url = resource == null ? null : resource.toURL();
+
+        if (url != null)
+        {
+            dependencies.add(url.toExternalForm());
+        }
+    }
+
     private ComponentAssembler createAssembler(final String className, final ComponentResourceSelector selector)
     {
         return tracker.invoke("Creating ComponentAssembler for " + className, new Invokable<ComponentAssembler>()
@@ -15,16 +15,28 @@ package org.apache.tapestry5.internal.pageload;
 import org.apache.tapestry5.SymbolConstants;
 import org.apache.tapestry5.commons.util.CollectionFactory;
 import org.apache.tapestry5.commons.util.ExceptionUtils;
+import org.apache.tapestry5.internal.services.ComponentInstantiatorSource;
+import org.apache.tapestry5.ioc.Invokable;
 import org.apache.tapestry5.ioc.OperationTracker;
 import org.apache.tapestry5.ioc.annotations.Symbol;
+import org.apache.tapestry5.ioc.services.ParallelExecutor;
 import org.apache.tapestry5.ioc.services.ThreadLocale;
+import org.apache.tapestry5.services.ComponentClassResolver;
 import org.apache.tapestry5.services.ComponentSource;
 import org.apache.tapestry5.services.LocalizationSetter;
 import org.apache.tapestry5.services.pageload.PagePreloader;
 import org.slf4j.Logger;
 
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 public class PagePreloaderImpl implements PagePreloader
 {
@@ -40,17 +52,34 @@ public class PagePreloaderImpl implements PagePreloader
 
     private final LocalizationSetter localizationSetter;
 
+    private final ComponentClassResolver componentClassResolver;
+
+    private final ComponentInstantiatorSource instantiatorSource;
+
+    private final ParallelExecutor executor;
+
+    private final int parallelism;
+
     public PagePreloaderImpl(Logger logger,
                              OperationTracker tracker,
                              ComponentSource componentSource, Collection<String> configuration,
                              ThreadLocale threadLocale,
-                             LocalizationSetter localizationSetter)
+                             LocalizationSetter localizationSetter,
+                             ComponentClassResolver componentClassResolver,
+                             ComponentInstantiatorSource instantiatorSource,
+                             ParallelExecutor executor,
+                             @Symbol(SymbolConstants.PRELOADER_PARALLELISM)
+                             int parallelism)
     {
         this.tracker = tracker;
         this.componentSource = componentSource;
         this.logger = logger;
         this.threadLocale = threadLocale;
         this.localizationSetter = localizationSetter;
+        this.componentClassResolver = componentClassResolver;
+        this.instantiatorSource = instantiatorSource;
+        this.executor = executor;
+        this.parallelism = parallelism;
 
         pageNames.addAll(configuration);
     }
@@ -63,25 +92,28 @@ public class PagePreloaderImpl implements PagePreloader
             return;
         }
 
-        logger.info(String.format("Preloading %,d pages.", pageNames.size()));
+        int threads = Math.min(parallelism, pageNames.size());
 
-        threadLocale.setLocale(localizationSetter.getSupportedLocales().get(0));
+        logger.info(threads > 1
+                ? String.format("Preloading %,d pages using %,d threads.", pageNames.size(), threads)
+                : String.format("Preloading %,d pages.", pageNames.size()));
+
+        Locale locale = localizationSetter.getSupportedLocales().get(0);
+
+        threadLocale.setLocale(locale);
 
         final long startNanos = System.nanoTime();
 
+        Map<String, Long> loadTimes = CollectionFactory.newConcurrentMap();
+
         try
         {
-            for (final String pageName : pageNames)
+            if (threads > 1)
             {
-                tracker.run(String.format("Preloading page '%s'.", pageName), new Runnable()
-                        {
-                            @Override
-                            public void run()
-                            {
-                                componentSource.getPage(pageName);
-                            }
-                        }
-                );
+                preloadInParallel(threads, locale, loadTimes);
+            } else
+            {
+                preload(new ConcurrentLinkedQueue<String>(pageNames), loadTimes);
             }
         } catch (Exception ex)
         {
@@ -96,5 +128,118 @@ public class PagePreloaderImpl implements PagePreloader
         logger.info(String.format("Preloaded %,d pages in %.2f seconds.",
                 pageNames.size(),
                 elapsedNanos * 10E-10d));
+
+        logLoadTimes(loadTimes);
+    }
+
+    private void preloadInParallel(int threads, final Locale locale, final Map<String, Long> loadTimes) throws Exception
+    {
+        // Class transformation is serialized inside the PlasticClassPool, so concurrent page loads would mostly just
+        // contend for it. Instead, the page classes (and, via Plastic, their base classes, in inheritance order) are
+        // transformed up front, in this thread; the page loads that follow are then largely spent parsing templates
+        // and assembling pages, which parallelizes well.
+
+        tracker.run("Transforming page classes.", new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                for (String pageName : pageNames)
+                {
+                    instantiatorSource.getInstantiator(componentClassResolver.resolvePageNameToClassName(pageName));
+                }
+            }
+        });
+
+        // Each worker pulls from a shared queue, so that no more than the requested number of threads
+        // (and pool queue slots) are used, no matter how many pages there are.
+
+        final Queue<String> queue = new ConcurrentLinkedQueue<String>(pageNames);
+
+        List<Future<Void>> futures = CollectionFactory.newList();
+
+        for (int i = 0; i < threads; i++)
+        {
+            futures.add(executor.invoke(new Invokable<Void>()
+            {
+                @Override
+                public Void invoke()
+                {
+                    threadLocale.setLocale(locale);
+
+                    preload(queue, loadTimes);
+
+                    return null;
+                }
+            }));
+        }
+
+        try
+        {
+            for (Future<Void> future : futures)
+            {
+                future.get();
+            }
+        } catch (ExecutionException ex)
+        {
+            // Let the other workers stop at their next page.
+            queue.clear();
+
+            Throwable cause = ex.getCause();
+
+            throw cause instanceof Exception ? (Exception) cause : ex;
+        }
+    }
+
+    private void preload(Queue<String> queue, Map<String, Long> loadTimes)
+    {
+        while (true)
+        {
+            final String pageName = queue.poll();
+
+            if (pageName == null)
+            {
+                return;
+            }
+
+            long pageStartNanos = System.nanoTime();
+
+            tracker.run(String.format("Preloading page '%s'.", pageName), new Runnable()
+                    {
+                        @Override
+                        public void run()
+                        {
+                            componentSource.getPage(pageName);
+                        }
+                    }
+            );
+
+            loadTimes.put(pageName, System.nanoTime() - pageStartNanos);
+        }
+    }
+
+    private void logLoadTimes(final Map<String, Long> loadTimes)
+    {
+        List<String> names = CollectionFactory.newList(loadTimes.keySet());
+
+        // Slowest pages first
+
+        Collections.sort(names, new Comparator<String>()
+        {
+            @Override
+            public int compare(String o1, String o2)
+            {
+                return loadTimes.get(o2).compareTo(loadTimes.get(o1));
+            }
+        });
+
+        StringBuilder builder = new StringBuilder("Page load times:");
+
+        for (String name : names)
+        {
+            builder.append(String.format("%n%,10.2f ms  %s", loadTimes.get(name) * 10E-7d, name));
+        }
+
+        logger.info(builder.toString());
     }
 }
@@ -98,4 +98,14 @@ public class ComponentTemplateImpl implements ComponentTemplate
     {
         return extension;
     }
+
+    /**
+     * Returns the ids of the extension points overridden by this template, in no particular order.
+     *
+     * @since 5.7.0
+     */
+    List<String> getExtensionPointIds()
+    {
+        return overrides == null ? CollectionFactory.<String>newList() : newList(overrides.keySet());
+    }
 }
@@ -0,0 +1,434 @@
+// Copyright 2021 The Apache Software Foundation
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.apache.tapestry5.internal.parser;
+
+import org.apache.tapestry5.commons.Location;
+import org.apache.tapestry5.commons.Resource;
+import org.apache.tapestry5.commons.util.CollectionFactory;
+import org.apache.tapestry5.ioc.internal.util.LocationImpl;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Converts a parsed {@link ComponentTemplate} to and from a compact binary form, so that it may be stored and later
+ * restored without parsing the template again. All strings are written once, to a table at the start of the data, and
+ * referenced by index. Locations are stored as just a line and column; all locations are assumed to be within the
+ * template resource itself.
+ *
+ * @since 5.7.0
+ */
+public final class ComponentTemplateSerializer
+{
+    /**
+     * Identifies the data format; changed whenever the format (or the set of token types) changes.
+     */
+    private static final int FORMAT = 0x54504c01;
+
+    private static final TokenType[] TOKEN_TYPES = TokenType.values();
+
+    private ComponentTemplateSerializer()
+    {
+    }
+
+    /**
+     * Writes the template.
+     *
+     * @throws IOException
+     *         if the template can not be written, including when it contains a location outside of its resource
+     */
+    public static void write(ComponentTemplate template, DataOutput output) throws IOException
+    {
+        assert !template.isMissing();
+
+        Writer writer = new Writer(template.getResource());
+
+        writer.add(template);
+
+        writer.writeTo(template, output);
+    }
+
+    /**
+     * Reads a template previously written by {@link #write(ComponentTemplate, DataOutput)}.
+     *
+     * @param resource
+     *         the template resource, used for the template and all locations within it
+     * @throws IOException
+     *         if the data is not in the expected format
+     */
+    public static ComponentTemplate read(Resource resource, DataInput input) throws IOException
+    {
+        if (input.readInt() != FORMAT)
+        {
+            throw new IOException(String.format("Serialized template for %s is not in the expected format.", resource));
+        }
+
+        return new Reader(resource, input).readTemplate();
+    }
+
+    private static class Writer
+    {
+        private final Resource resource;
+
+        private final Map<String, Integer> stringToIndex = CollectionFactory.newMap();
+
+        private final List<String> strings = CollectionFactory.newList();
+
+        Writer(Resource resource)
+        {
+            this.resource = resource;
+        }
+
+        /**
+         * First pass: collects all strings, and checks all locations.
+         */
+        void add(ComponentTemplate template) throws IOException
+        {
+            addTokens(template.getTokens());
+
+            for (Map.Entry<String, Location> entry : template.getComponentIds().entrySet())
+            {
+                addString(entry.getKey());
+                checkLocation(entry.getValue());
+            }
+
+            for (String id : getExtensionPointIds(template))
+            {
+                addString(id);
+                addTokens(template.getExtensionPointTokens(id));
+            }
+        }
+
+        private void addTokens(List<TemplateToken> tokens) throws IOException
+        {
+            for (TemplateToken token : tokens)
+            {
+                checkLocation(token.getLocation());
+
+                for (String value : getValues(token))
+                {
+                    addString(value);
+                }
+            }
+        }
+
+        private void checkLocation(Location location) throws IOException
+        {
+            if (location == null || location.getResource() != resource && !resource.equals(location.getResource()))
+            {
+                throw new IOException(String.format("Template %s contains location %s, which can not be serialized.",
+                        resource, location));
+            }
+        }
+
+        private void addString(String value)
+        {
+            if (value != null && !stringToIndex.containsKey(value))
+            {
+                stringToIndex.put(value, strings.size());
+                strings.add(value);
+            }
+        }
+
+        void writeTo(ComponentTemplate template, DataOutput output) throws IOException
+        {
+            output.writeInt(FORMAT);
+
+            output.writeInt(strings.size());
+
+            for (String value : strings)
+            {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+
+                output.writeInt(bytes.length);
+                output.write(bytes);
+            }
+
+            output.writeBoolean(template.isExtension());
+            output.writeBoolean(template.usesStrictMixinParameters());
+
+            writeTokens(template.getTokens(), output);
+
+            output.writeInt(template.getComponentIds().size());
+
+            for (Map.Entry<String, Location> entry : template.getComponentIds().entrySet())
+            {
+                writeString(entry.getKey(), output);
+                writeLocation(entry.getValue(), output);
+            }
+
+            List<String> extensionPointIds = getExtensionPointIds(template);
+
+            output.writeInt(extensionPointIds.size());
+
+            for (String id : extensionPointIds)
+            {
+                writeString(id, output);
+                writeTokens(template.getExtensionPointTokens(id), output);
+            }
+        }
+
+        private void writeTokens(List<TemplateToken> tokens, DataOutput output) throws IOException
+        {
+            output.writeInt(tokens.size());
+
+            for (TemplateToken token : tokens)
+            {
+                output.writeByte(token.getTokenType().ordinal());
+
+                writeLocation(token.getLocation(), output);
+
+                for (String value : getValues(token))
+                {
+                    writeString(value, output);
+                }
+            }
+        }
+
+        private void writeString(String value, DataOutput output) throws IOException
+        {
+            output.writeInt(value == null ? -1 : stringToIndex.get(value));
+        }
+
+        private static void writeLocation(Location location, DataOutput output) throws IOException
+        {
+            output.writeInt(location.getLine());
+            output.writeInt(location.getColumn());
+        }
+    }
+
+    private static class Reader
+    {
+        private final Resource resource;
+
+        private final DataInput input;
+
+        private String[] strings;
+
+        Reader(Resource resource, DataInput input)
+        {
+            this.resource = resource;
+            this.input = input;
+        }
+
+        ComponentTemplate readTemplate() throws IOException
+        {
+            strings = new String[input.readInt()];
+
+            for (int i = 0; i < strings.length; i++)
+            {
+                byte[] bytes = new byte[input.readInt()];
+
+                input.readFully(bytes);
+
+                strings[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+
+            boolean extension = input.readBoolean();
+            boolean strictMixinParameters = input.readBoolean();
+
+            List<TemplateToken> tokens = readTokens();
+
+            Map<String, Location> componentIds = CollectionFactory.newCaseInsensitiveMap();
+
+            int count = input.readInt();
+
+            for (int i = 0; i < count; i++)
+            {
+                componentIds.put(readString(), readLocation());
+            }
+
+            Map<String, List<TemplateToken>> overrides = null;
+
+            count = input.readInt();
+
+            if (count > 0)
+            {
+                overrides = CollectionFactory.newCaseInsensitiveMap();
+
+                for (int i = 0; i < count; i++)
+                {
+                    overrides.put(readString(), readTokens());
+                }
+            }
+
+            return new ComponentTemplateImpl(resource, tokens, componentIds, extension, strictMixinParameters,
+                    overrides);
+        }
+
+        private List<TemplateToken> readTokens() throws IOException
+        {
+            int count = input.readInt();
+
+            List<TemplateToken> result = CollectionFactory.newList();
+
+            for (int i = 0; i < count; i++)
+            {
+                result.add(readToken());
+            }
+
+            return result;
+        }
+
+        private TemplateToken readToken() throws IOException
+        {
+            int ordinal = input.readUnsignedByte();
+
+            if (ordinal >= TOKEN_TYPES.length)
+            {
+                throw new IOException(String.format("Serialized template for %s contains an unknown token type.", resource));
+            }
+
+            Location location = readLocation();
+
+            switch (TOKEN_TYPES[ordinal])
+            {
+                case ATTRIBUTE:
+                    return new AttributeToken(readString(), readString(), readString(), location);
+
+                case CDATA:
+                    return new CDATAToken(readString(), location);
+
+                case COMMENT:
+                    return new CommentToken(readString(), location);
+
+                case END_ELEMENT:
+                    return new EndElementToken(location);
+
+                case START_COMPONENT:
+                    return new StartComponentToken(readString(), readString(), readString(), readString(), location);
+
+                case START_ELEMENT:
+                    return new StartElementToken(readString(), readString(), location);
+
+                case TEXT:
+                    return new TextToken(readString(), location);
+
+                case BODY:
+                    return new BodyToken(location);
+
+                case EXPANSION:
+                    return new ExpansionToken(readString(), location);
+
+                case PARAMETER:
+                    return new ParameterToken(readString(), location);
+
+                case BLOCK:
+                    return new BlockToken(readString(), location);
+
+                case DTD:
+                    return new DTDToken(readString(), readString(), readString(), location);
+
+                case DEFINE_NAMESPACE_PREFIX:
+                    return new DefineNamespacePrefixToken(readString(), readString(), location);
+
+                case EXTENSION_POINT:
+                    return new ExtensionPointToken(readString(), location);
+
+                default:
+                    throw new IOException(String.format("Unexpected token type %s.", TOKEN_TYPES[ordinal]));
+            }
+        }
+
+        private String readString() throws IOException
+        {
+            int index = input.readInt();
+
+            if (index < -1 || index >= strings.length)
+            {
+                throw new IOException(String.format("Serialized template for %s is corrupt.", resource));
+            }
+
+            return index < 0 ? null : strings[index];
+        }
+
+        private Location readLocation() throws IOException
+        {
+            return new LocationImpl(resource, input.readInt(), input.readInt());
+        }
+    }
+
+    /**
+     * Returns the string values of the token, in the order expected by the token's constructor.
+     */
+    private static String[] getValues(TemplateToken token) throws IOException
+    {
+        switch (token.getTokenType())
+        {
+            case ATTRIBUTE:
+                AttributeToken attribute = (AttributeToken) token;
+                return new String[]{attribute.namespaceURI, attribute.name, attribute.value};
+
+            case CDATA:
+                return new String[]{((CDATAToken) token).content};
+
+            case COMMENT:
+                return new String[]{((CommentToken) token).comment};
+
+            case END_ELEMENT:
+            case BODY:
+                return new String[0];
+
+            case START_COMPONENT:
+                StartComponentToken component = (StartComponentToken) token;
+                return new String[]{component.getElementName(), component.getId(), component.getComponentType(),
+                        component.getMixins()};
+
+            case START_ELEMENT:
+                StartElementToken element = (StartElementToken) token;
+                return new String[]{element.namespaceURI, element.name};
+
+            case TEXT:
+                return new String[]{((TextToken) token).text};
+
+            case EXPANSION:
+                return new String[]{((ExpansionToken) token).getExpression()};
+
+            case PARAMETER:
+                return new String[]{((ParameterToken) token).name};
+
+            case BLOCK:
+                return new String[]{((BlockToken) token).getId()};
+
+            case DTD:
+                DTDToken dtd = (DTDToken) token;
+                return new String[]{dtd.name, dtd.publicId, dtd.systemId};
+
+            case DEFINE_NAMESPACE_PREFIX:
+                DefineNamespacePrefixToken prefix = (DefineNamespacePrefixToken) token;
+                return new String[]{prefix.namespaceURI, prefix.namespacePrefix};
+
+            case EXTENSION_POINT:
+                return new String[]{((ExtensionPointToken) token).getExtensionPointId()};
+
+            default:
+                throw new IOException(String.format("Unexpected token type %s.", token.getTokenType()));
+        }
+    }
+
+    private static List<String> getExtensionPointIds(ComponentTemplate template) throws IOException
+    {
+        if (!(template instanceof ComponentTemplateImpl))
+        {
+            throw new IOException(String.format("Template %s can not be serialized.", template.getResource()));
+        }
+
+        return ((ComponentTemplateImpl) template).getExtensionPointIds();
+    }
+}
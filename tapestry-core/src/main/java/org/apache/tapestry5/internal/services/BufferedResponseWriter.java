@@ -0,0 +1,126 @@
+// Copyright 2021 The Apache Software Foundation
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.apache.tapestry5.internal.services;
+
+import org.apache.tapestry5.http.services.Response;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+
+/**
+ * Buffers the start of a streamed page render. The response's writer is only obtained, and content only sent to the
+ * client, once the buffer is full (or the writer is closed); flushes before then are ignored. Until that point, the
+ * response is not committed, so an exception thrown by the render can still be reported using the exception report
+ * page.
+ *
+ * @see org.apache.tapestry5.SymbolConstants#STREAMING_RENDER_ENABLED
+ * @since 5.7.0
+ */
+public class BufferedResponseWriter extends Writer
+{
+    private final Response response;
+
+    private final String contentType;
+
+    private final int bufferSize;
+
+    private StringBuilder buffer;
+
+    private PrintWriter output;
+
+    /**
+     * @param response
+     *         provides the writer, once the buffer is full
+     * @param contentType
+     *         passed to {@link Response#getPrintWriter(String)}
+     * @param bufferSize
+     *         number of characters to buffer before writing to the response
+     */
+    public BufferedResponseWriter(Response response, String contentType, int bufferSize)
+    {
+        this.response = response;
+        this.contentType = contentType;
+        this.bufferSize = bufferSize;
+
+        buffer = new StringBuilder(bufferSize);
+    }
+
+    @Override
+    public void write(char[] chars, int off, int len) throws IOException
+    {
+        if (output != null)
+        {
+            output.write(chars, off, len);
+            return;
+        }
+
+        buffer.append(chars, off, len);
+
+        if (buffer.length() >= bufferSize)
+        {
+            commit();
+        }
+    }
+
+    @Override
+    public void write(String string, int off, int len) throws IOException
+    {
+        if (output != null)
+        {
+            output.write(string, off, len);
+            return;
+        }
+
+        buffer.append(string, off, off + len);
+
+        if (buffer.length() >= bufferSize)
+        {
+            commit();
+        }
+    }
+
+    @Override
+    public void flush()
+    {
+        if (output != null)
+        {
+            output.flush();
+        }
+    }
+
+    /**
+     * Writes any buffered content to the response, then closes the response's writer.
+     */
+    @Override
+    public void close() throws IOException
+    {
+        if (output == null)
+        {
+            commit();
+        }
+
+        output.close();
+    }
+
+    private void commit() throws IOException
+    {
+        output = response.getPrintWriter(contentType);
+
+        output.append(buffer);
+
+        buffer = null;
+    }
+}
@@ -0,0 +1,113 @@
+// Copyright 2021 The Apache Software Foundation
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.apache.tapestry5.internal.services;
+
+import org.apache.tapestry5.commons.util.CollectionFactory;
+import org.apache.tapestry5.services.ClientDataCodec;
+
+import java.io.InvalidClassException;
+import java.util.Map;
+
+/**
+ * The {@link ClientDataCodec}s contributed to the {@link org.apache.tapestry5.services.ClientDataEncoder}, located by
+ * the type of value when writing, and by the name of the contributed type when reading.
+ *
+ * @since 5.7.0
+ */
+public class ClientDataCodecRegistry
+{
+    /**
+     * A codec, and the name of the type it was contributed for.
+     */
+    static final class Registration
+    {
+        final String typeName;
+
+        final ClientDataCodec codec;
+
+        Registration(String typeName, ClientDataCodec codec)
+        {
+            this.typeName = typeName;
+            this.codec = codec;
+        }
+    }
+
+    private static final Registration NONE = new Registration(null, null);
+
+    private final Map<String, ClientDataCodec> codecsByName = CollectionFactory.newMap();
+
+    private final Map<Class, ClientDataCodec> codecsByType;
+
+    private final ClassValue<Registration> registrations = new ClassValue<Registration>()
+    {
+        @Override
+        protected Registration computeValue(Class<?> type)
+        {
+            Class cursor = type;
+
+            while (cursor != null)
+            {
+                ClientDataCodec codec = codecsByType.get(cursor);
+
+                if (codec != null)
+                {
+                    return new Registration(cursor.getName(), codec);
+                }
+
+                cursor = cursor.getSuperclass();
+            }
+
+            return NONE;
+        }
+    };
+
+    public ClientDataCodecRegistry(Map<Class, ClientDataCodec> configuration)
+    {
+        codecsByType = CollectionFactory.newMap(configuration);
+
+        for (Map.Entry<Class, ClientDataCodec> e : configuration.entrySet())
+        {
+            codecsByName.put(e.getKey().getName(), e.getValue());
+        }
+    }
+
+    /**
+     * Returns the registration for the type, or its closest superclass, or null if no codec applies.
+     */
+    Registration find(Class type)
+    {
+        Registration result = registrations.get(type);
+
+        return result == NONE ? null : result;
+    }
+
+    /**
+     * Returns the codec contributed for the named type.
+     *
+     * @throws InvalidClassException
+     *         if no such codec has been contributed
+     */
+    ClientDataCodec get(String typeName) throws InvalidClassException
+    {
+        ClientDataCodec result = codecsByName.get(typeName);
+
+        if (result == null)
+        {
+            throw new InvalidClassException(typeName, "No ClientDataCodec has been contributed for this type");
+        }
+
+        return result;
+    }
+}
@@ -1,4 +1,4 @@
-// Copyright 2009, 2012 The Apache Software Foundation
+// Copyright 2009, 2012, 2021 The Apache Software Foundation
 //
 // Licensed under the Apache License, Version 2.0 (the "License");
 // you may not use this file except in compliance with the License.
@@ -14,39 +14,100 @@
 
 package org.apache.tapestry5.internal.services;
 
+import org.apache.commons.codec.binary.Base64;
 import org.apache.tapestry5.SymbolConstants;
 import org.apache.tapestry5.alerts.AlertManager;
+import org.apache.tapestry5.commons.services.PlasticProxyFactory;
+import org.apache.tapestry5.commons.util.ExceptionUtils;
 import org.apache.tapestry5.http.internal.TapestryHttpInternalConstants;
-import org.apache.tapestry5.internal.TapestryInternalUtils;
-import org.apache.tapestry5.internal.util.Base64InputStream;
-import org.apache.tapestry5.internal.util.MacOutputStream;
+import org.apache.tapestry5.http.internal.gzip.GZipCompressorPool;
+import org.apache.tapestry5.http.internal.util.ObjectPool;
+import org.apache.tapestry5.ioc.annotations.ComponentLayer;
 import org.apache.tapestry5.ioc.annotations.Symbol;
+import org.apache.tapestry5.services.ClientDataCodec;
 import org.apache.tapestry5.services.ClientDataEncoder;
 import org.apache.tapestry5.services.ClientDataSink;
 import org.apache.tapestry5.services.URLEncoder;
 import org.slf4j.Logger;
 
+import javax.crypto.Mac;
 import javax.crypto.spec.SecretKeySpec;
-import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.ObjectInputStream;
 import java.io.UnsupportedEncodingException;
 import java.security.Key;
 import java.security.MessageDigest;
-import java.util.zip.GZIPInputStream;
+import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
 
 public class ClientDataEncoderImpl implements ClientDataEncoder
 {
+    /**
+     * Size of the buffers used to compress client data, which is rarely large.
+     */
+    private static final int BUFFER_SIZE = 4096;
+
+    private static final int MAX_IDLE = 2 * Runtime.getRuntime().availableProcessors();
+
     private final URLEncoder urlEncoder;
 
-    private final Key hmacKey;
+    private final ClientDataCodecRegistry codecs;
+
+    private final boolean compact;
+
+    private final PlasticProxyFactory proxyFactory;
+
+    private final ObjectPool<Mac> macPool;
+
+    /**
+     * Verifies client data signed with the legacy algorithm, or null if such data is rejected.
+     */
+    private final ObjectPool<Mac> legacyMacPool;
+
+    private final ObjectPool<Inflater> inflaterPool = new ObjectPool<Inflater>(MAX_IDLE)
+    {
+        @Override
+        protected Inflater create()
+        {
+            return new Inflater(true);
+        }
+
+        @Override
+        protected void reset(Inflater inflater)
+        {
+            inflater.reset();
+        }
+
+        @Override
+        protected void discard(Inflater inflater)
+        {
+            inflater.end();
+        }
+    };
+
+    private final GZipCompressorPool compressorPool = new GZipCompressorPool(Deflater.DEFAULT_COMPRESSION,
+            BUFFER_SIZE, MAX_IDLE);
 
     public ClientDataEncoderImpl(URLEncoder urlEncoder, @Symbol(SymbolConstants.HMAC_PASSPHRASE) String passphrase,
                                  Logger logger,
                                  @Symbol(TapestryHttpInternalConstants.TAPESTRY_APP_PACKAGE_PARAM)
-                                 String applicationPackageName, AlertManager alertManager) throws UnsupportedEncodingException
+                                 String applicationPackageName, AlertManager alertManager,
+                                 @Symbol(SymbolConstants.COMPACT_CLIENT_DATA) boolean compact,
+                                 @ComponentLayer PlasticProxyFactory proxyFactory,
+                                 @Symbol(SymbolConstants.HMAC_ALGORITHM) String hmacAlgorithm,
+                                 @Symbol(SymbolConstants.LEGACY_HMAC_ALGORITHM) String legacyHmacAlgorithm,
+                                 Map<Class, ClientDataCodec> configuration) throws UnsupportedEncodingException
     {
         this.urlEncoder = urlEncoder;
+        this.compact = compact;
+        this.proxyFactory = proxyFactory;
+
+        codecs = new ClientDataCodecRegistry(configuration);
 
         if (passphrase.equals(""))
         {
@@ -66,14 +127,56 @@ public class ClientDataEncoderImpl implements ClientDataEncoder
             passphrase = applicationPackageName;
         }
 
-        hmacKey = new SecretKeySpec(passphrase.getBytes("UTF8"), "HmacSHA1");
+        byte[] keyBytes = passphrase.getBytes("UTF8");
+
+        macPool = createMacPool(new SecretKeySpec(keyBytes, hmacAlgorithm));
+
+        legacyMacPool = legacyHmacAlgorithm.equals("") || legacyHmacAlgorithm.equals(hmacAlgorithm)
+                ? null
+                : createMacPool(new SecretKeySpec(keyBytes, legacyHmacAlgorithm));
+
+        // Fail fast if an algorithm is not available.
+
+        macPool.release(macPool.acquire());
+
+        if (legacyMacPool != null)
+        {
+            legacyMacPool.release(legacyMacPool.acquire());
+        }
+    }
+
+    private static ObjectPool<Mac> createMacPool(final Key key)
+    {
+        return new ObjectPool<Mac>(MAX_IDLE)
+        {
+            @Override
+            protected Mac create()
+            {
+                try
+                {
+                    Mac mac = Mac.getInstance(key.getAlgorithm());
+                    mac.init(key);
+
+                    return mac;
+                } catch (Exception ex)
+                {
+                    throw new RuntimeException("Unable to create Mac: " + ExceptionUtils.toMessage(ex), ex);
+                }
+            }
+
+            @Override
+            protected void reset(Mac mac)
+            {
+                mac.reset();
+            }
+        };
     }
 
     public ClientDataSink createSink()
     {
         try
         {
-            return new ClientDataSinkImpl(urlEncoder, hmacKey);
+            return new ClientDataSinkImpl(urlEncoder, macPool, compressorPool, compact ? codecs : null);
         } catch (IOException ex)
         {
             throw new RuntimeException(ex);
@@ -100,40 +203,98 @@ public class ClientDataEncoderImpl implements ClientDataEncoder
 
         try
         {
-            Base64InputStream b64in = new Base64InputStream(clientStream);
+            // Decoded just once: the HMAC is computed over the entire array, and only then is it decompressed.
+            // The data is never deserialized before it has been validated.
 
-            validateHMAC(storedHmacResult, b64in);
+            byte[] data = Base64.decodeBase64(clientStream);
 
-            // After reading it once to validate, reset it for the actual read (which includes the GZip decompression).
+            validateHMAC(storedHmacResult, data);
 
-            b64in.reset();
+            InputStream in = new ByteArrayInputStream(data);
 
-            BufferedInputStream buffered = new BufferedInputStream(new GZIPInputStream(b64in));
+            skipGZipHeader(in);
 
-            return new ObjectInputStream(buffered);
+            return CompactObjectInputStream.open(new ByteArrayInputStream(inflate(in)), codecs,
+                    proxyFactory.getClassLoader());
         } catch (IOException ex)
         {
             throw new RuntimeException(ex);
         }
     }
 
-    private void validateHMAC(String storedHmacResult, Base64InputStream b64in) throws IOException
+    /**
+     * Client data is always compressed with a minimal, ten byte GZIP header (no file name, comment, or other optional
+     * fields). The header is checked and skipped, so that the content can be decompressed with a pooled
+     * {@link Inflater}.
+     */
+    private static void skipGZipHeader(InputStream in) throws IOException
+    {
+        if (in.read() != 0x1f || in.read() != 0x8b || in.read() != Deflater.DEFLATED || in.read() != 0
+                || in.skip(6) != 6)
+        {
+            throw new IOException("Client data is not in the expected format.");
+        }
+    }
+
+    /**
+     * Decompresses all of the content with a pooled {@link Inflater}; client data is small, and this way the inflater
+     * is returned to the pool even if the caller never closes the stream, or the data turns out to be corrupt.
+     */
+    private byte[] inflate(InputStream in) throws IOException
     {
-        MacOutputStream macOs = MacOutputStream.streamFor(hmacKey);
+        Inflater inflater = inflaterPool.acquire();
+
+        try
+        {
+            InputStream inflaterStream = new InflaterInputStream(in, inflater);
 
-        TapestryInternalUtils.copy(b64in, macOs);
+            ByteArrayOutputStream result = new ByteArrayOutputStream(BUFFER_SIZE);
 
-        macOs.close();
+            byte[] buffer = new byte[BUFFER_SIZE];
 
-        String actual = macOs.getResult();
+            int count;
 
-        if (!MessageDigest.isEqual(storedHmacResult.getBytes(), actual.getBytes()))
+            while ((count = inflaterStream.read(buffer)) > 0)
+            {
+                result.write(buffer, 0, count);
+            }
+
+            return result.toByteArray();
+        } finally
+        {
+            inflaterPool.release(inflater);
+        }
+    }
+
+    /**
+     * Checks the signature of the data, which may also have been signed with the legacy algorithm (by an earlier
+     * release, or before the {@link SymbolConstants#HMAC_ALGORITHM} symbol was changed).
+     */
+    private void validateHMAC(String storedHmacResult, byte[] data) throws IOException
+    {
+        byte[] stored = Base64.decodeBase64(storedHmacResult);
+
+        if (!MessageDigest.isEqual(stored, computeHMAC(macPool, data))
+                && (legacyMacPool == null || !MessageDigest.isEqual(stored, computeHMAC(legacyMacPool, data))))
         {
             throw new IOException("Client data associated with the current request appears to have been tampered with " +
                     "(the HMAC signature does not match).");
         }
     }
-    
+
+    private static byte[] computeHMAC(ObjectPool<Mac> pool, byte[] data)
+    {
+        Mac mac = pool.acquire();
+
+        try
+        {
+            return mac.doFinal(data);
+        } finally
+        {
+            pool.release(mac);
+        }
+    }
+
     public ObjectInputStream decodeEncodedClientData(String clientData) throws IOException
     {
         return decodeClientData(urlEncoder.decode(clientData));
@@ -14,19 +14,26 @@
 
 package org.apache.tapestry5.internal.services;
 
+import org.apache.tapestry5.http.internal.gzip.GZipCompressor;
+import org.apache.tapestry5.http.internal.gzip.GZipCompressorPool;
+import org.apache.tapestry5.http.internal.util.ObjectPool;
 import org.apache.tapestry5.internal.util.Base64OutputStream;
 import org.apache.tapestry5.internal.util.MacOutputStream;
 import org.apache.tapestry5.internal.util.TeeOutputStream;
 import org.apache.tapestry5.services.ClientDataSink;
 import org.apache.tapestry5.services.URLEncoder;
 
-import java.io.BufferedOutputStream;
+import javax.crypto.Mac;
 import java.io.IOException;
 import java.io.ObjectOutputStream;
 import java.io.OutputStream;
-import java.security.Key;
-import java.util.zip.GZIPOutputStream;
 
+/**
+ * Writes objects (in the {@linkplain CompactObjectOutputStream compact format}, or using Java serialization),
+ * then compresses the stream (in GZIP format), signs it with an HMAC and encodes it in Base64.
+ * The {@link Mac} and the compressor (with its {@link java.util.zip.Deflater} and buffers) are obtained from pools,
+ * and are returned to the pools once the client data has been obtained.
+ */
 public class ClientDataSinkImpl implements ClientDataSink
 {
     private final Base64OutputStream base64OutputStream;
@@ -35,57 +42,123 @@ public class ClientDataSinkImpl implements ClientDataSink
 
     private final URLEncoder urlEncoder;
 
+    private final ObjectPool<Mac> macPool;
+
+    private final GZipCompressorPool compressorPool;
+
+    private final Mac mac;
+
+    private final GZipCompressor compressor;
+
     private boolean closed;
 
     private final MacOutputStream macOutputStream;
 
-    public ClientDataSinkImpl(URLEncoder urlEncoder, Key hmacKey) throws IOException
+    private String clientData;
+
+    /**
+     * @param codecs
+     *         codecs used to write objects in the compact format, or null to use Java serialization
+     * @since 5.7.0
+     */
+    public ClientDataSinkImpl(URLEncoder urlEncoder, ObjectPool<Mac> macPool, GZipCompressorPool compressorPool,
+                              ClientDataCodecRegistry codecs) throws IOException
     {
         this.urlEncoder = urlEncoder;
+        this.macPool = macPool;
+        this.compressorPool = compressorPool;
+
+        mac = macPool.acquire();
+        compressor = compressorPool.acquire();
 
         base64OutputStream = new Base64OutputStream();
-        macOutputStream =  MacOutputStream.streamFor(hmacKey);
+        macOutputStream = new MacOutputStream(mac);
+
+        OutputStream output = new TeeOutputStream(macOutputStream, base64OutputStream);
+
+        compressor.start(output);
 
-        final BufferedOutputStream pipeline = new BufferedOutputStream(new GZIPOutputStream(
-                new TeeOutputStream(macOutputStream, base64OutputStream)));
+        OutputStream compressing = new CompressingOutputStream(output);
 
-        OutputStream guard = new OutputStream()
+        if (codecs == null)
         {
-            @Override
-            public void write(int b) throws IOException
-            {
-                pipeline.write(b);
-            }
+            objectOutputStream = new ObjectOutputStream(compressing);
+        } else
+        {
+            compressing.write(CompactObjectOutputStream.HEADER);
 
-            @Override
-            public void close() throws IOException
-            {
-                closed = true;
+            objectOutputStream = new CompactObjectOutputStream(compressing, codecs);
+        }
+    }
 
-                pipeline.close();
-            }
+    /**
+     * Accumulates content in the compressor's buffer, compressing it each time the buffer fills.
+     */
+    private class CompressingOutputStream extends OutputStream
+    {
+        private final OutputStream output;
+
+        private final byte[] buffer = compressor.getBuffer();
+
+        private int count;
+
+        CompressingOutputStream(OutputStream output)
+        {
+            this.output = output;
+        }
 
-            @Override
-            public void flush() throws IOException
+        @Override
+        public void write(int b) throws IOException
+        {
+            if (count == buffer.length)
             {
-                pipeline.flush();
+                drain();
             }
 
-            @Override
-            public void write(byte[] b) throws IOException
+            buffer[count++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException
+        {
+            if (len > buffer.length - count)
             {
-                pipeline.write(b);
+                drain();
+
+                if (len >= buffer.length)
+                {
+                    compressor.compress(b, off, len, output);
+
+                    return;
+                }
             }
 
-            @Override
-            public void write(byte[] b, int off, int len) throws IOException
+            System.arraycopy(b, off, buffer, count, len);
+
+            count += len;
+        }
+
+        private void drain() throws IOException
+        {
+            compressor.compress(buffer, 0, count, output);
+
+            count = 0;
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            if (closed)
             {
-                pipeline.write(b, off, len);
+                return;
             }
-        };
 
+            closed = true;
 
-        objectOutputStream = new ObjectOutputStream(guard);
+            drain();
+
+            compressor.finish(output);
+        }
     }
 
     public ObjectOutputStream getObjectOutputStream()
@@ -95,18 +168,26 @@ public class ClientDataSinkImpl implements ClientDataSink
 
     public String getClientData()
     {
-        if (!closed)
+        if (clientData == null)
         {
-            try
-            {
-                objectOutputStream.close();
-            } catch (IOException ex)
+            if (!closed)
             {
-                // Ignore.
+                try
+                {
+                    objectOutputStream.close();
+                } catch (IOException ex)
+                {
+                    // Ignore.
+                }
             }
+
+            clientData = macOutputStream.getResult() + ":" + base64OutputStream.toBase64();
+
+            macPool.release(mac);
+            compressorPool.release(compressor);
         }
 
-        return macOutputStream.getResult() + ":" + base64OutputStream.toBase64();
+        return clientData;
     }
 
     public String getEncodedClientData()
@@ -24,6 +24,7 @@ import org.apache.tapestry5.services.ClientDataEncoder;
 import org.apache.tapestry5.services.ClientDataSink;
 import org.apache.tapestry5.services.PersistentFieldChange;
 
+import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.Serializable;
@@ -230,7 +231,7 @@ public class ClientPersistentFieldStorageImpl implements ClientPersistentFieldSt
 
             for (int i = 0; i < count; i++)
             {
-                Key key = (Key) in.readObject();
+                Key key = readKey(in);
                 Object value = in.readObject();
 
                 persistedValues.put(key, value);
@@ -244,6 +245,25 @@ public class ClientPersistentFieldStorageImpl implements ClientPersistentFieldSt
         }
     }
 
+    /**
+     * Keys are written as three strings (the page name, component id and field name), so that they can be written
+     * compactly; client data written by earlier releases contains serialized Key objects.
+     */
+    private static Key readKey(ObjectInputStream in) throws IOException, ClassNotFoundException
+    {
+        Object first = in.readObject();
+
+        if (first instanceof Key)
+        {
+            return (Key) first;
+        }
+
+        String componentId = (String) in.readObject();
+        String fieldName = (String) in.readObject();
+
+        return new Key((String) first, componentId, fieldName);
+    }
+
     private void refreshClientData()
     {
         // TAP5-2269: Even in the absense of a change to a persistent field, a mutable persistent object
@@ -288,7 +308,11 @@ public class ClientPersistentFieldStorageImpl implements ClientPersistentFieldSt
 
             for (Map.Entry<Key, Object> e : persistedValues.entrySet())
             {
-                os.writeObject(e.getKey());
+                Key key = e.getKey();
+
+                os.writeObject(key.pageName);
+                os.writeObject(key.componentId);
+                os.writeObject(key.fieldName);
                 os.writeObject(e.getValue());
             }
         } catch (Exception ex)
@@ -0,0 +1,478 @@
+// Copyright 2021 The Apache Software Foundation
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.apache.tapestry5.internal.services;
+
+import org.apache.tapestry5.commons.util.CollectionFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectStreamClass;
+import java.io.PushbackInputStream;
+import java.io.StreamCorruptedException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Reads client data written by a {@link CompactObjectOutputStream}. Classes (of enums, and of serialized objects)
+ * are loaded using the provided class loader, which is expected to be the class loader for component classes
+ * (as actions stored in forms are often inner classes of components).
+ *
+ * @since 5.7.0
+ */
+public class CompactObjectInputStream extends ObjectInputStream
+{
+    private final DataInputStream input;
+
+    private final ClientDataCodecRegistry registry;
+
+    private final ClassLoader classLoader;
+
+    private final List<String> strings = CollectionFactory.newList();
+
+    private final List<Object> collections = CollectionFactory.newList();
+
+    private Deserializer deserializer;
+
+    /**
+     * Reads objects that were written using Java serialization.
+     */
+    private class Deserializer extends ObjectInputStream
+    {
+        Deserializer() throws IOException
+        {
+            // Closing the deserializer should not close the underlying stream.
+            super(new FilterInputStream(input)
+            {
+                @Override
+                public void close()
+                {
+                }
+            });
+
+            enableResolveObject(true);
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException
+        {
+            try
+            {
+                return Class.forName(desc.getName(), false, classLoader);
+            } catch (ClassNotFoundException ex)
+            {
+                // Primitive types, for example.
+                return super.resolveClass(desc);
+            }
+        }
+
+        @Override
+        protected Object resolveObject(Object object) throws IOException
+        {
+            if (!(object instanceof CompactObjectOutputStream.EncodedValue))
+            {
+                return object;
+            }
+
+            CompactObjectOutputStream.EncodedValue value = (CompactObjectOutputStream.EncodedValue) object;
+
+            CompactObjectInputStream nested = new CompactObjectInputStream(new ByteArrayInputStream(value.data),
+                    registry, classLoader);
+
+            try
+            {
+                return registry.get(value.typeName).read(nested);
+            } catch (ClassNotFoundException ex)
+            {
+                throw new IOException(ex);
+            }
+        }
+    }
+
+    public CompactObjectInputStream(InputStream input, ClientDataCodecRegistry registry, ClassLoader classLoader)
+            throws IOException
+    {
+        // The no-arguments constructor directs readObject() to readObjectOverride(); all other methods
+        // that read must also be overridden.
+        super();
+
+        this.input = new DataInputStream(input);
+        this.registry = registry;
+        this.classLoader = classLoader;
+    }
+
+    /**
+     * Opens a stream that reads objects in the compact format, or using Java serialization, depending on the header at
+     * the start of the data (client data may have been written before the
+     * {@link org.apache.tapestry5.SymbolConstants#COMPACT_CLIENT_DATA} symbol was changed).
+     *
+     * @param input
+     *         the client data, after it has been decompressed
+     * @param registry
+     *         codecs for values written with a {@link org.apache.tapestry5.services.ClientDataCodec}
+     * @param classLoader
+     *         used to load classes of enums and serialized objects in the compact format
+     * @return a {@link CompactObjectInputStream}, or a standard {@link ObjectInputStream}
+     */
+    public static ObjectInputStream open(InputStream input, ClientDataCodecRegistry registry, ClassLoader classLoader)
+            throws IOException
+    {
+        byte[] header = CompactObjectOutputStream.HEADER;
+
+        PushbackInputStream pushback = new PushbackInputStream(input, header.length);
+
+        byte[] actual = new byte[header.length];
+
+        int count = 0;
+
+        while (count < actual.length)
+        {
+            int read = pushback.read(actual, count, actual.length - count);
+
+            if (read < 0)
+            {
+                break;
+            }
+
+            count += read;
+        }
+
+        if (count == header.length && MessageDigest.isEqual(header, actual))
+        {
+            return new CompactObjectInputStream(pushback, registry, classLoader);
+        }
+
+        pushback.unread(actual, 0, count);
+
+        return new ObjectInputStream(pushback);
+    }
+
+    @Override
+    protected Object readObjectOverride() throws IOException, ClassNotFoundException
+    {
+        int tag = input.readUnsignedByte();
+
+        switch (tag)
+        {
+            case CompactObjectOutputStream.NULL:
+                return null;
+
+            case CompactObjectOutputStream.STRING:
+            case CompactObjectOutputStream.STRING_REFERENCE:
+                return readString(tag);
+
+            case CompactObjectOutputStream.TRUE:
+                return Boolean.TRUE;
+
+            case CompactObjectOutputStream.FALSE:
+                return Boolean.FALSE;
+
+            case CompactObjectOutputStream.INTEGER:
+                return (int) readVarLong();
+
+            case CompactObjectOutputStream.LONG:
+                return readVarLong();
+
+            case CompactObjectOutputStream.SHORT:
+                return input.readShort();
+
+            case CompactObjectOutputStream.BYTE:
+                return input.readByte();
+
+            case CompactObjectOutputStream.CHARACTER:
+                return input.readChar();
+
+            case CompactObjectOutputStream.FLOAT:
+                return input.readFloat();
+
+            case CompactObjectOutputStream.DOUBLE:
+                return input.readDouble();
+
+            case CompactObjectOutputStream.ENUM:
+                return readEnum();
+
+            case CompactObjectOutputStream.CODEC:
+                return registry.get(readString(input.readUnsignedByte())).read(this);
+
+            case CompactObjectOutputStream.ARRAY_LIST:
+                return readList();
+
+            case CompactObjectOutputStream.HASH_MAP:
+                return readMap();
+
+            case CompactObjectOutputStream.COLLECTION_REFERENCE:
+                return readCollectionReference();
+
+            case CompactObjectOutputStream.SERIALIZED:
+
+                if (deserializer == null)
+                {
+                    deserializer = new Deserializer();
+                }
+
+                return deserializer.readObject();
+
+            default:
+                throw new StreamCorruptedException(String.format("Unexpected tag %d in client data.", tag));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object readEnum() throws IOException, ClassNotFoundException
+    {
+        Class enumType = Class.forName(readString(input.readUnsignedByte()), false, classLoader);
+
+        return Enum.valueOf(enumType, readString(input.readUnsignedByte()));
+    }
+
+    private List<Object> readList() throws IOException, ClassNotFoundException
+    {
+        int size = readSize();
+
+        // The size is not trusted to pre-size the list.
+
+        List<Object> result = new ArrayList<Object>(Math.min(size, 256));
+
+        collections.add(result);
+
+        for (int i = 0; i < size; i++)
+        {
+            result.add(readObjectOverride());
+        }
+
+        return result;
+    }
+
+    private HashMap<Object, Object> readMap() throws IOException, ClassNotFoundException
+    {
+        int size = readSize();
+
+        HashMap<Object, Object> result = new HashMap<Object, Object>();
+
+        collections.add(result);
+
+        for (int i = 0; i < size; i++)
+        {
+            Object key = readObjectOverride();
+
+            result.put(key, readObjectOverride());
+        }
+
+        return result;
+    }
+
+    private Object readCollectionReference() throws IOException
+    {
+        int index = readSize();
+
+        if (index >= collections.size())
+        {
+            throw new StreamCorruptedException("Invalid collection reference in client data.");
+        }
+
+        return collections.get(index);
+    }
+
+    private String readString(int tag) throws IOException
+    {
+        if (tag == CompactObjectOutputStream.STRING_REFERENCE)
+        {
+            int index = readSize();
+
+            if (index >= strings.size())
+            {
+                throw new StreamCorruptedException("Invalid string reference in client data.");
+            }
+
+            return strings.get(index);
+        }
+
+        if (tag != CompactObjectOutputStream.STRING)
+        {
+            throw new StreamCorruptedException(String.format("Expected a string in client data, but found tag %d.", tag));
+        }
+
+        byte[] bytes = new byte[readSize()];
+
+        input.readFully(bytes);
+
+        String result = new String(bytes, StandardCharsets.UTF_8);
+
+        strings.add(result);
+
+        return result;
+    }
+
+    /**
+     * Reads a size or index, which can not be negative (and is not trusted, as it comes from the client).
+     */
+    private int readSize() throws IOException
+    {
+        long result = readVarLong();
+
+        if (result < 0 || result > Integer.MAX_VALUE)
+        {
+            throw new StreamCorruptedException("Invalid size in client data.");
+        }
+
+        return (int) result;
+    }
+
+    private long readVarLong() throws IOException
+    {
+        long zigzag = 0;
+
+        for (int shift = 0; shift < 64; shift += 7)
+        {
+            int b = input.readUnsignedByte();
+
+            zigzag |= (long) (b & 0x7F) << shift;
+
+            if ((b & 0x80) == 0)
+            {
+                return (zigzag >>> 1) ^ -(zigzag & 1);
+            }
+        }
+
+        throw new StreamCorruptedException("Invalid number in client data.");
+    }
+
+    @Override
+    public Object readUnshared() throws IOException, ClassNotFoundException
+    {
+        return readObjectOverride();
+    }
+
+    @Override
+    public int read() throws IOException
+    {
+        return input.read();
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException
+    {
+        return input.read(b, off, len);
+    }
+
+    @Override
+    public int available() throws IOException
+    {
+        return input.available();
+    }
+
+    @Override
+    public boolean readBoolean() throws IOException
+    {
+        return input.readBoolean();
+    }
+
+    @Override
+    public byte readByte() throws IOException
+    {
+        return input.readByte();
+    }
+
+    @Override
+    public int readUnsignedByte() throws IOException
+    {
+        return input.readUnsignedByte();
+    }
+
+    @Override
+    public short readShort() throws IOException
+    {
+        return input.readShort();
+    }
+
+    @Override
+    public int readUnsignedShort() throws IOException
+    {
+        return input.readUnsignedShort();
+    }
+
+    @Override
+    public char readChar() throws IOException
+    {
+        return input.readChar();
+    }
+
+    @Override
+    public int readInt() throws IOException
+    {
+        return input.readInt();
+    }
+
+    @Override
+    public long readLong() throws IOException
+    {
+        return input.readLong();
+    }
+
+    @Override
+    public float readFloat() throws IOException
+    {
+        return input.readFloat();
+    }
+
+    @Override
+    public double readDouble() throws IOException
+    {
+        return input.readDouble();
+    }
+
+    @Override
+    public void readFully(byte[] b) throws IOException
+    {
+        input.readFully(b);
+    }
+
+    @Override
+    public void readFully(byte[] b, int off, int len) throws IOException
+    {
+        input.readFully(b, off, len);
+    }
+
+    @Override
+    public int skipBytes(int len) throws IOException
+    {
+        return input.skipBytes(len);
+    }
+
+    @Override
+    @SuppressWarnings("deprecation")
+    public String readLine() throws IOException
+    {
+        return input.readLine();
+    }
+
+    @Override
+    public String readUTF() throws IOException
+    {
+        return input.readUTF();
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        input.close();
+    }
+}
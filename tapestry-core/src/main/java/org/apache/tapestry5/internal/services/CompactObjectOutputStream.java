@@ -0,0 +1,481 @@
+// Copyright 2021 The Apache Software Foundation
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.apache.tapestry5.internal.services;
+
+import org.apache.tapestry5.commons.util.CollectionFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes client data in a compact format, rather than using Java serialization. Strings (each distinct string is
+ * only written once), boxed primitives, enums, {@link ArrayList}s, {@link HashMap}s and values with a contributed
+ * {@link org.apache.tapestry5.services.ClientDataCodec} are written with a one byte tag followed by their content.
+ * A list or map referenced more than once is written once, followed by references to it.
+ * Other objects are written using Java serialization, within the same stream; values with a contributed codec that
+ * are referenced by those objects are still written using the codec.
+ *
+ * Primitive values (written with {@link #writeInt(int)}, {@link #writeUTF(String)}, and so forth) are written just
+ * as {@link DataOutputStream} writes them.
+ *
+ * @see CompactObjectInputStream
+ * @since 5.7.0
+ */
+public class CompactObjectOutputStream extends ObjectOutputStream
+{
+    /**
+     * Written at the start of the client data, so that it can be distinguished from client data written with Java
+     * serialization (which starts with 0xACED): the characters "T5", followed by the format version.
+     *
+     * @see CompactObjectInputStream#open(java.io.InputStream, ClientDataCodecRegistry, ClassLoader)
+     */
+    static final byte[] HEADER = {'T', '5', 1};
+
+    static final int NULL = 0;
+
+    static final int STRING = 1;
+
+    static final int STRING_REFERENCE = 2;
+
+    static final int TRUE = 3;
+
+    static final int FALSE = 4;
+
+    static final int INTEGER = 5;
+
+    static final int LONG = 6;
+
+    static final int SHORT = 7;
+
+    static final int BYTE = 8;
+
+    static final int CHARACTER = 9;
+
+    static final int FLOAT = 10;
+
+    static final int DOUBLE = 11;
+
+    static final int ENUM = 12;
+
+    static final int CODEC = 13;
+
+    static final int ARRAY_LIST = 14;
+
+    static final int HASH_MAP = 15;
+
+    static final int SERIALIZED = 16;
+
+    static final int COLLECTION_REFERENCE = 17;
+
+    /**
+     * Replaces, inside serialized objects, a value written using a {@link org.apache.tapestry5.services.ClientDataCodec}.
+     */
+    static final class EncodedValue implements Serializable
+    {
+        private static final long serialVersionUID = 3052185384390413347L;
+
+        final String typeName;
+
+        final byte[] data;
+
+        EncodedValue(String typeName, byte[] data)
+        {
+            this.typeName = typeName;
+            this.data = data;
+        }
+    }
+
+    private final DataOutputStream output;
+
+    private final ClientDataCodecRegistry registry;
+
+    private final Map<String, Integer> stringIndexes = CollectionFactory.newMap();
+
+    /**
+     * Lists and maps already written, by identity, so that a collection referenced more than once (including from
+     * inside itself) is written once, and read back as a single instance.
+     */
+    private final Map<Object, Integer> collectionIndexes = new IdentityHashMap<Object, Integer>();
+
+    private Serializer serializer;
+
+    /**
+     * Serializes objects that can not be written in the compact format.
+     */
+    private class Serializer extends ObjectOutputStream
+    {
+        Serializer() throws IOException
+        {
+            // Closing the serializer should not close the underlying stream.
+            super(new FilterOutputStream(output)
+            {
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException
+                {
+                    out.write(b, off, len);
+                }
+
+                @Override
+                public void close() throws IOException
+                {
+                    flush();
+                }
+            });
+
+            enableReplaceObject(true);
+        }
+
+        @Override
+        protected Object replaceObject(Object object) throws IOException
+        {
+            ClientDataCodecRegistry.Registration registration = registry.find(object.getClass());
+
+            if (registration == null || !registration.codec.canWrite(object))
+            {
+                return object;
+            }
+
+            ByteArrayOutputStream bos = new ByteArrayOutputStream();
+
+            CompactObjectOutputStream nested = new CompactObjectOutputStream(bos, registry);
+
+            registration.codec.write(object, nested);
+
+            nested.flush();
+
+            return new EncodedValue(registration.typeName, bos.toByteArray());
+        }
+    }
+
+    public CompactObjectOutputStream(OutputStream output, ClientDataCodecRegistry registry) throws IOException
+    {
+        // The no-arguments constructor directs writeObject() to writeObjectOverride(); all other methods
+        // that write must also be overridden.
+        super();
+
+        this.output = new DataOutputStream(output);
+        this.registry = registry;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void writeObjectOverride(Object object) throws IOException
+    {
+        if (object == null)
+        {
+            output.write(NULL);
+            return;
+        }
+
+        Class type = object.getClass();
+
+        if (type == String.class)
+        {
+            writeString((String) object);
+            return;
+        }
+
+        if (type == Boolean.class)
+        {
+            output.write((Boolean) object ? TRUE : FALSE);
+            return;
+        }
+
+        if (type == Integer.class)
+        {
+            output.write(INTEGER);
+            writeVarLong((Integer) object);
+            return;
+        }
+
+        if (type == Long.class)
+        {
+            output.write(LONG);
+            writeVarLong((Long) object);
+            return;
+        }
+
+        if (type == Short.class)
+        {
+            output.write(SHORT);
+            output.writeShort((Short) object);
+            return;
+        }
+
+        if (type == Byte.class)
+        {
+            output.write(BYTE);
+            output.writeByte((Byte) object);
+            return;
+        }
+
+        if (type == Character.class)
+        {
+            output.write(CHARACTER);
+            output.writeChar((Character) object);
+            return;
+        }
+
+        if (type == Float.class)
+        {
+            output.write(FLOAT);
+            output.writeFloat((Float) object);
+            return;
+        }
+
+        if (type == Double.class)
+        {
+            output.write(DOUBLE);
+            output.writeDouble((Double) object);
+            return;
+        }
+
+        if (object instanceof Enum)
+        {
+            Enum value = (Enum) object;
+
+            output.write(ENUM);
+            writeString(value.getDeclaringClass().getName());
+            writeString(value.name());
+            return;
+        }
+
+        ClientDataCodecRegistry.Registration registration = registry.find(type);
+
+        if (registration != null && registration.codec.canWrite(object))
+        {
+            output.write(CODEC);
+            writeString(registration.typeName);
+            registration.codec.write(object, this);
+            return;
+        }
+
+        if (type == ArrayList.class || type == HashMap.class)
+        {
+            Integer index = collectionIndexes.get(object);
+
+            if (index != null)
+            {
+                output.write(COLLECTION_REFERENCE);
+                writeVarLong(index);
+                return;
+            }
+
+            // Indexed before the content is written, as the content may refer back to the collection.
+
+            collectionIndexes.put(object, collectionIndexes.size());
+        }
+
+        if (type == ArrayList.class)
+        {
+            List<?> list = (List<?>) object;
+
+            output.write(ARRAY_LIST);
+            writeVarLong(list.size());
+
+            for (Object element : list)
+            {
+                writeObjectOverride(element);
+            }
+
+            return;
+        }
+
+        if (type == HashMap.class)
+        {
+            Map<?, ?> map = (Map<?, ?>) object;
+
+            output.write(HASH_MAP);
+            writeVarLong(map.size());
+
+            for (Map.Entry<?, ?> e : map.entrySet())
+            {
+                writeObjectOverride(e.getKey());
+                writeObjectOverride(e.getValue());
+            }
+
+            return;
+        }
+
+        output.write(SERIALIZED);
+
+        if (serializer == null)
+        {
+            serializer = new Serializer();
+        }
+
+        serializer.writeObject(object);
+        serializer.flush();
+    }
+
+    private void writeString(String value) throws IOException
+    {
+        Integer index = stringIndexes.get(value);
+
+        if (index != null)
+        {
+            output.write(STRING_REFERENCE);
+            writeVarLong(index);
+            return;
+        }
+
+        stringIndexes.put(value, stringIndexes.size());
+
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+
+        output.write(STRING);
+        writeVarLong(bytes.length);
+        output.write(bytes);
+    }
+
+    /**
+     * Writes the value in as few bytes as possible, seven bits at a time, zig-zag encoded so that small negative
+     * values are also short.
+     */
+    private void writeVarLong(long value) throws IOException
+    {
+        long zigzag = (value << 1) ^ (value >> 63);
+
+        while ((zigzag & ~0x7FL) != 0)
+        {
+            output.write((int) ((zigzag & 0x7F) | 0x80));
+            zigzag >>>= 7;
+        }
+
+        output.write((int) zigzag);
+    }
+
+    @Override
+    public void writeUnshared(Object object) throws IOException
+    {
+        writeObjectOverride(object);
+    }
+
+    /**
+     * Not supported, as the reader could not tell where the reset occurred.
+     */
+    @Override
+    public void reset() throws IOException
+    {
+        throw new IOException("CompactObjectOutputStream does not support reset().");
+    }
+
+    @Override
+    public void write(int b) throws IOException
+    {
+        output.write(b);
+    }
+
+    @Override
+    public void write(byte[] b) throws IOException
+    {
+        output.write(b, 0, b.length);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException
+    {
+        output.write(b, off, len);
+    }
+
+    @Override
+    public void writeBoolean(boolean value) throws IOException
+    {
+        output.writeBoolean(value);
+    }
+
+    @Override
+    public void writeByte(int value) throws IOException
+    {
+        output.writeByte(value);
+    }
+
+    @Override
+    public void writeShort(int value) throws IOException
+    {
+        output.writeShort(value);
+    }
+
+    @Override
+    public void writeChar(int value) throws IOException
+    {
+        output.writeChar(value);
+    }
+
+    @Override
+    public void writeInt(int value) throws IOException
+    {
+        output.writeInt(value);
+    }
+
+    @Override
+    public void writeLong(long value) throws IOException
+    {
+        output.writeLong(value);
+    }
+
+    @Override
+    public void writeFloat(float value) throws IOException
+    {
+        output.writeFloat(value);
+    }
+
+    @Override
+    public void writeDouble(double value) throws IOException
+    {
+        output.writeDouble(value);
+    }
+
+    @Override
+    public void writeBytes(String value) throws IOException
+    {
+        output.writeBytes(value);
+    }
+
+    @Override
+    public void writeChars(String value) throws IOException
+    {
+        output.writeChars(value);
+    }
+
+    @Override
+    public void writeUTF(String value) throws IOException
+    {
+        output.writeUTF(value);
+    }
+
+    @Override
+    public void flush() throws IOException
+    {
+        output.flush();
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        output.close();
+    }
+}
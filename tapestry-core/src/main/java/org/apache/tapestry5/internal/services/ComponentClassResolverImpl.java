@@ -107,6 +107,10 @@ public class ComponentClassResolverImpl implements ComponentClassResolver, Inval
          */
         private final Map<String, String> pageNameToCanonicalPageName = CollectionFactory.newCaseInsensitiveMap();
 
+        /**
+         * Built from pageNameToCanonicalPageName once validated, for decoding request paths.
+         */
+        private PageNameTrie pageNameTrie;
 
         /**
          * These are used to check for name overlaps: a single name (generated by different paths) that maps to more than one class.
@@ -310,6 +314,8 @@ public class ComponentClassResolverImpl implements ComponentClassResolver, Inval
             {
                 throw new IllegalStateException("You must correct these validation issues to proceed.");
             }
+
+            pageNameTrie = new PageNameTrie(pageNameToCanonicalPageName);
         }
 
         private void validate(String category, Map<String, Set<String>> map)
@@ -689,6 +695,14 @@ public class ComponentClassResolverImpl implements ComponentClassResolver, Inval
         return result;
     }
 
+    /**
+     * Returns the trie of page names, exposed through {@link PageNameTrieSource}.
+     */
+    public PageNameTrie getPageNameTrie()
+    {
+        return getData().pageNameTrie;
+    }
+
     public Map<String, String> getFolderToPackageMapping()
     {
         Map<String, String> result = CollectionFactory.newCaseInsensitiveMap();
@@ -1,4 +1,4 @@
-// Copyright 2009, 2010, 2011, 2012 The Apache Software Foundation
+// Copyright 2009, 2010, 2011, 2012, 2021 The Apache Software Foundation
 //
 // Licensed under the Apache License, Version 2.0 (the "License");
 // you may not use this file except in compliance with the License.
@@ -16,14 +16,12 @@ package org.apache.tapestry5.internal.services;
 
 import org.apache.tapestry5.*;
 import org.apache.tapestry5.beanmodel.services.*;
-import org.apache.tapestry5.commons.util.CollectionFactory;
 import org.apache.tapestry5.http.Link;
 import org.apache.tapestry5.http.TapestryHttpSymbolConstants;
 import org.apache.tapestry5.http.services.BaseURLSource;
 import org.apache.tapestry5.http.services.Request;
 import org.apache.tapestry5.http.services.Response;
 import org.apache.tapestry5.internal.InternalConstants;
-import org.apache.tapestry5.internal.TapestryInternalUtils;
 import org.apache.tapestry5.ioc.annotations.Symbol;
 import org.apache.tapestry5.ioc.internal.util.InternalUtils;
 import org.apache.tapestry5.services.ComponentClassResolver;
@@ -36,13 +34,14 @@ import org.apache.tapestry5.services.PageRenderRequestParameters;
 import org.apache.tapestry5.services.PersistentLocale;
 import org.apache.tapestry5.services.security.ClientWhitelist;
 
-import java.util.List;
 import java.util.Locale;
 
 public class ComponentEventLinkEncoderImpl implements ComponentEventLinkEncoder
 {
     private final ComponentClassResolver componentClassResolver;
 
+    private final PageNameTrieSource pageNameTrieSource;
+
     private final ContextPathEncoder contextPathEncoder;
 
     private final LocalizationSetter localizationSetter;
@@ -72,6 +71,7 @@ public class ComponentEventLinkEncoderImpl implements ComponentEventLinkEncoder
     private static final char SLASH = '/';
 
     public ComponentEventLinkEncoderImpl(ComponentClassResolver componentClassResolver,
+                                         PageNameTrieSource pageNameTrieSource,
                                          ContextPathEncoder contextPathEncoder, LocalizationSetter localizationSetter,
                                          Response response, RequestSecurityManager requestSecurityManager, BaseURLSource baseURLSource,
                                          PersistentLocale persistentLocale,
@@ -84,6 +84,7 @@ public class ComponentEventLinkEncoderImpl implements ComponentEventLinkEncoder
                                          ClientWhitelist clientWhitelist)
     {
         this.componentClassResolver = componentClassResolver;
+        this.pageNameTrieSource = pageNameTrieSource;
         this.contextPathEncoder = contextPathEncoder;
         this.localizationSetter = localizationSetter;
         this.response = response;
@@ -223,54 +224,57 @@ public class ComponentEventLinkEncoderImpl implements ComponentEventLinkEncoder
     }
 
     /**
-     * Splits path at slashes into a <em>mutable</em> list of strings. Empty terms, including the
-     * expected leading term (paths start with a '/') are dropped.
-     *
-     * @param path
-     * @return mutable list of path elements
+     * Strips leading and trailing slashes from the path, and collapses any repeated slashes within it, so that what
+     * remains is non-empty terms separated by single slashes.
      */
-    private List<String> splitPath(String path)
+    private static String normalizePath(String path)
     {
-        String[] split = TapestryInternalUtils.splitPath(path);
+        int start = 0;
+        int end = path.length();
 
-        List<String> result = CollectionFactory.newList();
+        while (start < end && path.charAt(start) == SLASH)
+        {
+            start++;
+        }
 
-        for (String name : split)
+        while (end > start && path.charAt(end - 1) == SLASH)
         {
-            if (name.length() > 0)
-            {
-                result.add(name);
-            }
+            end--;
         }
 
-        return result;
-    }
+        String result = path.substring(start, end);
 
-    private String joinPath(List<String> path)
-    {
-        if (path.isEmpty())
+        if (result.indexOf("//") < 0)
         {
-            return "";
+            return result;
         }
 
-        StringBuilder builder = new StringBuilder(100);
-        String sep = "";
+        StringBuilder builder = new StringBuilder(result.length());
 
-        for (String term : path)
+        for (int i = 0; i < result.length(); i++)
         {
-            builder.append(sep).append(term);
-            sep = "/";
+            char ch = result.charAt(i);
+
+            if (ch != SLASH || builder.charAt(builder.length() - 1) != SLASH)
+            {
+                builder.append(ch);
+            }
         }
 
         return builder.toString();
     }
 
+    private static int endOfTerm(String path, int start)
+    {
+        int slashx = path.indexOf(SLASH, start);
+
+        return slashx < 0 ? path.length() : slashx;
+    }
+
     public ComponentEventRequestParameters decodeComponentEventRequest(Request request)
     {
         String explicitLocale = null;
 
-        // Split the path around slashes into a mutable list of terms, which will be consumed term by term.
-
         String requestPath = request.getPath();
 
         if (applicationFolderPrefix != null)
@@ -278,31 +282,36 @@ public class ComponentEventLinkEncoderImpl implements ComponentEventLinkEncoder
             requestPath = removeApplicationPrefix(requestPath);
         }
 
-        List<String> path = splitPath(requestPath);
-
+        // The path is consumed term by term; the terms are located by index, rather than split into a list.
 
+        String path = normalizePath(requestPath);
 
-        if (path.isEmpty())
+        if (path.length() == 0)
         {
             return null;
         }
 
         // Next up: the locale (which is optional)
 
-        String potentialLocale = path.get(0);
+        int termEnd = endOfTerm(path, 0);
+
+        String potentialLocale = path.substring(0, termEnd);
+
+        int pageStart = 0;
 
         if (localizationSetter.isSupportedLocaleName(potentialLocale))
         {
             explicitLocale = potentialLocale;
-            path.remove(0);
+            pageStart = termEnd + 1;
         }
 
-        StringBuilder pageName = new StringBuilder(100);
-        String sep = "";
+        int termStart = pageStart;
 
-        while (!path.isEmpty())
+        while (termStart < path.length())
         {
-            String name = path.remove(0);
+            termEnd = endOfTerm(path, termStart);
+
+            int nameEnd = termEnd;
             String eventType = EventConstants.ACTION;
             String nestedComponentId = "";
 
@@ -310,29 +319,33 @@ public class ComponentEventLinkEncoderImpl implements ComponentEventLinkEncoder
 
             // First, look for an explicit action name.
 
-            int colonx = name.lastIndexOf(':');
+            int colonx = path.lastIndexOf(':', termEnd - 1);
 
-            if (colonx > 0)
+            if (colonx > termStart)
             {
                 found = true;
-                eventType = name.substring(colonx + 1);
-                name = name.substring(0, colonx);
+                eventType = path.substring(colonx + 1, termEnd);
+                nameEnd = colonx;
             }
 
-            int dotx = name.indexOf('.');
+            int dotx = path.indexOf('.', termStart);
 
-            if (dotx > 0)
+            if (dotx > termStart && dotx < nameEnd)
             {
                 found = true;
-                nestedComponentId = name.substring(dotx + 1);
-                name = name.substring(0, dotx);
+                nestedComponentId = path.substring(dotx + 1, nameEnd);
+                nameEnd = dotx;
             }
 
-            pageName.append(sep).append(name);
-
             if (found)
             {
-                ComponentEventRequestParameters result = validateAndConstructComponentEventRequest(request, pageName.toString(), nestedComponentId, eventType, path);
+                // The page name is every term up to this one, plus the name part of this one.
+
+                String activePageName = findPageName(pageNameTrieSource.getPageNameTrie(), path, pageStart, nameEnd);
+
+                String remainingPath = termEnd < path.length() ? path.substring(termEnd + 1) : "";
+
+                ComponentEventRequestParameters result = validateAndConstructComponentEventRequest(request, activePageName, nestedComponentId, eventType, remainingPath);
 
                 if (result == null)
                 {
@@ -350,8 +363,8 @@ public class ComponentEventLinkEncoderImpl implements ComponentEventLinkEncoder
                 return result;
             }
 
-            // Continue on to the next name in the path
-            sep = "/";
+            // Continue on to the next term in the path
+            termStart = termEnd + 1;
         }
 
         // Path empty before finding something that looks like a component id or event name, so
@@ -360,15 +373,13 @@ public class ComponentEventLinkEncoderImpl implements ComponentEventLinkEncoder
         return null;
     }
 
-    private ComponentEventRequestParameters validateAndConstructComponentEventRequest(Request request, String pageName, String nestedComponentId, String eventType, List<String> remainingPath)
+    private ComponentEventRequestParameters validateAndConstructComponentEventRequest(Request request, String activePageName, String nestedComponentId, String eventType, String remainingPath)
     {
-        if (!componentClassResolver.isPageName(pageName))
+        if (activePageName == null)
         {
             return null;
         }
 
-        String activePageName = componentClassResolver.canonicalizePageName(pageName);
-
         if (isWhitelistOnlyAndNotValid(activePageName))
         {
             return null;
@@ -380,7 +391,7 @@ public class ComponentEventLinkEncoderImpl implements ComponentEventLinkEncoder
                 ? activePageName
                 : componentClassResolver.canonicalizePageName(value);
 
-        EventContext eventContext = contextPathEncoder.decodePath(joinPath(remainingPath));
+        EventContext eventContext = contextPathEncoder.decodePath(remainingPath);
         EventContext activationContext = contextPathEncoder.decodePath(request.getParameter(InternalConstants.PAGE_CONTEXT_NAME));
 
         return new ComponentEventRequestParameters(activePageName, containingPageName, nestedComponentId, eventType,
@@ -441,30 +452,31 @@ public class ComponentEventLinkEncoderImpl implements ComponentEventLinkEncoder
             explicitLocale = true;
         }
 
-        slashx = extendedName.length();
-        boolean atEnd = true;
+        PageNameTrie pageNameTrie = pageNameTrieSource.getPageNameTrie();
+
+        int pageNameEnd = findLongestPageNamePrefix(pageNameTrie, extendedName, extendedName.length());
 
-        while (slashx > 0)
+        while (pageNameEnd > 0)
         {
-            String pageName = extendedName.substring(0, slashx);
-            String pageActivationContext = atEnd ? "" : extendedName.substring(slashx + 1);
+            String pageActivationContext = pageNameEnd == extendedName.length() ? "" : extendedName.substring(pageNameEnd + 1);
 
-            PageRenderRequestParameters parameters = checkIfPage(request, pageName, pageActivationContext);
+            PageRenderRequestParameters parameters = checkIfPage(request, findPageName(pageNameTrie, extendedName, 0, pageNameEnd), pageActivationContext);
 
             if (parameters != null)
             {
                 return parameters;
             }
 
-            // Work backwards, splitting at the next slash.
-            slashx = extendedName.lastIndexOf('/', slashx - 1);
+            // Work backwards, to a shorter page name ending before the previous one.
 
-            atEnd = false;
+            slashx = extendedName.lastIndexOf('/', pageNameEnd - 1);
+
+            pageNameEnd = slashx > 0 ? findLongestPageNamePrefix(pageNameTrie, extendedName, slashx) : -1;
         }
 
         // OK, maybe its all page activation context for the root Index page.
 
-        PageRenderRequestParameters result = checkIfPage(request, "", extendedName);
+        PageRenderRequestParameters result = checkIfPage(request, findPageName(pageNameTrie, extendedName, 0, 0), extendedName);
 
         if (result != null && !explicitLocale)
         {
@@ -474,6 +486,33 @@ public class ComponentEventLinkEncoderImpl implements ComponentEventLinkEncoder
         return result;
     }
 
+    /**
+     * Returns the canonical name of the page named by part of the path, or null if there is no such page. Without a
+     * trie (before the resolver has been realized), the resolver is asked directly.
+     */
+    private String findPageName(PageNameTrie pageNameTrie, String path, int start, int end)
+    {
+        if (pageNameTrie != null)
+        {
+            return pageNameTrie.find(path, start, end);
+        }
+
+        String pageName = path.substring(start, end);
+
+        return componentClassResolver.isPageName(pageName)
+                ? componentClassResolver.canonicalizePageName(pageName)
+                : null;
+    }
+
+    /**
+     * Returns the end of the longest page name at the start of the path, up to end. Without a trie, every prefix
+     * ending at a slash is a candidate, so end itself is returned (and each shorter prefix is checked in turn).
+     */
+    private static int findLongestPageNamePrefix(PageNameTrie pageNameTrie, String path, int end)
+    {
+        return pageNameTrie == null ? end : pageNameTrie.findLongestPrefix(path, 0, end);
+    }
+
     private String removeApplicationPrefix(String path) {
         int prefixLength = applicationFolderPrefix.length();
 
@@ -493,13 +532,12 @@ public class ComponentEventLinkEncoderImpl implements ComponentEventLinkEncoder
         return path;
     }
 
-    private PageRenderRequestParameters checkIfPage(Request request, String pageName, String pageActivationContext)
+    private PageRenderRequestParameters checkIfPage(Request request, String canonicalized, String pageActivationContext)
     {
-        if (!componentClassResolver.isPageName(pageName))
+        if (canonicalized == null)
         {
             return null;
         }
-        String canonicalized = componentClassResolver.canonicalizePageName(pageName);
 
         // If the page is only visible to the whitelist, but the request is not on the whitelist, then
         // pretend the page doesn't exist!
@@ -12,11 +12,18 @@
 
 package org.apache.tapestry5.internal.services;
 
+import java.io.File;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.zip.CRC32;
 
 import org.apache.tapestry5.ComponentResources;
+import org.apache.tapestry5.SymbolConstants;
 import org.apache.tapestry5.beanmodel.services.PlasticProxyFactoryImpl;
 import org.apache.tapestry5.commons.Resource;
 import org.apache.tapestry5.commons.services.PlasticProxyFactory;
@@ -25,6 +32,7 @@ import org.apache.tapestry5.commons.util.ExceptionUtils;
 import org.apache.tapestry5.http.TapestryHttpSymbolConstants;
 import org.apache.tapestry5.internal.InternalComponentResources;
 import org.apache.tapestry5.internal.InternalConstants;
+import org.apache.tapestry5.internal.TapestryInternalUtils;
 import org.apache.tapestry5.internal.model.MutableComponentModelImpl;
 import org.apache.tapestry5.internal.plastic.PlasticInternalUtils;
 import org.apache.tapestry5.ioc.Invokable;
@@ -38,6 +46,7 @@ import org.apache.tapestry5.ioc.internal.util.InternalUtils;
 import org.apache.tapestry5.ioc.internal.util.URLChangeTracker;
 import org.apache.tapestry5.ioc.services.Builtin;
 import org.apache.tapestry5.ioc.services.ClasspathURLConverter;
+import org.apache.tapestry5.ioc.services.RegistryShutdownHub;
 import org.apache.tapestry5.ioc.services.UpdateListener;
 import org.apache.tapestry5.ioc.services.UpdateListenerHub;
 import org.apache.tapestry5.model.ComponentModel;
@@ -98,6 +107,8 @@ public final class ComponentInstantiatorSourceImpl implements ComponentInstantia
 
     private final ComponentClassResolver resolver;
 
+    private final FileSystemClassBytecodeCache bytecodeCache;
+
     private volatile PlasticProxyFactory proxyFactory;
 
     private volatile PlasticManager manager;
@@ -143,13 +154,25 @@ public final class ComponentInstantiatorSourceImpl implements ComponentInstantia
 
                                            ComponentClassResolver resolver,
 
-                                           InternalComponentInvalidationEventHub invalidationHub)
+                                           InternalComponentInvalidationEventHub invalidationHub,
+
+                                           @Symbol(SymbolConstants.COMPONENT_CLASS_CACHE_DIR)
+                                           String cacheDir,
+
+                                           @Symbol(SymbolConstants.TAPESTRY_VERSION)
+                                           String tapestryVersion,
+
+                                           @Symbol(SymbolConstants.APPLICATION_VERSION)
+                                           String applicationVersion,
+
+                                           @Symbol(SymbolConstants.WATCH_FILE_CHANGES)
+                                           boolean watchFileChanges)
     {
         this.parent = proxyFactory.getClassLoader();
         this.transformerChain = transformerChain;
         this.logger = logger;
         this.loggerSource = loggerSource;
-        this.changeTracker = new URLChangeTracker(classpathURLConverter);
+        this.changeTracker = new URLChangeTracker(classpathURLConverter, false, true, watchFileChanges);
         this.tracker = tracker;
         this.invalidationHub = invalidationHub;
         this.productionMode = productionMode;
@@ -160,9 +183,100 @@ public final class ComponentInstantiatorSourceImpl implements ComponentInstantia
 
         controlledPackageNames.addAll(configuration.keySet());
 
+        bytecodeCache = createBytecodeCache(cacheDir, tapestryVersion, applicationVersion);
+
         initializeService();
     }
 
+    private FileSystemClassBytecodeCache createBytecodeCache(String cacheDir, String tapestryVersion,
+                                                             String applicationVersion)
+    {
+        if (!productionMode || InternalUtils.isBlank(cacheDir))
+        {
+            return null;
+        }
+
+        // Frames in the cached bytecode may depend on library classes, so the cache is kept separate
+        // for each deployed version of the application, and each set of libraries (which may be upgraded
+        // without changing the application version). Bytecode cached for any other combination will not be
+        // used again, and is deleted.
+
+        File root = new File(cacheDir);
+
+        File directory = new File(root, toDirectoryName(tapestryVersion) + "-" + toDirectoryName(applicationVersion)
+                + "-" + classpathFingerprint());
+
+        for (File file : TapestryInternalUtils.deleteAllExcept(root, directory))
+        {
+            logger.warn(String.format("Unable to delete stale cached bytecode %s.", file));
+        }
+
+        logger.info(String.format("Caching component class bytecode in %s.", directory));
+
+        return new FileSystemClassBytecodeCache(directory, logger);
+    }
+
+    private static String toDirectoryName(String version)
+    {
+        return version.replaceAll("[^\\w.\\-]", "_");
+    }
+
+    /**
+     * Identifies the libraries visible to component classes, from the name, size and modification time of each
+     * file on the classpath.
+     */
+    private String classpathFingerprint()
+    {
+        CRC32 checksum = new CRC32();
+
+        for (ClassLoader loader = parent; loader != null; loader = loader.getParent())
+        {
+            if (loader instanceof URLClassLoader)
+            {
+                for (URL url : ((URLClassLoader) loader).getURLs())
+                {
+                    update(checksum, url);
+                }
+            }
+        }
+
+        // From Java 9, the application class loader is not a URLClassLoader.
+
+        for (String path : System.getProperty("java.class.path", "").split(File.pathSeparator))
+        {
+            update(checksum, new File(path));
+        }
+
+        return Long.toHexString(checksum.getValue());
+    }
+
+    private static void update(CRC32 checksum, URL url)
+    {
+        if (url.getProtocol().equals("file"))
+        {
+            try
+            {
+                update(checksum, new File(url.toURI()));
+
+                return;
+            } catch (URISyntaxException | IllegalArgumentException ex)
+            {
+                // Fall through, and use just the URL.
+            }
+        }
+
+        checksum.update(url.toExternalForm().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void update(CRC32 checksum, File file)
+    {
+        String description = file.isFile()
+                ? String.format("%s:%d:%d;", file.getAbsolutePath(), file.length(), file.lastModified())
+                : file.getAbsolutePath() + ";";
+
+        checksum.update(description.getBytes(StandardCharsets.UTF_8));
+    }
+
     @PostInjection
     public void listenForUpdates(UpdateListenerHub hub)
     {
@@ -170,6 +284,18 @@ public final class ComponentInstantiatorSourceImpl implements ComponentInstantia
         hub.addUpdateListener(this);
     }
 
+    @PostInjection
+    public void closeTrackerOnShutdown(RegistryShutdownHub hub)
+    {
+        hub.addRegistryShutdownListener(new Runnable()
+        {
+            public void run()
+            {
+                changeTracker.close();
+            }
+        });
+    }
+
     public synchronized void checkForUpdates()
     {
         if (changeTracker.containsChanges())
@@ -210,6 +336,11 @@ public final class ComponentInstantiatorSourceImpl implements ComponentInstantia
             builder.enable(TransformationOption.FIELD_WRITEBEHIND);
         }
 
+        if (bytecodeCache != null)
+        {
+            builder.bytecodeCache(bytecodeCache);
+        }
+
         manager = builder.create();
 
         manager.addPlasticClassListener(this);
@@ -222,7 +353,29 @@ public final class ComponentInstantiatorSourceImpl implements ComponentInstantia
 
     public Instantiator getInstantiator(final String className)
     {
-        return classToInstantiator.computeIfAbsent(className, this::createInstantiatorForClass);
+        try
+        {
+            return classToInstantiator.computeIfAbsent(className, this::createInstantiatorForClass);
+        } catch (VerifyError error)
+        {
+            if (bytecodeCache == null)
+            {
+                throw error;
+            }
+
+            // Most likely, frames in the cached bytecode were computed against different versions of the
+            // library classes. Treat the whole cache as stale: discard it, and load the component classes again,
+            // this time computing their bytecode. A second failure is real, and is not caught.
+
+            logger.warn(String.format("Bytecode for component class %s failed verification (%s); discarding cached bytecode.",
+                    className, ExceptionUtils.toMessage(error)));
+
+            bytecodeCache.clear();
+
+            forceComponentInvalidation();
+
+            return classToInstantiator.computeIfAbsent(className, this::createInstantiatorForClass);
+        }
     }
 
     private Instantiator createInstantiatorForClass(final String className)
@@ -1,4 +1,4 @@
-// Copyright 2006-2013 The Apache Software Foundation
+// Copyright 2006-2013, 2021 The Apache Software Foundation
 //
 // Licensed under the Apache License, Version 2.0 (the "License");
 // you may not use this file except in compliance with the License.
@@ -19,6 +19,7 @@ import java.util.List;
 import java.util.Locale;
 import java.util.concurrent.Callable;
 
+import org.apache.tapestry5.SymbolConstants;
 import org.apache.tapestry5.commons.Messages;
 import org.apache.tapestry5.commons.Resource;
 import org.apache.tapestry5.commons.internal.util.TapestryException;
@@ -28,6 +29,7 @@ import org.apache.tapestry5.ioc.annotations.PostInjection;
 import org.apache.tapestry5.ioc.annotations.Symbol;
 import org.apache.tapestry5.ioc.internal.util.URLChangeTracker;
 import org.apache.tapestry5.ioc.services.ClasspathURLConverter;
+import org.apache.tapestry5.ioc.services.RegistryShutdownHub;
 import org.apache.tapestry5.ioc.services.ThreadLocale;
 import org.apache.tapestry5.ioc.services.UpdateListener;
 import org.apache.tapestry5.model.ComponentModel;
@@ -39,6 +41,8 @@ import org.apache.tapestry5.services.pageload.ComponentResourceSelector;
 
 public class ComponentMessagesSourceImpl implements ComponentMessagesSource, UpdateListener
 {
+    private final URLChangeTracker tracker;
+
     private final MessagesSourceImpl messagesSource;
 
     private final MessagesBundle appCatalogBundle;
@@ -81,9 +85,13 @@ public class ComponentMessagesSourceImpl implements ComponentMessagesSource, Upd
                                        boolean productionMode, List<Resource> appCatalogResources, PropertiesFileParser parser,
                                        ComponentResourceLocator resourceLocator, ClasspathURLConverter classpathURLConverter,
                                        ComponentRequestSelectorAnalyzer componentRequestSelectorAnalyzer,
-                                       ThreadLocale threadLocale)
+                                       ThreadLocale threadLocale,
+                                       @Symbol(SymbolConstants.WATCH_FILE_CHANGES)
+                                       boolean watchFileChanges)
     {
-        this(productionMode, appCatalogResources, resourceLocator, parser, new URLChangeTracker(classpathURLConverter), componentRequestSelectorAnalyzer, threadLocale);
+        this(productionMode, appCatalogResources, resourceLocator, parser,
+                new URLChangeTracker(classpathURLConverter, false, true, watchFileChanges),
+                componentRequestSelectorAnalyzer, threadLocale);
     }
 
     ComponentMessagesSourceImpl(boolean productionMode, Resource appCatalogResource,
@@ -99,6 +107,8 @@ public class ComponentMessagesSourceImpl implements ComponentMessagesSource, Upd
                                 URLChangeTracker tracker, ComponentRequestSelectorAnalyzer componentRequestSelectorAnalyzer,
                                 ThreadLocale threadLocale)
     {
+        this.tracker = tracker;
+
         messagesSource = new MessagesSourceImpl(productionMode, productionMode ? null : tracker, resourceLocator,
                 parser);
 
@@ -119,6 +129,18 @@ public class ComponentMessagesSourceImpl implements ComponentMessagesSource, Upd
         });
     }
 
+    @PostInjection
+    public void closeTrackerOnShutdown(RegistryShutdownHub hub)
+    {
+        hub.addRegistryShutdownListener(new Runnable()
+        {
+            public void run()
+            {
+                tracker.close();
+            }
+        });
+    }
+
     public void checkForUpdates()
     {
         messagesSource.checkForUpdates();
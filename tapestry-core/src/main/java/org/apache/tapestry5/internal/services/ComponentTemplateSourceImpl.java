@@ -12,6 +12,7 @@
 
 package org.apache.tapestry5.internal.services;
 
+import org.apache.tapestry5.SymbolConstants;
 import org.apache.tapestry5.TapestryConstants;
 import org.apache.tapestry5.commons.Location;
 import org.apache.tapestry5.commons.Resource;
@@ -27,6 +28,7 @@ import org.apache.tapestry5.ioc.annotations.PostInjection;
 import org.apache.tapestry5.ioc.annotations.Symbol;
 import org.apache.tapestry5.ioc.internal.util.URLChangeTracker;
 import org.apache.tapestry5.ioc.services.ClasspathURLConverter;
+import org.apache.tapestry5.ioc.services.RegistryShutdownHub;
 import org.apache.tapestry5.ioc.services.ThreadLocale;
 import org.apache.tapestry5.ioc.services.UpdateListener;
 import org.apache.tapestry5.ioc.services.UpdateListenerHub;
@@ -36,10 +38,13 @@ import org.apache.tapestry5.services.pageload.ComponentResourceLocator;
 import org.apache.tapestry5.services.pageload.ComponentResourceSelector;
 import org.apache.tapestry5.services.templates.ComponentTemplateLocator;
 
+import java.net.URL;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Service implementation that manages a cache of parsed component templates.
@@ -112,9 +117,12 @@ public final class ComponentTemplateSourceImpl extends InvalidationEventHubImpl
                                        boolean productionMode, TemplateParser parser, ComponentResourceLocator locator,
                                        ClasspathURLConverter classpathURLConverter,
                                        ComponentRequestSelectorAnalyzer componentRequestSelectorAnalyzer,
-                                       ThreadLocale threadLocale)
+                                       ThreadLocale threadLocale,
+                                       @Symbol(SymbolConstants.WATCH_FILE_CHANGES)
+                                       boolean watchFileChanges)
     {
-        this(productionMode, parser, locator, new URLChangeTracker(classpathURLConverter), componentRequestSelectorAnalyzer, threadLocale);
+        this(productionMode, parser, locator, new URLChangeTracker(classpathURLConverter, false, true, watchFileChanges),
+                componentRequestSelectorAnalyzer, threadLocale);
     }
 
     ComponentTemplateSourceImpl(boolean productionMode, TemplateParser parser, ComponentResourceLocator locator,
@@ -148,6 +156,18 @@ public final class ComponentTemplateSourceImpl extends InvalidationEventHubImpl
         });
     }
 
+    @PostInjection
+    public void closeTrackerOnShutdown(RegistryShutdownHub hub)
+    {
+        hub.addRegistryShutdownListener(new Runnable()
+        {
+            public void run()
+            {
+                tracker.close();
+            }
+        });
+    }
+
     public ComponentTemplate getTemplate(ComponentModel componentModel, ComponentResourceSelector selector)
     {
         String componentName = componentModel.getComponentClassName();
@@ -232,16 +252,41 @@ public final class ComponentTemplateSourceImpl extends InvalidationEventHubImpl
     }
 
     /**
-     * Checks to see if any parsed resource has changed. If so, then all internal caches are cleared, and an
-     * invalidation event is fired. This is brute force ... a more targeted dependency management strategy may come
-     * later.
+     * Checks to see if any parsed resource has changed. If just the content of some templates has changed, those
+     * templates are discarded. Otherwise (for example, when a template has been added, which may change which template
+     * a component uses), all internal caches are cleared. In either case, an invalidation event is fired.
      */
     public void checkForUpdates()
     {
         if (tracker.containsChanges())
         {
-            invalidate();
+            Set<String> changedURLs = tracker.getChangedURLs();
+
+            if (changedURLs == null)
+            {
+                invalidate();
+            } else
+            {
+                invalidate(changedURLs);
+            }
+        }
+    }
+
+    private void invalidate(Set<String> changedURLs)
+    {
+        Iterator<Resource> iterator = templates.keySet().iterator();
+
+        while (iterator.hasNext())
+        {
+            URL url = iterator.next().toURL();
+
+            if (url != null && changedURLs.contains(url.toExternalForm()))
+            {
+                iterator.remove();
+            }
         }
+
+        fireInvalidationEvent(changedURLs);
     }
 
     private void invalidate()
@@ -48,6 +48,9 @@ public class DocumentLinkerImpl implements DocumentLinker
     // Initially false; set to true when a scriptURL or any kind of initialization is added.
     private boolean hasScriptsOrInitializations;
 
+    // Set to true by updateHead(), when the head and the body start tag are about to be streamed to the client.
+    private boolean headCommitted;
+
     /**
      * @param moduleManager
      *         used to identify the root folder for dynamically loaded modules
@@ -104,6 +107,72 @@ public class DocumentLinkerImpl implements DocumentLinker
      *         to be updated
      */
     public void updateDocument(Document document)
+    {
+        Element root = getLinkableRootElement(document);
+
+        if (root == null)
+        {
+            return;
+        }
+
+        if (headCommitted)
+        {
+            addStreamedContent(root);
+            return;
+        }
+
+        updateHead(root);
+
+        addScriptElements(root);
+    }
+
+    /**
+     * Invoked when streaming the document, just before the &lt;head&gt; and the &lt;body&gt; start tag are written to
+     * the client. Adds the stylesheets linked so far (and the generator meta tag) to the head. Any stylesheets linked
+     * after this point are added to the bottom of the body by {@link #updateDocument(Document)}.
+     *
+     * @param document
+     *         to be updated
+     * @since 5.7.0
+     */
+    public void updateHead(Document document)
+    {
+        Element root = getLinkableRootElement(document);
+
+        if (root == null)
+        {
+            return;
+        }
+
+        updateHead(root);
+
+        // The body start tag is written before it is known whether any initializations will be added;
+        // addStreamedContent() adds a script to set this attribute if there aren't any.
+
+        Element body = root.getName().equals("html") ? root.find("body") : null;
+
+        if (body != null)
+        {
+            body.attribute("data-page-initialized", "false");
+
+            // The top of the body is about to be streamed, so the mask can only be added now. It is removed by
+            // the page initialization, so it is only added if there are already scripts or initializations.
+
+            if (enablePageloadingMask && hasScriptsOrInitializations)
+            {
+                addPageloadingMask(body);
+            }
+        }
+
+        includedStylesheets.clear();
+
+        headCommitted = true;
+    }
+
+    /**
+     * Returns the root element of the document, or null if it is missing or the document is not HTML.
+     */
+    private static Element getLinkableRootElement(Document document)
     {
         Element root = document.getRootElement();
 
@@ -111,7 +180,7 @@ public class DocumentLinkerImpl implements DocumentLinker
 
         if (root == null)
         {
-            return;
+            return null;
         }
 
         // TAP5-2200: Generating XML from pages and templates is not possible anymore
@@ -119,9 +188,14 @@ public class DocumentLinkerImpl implements DocumentLinker
         final String mimeType = document.getMimeType();
         if (mimeType != null && !HTML_MIME_TYPES.contains(mimeType))
         {
-            return;
+            return null;
         }
 
+        return root;
+    }
+
+    private void updateHead(Element root)
+    {
         addStylesheetsToHead(root, includedStylesheets);
 
         // only add the generator meta only to html documents
@@ -136,8 +210,40 @@ public class DocumentLinkerImpl implements DocumentLinker
 
             addElementBefore(head, existingMeta, "meta", "name", "generator", "content", tapestryBanner);
         }
+    }
 
-        addScriptElements(root);
+    /**
+     * Adds late stylesheets and the scripts to the remaining (not yet streamed) portion of the body.
+     */
+    private void addStreamedContent(Element root)
+    {
+        Element body = root.getName().equals("html") ? root.find("body") : null;
+
+        if (body == null)
+        {
+            return;
+        }
+
+        if (!includedStylesheets.isEmpty())
+        {
+            Element container = body.element("stylesheet-container");
+
+            for (StylesheetLink sheet : includedStylesheets)
+            {
+                sheet.add(container);
+            }
+
+            container.pop();
+        }
+
+        if (!hasScriptsOrInitializations)
+        {
+            body.element("script", "type", "text/javascript")
+                    .raw("document.body.setAttribute(\"data-page-initialized\", \"true\");");
+            return;
+        }
+
+        addContentToBody(body);
     }
 
     private static Element addElementBefore(Element container, Element insertionPoint, String name, String... namesAndValues)
@@ -211,6 +317,20 @@ public class DocumentLinkerImpl implements DocumentLinker
     }
 
 
+    /**
+     * This adds a mask element to the page, based on the Bootstrap modal dialog backdrop. The mark
+     * is present immediately, but fades in visually after a short delay, and is removed
+     * after page initialization is complete. For a client that doesn't have JavaScript enabled,
+     * this will do nothing (though I suspect the page will not behave to expectations!).
+     */
+    private static void addPageloadingMask(Element body)
+    {
+        Element script = body.element("script", "type", "text/javascript");
+        script.raw("document.write(\"<div class=\\\"pageloading-mask\\\"><div></div></div>\");");
+
+        script.moveToTop(body);
+    }
+
     /**
      * Adds {@code <script>} elements for the RequireJS library, then any statically includes JavaScript libraries
      * (including JavaScript stack virtual assets), then the initialization script block.
@@ -220,16 +340,11 @@ public class DocumentLinkerImpl implements DocumentLinker
      */
     protected void addContentToBody(Element body)
     {
-        if (enablePageloadingMask)
+        // When streaming, the top of the body has already been written; updateHead(Document) added the mask.
+
+        if (enablePageloadingMask && !headCommitted)
         {
-            // This adds a mask element to the page, based on the Bootstrap modal dialog backdrop. The mark
-            // is present immediately, but fades in visually after a short delay, and is removed
-            // after page initialization is complete. For a client that doesn't have JavaScript enabled,
-            // this will do nothing (though I suspect the page will not behave to expectations!).
-            Element script = body.element("script", "type", "text/javascript");
-            script.raw("document.write(\"<div class=\\\"pageloading-mask\\\"><div></div></div>\");");
-
-            script.moveToTop(body);
+            addPageloadingMask(body);
         }
 
         moduleManager.writeConfiguration(body, moduleConfigurationCallbacks);
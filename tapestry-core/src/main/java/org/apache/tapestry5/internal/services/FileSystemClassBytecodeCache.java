@@ -0,0 +1,156 @@
+// Copyright 2021 The Apache Software Foundation
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.apache.tapestry5.internal.services;
+
+import org.apache.tapestry5.internal.TapestryInternalUtils;
+import org.apache.tapestry5.plastic.ClassBytecodeCache;
+import org.slf4j.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Stores the bytecode of component classes as individual files, so that it may be reused after a restart. Several
+ * instances of the application may share the same directory; files are
+ * {@linkplain TapestryInternalUtils#writeFileAtomically(File, byte[]) written atomically}.
+ *
+ * Each class has its own subdirectory, containing a file for each fingerprint. When the bytecode for a new
+ * fingerprint is stored, the files for the class's other fingerprints are deleted, as the class has changed.
+ *
+ * Any I/O failure is logged and otherwise ignored; the class bytecode is simply computed as if not cached.
+ *
+ * @since 5.7.0
+ */
+public class FileSystemClassBytecodeCache implements ClassBytecodeCache
+{
+    private final File directory;
+
+    private final Logger logger;
+
+    private final AtomicInteger hits = new AtomicInteger();
+
+    private final AtomicInteger misses = new AtomicInteger();
+
+    /**
+     * @param directory
+     *         directory in which files are stored, created as needed
+     * @param logger
+     *         used to report failures
+     */
+    public FileSystemClassBytecodeCache(File directory, Logger logger)
+    {
+        this.directory = directory;
+        this.logger = logger;
+    }
+
+    @Override
+    public byte[] get(String className, String fingerprint)
+    {
+        File file = toFile(className, fingerprint);
+
+        if (file.isFile())
+        {
+            try
+            {
+                byte[] result = Files.readAllBytes(file.toPath());
+
+                hits.incrementAndGet();
+
+                return result;
+            } catch (IOException ex)
+            {
+                logger.warn(String.format("Unable to read cached bytecode for class %s from %s: %s",
+                        className, file, ex.getMessage()));
+            }
+        }
+
+        misses.incrementAndGet();
+
+        return null;
+    }
+
+    @Override
+    public void put(String className, String fingerprint, byte[] bytecode)
+    {
+        File file = toFile(className, fingerprint);
+
+        try
+        {
+            TapestryInternalUtils.writeFileAtomically(file, bytecode);
+        } catch (IOException ex)
+        {
+            logger.warn(String.format("Unable to cache bytecode for class %s in %s: %s",
+                    className, directory, ex.getMessage()));
+
+            return;
+        }
+
+        deleteStaleFiles(file);
+    }
+
+    private void deleteStaleFiles(File current)
+    {
+        File[] files = current.getParentFile().listFiles();
+
+        if (files == null)
+        {
+            return;
+        }
+
+        for (File file : files)
+        {
+            // Temporary files being written by other instances end with ".tmp", and are left alone.
+
+            if (file.getName().endsWith(".class") && !file.equals(current) && !file.delete())
+            {
+                logger.warn(String.format("Unable to delete stale cached bytecode %s.", file));
+            }
+        }
+    }
+
+    /**
+     * Discards all cached bytecode, for example when cached bytecode has failed verification.
+     */
+    public void clear()
+    {
+        if (!TapestryInternalUtils.deleteRecursively(directory))
+        {
+            logger.warn(String.format("Unable to delete all cached bytecode in %s.", directory));
+        }
+    }
+
+    /**
+     * Returns the number of classes whose bytecode was found in the cache.
+     */
+    public int getHits()
+    {
+        return hits.get();
+    }
+
+    /**
+     * Returns the number of classes whose bytecode was not found in the cache, and had to be computed.
+     */
+    public int getMisses()
+    {
+        return misses.get();
+    }
+
+    private File toFile(String className, String fingerprint)
+    {
+        return new File(new File(directory, className), fingerprint + ".class");
+    }
+}
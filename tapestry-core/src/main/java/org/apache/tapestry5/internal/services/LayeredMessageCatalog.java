@@ -0,0 +1,222 @@
+// Copyright 2021 The Apache Software Foundation
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.apache.tapestry5.internal.services;
+
+import org.apache.tapestry5.commons.util.CaseInsensitiveMap;
+
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An immutable, case-insensitive map of message keys to values, used by {@link MessagesSourceImpl}. Each catalog holds
+ * just the properties of one properties file, and refers to (rather than copies) the catalog it overrides: the less
+ * specific localization, or the parent bundle. As most catalogs differ from their parent in only a few keys, this
+ * saves a copy of every inherited key for each bundle, locale and selector.
+ *
+ * The keys are interned, and stored in a compact open-addressing table. To keep lookups short, a catalog that would be
+ * too many layers deep copies the entries of its parent instead.
+ *
+ * @since 5.7.0
+ */
+class LayeredMessageCatalog extends AbstractMap<String, String>
+{
+    private static final int MAX_DEPTH = 8;
+
+    /**
+     * The overridden catalog, or null if this catalog holds all of its own entries.
+     */
+    private final LayeredMessageCatalog parent;
+
+    private final int depth;
+
+    /**
+     * Open-addressing table (linear probing) of keys, at most half full; the size is a power of two.
+     */
+    private final String[] keys;
+
+    private final String[] values;
+
+    /**
+     * Number of distinct keys, including those inherited from the parent.
+     */
+    private final int size;
+
+    /**
+     * Creates a catalog of the entries of the base map, overlayed with the overrides.
+     */
+    LayeredMessageCatalog(Map<String, String> base, Map<String, String> overrides)
+    {
+        LayeredMessageCatalog layeredBase = base instanceof LayeredMessageCatalog ? (LayeredMessageCatalog) base : null;
+
+        boolean copyBase = layeredBase == null || layeredBase.depth >= MAX_DEPTH;
+
+        parent = copyBase ? null : layeredBase;
+        depth = copyBase ? 1 : layeredBase.depth + 1;
+
+        int capacity = 2;
+
+        while (capacity < 2 * (overrides.size() + (copyBase ? base.size() : 0)))
+        {
+            capacity <<= 1;
+        }
+
+        keys = new String[capacity];
+        values = new String[capacity];
+
+        int added = 0;
+
+        if (copyBase)
+        {
+            for (Map.Entry<String, String> entry : base.entrySet())
+            {
+                if (store(entry.getKey(), entry.getValue()))
+                {
+                    added++;
+                }
+            }
+        }
+
+        for (Map.Entry<String, String> entry : overrides.entrySet())
+        {
+            if (store(entry.getKey(), entry.getValue()) && (parent == null || parent.get(entry.getKey()) == null))
+            {
+                added++;
+            }
+        }
+
+        size = (parent == null ? 0 : parent.size) + added;
+    }
+
+    /**
+     * Stores the value, returning true if the key was not already in the table.
+     */
+    private boolean store(String key, String value)
+    {
+        int mask = keys.length - 1;
+
+        int index = hash(key) & mask;
+
+        while (keys[index] != null)
+        {
+            if (keys[index].equalsIgnoreCase(key))
+            {
+                values[index] = value;
+
+                return false;
+            }
+
+            index = (index + 1) & mask;
+        }
+
+        keys[index] = key.intern();
+        values[index] = value;
+
+        return true;
+    }
+
+    private String find(String key, int hash)
+    {
+        int mask = keys.length - 1;
+
+        int index = hash & mask;
+
+        while (keys[index] != null)
+        {
+            if (keys[index].equalsIgnoreCase(key))
+            {
+                return values[index];
+            }
+
+            index = (index + 1) & mask;
+        }
+
+        return null;
+    }
+
+    private static int hash(String key)
+    {
+        int hash = 0;
+
+        for (int i = 0; i < key.length(); i++)
+        {
+            hash = 31 * hash + Character.toLowerCase(key.charAt(i));
+        }
+
+        return hash ^ (hash >>> 16);
+    }
+
+    @Override
+    public String get(Object key)
+    {
+        if (!(key instanceof String))
+        {
+            return null;
+        }
+
+        String keyString = (String) key;
+
+        int hash = hash(keyString);
+
+        for (LayeredMessageCatalog catalog = this; catalog != null; catalog = catalog.parent)
+        {
+            String value = catalog.find(keyString, hash);
+
+            if (value != null)
+            {
+                return value;
+            }
+        }
+
+        return null;
+    }
+
+    @Override
+    public boolean containsKey(Object key)
+    {
+        return get(key) != null;
+    }
+
+    @Override
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Returns a snapshot of the entries of all layers; this is not cached, as it is only needed to list the keys.
+     */
+    @Override
+    public Set<Entry<String, String>> entrySet()
+    {
+        Map<String, String> result = new CaseInsensitiveMap<String>();
+
+        for (LayeredMessageCatalog catalog = this; catalog != null; catalog = catalog.parent)
+        {
+            for (int i = 0; i < catalog.keys.length; i++)
+            {
+                String key = catalog.keys[i];
+
+                if (key != null && !result.containsKey(key))
+                {
+                    result.put(key, catalog.values[i]);
+                }
+            }
+        }
+
+        return Collections.unmodifiableMap(result).entrySet();
+    }
+}
@@ -14,6 +14,7 @@
 
 package org.apache.tapestry5.internal.services;
 
+import java.io.PrintWriter;
 import java.util.List;
 
 import org.apache.tapestry5.MarkupWriter;
@@ -65,15 +66,15 @@ public class MarkupWriterFactoryImpl implements MarkupWriterFactory
 
     public MarkupWriter newMarkupWriter(ContentType contentType)
     {
-        return constructMarkupWriter(contentType, false, false);
+        return constructMarkupWriter(contentType, false, false, null);
     }
 
     public MarkupWriter newPartialMarkupWriter(ContentType contentType)
     {
-        return constructMarkupWriter(contentType, true, false);
+        return constructMarkupWriter(contentType, true, false, null);
     }
 
-    private MarkupWriter constructMarkupWriter(ContentType contentType, boolean partial, boolean HTML5)
+    private MarkupWriter constructMarkupWriter(ContentType contentType, boolean partial, boolean HTML5, PrintWriter output)
     {
         final String mimeType = contentType.getMimeType();
         boolean isHTML = mimeType.equalsIgnoreCase("text/html");
@@ -87,6 +88,9 @@ public class MarkupWriterFactoryImpl implements MarkupWriterFactory
         // The charset parameter sets the encoding attribute of the XML declaration, if
         // not null and if using the XML model.
 
+        if (output != null && isHTML)
+            return new StreamingMarkupWriterImpl(model, contentType.getCharset(), mimeType, output);
+
         return new MarkupWriterImpl(model, contentType.getCharset(), mimeType);
     }
 
@@ -125,7 +129,7 @@ public class MarkupWriterFactoryImpl implements MarkupWriterFactory
         
         ContentType contentType = pageContentTypeAnalyzer.findContentType(page);
         
-        return constructMarkupWriter(contentType, false, isHTML5);
+        return constructMarkupWriter(contentType, false, isHTML5, null);
     }
 
     public MarkupWriter newPartialMarkupWriter(Page page)
@@ -134,7 +138,18 @@ public class MarkupWriterFactoryImpl implements MarkupWriterFactory
         
         ContentType contentType = pageContentTypeAnalyzer.findContentType(page);
         
-        return constructMarkupWriter(contentType, true, isHTML5);
+        return constructMarkupWriter(contentType, true, isHTML5, null);
+    }
+
+    public MarkupWriter newStreamingMarkupWriter(Page page, PrintWriter output)
+    {
+        assert output != null;
+
+        boolean isHTML5 = hasHTML5Doctype(page);
+
+        ContentType contentType = pageContentTypeAnalyzer.findContentType(page);
+
+        return constructMarkupWriter(contentType, false, isHTML5, output);
     }
 
     public MarkupWriter newPartialMarkupWriter(String pageName)
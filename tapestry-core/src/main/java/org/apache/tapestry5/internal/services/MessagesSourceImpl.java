@@ -14,7 +14,6 @@ package org.apache.tapestry5.internal.services;
 
 import org.apache.tapestry5.commons.Messages;
 import org.apache.tapestry5.commons.Resource;
-import org.apache.tapestry5.commons.util.CaseInsensitiveMap;
 import org.apache.tapestry5.commons.util.CollectionFactory;
 import org.apache.tapestry5.commons.util.MultiKey;
 import org.apache.tapestry5.func.F;
@@ -24,9 +23,12 @@ import org.apache.tapestry5.services.messages.PropertiesFileParser;
 import org.apache.tapestry5.services.pageload.ComponentResourceLocator;
 import org.apache.tapestry5.services.pageload.ComponentResourceSelector;
 
+import java.net.URL;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * A utility class that encapsulates all the logic for reading properties files and assembling {@link Messages} from
@@ -81,10 +83,42 @@ public class MessagesSourceImpl extends InvalidationEventHubImpl implements Mess
     {
         if (tracker != null && tracker.containsChanges())
         {
-            invalidate();
+            Set<String> changedURLs = tracker.getChangedURLs();
+
+            if (changedURLs == null)
+            {
+                invalidate();
+            } else
+            {
+                invalidate(changedURLs);
+            }
         }
     }
 
+    /**
+     * Just the content of some properties files has changed; only those files need to be read again, but everything
+     * built from them must be rebuilt.
+     */
+    private void invalidate(Set<String> changedURLs)
+    {
+        messagesByBundleIdAndSelector.clear();
+        cookedProperties.clear();
+
+        Iterator<Resource> iterator = rawProperties.keySet().iterator();
+
+        while (iterator.hasNext())
+        {
+            URL url = iterator.next().toURL();
+
+            if (url != null && changedURLs.contains(url.toExternalForm()))
+            {
+                iterator.remove();
+            }
+        }
+
+        fireInvalidationEvent(changedURLs);
+    }
+
     public void invalidate()
     {
         messagesByBundleIdAndSelector.clear();
@@ -164,22 +198,15 @@ public class MessagesSourceImpl extends InvalidationEventHubImpl implements Mess
 
     /**
      * Returns a new map consisting of all the properties in previous overlayed with all the properties in
-     * rawProperties. If rawProperties is empty, returns just the base map.
+     * rawProperties. If rawProperties is empty, returns just the base map. The new map refers to the base map rather
+     * than copying it.
      */
     private Map<String, String> extend(Map<String, String> base, Map<String, String> rawProperties)
     {
         if (rawProperties.isEmpty())
             return base;
 
-        // Make a copy of the base Map
-
-        Map<String, String> result = new CaseInsensitiveMap<String>(base);
-
-        // Add or overwrite properties to the copy
-
-        result.putAll(rawProperties);
-
-        return result;
+        return new LayeredMessageCatalog(base, rawProperties);
     }
 
     private Map<String, String> getRawProperties(Resource localization)
@@ -0,0 +1,83 @@
+// Copyright 2021 The Apache Software Foundation
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.apache.tapestry5.internal.services;
+
+/**
+ * A snapshot of the statistics gathered by the {@link PageSource} about its cache of loaded pages. The counters are
+ * cumulative since the application started; they are not reset when the cache is cleared.
+ *
+ * @see PageSource#getCacheStatistics()
+ * @since 5.7.0
+ */
+public final class PageCacheStatistics
+{
+    /**
+     * Number of requests for a page that were satisfied from the cache.
+     */
+    public final long hits;
+
+    /**
+     * Number of requests for a page that were not satisfied from the cache; this includes requests that waited for
+     * another thread to finish loading the same page.
+     */
+    public final long misses;
+
+    /**
+     * Number of times a page was actually loaded.
+     */
+    public final long loads;
+
+    /**
+     * Total time, in milliseconds, spent loading pages.
+     */
+    public final double totalLoadTime;
+
+    /**
+     * Number of pages discarded from a bounded cache to make room for other pages.
+     */
+    public final long evictions;
+
+    /**
+     * Number of pages currently in the cache.
+     */
+    public final int cachedPages;
+
+    /**
+     * The maximum number of pages kept in the cache, or 0 if the cache is unbounded.
+     *
+     * @see org.apache.tapestry5.SymbolConstants#PAGE_CACHE_MAX_SIZE
+     */
+    public final int maxSize;
+
+    public PageCacheStatistics(long hits, long misses, long loads, double totalLoadTime, long evictions,
+                               int cachedPages, int maxSize)
+    {
+        this.hits = hits;
+        this.misses = misses;
+        this.loads = loads;
+        this.totalLoadTime = totalLoadTime;
+        this.evictions = evictions;
+        this.cachedPages = cachedPages;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Returns the average time, in milliseconds, to load a page, or 0 if no pages have been loaded.
+     */
+    public double getAverageLoadTime()
+    {
+        return loads == 0 ? 0 : totalLoadTime / loads;
+    }
+}
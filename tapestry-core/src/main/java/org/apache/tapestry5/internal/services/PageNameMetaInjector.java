@@ -36,13 +36,34 @@ public class PageNameMetaInjector implements MarkupRendererFilter
         this.globals = globals;
     }
 
-    public void renderMarkup(MarkupWriter writer, MarkupRenderer delegate)
+    public void renderMarkup(final MarkupWriter writer, MarkupRenderer delegate)
     {
+        // When streaming, the <head> may be written before the render completes.
+
+        final boolean streaming = writer instanceof StreamingMarkupWriter;
+
+        if (streaming)
+        {
+            ((StreamingMarkupWriter) writer).addCommitCallback(new Runnable()
+            {
+                public void run()
+                {
+                    addPageNameMeta(writer.getDocument());
+                }
+            });
+        }
+
         delegate.renderMarkup(writer);
 
-        String pageName = globals.getActivePageName();
+        if (!(streaming && ((StreamingMarkupWriter) writer).isCommitted()))
+        {
+            addPageNameMeta(writer.getDocument());
+        }
+    }
 
-        Document document = writer.getDocument();
+    private void addPageNameMeta(Document document)
+    {
+        String pageName = globals.getActivePageName();
 
         Element element = document.find("html/head");
 
@@ -52,6 +73,5 @@ public class PageNameMetaInjector implements MarkupRendererFilter
                     "name", "tapestry-page-name",
                     "content", pageName);
         }
-
     }
 }
@@ -0,0 +1,175 @@
+// Copyright 2021 The Apache Software Foundation
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.apache.tapestry5.internal.services;
+
+import org.apache.tapestry5.services.ComponentClassResolver;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * An immutable, case-insensitive trie of logical page names (including their aliases), each mapped to its canonical
+ * page name. This allows the page name at the start of a request path to be located in a single pass over the path,
+ * without creating a string for each candidate.
+ *
+ * @see PageNameTrieSource
+ * @since 5.7.0
+ */
+public final class PageNameTrie
+{
+    private static final String CORE_LIBRARY_PREFIX = "core/";
+
+    private static final char[] NO_KEYS = new char[0];
+
+    private static final Node[] NO_CHILDREN = new Node[0];
+
+    private static final class Node
+    {
+        /**
+         * Lower-case characters, each leading to the corresponding child.
+         */
+        private char[] keys = NO_KEYS;
+
+        private Node[] children = NO_CHILDREN;
+
+        /**
+         * The canonical page name, if the path to this node is a page name.
+         */
+        private String canonicalPageName;
+
+        private Node child(char key)
+        {
+            for (int i = 0; i < keys.length; i++)
+            {
+                if (keys[i] == key)
+                {
+                    return children[i];
+                }
+            }
+
+            return null;
+        }
+
+        private Node addChild(char key)
+        {
+            Node result = child(key);
+
+            if (result == null)
+            {
+                result = new Node();
+
+                keys = Arrays.copyOf(keys, keys.length + 1);
+                children = Arrays.copyOf(children, children.length + 1);
+
+                keys[keys.length - 1] = key;
+                children[children.length - 1] = result;
+            }
+
+            return result;
+        }
+    }
+
+    private final Node root = new Node();
+
+    /**
+     * Builds the trie. As with {@link ComponentClassResolver#canonicalizePageName(String)}, pages of the "core"
+     * library may also be referenced without the "core/" prefix, unless that name is used by another page.
+     *
+     * @param pageNameToCanonicalPageName
+     *         maps each page name and alias to the canonical page name
+     */
+    public PageNameTrie(Map<String, String> pageNameToCanonicalPageName)
+    {
+        for (Map.Entry<String, String> entry : pageNameToCanonicalPageName.entrySet())
+        {
+            add(entry.getKey(), entry.getValue(), true);
+        }
+
+        for (Map.Entry<String, String> entry : pageNameToCanonicalPageName.entrySet())
+        {
+            String pageName = entry.getKey();
+
+            if (pageName.regionMatches(true, 0, CORE_LIBRARY_PREFIX, 0, CORE_LIBRARY_PREFIX.length()))
+            {
+                add(pageName.substring(CORE_LIBRARY_PREFIX.length()), entry.getValue(), false);
+            }
+        }
+    }
+
+    private void add(String pageName, String canonicalPageName, boolean replace)
+    {
+        Node node = root;
+
+        for (int i = 0; i < pageName.length(); i++)
+        {
+            node = node.addChild(Character.toLowerCase(pageName.charAt(i)));
+        }
+
+        if (replace || node.canonicalPageName == null)
+        {
+            node.canonicalPageName = canonicalPageName;
+        }
+    }
+
+    /**
+     * Returns the canonical page name for the page name, or null if it is not the name of a page.
+     */
+    public String find(String pageName)
+    {
+        return find(pageName, 0, pageName.length());
+    }
+
+    /**
+     * Returns the canonical page name for the page name between start (inclusive) and end (exclusive) in the path, or
+     * null if it is not the name of a page.
+     */
+    public String find(CharSequence path, int start, int end)
+    {
+        Node node = root;
+
+        for (int i = start; i < end && node != null; i++)
+        {
+            node = node.child(Character.toLowerCase(path.charAt(i)));
+        }
+
+        return node == null ? null : node.canonicalPageName;
+    }
+
+    /**
+     * Finds the longest page name at the start of the path (between start and end) that is made of complete terms of
+     * the path; that is, it is followed by a slash, or by the end. The empty page name (for the start page) is not
+     * considered.
+     *
+     * @return the end (exclusive) of the page name within the path, or -1 if no page name matches
+     */
+    public int findLongestPrefix(CharSequence path, int start, int end)
+    {
+        int result = -1;
+
+        Node node = root;
+
+        for (int i = start; i < end && node != null; i++)
+        {
+            node = node.child(Character.toLowerCase(path.charAt(i)));
+
+            if (node != null && node.canonicalPageName != null && (i + 1 == end || path.charAt(i + 1) == '/'))
+            {
+                result = i + 1;
+            }
+        }
+
+        return result;
+    }
+}
@@ -0,0 +1,38 @@
+// Copyright 2021 The Apache Software Foundation
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.apache.tapestry5.internal.services;
+
+/**
+ * Provides the {@link PageNameTrie} built by {@link ComponentClassResolverImpl}. The trie is not part of the public
+ * {@link org.apache.tapestry5.services.ComponentClassResolver} interface, so it can't be reached through that
+ * service's proxy; instead, the resolver implementation is registered here when the resolver service is realized.
+ *
+ * @since 5.7.0
+ */
+public interface PageNameTrieSource
+{
+    /**
+     * Invoked when the ComponentClassResolver service is realized.
+     */
+    void setComponentClassResolver(ComponentClassResolverImpl resolver);
+
+    /**
+     * Returns the trie of all page names (and their aliases) mapped to their canonical form. The trie is rebuilt (as a
+     * new instance) when the component classes change.
+     *
+     * @return the trie, or null if the ComponentClassResolver service has not been realized yet
+     */
+    PageNameTrie getPageNameTrie();
+}
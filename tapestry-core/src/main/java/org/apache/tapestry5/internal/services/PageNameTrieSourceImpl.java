@@ -0,0 +1,34 @@
+// Copyright 2021 The Apache Software Foundation
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.apache.tapestry5.internal.services;
+
+public class PageNameTrieSourceImpl implements PageNameTrieSource
+{
+    private volatile ComponentClassResolverImpl resolver;
+
+    @Override
+    public void setComponentClassResolver(ComponentClassResolverImpl resolver)
+    {
+        this.resolver = resolver;
+    }
+
+    @Override
+    public PageNameTrie getPageNameTrie()
+    {
+        ComponentClassResolverImpl current = resolver;
+
+        return current == null ? null : current.getPageNameTrie();
+    }
+}
@@ -1,4 +1,4 @@
-// Copyright 2006-2013 The Apache Software Foundation
+// Copyright 2006-2013, 2021 The Apache Software Foundation
 //
 // Licensed under the Apache License, Version 2.0 (the "License");
 // you may not use this file except in compliance with the License.
@@ -18,15 +18,22 @@ import java.io.IOException;
 import java.io.PrintWriter;
 
 import org.apache.tapestry5.MarkupWriter;
+import org.apache.tapestry5.SymbolConstants;
 import org.apache.tapestry5.http.ContentType;
 import org.apache.tapestry5.http.services.RequestGlobals;
 import org.apache.tapestry5.http.services.Response;
 import org.apache.tapestry5.internal.structure.Page;
 import org.apache.tapestry5.services.MarkupWriterFactory;
+import org.apache.tapestry5.services.MetaDataLocator;
 import org.slf4j.Logger;
 
 public class PageResponseRendererImpl implements PageResponseRenderer
 {
+    /**
+     * Characters of a streamed render that are buffered before anything is sent to the client.
+     */
+    private static final int STREAMING_BUFFER_SIZE = 8 * 1024;
+
     private final RequestGlobals requestGlobals;
 
     private final PageMarkupRenderer markupRenderer;
@@ -37,17 +44,20 @@ public class PageResponseRendererImpl implements PageResponseRenderer
 
     private final Response response;
 
+    private final MetaDataLocator metaDataLocator;
+
     private final Logger logger;
 
     public PageResponseRendererImpl(RequestGlobals requestGlobals, MarkupWriterFactory markupWriterFactory,
             PageMarkupRenderer markupRenderer, PageContentTypeAnalyzer pageContentTypeAnalyzer, Response response,
-            Logger logger)
+            MetaDataLocator metaDataLocator, Logger logger)
     {
         this.requestGlobals = requestGlobals;
         this.markupWriterFactory = markupWriterFactory;
         this.markupRenderer = markupRenderer;
         this.pageContentTypeAnalyzer = pageContentTypeAnalyzer;
         this.response = response;
+        this.metaDataLocator = metaDataLocator;
         this.logger = logger;
     }
 
@@ -58,7 +68,13 @@ public class PageResponseRendererImpl implements PageResponseRenderer
         requestGlobals.storeActivePageName(page.getName());
 
         ContentType contentType = pageContentTypeAnalyzer.findContentType(page);
-        
+
+        if (metaDataLocator.findMeta(SymbolConstants.STREAMING_RENDER_ENABLED, page.getName(), boolean.class))
+        {
+            renderStreamingPageResponse(page, contentType);
+            return;
+        }
+
         MarkupWriter writer = markupWriterFactory.newMarkupWriter(page);
 
         markupRenderer.renderPageMarkup(page, writer);
@@ -84,4 +100,30 @@ public class PageResponseRendererImpl implements PageResponseRenderer
 
         pw.close();
     }
+
+    /**
+     * The body content is written as the render progresses, but the start of it is buffered, so that the response
+     * is not committed (and a failed render can still be reported) until there is a useful amount of content to send.
+     */
+    private void renderStreamingPageResponse(Page page, ContentType contentType) throws IOException
+    {
+        BufferedResponseWriter output = new BufferedResponseWriter(response, contentType.toString(),
+                STREAMING_BUFFER_SIZE);
+
+        PrintWriter pw = new PrintWriter(output);
+
+        MarkupWriter writer = markupWriterFactory.newStreamingMarkupWriter(page, pw);
+
+        markupRenderer.renderPageMarkup(page, writer);
+
+        // Writes whatever follows the last streamed content (or the entire document, if nothing could be streamed).
+
+        writer.toMarkup(pw);
+
+        pw.flush();
+
+        // Closed directly, as the PrintWriter would hide an exception obtaining the response's writer.
+
+        output.close();
+    }
 }
@@ -57,4 +57,13 @@ public interface PageSource
      * @since 5.3
      */
     Set<Page> getAllPages();
+
+    /**
+     * Returns a snapshot of the statistics (hits, misses, load times and so forth) of the cache of loaded pages.
+     * This is needed for reporting purposes only.
+     *
+     * @see org.apache.tapestry5.corelib.pages.PageCatalog
+     * @since 5.7.0
+     */
+    PageCacheStatistics getCacheStatistics();
 }
@@ -1,4 +1,4 @@
-// Copyright 2010, 2011, 2012 The Apache Software Foundation
+// Copyright 2010, 2011, 2012, 2021 The Apache Software Foundation
 //
 // Licensed under the Apache License, Version 2.0 (the "License");
 // you may not use this file except in compliance with the License.
@@ -14,22 +14,36 @@
 
 package org.apache.tapestry5.internal.services;
 
+import org.apache.tapestry5.SymbolConstants;
 import org.apache.tapestry5.commons.services.InvalidationEventHub;
 import org.apache.tapestry5.commons.util.CollectionFactory;
 import org.apache.tapestry5.func.F;
 import org.apache.tapestry5.func.Mapper;
+import org.apache.tapestry5.internal.TapestryInternalUtils;
 import org.apache.tapestry5.internal.services.assets.ResourceChangeTracker;
 import org.apache.tapestry5.internal.structure.Page;
 import org.apache.tapestry5.ioc.annotations.ComponentClasses;
 import org.apache.tapestry5.ioc.annotations.PostInjection;
+import org.apache.tapestry5.ioc.annotations.Symbol;
 import org.apache.tapestry5.services.ComponentMessages;
 import org.apache.tapestry5.services.ComponentTemplates;
 import org.apache.tapestry5.services.pageload.ComponentRequestSelectorAnalyzer;
 import org.apache.tapestry5.services.pageload.ComponentResourceSelector;
 
 import java.lang.ref.SoftReference;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
 public class PageSourceImpl implements PageSource
 {
@@ -37,6 +51,8 @@ public class PageSourceImpl implements PageSource
 
     private final PageLoader pageLoader;
 
+    private final int maxSize;
+
     private static final class CachedPageKey
     {
         final String pageName;
@@ -68,44 +84,235 @@ public class PageSourceImpl implements PageSource
         }
     }
 
+    /**
+     * A load of a page, shared by all threads that request the same page while it is being loaded.
+     */
+    private static final class PageLoad extends FutureTask<Page>
+    {
+        final Thread loadingThread = Thread.currentThread();
+
+        PageLoad(Callable<Page> callable)
+        {
+            super(callable);
+        }
+    }
+
+    /**
+     * Used when the cache is unbounded: the pages are softly referenced, and may be reclaimed by the garbage
+     * collector.
+     */
     private final Map<CachedPageKey, SoftReference<Page>> pageCache = CollectionFactory.newConcurrentMap();
 
-    public PageSourceImpl(PageLoader pageLoader, ComponentRequestSelectorAnalyzer selectorAnalyzer)
+    /**
+     * Used when the cache is bounded: the pages are strongly referenced, in access order, and the least recently
+     * used page is discarded once the maximum size is exceeded. Guarded by itself.
+     */
+    private final Map<CachedPageKey, Page> lruCache;
+
+    private final class BoundedPageCache extends LinkedHashMap<CachedPageKey, Page>
+    {
+        private static final long serialVersionUID = 1L;
+
+        BoundedPageCache()
+        {
+            super(16, 0.75f, true);
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<CachedPageKey, Page> eldest)
+        {
+            boolean evict = size() > maxSize;
+
+            if (evict)
+            {
+                evictions.incrementAndGet();
+            }
+
+            return evict;
+        }
+    }
+
+    private final ConcurrentMap<CachedPageKey, PageLoad> loadsInProgress = CollectionFactory.newConcurrentMap();
+
+    /**
+     * Incremented each time the cache is cleared, so that pages that were being loaded at the time are not cached.
+     */
+    private final AtomicInteger cacheGeneration = new AtomicInteger();
+
+    private final AtomicLong hits = new AtomicLong(), misses = new AtomicLong(), loads = new AtomicLong(),
+            loadTimeNanos = new AtomicLong(), evictions = new AtomicLong();
+
+    public PageSourceImpl(PageLoader pageLoader, ComponentRequestSelectorAnalyzer selectorAnalyzer,
+                          @Symbol(SymbolConstants.PAGE_CACHE_MAX_SIZE)
+                          final int maxSize)
     {
         this.pageLoader = pageLoader;
         this.selectorAnalyzer = selectorAnalyzer;
+        this.maxSize = maxSize;
+
+        lruCache = maxSize <= 0 ? null : new BoundedPageCache();
     }
 
     public Page getPage(String canonicalPageName)
     {
         ComponentResourceSelector selector = selectorAnalyzer.buildSelectorForRequest();
 
-        CachedPageKey key = new CachedPageKey(canonicalPageName, selector);
+        final CachedPageKey key = new CachedPageKey(canonicalPageName, selector);
 
-        // The while loop looks superfluous, but it helps to ensure that the Page instance,
-        // with all of its mutable construction-time state, is properly published to other
-        // threads (at least, as I understand Brian Goetz's explanation, it should be).
+        Page page = findCachedPage(key);
 
-        while (true)
+        if (page != null)
         {
-            SoftReference<Page> ref = pageCache.get(key);
+            hits.incrementAndGet();
+
+            return page;
+        }
+
+        misses.incrementAndGet();
+
+        // Only one thread loads any particular page; other threads that need the same page while it is
+        // loading wait for that load to complete, rather than loading their own copy. The Future
+        // also ensures that the Page instance, with all of its mutable construction-time state,
+        // is properly published to those other threads.
+
+        PageLoad load = new PageLoad(new Callable<Page>()
+        {
+            public Page call()
+            {
+                return loadAndCachePage(key);
+            }
+        });
 
-            Page page = ref == null ? null : ref.get();
+        PageLoad existing = loadsInProgress.putIfAbsent(key, load);
 
-            if (page != null)
+        if (existing != null)
+        {
+            if (existing.loadingThread == Thread.currentThread())
+            {
+                throw new IllegalStateException(String.format("Page %s (for selector '%s') is already being loaded by this thread; the page may not be obtained while it is being loaded.",
+                        canonicalPageName, selector.toShortString()));
+            }
+
+            return waitForPage(existing);
+        }
+
+        try
+        {
+            load.run();
+
+            return waitForPage(load);
+        } finally
+        {
+            loadsInProgress.remove(key);
+        }
+    }
+
+    private Page loadAndCachePage(CachedPageKey key)
+    {
+        int generation = cacheGeneration.get();
+
+        long startNanos = System.nanoTime();
+
+        Page page = pageLoader.loadPage(key.pageName, key.selector);
+
+        loadTimeNanos.addAndGet(System.nanoTime() - startNanos);
+        loads.incrementAndGet();
+
+        // If the cache was cleared while the page was loading, the page may be based on stale
+        // classes, templates or messages; it is still used for this request, but not cached.
+
+        if (generation == cacheGeneration.get())
+        {
+            cachePage(key, page);
+
+            // The cache may also have been cleared between the check and the put. As the generation is always
+            // changed before the cache is cleared, either the page was removed by the clear, or the change is
+            // visible now.
+
+            if (generation != cacheGeneration.get())
+            {
+                uncachePage(key, page);
+            }
+        }
+
+        return page;
+    }
+
+    private static Page waitForPage(PageLoad load)
+    {
+        try
+        {
+            return load.get();
+        } catch (InterruptedException ex)
+        {
+            Thread.currentThread().interrupt();
+
+            throw new RuntimeException(ex);
+        } catch (ExecutionException ex)
+        {
+            Throwable cause = ex.getCause();
+
+            if (cause instanceof RuntimeException)
+            {
+                throw (RuntimeException) cause;
+            }
+
+            if (cause instanceof Error)
+            {
+                throw (Error) cause;
+            }
+
+            throw new RuntimeException(cause);
+        }
+    }
+
+    private Page findCachedPage(CachedPageKey key)
+    {
+        if (lruCache != null)
+        {
+            synchronized (lruCache)
+            {
+                return lruCache.get(key);
+            }
+        }
+
+        SoftReference<Page> ref = pageCache.get(key);
+
+        return ref == null ? null : ref.get();
+    }
+
+    private void cachePage(CachedPageKey key, Page page)
+    {
+        if (lruCache != null)
+        {
+            synchronized (lruCache)
             {
-                return page;
+                lruCache.put(key, page);
             }
 
-            // In rare race conditions, we may see the same page loaded multiple times across
-            // different threads. The last built one will "evict" the others from the page cache,
-            // and the earlier ones will be GCed.
+            return;
+        }
 
-            page = pageLoader.loadPage(canonicalPageName, selector);
+        pageCache.put(key, new SoftReference<Page>(page));
+    }
 
-            ref = new SoftReference<Page>(page);
+    private void uncachePage(CachedPageKey key, Page page)
+    {
+        if (lruCache != null)
+        {
+            synchronized (lruCache)
+            {
+                lruCache.remove(key, page);
+            }
+
+            return;
+        }
 
-            pageCache.put(key, ref);
+        SoftReference<Page> ref = pageCache.get(key);
+
+        if (ref != null && ref.get() == page)
+        {
+            pageCache.remove(key, ref);
         }
     }
 
@@ -115,24 +322,139 @@ public class PageSourceImpl implements PageSource
                                   @ComponentMessages InvalidationEventHub messagesHub,
                                   ResourceChangeTracker resourceChangeTracker)
     {
-        classesHub.clearOnInvalidation(pageCache);
-        templatesHub.clearOnInvalidation(pageCache);
-        messagesHub.clearOnInvalidation(pageCache);
+        Runnable clearCache = new Runnable()
+        {
+            public void run()
+            {
+                clearCache();
+            }
+        };
 
-        // Because Assets can be injected into pages, and Assets are invalidated when
-        // an Asset's value is changed (partly due to the change, in 5.4, to include the asset's
-        // checksum as part of the asset URL), then when we notice a change to
-        // any Resource, it is necessary to discard all page instances.
-        resourceChangeTracker.clearOnInvalidation(pageCache);
+        // All component classes are loaded by a single class loader, which is discarded when any of them change.
+        classesHub.addInvalidationCallback(clearCache);
+
+        templatesHub.addResourceInvalidationCallback(new Consumer<Set<String>>()
+        {
+            public void accept(Set<String> resources)
+            {
+                invalidate(resources, false);
+            }
+        });
+
+        messagesHub.addResourceInvalidationCallback(new Consumer<Set<String>>()
+        {
+            public void accept(Set<String> resources)
+            {
+                invalidate(resources, true);
+            }
+        });
+
+        // Assets can be injected into pages. Their URLs (which include a checksum of the content) are
+        // computed as needed, so a change to the content of a Resource doesn't affect any page. However,
+        // when Resources are added or removed, an Asset may now refer to a different Resource entirely,
+        // and all page instances are discarded.
+        resourceChangeTracker.addResourceInvalidationCallback(new Consumer<Set<String>>()
+        {
+            public void accept(Set<String> resources)
+            {
+                if (resources.isEmpty())
+                {
+                    clearCache();
+                }
+            }
+        });
+    }
+
+    /**
+     * Discards just the pages that {@linkplain Page#getDependencies() depend on} any of the changed resources (or all
+     * pages, when the changed resources are not known). A changed message catalog that no page depends on is likely
+     * the application message catalog, which all pages depend upon.
+     */
+    private void invalidate(Set<String> resources, boolean messageCatalogs)
+    {
+        if (resources.isEmpty() || messageCatalogs && !TapestryInternalUtils.isCovered(resources, getAllDependencies()))
+        {
+            clearCache();
+
+            return;
+        }
+
+        cacheGeneration.incrementAndGet();
+
+        if (lruCache != null)
+        {
+            synchronized (lruCache)
+            {
+                Iterator<Page> iterator = lruCache.values().iterator();
+
+                while (iterator.hasNext())
+                {
+                    if (dependsOn(iterator.next(), resources))
+                    {
+                        iterator.remove();
+                    }
+                }
+            }
+
+            return;
+        }
+
+        Iterator<SoftReference<Page>> iterator = pageCache.values().iterator();
+
+        while (iterator.hasNext())
+        {
+            Page page = iterator.next().get();
+
+            if (page == null || dependsOn(page, resources))
+            {
+                iterator.remove();
+            }
+        }
+    }
+
+    private static boolean dependsOn(Page page, Set<String> resources)
+    {
+        return !Collections.disjoint(page.getDependencies(), resources);
+    }
+
+    private List<Set<String>> getAllDependencies()
+    {
+        return F.flow(getAllPages()).map(new Mapper<Page, Set<String>>()
+        {
+            public Set<String> map(Page page)
+            {
+                return page.getDependencies();
+            }
+        }).toList();
     }
 
     public void clearCache()
     {
+        cacheGeneration.incrementAndGet();
+
+        if (lruCache != null)
+        {
+            synchronized (lruCache)
+            {
+                lruCache.clear();
+            }
+
+            return;
+        }
+
         pageCache.clear();
     }
 
     public Set<Page> getAllPages()
     {
+        if (lruCache != null)
+        {
+            synchronized (lruCache)
+            {
+                return CollectionFactory.newSet(lruCache.values());
+            }
+        }
+
         return F.flow(pageCache.values()).map(new Mapper<SoftReference<Page>, Page>()
         {
             public Page map(SoftReference<Page> element)
@@ -141,4 +463,33 @@ public class PageSourceImpl implements PageSource
             }
         }).removeNulls().toSet();
     }
+
+    public PageCacheStatistics getCacheStatistics()
+    {
+        return new PageCacheStatistics(hits.get(), misses.get(), loads.get(), loadTimeNanos.get() / 1000000.0d,
+                evictions.get(), countCachedPages(), Math.max(maxSize, 0));
+    }
+
+    private int countCachedPages()
+    {
+        if (lruCache != null)
+        {
+            synchronized (lruCache)
+            {
+                return lruCache.size();
+            }
+        }
+
+        int count = 0;
+
+        for (SoftReference<Page> ref : pageCache.values())
+        {
+            if (ref.get() != null)
+            {
+                count++;
+            }
+        }
+
+        return count;
+    }
 }
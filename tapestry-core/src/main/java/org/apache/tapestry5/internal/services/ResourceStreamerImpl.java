@@ -20,6 +20,8 @@ import org.apache.tapestry5.http.internal.TapestryHttpInternalConstants;
 import org.apache.tapestry5.http.services.Request;
 import org.apache.tapestry5.http.services.Response;
 import org.apache.tapestry5.internal.InternalConstants;
+import org.apache.tapestry5.internal.services.assets.PrecompressedAssetStore;
+import org.apache.tapestry5.internal.services.assets.PrecompressedStreamableResource;
 import org.apache.tapestry5.internal.services.assets.ResourceChangeTracker;
 import org.apache.tapestry5.ioc.IOOperation;
 import org.apache.tapestry5.ioc.OperationTracker;
@@ -57,6 +59,8 @@ public class ResourceStreamerImpl implements ResourceStreamer
     
     private final AssetFactory contextAssetFactory;
 
+    private final PrecompressedAssetStore precompressedAssetStore;
+
     public ResourceStreamerImpl(Request request,
 
                                 Response response,
@@ -77,7 +81,9 @@ public class ResourceStreamerImpl implements ResourceStreamer
                                 AssetFactory classpathAssetFactory,
                                 
                                 @InjectService("ContextAssetFactory")
-                                AssetFactory contextAssetFactory)
+                                AssetFactory contextAssetFactory,
+
+                                PrecompressedAssetStore precompressedAssetStore)
     {
         this.request = request;
         this.response = response;
@@ -90,6 +96,7 @@ public class ResourceStreamerImpl implements ResourceStreamer
         
         this.classpathAssetFactory = classpathAssetFactory;
         this.contextAssetFactory = contextAssetFactory;
+        this.precompressedAssetStore = precompressedAssetStore;
     }
 
     public boolean streamResource(final Resource resource, final String providedChecksum, final Set<Options> options) throws IOException
@@ -152,8 +159,20 @@ public class ResourceStreamerImpl implements ResourceStreamer
         }
 
 
+        // When the resource was compressed by the PrecompressedAssetStore, pick the variant best suited
+        // to the client. This is done before the ETag is computed, as each variant has its own.
+
+        if (streamable.getCompression() == CompressionStatus.COMPRESSED)
+        {
+            streamable = precompressedAssetStore.selectVariant(streamable, request.getHeader("Accept-Encoding"));
+        }
+
+        String entityTag = streamable instanceof PrecompressedStreamableResource
+                ? ((PrecompressedStreamableResource) streamable).getEntityTag()
+                : actualChecksum;
+
         // ETag should be surrounded with quotes.
-        String token = QUOTE + actualChecksum + QUOTE;
+        String token = QUOTE + entityTag + QUOTE;
 
         // Even when sending a 304, we want the ETag associated with the request.
         // In most cases (except JavaScript modules), the checksum is also embedded into the URL.
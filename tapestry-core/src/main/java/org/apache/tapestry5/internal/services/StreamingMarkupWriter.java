@@ -0,0 +1,41 @@
+// Copyright 2021 The Apache Software Foundation
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.apache.tapestry5.internal.services;
+
+import org.apache.tapestry5.MarkupWriter;
+
+/**
+ * A {@link MarkupWriter} that streams completed content to the client while the page is still rendering, rather than
+ * building the complete DOM first. Markup renderer filters that would normally update the document once rendering
+ * finishes (for example, to add stylesheet links to the {@code <head>}) must instead do so from a commit callback.
+ *
+ * @see org.apache.tapestry5.SymbolConstants#STREAMING_RENDER_ENABLED
+ * @since 5.7.0
+ */
+public interface StreamingMarkupWriter extends MarkupWriter
+{
+    /**
+     * Adds a callback that is invoked just before the start of the document (including the {@code <head>}) is
+     * written to the client. Callbacks are invoked in the reverse of the order in which they were added, mirroring
+     * the order in which nested filters complete.
+     */
+    void addCommitCallback(Runnable callback);
+
+    /**
+     * Returns true once the start of the document has been written to the client; changes to the {@code <head>}
+     * or to the attributes of the {@code <body>} will no longer be visible.
+     */
+    boolean isCommitted();
+}
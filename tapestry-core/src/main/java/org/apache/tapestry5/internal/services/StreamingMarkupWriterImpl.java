@@ -0,0 +1,124 @@
+// Copyright 2021 The Apache Software Foundation
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.apache.tapestry5.internal.services;
+
+import org.apache.tapestry5.commons.util.CollectionFactory;
+import org.apache.tapestry5.dom.DocumentStreamer;
+import org.apache.tapestry5.dom.Element;
+import org.apache.tapestry5.dom.MarkupModel;
+
+import java.io.PrintWriter;
+import java.util.List;
+
+/**
+ * Streams the content of the {@code <body>} element as it is rendered. Each time an element that is a direct child
+ * of the {@code <body>} ends, the content of the body rendered so far is written to the output and removed from the
+ * DOM. Just before the first such write, the {@linkplain #addCommitCallback(Runnable) commit callbacks} are invoked
+ * and the start of the document, including the {@code <head>}, is written.
+ *
+ * Documents that do not have an {@code <html>} root element containing a {@code <body>} are not streamed at all;
+ * they are written in their entirety by {@link #toMarkup(java.io.PrintWriter)}, just like {@link MarkupWriterImpl}.
+ *
+ * @since 5.7.0
+ */
+public class StreamingMarkupWriterImpl extends MarkupWriterImpl implements StreamingMarkupWriter
+{
+    private final PrintWriter output;
+
+    private final List<Runnable> commitCallbacks = CollectionFactory.newList();
+
+    private Element body;
+
+    private DocumentStreamer streamer;
+
+    /**
+     * @param output
+     *         to which streamed content is written
+     */
+    public StreamingMarkupWriterImpl(MarkupModel model, String encoding, String mimeType, PrintWriter output)
+    {
+        super(model, encoding, mimeType);
+
+        this.output = output;
+    }
+
+    public void addCommitCallback(Runnable callback)
+    {
+        assert callback != null;
+
+        commitCallbacks.add(callback);
+    }
+
+    public boolean isCommitted()
+    {
+        return streamer != null;
+    }
+
+    @Override
+    public Element end()
+    {
+        Element current = super.end();
+
+        if (current != null && isBody(current))
+        {
+            if (streamer == null)
+            {
+                for (int i = commitCallbacks.size() - 1; i >= 0; i--)
+                {
+                    commitCallbacks.get(i).run();
+                }
+
+                streamer = new DocumentStreamer(getDocument(), current, output);
+            }
+
+            streamer.flush();
+        }
+
+        return current;
+    }
+
+    private boolean isBody(Element element)
+    {
+        if (body == null)
+        {
+            Element root = getDocument().getRootElement();
+
+            if (element.getContainer() == root
+                    && root.getName().equalsIgnoreCase("html")
+                    && element.getName().equalsIgnoreCase("body"))
+            {
+                body = element;
+            }
+        }
+
+        return element == body;
+    }
+
+    /**
+     * Writes any content that has not already been streamed. When nothing has been streamed yet, the entire
+     * document is written to the provided writer.
+     */
+    @Override
+    public void toMarkup(PrintWriter writer)
+    {
+        if (streamer == null)
+        {
+            super.toMarkup(writer);
+            return;
+        }
+
+        streamer.finish();
+    }
+}
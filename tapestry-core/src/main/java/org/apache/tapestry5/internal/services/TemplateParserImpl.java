@@ -1,4 +1,4 @@
-// Copyright 2006, 2007, 2008, 2009, 2010, 2011 The Apache Software Foundation
+// Copyright 2006, 2007, 2008, 2009, 2010, 2011, 2021 The Apache Software Foundation
 //
 // Licensed under the Apache License, Version 2.0 (the "License");
 // you may not use this file except in compliance with the License.
@@ -16,12 +16,28 @@ package org.apache.tapestry5.internal.services;
 
 import org.apache.tapestry5.SymbolConstants;
 import org.apache.tapestry5.commons.Resource;
+import org.apache.tapestry5.http.TapestryHttpSymbolConstants;
+import org.apache.tapestry5.internal.TapestryInternalUtils;
 import org.apache.tapestry5.internal.parser.ComponentTemplate;
+import org.apache.tapestry5.internal.parser.ComponentTemplateSerializer;
 import org.apache.tapestry5.ioc.Invokable;
 import org.apache.tapestry5.ioc.OperationTracker;
 import org.apache.tapestry5.ioc.annotations.Symbol;
+import org.apache.tapestry5.ioc.internal.util.InternalUtils;
+import org.slf4j.Logger;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Map;
 
 /**
@@ -29,6 +45,13 @@ import java.util.Map;
  * A new instance of {@link SaxTemplateParser} is created for each document
  * parsed.
  *
+ * In production mode, parsed templates may be stored in a
+ * {@linkplain SymbolConstants#COMPONENT_TEMPLATE_CACHE_DIR cache directory},
+ * in the form produced by {@link ComponentTemplateSerializer}; the same template content
+ * is then restored from the cache after a restart, rather than being parsed again. Templates
+ * are cached in a subdirectory for the current Tapestry and application versions; the
+ * subdirectories for other versions are deleted on startup.
+ *
  * @since 5.1.0.0
  */
 public class TemplateParserImpl implements TemplateParser
@@ -39,14 +62,57 @@ public class TemplateParserImpl implements TemplateParser
 
     private final OperationTracker tracker;
 
+    private final Logger logger;
+
+    /**
+     * Directory containing serialized templates, or null if caching is disabled.
+     */
+    private final File cacheDirectory;
+
     public TemplateParserImpl(Map<String, URL> configuration,
 
                               @Symbol(SymbolConstants.COMPRESS_WHITESPACE)
-                              boolean defaultCompressWhitespace, OperationTracker tracker)
+                              boolean defaultCompressWhitespace, OperationTracker tracker,
+
+                              Logger logger,
+
+                              @Symbol(TapestryHttpSymbolConstants.PRODUCTION_MODE)
+                              boolean productionMode,
+
+                              @Symbol(SymbolConstants.COMPONENT_TEMPLATE_CACHE_DIR)
+                              String cacheDir,
+
+                              @Symbol(SymbolConstants.TAPESTRY_VERSION)
+                              String tapestryVersion,
+
+                              @Symbol(SymbolConstants.APPLICATION_VERSION)
+                              String applicationVersion)
     {
         this.configuration = configuration;
         this.defaultCompressWhitespace = defaultCompressWhitespace;
         this.tracker = tracker;
+        this.logger = logger;
+
+        cacheDirectory = productionMode && InternalUtils.isNonBlank(cacheDir)
+                ? createCacheDirectory(new File(cacheDir), tapestryVersion, applicationVersion)
+                : null;
+    }
+
+    /**
+     * Returns the subdirectory for the current versions, after deleting anything else in the cache directory; the
+     * templates cached by other versions would never be used again (though within a version, a changed template
+     * leaves its old cache file behind, until the next version).
+     */
+    private File createCacheDirectory(File root, String tapestryVersion, String applicationVersion)
+    {
+        File result = new File(root, (tapestryVersion + "-" + applicationVersion).replaceAll("[^\\w.\\-]", "_"));
+
+        for (File file : TapestryInternalUtils.deleteAllExcept(root, result))
+        {
+            logger.warn(String.format("Unable to delete stale cached template %s.", file));
+        }
+
+        return result;
     }
 
     public ComponentTemplate parseTemplate(final Resource templateResource)
@@ -54,6 +120,32 @@ public class TemplateParserImpl implements TemplateParser
         if (!templateResource.exists())
             throw new RuntimeException(String.format("Template resource %s does not exist.", templateResource));
 
+        if (cacheDirectory == null)
+        {
+            return parse(templateResource);
+        }
+
+        File cacheFile = toCacheFile(templateResource);
+
+        if (cacheFile == null)
+        {
+            return parse(templateResource);
+        }
+
+        ComponentTemplate result = readCachedTemplate(templateResource, cacheFile);
+
+        if (result == null)
+        {
+            result = parse(templateResource);
+
+            writeCachedTemplate(result, cacheFile);
+        }
+
+        return result;
+    }
+
+    private ComponentTemplate parse(final Resource templateResource)
+    {
         return tracker.invoke("Parsing component template " + templateResource, new Invokable<ComponentTemplate>()
         {
             public ComponentTemplate invoke()
@@ -63,6 +155,95 @@ public class TemplateParserImpl implements TemplateParser
         });
     }
 
+    /**
+     * Identifies the cache file from a checksum of the template's content, and anything else that affects
+     * how it is parsed. Returns null if the template can not be read.
+     */
+    private File toCacheFile(Resource templateResource)
+    {
+        try
+        {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+
+            digest.update(String.format("%s:", defaultCompressWhitespace).getBytes(StandardCharsets.UTF_8));
+
+            InputStream stream = templateResource.openStream();
+
+            try
+            {
+                byte[] buffer = new byte[8192];
+
+                while (true)
+                {
+                    int length = stream.read(buffer);
+
+                    if (length < 0)
+                    {
+                        break;
+                    }
+
+                    digest.update(buffer, 0, length);
+                }
+            } finally
+            {
+                InternalUtils.close(stream);
+            }
+
+            StringBuilder builder = new StringBuilder();
+
+            for (byte b : digest.digest())
+            {
+                builder.append(String.format("%02x", b));
+            }
+
+            return new File(cacheDirectory, builder.append(".tpl").toString());
+        } catch (IOException ex)
+        {
+            return null;
+        } catch (NoSuchAlgorithmException ex)
+        {
+            throw new RuntimeException(ex);
+        }
+    }
+
+    private ComponentTemplate readCachedTemplate(Resource templateResource, File cacheFile)
+    {
+        if (!cacheFile.isFile())
+        {
+            return null;
+        }
+
+        try
+        {
+            byte[] content = Files.readAllBytes(cacheFile.toPath());
+
+            return ComponentTemplateSerializer.read(templateResource,
+                    new DataInputStream(new ByteArrayInputStream(content)));
+        } catch (IOException ex)
+        {
+            logger.warn(String.format("Unable to read cached template %s from %s: %s",
+                    templateResource, cacheFile, ex.getMessage()));
+
+            return null;
+        }
+    }
+
+    private void writeCachedTemplate(ComponentTemplate template, File cacheFile)
+    {
+        try
+        {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+            ComponentTemplateSerializer.write(template, new DataOutputStream(bytes));
+
+            TapestryInternalUtils.writeFileAtomically(cacheFile, bytes.toByteArray());
+        } catch (IOException ex)
+        {
+            logger.warn(String.format("Unable to cache template %s in %s: %s",
+                    template.getResource(), cacheFile, ex.getMessage()));
+        }
+    }
+
     public Map<String, URL> getDTDURLMappings()
     {
         return configuration;
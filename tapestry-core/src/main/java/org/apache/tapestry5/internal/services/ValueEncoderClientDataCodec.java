@@ -0,0 +1,73 @@
+// Copyright 2021 The Apache Software Foundation
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.apache.tapestry5.internal.services;
+
+import org.apache.tapestry5.ValueEncoder;
+import org.apache.tapestry5.services.ClientDataCodec;
+import org.apache.tapestry5.services.ValueEncoderSource;
+
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+
+/**
+ * A {@link ClientDataCodec} that stores just the client-side value of a {@link ValueEncoder} (typically, the id of an
+ * entity), and obtains the value from the encoder when read. Values without a client-side value (such as entities
+ * that have not yet been saved) are written as if there was no codec. Subclasses may exclude other values, such as
+ * entities that are not managed by the current session, whose state would be lost if they were read from the
+ * database.
+ *
+ * @param <T>
+ *         the type of value
+ * @since 5.7.0
+ */
+public class ValueEncoderClientDataCodec<T> implements ClientDataCodec<T>
+{
+    private final ValueEncoderSource valueEncoderSource;
+
+    private final Class<T> type;
+
+    public ValueEncoderClientDataCodec(ValueEncoderSource valueEncoderSource, Class<T> type)
+    {
+        this.valueEncoderSource = valueEncoderSource;
+        this.type = type;
+    }
+
+    /**
+     * Returns true if the encoder provides a client-side value for the value.
+     */
+    @Override
+    public boolean canWrite(T value)
+    {
+        return getEncoder().toClient(value) != null;
+    }
+
+    public void write(T value, ObjectOutput output) throws IOException
+    {
+        output.writeObject(getEncoder().toClient(value));
+    }
+
+    public T read(ObjectInput input) throws IOException, ClassNotFoundException
+    {
+        return getEncoder().toValue((String) input.readObject());
+    }
+
+    private ValueEncoder<T> getEncoder()
+    {
+        // The source caches the encoders.
+
+        return valueEncoderSource.getValueEncoder(type);
+    }
+}
@@ -155,13 +155,7 @@ public class JavaScriptSupportImpl implements JavaScriptSupport
             require("t5/core/pageinit").invoke("focus").with(focusFieldId);
         }
 
-        F.flow(stylesheetLinks).each(new Worker<StylesheetLink>()
-        {
-            public void work(StylesheetLink value)
-            {
-                linker.addStylesheetLink(value);
-            }
-        });
+        commitStylesheets();
 
         F.flow(inits).sort(new Comparator<InitializationImpl>()
         {
@@ -178,6 +172,25 @@ public class JavaScriptSupportImpl implements JavaScriptSupport
         });
     }
 
+    /**
+     * Passes the stylesheets imported so far to the {@link DocumentLinker}. This is normally done by {@link #commit()},
+     * but when the page is streamed, it also occurs just before the document's {@code <head>} is written.
+     *
+     * @since 5.7.0
+     */
+    public void commitStylesheets()
+    {
+        F.flow(stylesheetLinks).each(new Worker<StylesheetLink>()
+        {
+            public void work(StylesheetLink value)
+            {
+                linker.addStylesheetLink(value);
+            }
+        });
+
+        stylesheetLinks.clear();
+    }
+
     public void addInitializerCall(InitializationPriority priority, String functionName, JSONObject parameter)
     {
         createInitializer(priority).with(functionName, parameter);
@@ -0,0 +1,50 @@
+// Copyright 2021 The Apache Software Foundation
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package org.apache.tapestry5.internal.services.assets;
+
+import org.apache.tapestry5.commons.Resource;
+
+import java.util.Locale;
+
+/**
+ * Warms up the application's assets at startup: the {@link org.apache.tapestry5.services.javascript.JavaScriptStack}s
+ * are aggregated (for each supported locale), and the stacks' stylesheets and the JavaScript modules are minified and
+ * compressed, using a pool of background threads. While this is in progress, requests for assets that have not yet
+ * been warmed up are satisfied using unminified content, rather than waiting on the minimizer.
+ *
+ * @see org.apache.tapestry5.SymbolConstants#ASSET_WARMUP_PARALLELISM
+ * @since 5.7.0
+ */
+public interface AssetWarmer
+{
+    /**
+     * Starts warming up the assets, in the background. Does nothing if warm-up is not enabled, or has already been
+     * started.
+     */
+    void start();
+
+    /**
+     * Returns true if the resource is scheduled to be warmed up but has not been yet, and the current thread is not one
+     * of the warm-up threads. Resources that are not part of the warm-up are never warming.
+     */
+    boolean isWarming(Resource resource);
+
+    /**
+     * Returns true if the aggregated stack, for the locale, is scheduled to be warmed up but has not been yet, and the
+     * current thread is not one of the warm-up threads.
+     */
+    boolean isWarming(String stackName, Locale locale);
+}
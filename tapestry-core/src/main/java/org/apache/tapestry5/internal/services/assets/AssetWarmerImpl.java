@@ -0,0 +1,398 @@
+// Copyright 2021 The Apache Software Foundation
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package org.apache.tapestry5.internal.services.assets;
+
+import org.apache.tapestry5.Asset;
+import org.apache.tapestry5.SymbolConstants;
+import org.apache.tapestry5.commons.Resource;
+import org.apache.tapestry5.commons.util.CollectionFactory;
+import org.apache.tapestry5.commons.util.ExceptionUtils;
+import org.apache.tapestry5.http.TapestryHttpSymbolConstants;
+import org.apache.tapestry5.internal.InternalConstants;
+import org.apache.tapestry5.ioc.Invokable;
+import org.apache.tapestry5.ioc.annotations.Symbol;
+import org.apache.tapestry5.ioc.services.ClasspathMatcher;
+import org.apache.tapestry5.ioc.services.ClasspathScanner;
+import org.apache.tapestry5.ioc.services.ParallelExecutor;
+import org.apache.tapestry5.ioc.services.ThreadLocale;
+import org.apache.tapestry5.services.LocalizationSetter;
+import org.apache.tapestry5.services.assets.StreamableResourceProcessing;
+import org.apache.tapestry5.services.assets.StreamableResourceSource;
+import org.apache.tapestry5.services.javascript.JavaScriptAggregationStrategy;
+import org.apache.tapestry5.services.javascript.JavaScriptStack;
+import org.apache.tapestry5.services.javascript.JavaScriptStackSource;
+import org.apache.tapestry5.services.javascript.ModuleManager;
+import org.apache.tapestry5.services.javascript.StylesheetLink;
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class AssetWarmerImpl implements AssetWarmer
+{
+    private static final String MODULES_PATH = "META-INF/modules/";
+
+    private final Logger logger;
+
+    private final ParallelExecutor executor;
+
+    private final ThreadLocale threadLocale;
+
+    private final LocalizationSetter localizationSetter;
+
+    private final JavaScriptStackSource stackSource;
+
+    private final JavaScriptStackAssembler stackAssembler;
+
+    private final ModuleManager moduleManager;
+
+    private final StreamableResourceSource streamableResourceSource;
+
+    private final ResourceChangeTracker resourceChangeTracker;
+
+    private final ClasspathScanner classpathScanner;
+
+    private final boolean enabled;
+
+    private final int parallelism;
+
+    private final boolean combineScripts;
+
+    private final boolean gzipEnabled;
+
+    private final AtomicBoolean started = new AtomicBoolean();
+
+    /**
+     * Resources and stacks scheduled for warm-up, that have not yet been warmed up (or failed to warm up).
+     */
+    private final Set<Resource> pendingResources = Collections.newSetFromMap(new ConcurrentHashMap<Resource, Boolean>());
+
+    private final Set<String> pendingStacks = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+    private final ThreadLocal<Boolean> warmupThread = new ThreadLocal<Boolean>();
+
+    private volatile boolean active;
+
+    private abstract class Warmup
+    {
+        final String description;
+
+        final Locale locale;
+
+        Warmup(String description, Locale locale)
+        {
+            this.description = description;
+            this.locale = locale;
+        }
+
+        abstract void warm() throws IOException;
+    }
+
+    public AssetWarmerImpl(Logger logger,
+                           ParallelExecutor executor,
+                           ThreadLocale threadLocale,
+                           LocalizationSetter localizationSetter,
+                           JavaScriptStackSource stackSource,
+                           JavaScriptStackAssembler stackAssembler,
+                           ModuleManager moduleManager,
+                           StreamableResourceSource streamableResourceSource,
+                           ResourceChangeTracker resourceChangeTracker,
+                           ClasspathScanner classpathScanner,
+                           @Symbol(TapestryHttpSymbolConstants.PRODUCTION_MODE)
+                           boolean productionMode,
+                           @Symbol(SymbolConstants.ASSET_WARMUP_PARALLELISM)
+                           int parallelism,
+                           @Symbol(SymbolConstants.COMBINE_SCRIPTS)
+                           boolean combineScripts,
+                           @Symbol(TapestryHttpSymbolConstants.GZIP_COMPRESSION_ENABLED)
+                           boolean gzipEnabled)
+    {
+        this.logger = logger;
+        this.executor = executor;
+        this.threadLocale = threadLocale;
+        this.localizationSetter = localizationSetter;
+        this.stackSource = stackSource;
+        this.stackAssembler = stackAssembler;
+        this.moduleManager = moduleManager;
+        this.streamableResourceSource = streamableResourceSource;
+        this.resourceChangeTracker = resourceChangeTracker;
+        this.classpathScanner = classpathScanner;
+        this.enabled = productionMode && parallelism > 0;
+        this.parallelism = parallelism;
+        this.combineScripts = combineScripts;
+        this.gzipEnabled = gzipEnabled;
+    }
+
+    @Override
+    public void start()
+    {
+        if (!enabled || !started.compareAndSet(false, true))
+        {
+            return;
+        }
+
+        final List<Warmup> warmups;
+
+        try
+        {
+            warmups = collectWarmups();
+        } catch (Exception ex)
+        {
+            logger.error(String.format("Unable to warm up assets: %s", ExceptionUtils.toMessage(ex)), ex);
+
+            return;
+        }
+
+        if (warmups.isEmpty())
+        {
+            return;
+        }
+
+        int threads = Math.min(parallelism, warmups.size());
+
+        logger.info(String.format("Warming up %,d assets using %,d threads.", warmups.size(), threads));
+
+        final long startNanos = System.nanoTime();
+
+        final Queue<Warmup> queue = new ConcurrentLinkedQueue<Warmup>(warmups);
+
+        final AtomicInteger running = new AtomicInteger(threads);
+
+        active = true;
+
+        for (int i = 0; i < threads; i++)
+        {
+            executor.invoke(new Invokable<Void>()
+            {
+                @Override
+                public Void invoke()
+                {
+                    warmupThread.set(true);
+
+                    try
+                    {
+                        warm(queue);
+                    } finally
+                    {
+                        warmupThread.remove();
+
+                        // The last worker to finish ends the warm-up.
+
+                        if (running.decrementAndGet() == 0)
+                        {
+                            active = false;
+
+                            double elapsedNanos = System.nanoTime() - startNanos;
+
+                            logger.info(String.format("Warmed up %,d assets in %.2f seconds.",
+                                    warmups.size(),
+                                    elapsedNanos * 10E-10d));
+                        }
+                    }
+
+                    return null;
+                }
+            });
+        }
+    }
+
+    @Override
+    public boolean isWarming(Resource resource)
+    {
+        return active && warmupThread.get() == null && pendingResources.contains(resource);
+    }
+
+    @Override
+    public boolean isWarming(String stackName, Locale locale)
+    {
+        return active && warmupThread.get() == null && pendingStacks.contains(toStackKey(stackName, locale));
+    }
+
+    private void warm(Queue<Warmup> queue)
+    {
+        while (true)
+        {
+            Warmup warmup = queue.poll();
+
+            if (warmup == null)
+            {
+                return;
+            }
+
+            threadLocale.setLocale(warmup.locale);
+
+            try
+            {
+                warmup.warm();
+            } catch (Exception ex)
+            {
+                // Requests will simply minify the asset as they would without the warm-up.
+                logger.warn(String.format("Unable to warm up %s: %s", warmup.description, ExceptionUtils.toMessage(ex)));
+            }
+        }
+    }
+
+    private List<Warmup> collectWarmups() throws IOException
+    {
+        List<Warmup> result = CollectionFactory.newList();
+
+        Set<Resource> resources = CollectionFactory.newSet();
+
+        List<Locale> locales = localizationSetter.getSupportedLocales();
+
+        for (String stackName : stackSource.getStackNames())
+        {
+            JavaScriptStack stack = stackSource.getStack(stackName);
+
+            JavaScriptAggregationStrategy strategy = stack.getJavaScriptAggregationStrategy();
+
+            if (combineScripts && strategy.enablesCombine())
+            {
+                for (Locale locale : locales)
+                {
+                    result.add(stackWarmup(stackName, strategy, locale));
+                }
+            } else
+            {
+                for (Asset library : stack.getJavaScriptLibraries())
+                {
+                    resources.add(library.getResource());
+                }
+            }
+
+            for (StylesheetLink link : stack.getStylesheets())
+            {
+                if (link.getAsset() != null)
+                {
+                    resources.add(link.getAsset().getResource());
+                }
+            }
+        }
+
+        for (String moduleName : findModuleNames())
+        {
+            Resource resource = moduleManager.findResourceForModule(moduleName);
+
+            if (resource != null)
+            {
+                resources.add(resource);
+            }
+        }
+
+        for (Resource resource : resources)
+        {
+            // Without a request, the JavaScriptStackMinimizeDisabler can not prevent the minimization of the
+            // libraries of stacks that disable it; as they are never minified, there's little to warm up anyway.
+
+            JavaScriptStack stack = stackSource.findStackForJavaScriptLibrary(resource);
+
+            if (stack == null || stack.getJavaScriptAggregationStrategy().enablesMinimize())
+            {
+                result.add(resourceWarmup(resource, locales.get(0)));
+            }
+        }
+
+        return result;
+    }
+
+    private Set<String> findModuleNames() throws IOException
+    {
+        final Set<String> extensions = CollectionFactory.newSet("js");
+
+        extensions.addAll(streamableResourceSource.fileExtensionsForContentType(InternalConstants.JAVASCRIPT_CONTENT_TYPE));
+
+        Set<String> paths = classpathScanner.scan(MODULES_PATH, new ClasspathMatcher()
+        {
+            @Override
+            public boolean matches(String packagePath, String fileName)
+            {
+                int dotx = fileName.lastIndexOf('.');
+
+                return dotx > 0 && extensions.contains(fileName.substring(dotx + 1));
+            }
+        });
+
+        Set<String> result = CollectionFactory.newSet();
+
+        for (String path : paths)
+        {
+            result.add(path.substring(MODULES_PATH.length(), path.lastIndexOf('.')));
+        }
+
+        return result;
+    }
+
+    private Warmup stackWarmup(final String stackName, final JavaScriptAggregationStrategy strategy, final Locale locale)
+    {
+        pendingStacks.add(toStackKey(stackName, locale));
+
+        return new Warmup(String.format("'%s' JavaScript stack, for locale %s", stackName, locale), locale)
+        {
+            @Override
+            void warm() throws IOException
+            {
+                try
+                {
+                    // When compressing, the uncompressed stack is assembled (and cached) first.
+                    stackAssembler.assembleJavaScriptResourceForStack(stackName, gzipEnabled, strategy);
+                } finally
+                {
+                    pendingStacks.remove(toStackKey(stackName, locale));
+                }
+            }
+        };
+    }
+
+    private Warmup resourceWarmup(final Resource resource, Locale locale)
+    {
+        pendingResources.add(resource);
+
+        return new Warmup(resource.toString(), locale)
+        {
+            @Override
+            void warm() throws IOException
+            {
+                try
+                {
+                    streamableResourceSource.getStreamableResource(resource, StreamableResourceProcessing.COMPRESSION_DISABLED,
+                            resourceChangeTracker);
+
+                    if (gzipEnabled)
+                    {
+                        streamableResourceSource.getStreamableResource(resource, StreamableResourceProcessing.COMPRESSION_ENABLED,
+                                resourceChangeTracker);
+                    }
+                } finally
+                {
+                    pendingResources.remove(resource);
+                }
+            }
+        };
+    }
+
+    private static String toStackKey(String stackName, Locale locale)
+    {
+        return stackName + "/" + locale;
+    }
+}
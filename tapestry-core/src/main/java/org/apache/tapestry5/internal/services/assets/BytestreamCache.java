@@ -19,21 +19,34 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
 
 /**
  * A wrapper around a byte-stream, represented internally as a byte array. Part of the fix
  * to TAP5-1116, avoiding a live lock due to ByteArrayOutputStream.writeTo() being a synchronized
  * method.
+ *
+ * Starting in 5.7.0, the content may instead be a (read-only) {@link ByteBuffer}, typically a memory-mapped file;
+ * the content is then never copied, as a whole, onto the heap.
  * 
  * @since 5.2.0
  */
 public class BytestreamCache
 {
+    /**
+     * Size of the chunks in which the content of a buffer is copied to an output stream.
+     */
+    private static final int CHUNK_SIZE = 8192;
+
     private final byte[] streamData;
 
+    private final ByteBuffer buffer;
+
     public BytestreamCache(byte[] streamData)
     {
         this.streamData = streamData;
+        this.buffer = null;
     }
 
     public BytestreamCache(ByteArrayOutputStream os)
@@ -41,18 +54,113 @@ public class BytestreamCache
         this(os.toByteArray());
     }
 
+    /**
+     * @param buffer
+     *         content, from its position to its limit; the buffer itself is never modified
+     * @since 5.7.0
+     */
+    public BytestreamCache(ByteBuffer buffer)
+    {
+        this.streamData = null;
+        this.buffer = buffer.asReadOnlyBuffer();
+    }
+
+    /**
+     * Writes the content to the stream. When the content is a buffer, and the stream is also a
+     * {@link WritableByteChannel}, the buffer is written directly to the channel; otherwise it is copied in small
+     * chunks.
+     */
     public void writeTo(OutputStream os) throws IOException
     {
-        os.write(streamData, 0, streamData.length);
+        if (buffer == null)
+        {
+            os.write(streamData, 0, streamData.length);
+            return;
+        }
+
+        ByteBuffer content = buffer.duplicate();
+
+        if (os instanceof WritableByteChannel)
+        {
+            WritableByteChannel channel = (WritableByteChannel) os;
+
+            while (content.hasRemaining())
+            {
+                channel.write(content);
+            }
+
+            return;
+        }
+
+        byte[] chunk = new byte[Math.min(CHUNK_SIZE, content.remaining())];
+
+        while (content.hasRemaining())
+        {
+            int length = Math.min(chunk.length, content.remaining());
+
+            content.get(chunk, 0, length);
+
+            os.write(chunk, 0, length);
+        }
     }
 
     public int size()
     {
-        return streamData.length;
+        return buffer == null ? streamData.length : buffer.remaining();
     }
 
     public InputStream openStream()
     {
-        return new ByteArrayInputStream(streamData);
+        if (buffer == null)
+        {
+            return new ByteArrayInputStream(streamData);
+        }
+
+        final ByteBuffer content = buffer.duplicate();
+
+        return new InputStream()
+        {
+            @Override
+            public int read()
+            {
+                return content.hasRemaining() ? content.get() & 0xff : -1;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len)
+            {
+                if (len == 0)
+                {
+                    return 0;
+                }
+
+                if (!content.hasRemaining())
+                {
+                    return -1;
+                }
+
+                int length = Math.min(len, content.remaining());
+
+                content.get(b, off, length);
+
+                return length;
+            }
+
+            @Override
+            public long skip(long n)
+            {
+                int length = (int) Math.max(0, Math.min(n, content.remaining()));
+
+                content.position(content.position() + length);
+
+                return length;
+            }
+
+            @Override
+            public int available()
+            {
+                return content.remaining();
+            }
+        };
     }
 }
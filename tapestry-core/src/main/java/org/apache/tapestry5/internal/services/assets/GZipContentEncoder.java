@@ -0,0 +1,48 @@
+// Copyright 2021 The Apache Software Foundation
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package org.apache.tapestry5.internal.services.assets;
+
+import org.apache.tapestry5.services.assets.ContentEncoder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Encodes content using GZip, at the best (slowest) compression level; appropriate as each asset is compressed just
+ * once.
+ *
+ * @since 5.7.0
+ */
+public class GZipContentEncoder implements ContentEncoder
+{
+    @Override
+    public OutputStream createEncodingStream(OutputStream output) throws IOException
+    {
+        return new BestCompressionGZIPOutputStream(output);
+    }
+
+    private static class BestCompressionGZIPOutputStream extends GZIPOutputStream
+    {
+        BestCompressionGZIPOutputStream(OutputStream output) throws IOException
+        {
+            super(output, 8192);
+
+            def.setLevel(Deflater.BEST_COMPRESSION);
+        }
+    }
+}
@@ -52,6 +52,10 @@ public class JavaScriptStackAssemblerImpl implements JavaScriptStackAssembler
 
     private final boolean minificationEnabled;
 
+    private final PrecompressedAssetStore precompressedAssetStore;
+
+    private final AssetWarmer assetWarmer;
+
     private final Map<String, StreamableResource> cache = Collections.synchronizedMap(CollectionFactory.<StreamableResource>newCaseInsensitiveMap());
 
     private class Parameters
@@ -84,7 +88,9 @@ public class JavaScriptStackAssemblerImpl implements JavaScriptStackAssembler
                                         JavaScriptStackSource stackSource, AssetChecksumGenerator checksumGenerator, ModuleManager moduleManager,
                                         ResourceMinimizer resourceMinimizer,
                                         @Symbol(SymbolConstants.MINIFICATION_ENABLED)
-                                        boolean minificationEnabled)
+                                        boolean minificationEnabled,
+                                        PrecompressedAssetStore precompressedAssetStore,
+                                        AssetWarmer assetWarmer)
     {
         this.threadLocale = threadLocale;
         this.resourceChangeTracker = resourceChangeTracker;
@@ -94,6 +100,8 @@ public class JavaScriptStackAssemblerImpl implements JavaScriptStackAssembler
         this.moduleManager = moduleManager;
         this.resourceMinimizer = resourceMinimizer;
         this.minificationEnabled = minificationEnabled;
+        this.precompressedAssetStore = precompressedAssetStore;
+        this.assetWarmer = assetWarmer;
 
         resourceChangeTracker.clearOnInvalidation(cache);
     }
@@ -102,15 +110,24 @@ public class JavaScriptStackAssemblerImpl implements JavaScriptStackAssembler
     {
         Locale locale = threadLocale.getLocale();
 
+        // Rather than wait for the stack to be minified, it is combined (but neither minified nor compressed)
+        // while it is still being warmed up.
+
+        if (minificationEnabled && javascriptAggregationStrategy.enablesMinimize() && assetWarmer.isWarming(stackName, locale))
+        {
+            return assembleJavascriptResourceForStack(new Parameters(locale, stackName, false, JavaScriptAggregationStrategy.COMBINE_ONLY));
+        }
+
         return assembleJavascriptResourceForStack(new Parameters(locale, stackName, compress, javascriptAggregationStrategy));
     }
 
     private StreamableResource assembleJavascriptResourceForStack(Parameters parameters) throws IOException
     {
         String key =
-                String.format("%s[%s] %s",
+                String.format("%s[%s %s] %s",
                         parameters.stackName,
                         parameters.compress ? "COMPRESS" : "UNCOMPRESSED",
+                        parameters.javascriptAggregationStrategy.name(),
                         parameters.locale.toString());
 
         StreamableResource result = cache.get(key);
@@ -130,7 +147,7 @@ public class JavaScriptStackAssemblerImpl implements JavaScriptStackAssembler
         {
             StreamableResource uncompressed = assembleJavascriptResourceForStack(parameters.disableCompress());
 
-            return new CompressedStreamableResource(uncompressed, checksumGenerator);
+            return precompressedAssetStore.compress(uncompressed);
         }
 
         JavaScriptStack stack = stackSource.getStack(parameters.stackName);
@@ -15,6 +15,7 @@ package org.apache.tapestry5.internal.services.assets;
 import org.apache.tapestry5.TapestryConstants;
 import org.apache.tapestry5.commons.Resource;
 import org.apache.tapestry5.http.services.Request;
+import org.apache.tapestry5.http.services.RequestGlobals;
 import org.apache.tapestry5.services.assets.ResourceDependencies;
 import org.apache.tapestry5.services.assets.StreamableResource;
 import org.apache.tapestry5.services.assets.StreamableResourceProcessing;
@@ -35,20 +36,29 @@ public class JavaScriptStackMinimizeDisabler extends DelegatingSRS
 
     private final JavaScriptStackSource javaScriptStackSource;
 
-    private final Request request;
+    private final RequestGlobals requestGlobals;
 
-    public JavaScriptStackMinimizeDisabler(StreamableResourceSource delegate, JavaScriptStackSource javaScriptStackSource, Request request)
+    public JavaScriptStackMinimizeDisabler(StreamableResourceSource delegate, JavaScriptStackSource javaScriptStackSource, RequestGlobals requestGlobals)
     {
         super(delegate);
 
         this.javaScriptStackSource = javaScriptStackSource;
-        this.request = request;
+        this.requestGlobals = requestGlobals;
     }
 
 
     @Override
     public StreamableResource getStreamableResource(Resource baseResource, StreamableResourceProcessing processing, ResourceDependencies dependencies) throws IOException
     {
+        Request request = requestGlobals.getRequest();
+
+        // There's no request when assets are warmed up in the background (the AssetWarmer skips such libraries).
+
+        if (request == null)
+        {
+            return delegate.getStreamableResource(baseResource, processing, dependencies);
+        }
+
         JavaScriptStack stack = javaScriptStackSource.findStackForJavaScriptLibrary(baseResource);
 
         if (stack != null && !stack.getJavaScriptAggregationStrategy().enablesMinimize())
@@ -0,0 +1,50 @@
+// Copyright 2021 The Apache Software Foundation
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package org.apache.tapestry5.internal.services.assets;
+
+import org.apache.tapestry5.services.assets.StreamableResource;
+
+import java.io.IOException;
+
+/**
+ * Compresses assets using each of the contributed {@link org.apache.tapestry5.services.assets.ContentEncoder}s, storing
+ * the results on disk (keyed on the content) so that each distinct asset is only compressed once, even across restarts
+ * and across the servers of a cluster that share the directory. The most appropriate variant is then selected for each
+ * request, based on the Accept-Encoding request header.
+ *
+ * @see org.apache.tapestry5.SymbolConstants#PRECOMPRESSED_ASSET_DIR
+ * @since 5.7.0
+ */
+public interface PrecompressedAssetStore
+{
+    /**
+     * Returns the compressed form of a {@linkplain org.apache.tapestry5.services.assets.CompressionStatus#COMPRESSABLE
+     * compressable} resource. When the store is not enabled, the resource is simply compressed using GZip.
+     */
+    StreamableResource compress(StreamableResource uncompressed) throws IOException;
+
+    /**
+     * Selects the variant of a resource previously returned from {@link #compress(StreamableResource)} that is best
+     * suited to the client: the smallest variant whose encoding the client accepts, or the uncompressed resource if the
+     * client accepts none of them. Any other resource is returned unchanged.
+     *
+     * @param resource
+     *         resource to be streamed to the client
+     * @param acceptEncoding
+     *         the Accept-Encoding request header, possibly null
+     */
+    StreamableResource selectVariant(StreamableResource resource, String acceptEncoding) throws IOException;
+}
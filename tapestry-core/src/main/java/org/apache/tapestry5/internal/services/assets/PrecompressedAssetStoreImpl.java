@@ -0,0 +1,323 @@
+// Copyright 2021 The Apache Software Foundation
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package org.apache.tapestry5.internal.services.assets;
+
+import org.apache.tapestry5.SymbolConstants;
+import org.apache.tapestry5.commons.util.CollectionFactory;
+import org.apache.tapestry5.commons.util.CommonsUtils;
+import org.apache.tapestry5.http.TapestryHttpSymbolConstants;
+import org.apache.tapestry5.http.internal.TapestryHttpInternalConstants;
+import org.apache.tapestry5.http.services.Response;
+import org.apache.tapestry5.internal.TapestryInternalUtils;
+import org.apache.tapestry5.ioc.annotations.Symbol;
+import org.apache.tapestry5.ioc.internal.util.InternalUtils;
+import org.apache.tapestry5.services.assets.AssetChecksumGenerator;
+import org.apache.tapestry5.services.assets.CompressionStatus;
+import org.apache.tapestry5.services.assets.ContentEncoder;
+import org.apache.tapestry5.services.assets.ResponseCustomizer;
+import org.apache.tapestry5.services.assets.StreamableResource;
+import org.slf4j.Logger;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+
+/**
+ * Stores each variant in a file named for a SHA-256 checksum of the uncompressed content, and the encoding.
+ *
+ * @since 5.7.0
+ */
+public class PrecompressedAssetStoreImpl implements PrecompressedAssetStore
+{
+    /**
+     * Added to the uncompressed resource when it is selected for a client that accepts none of the encodings.
+     */
+    private static final ResponseCustomizer VARY_CUSTOMIZER = new ResponseCustomizer()
+    {
+        @Override
+        public void customizeResponse(StreamableResource resource, Response response)
+        {
+            response.setHeader("Vary", "Accept-Encoding");
+        }
+    };
+
+    private final Map<String, ContentEncoder> encoders;
+
+    /**
+     * Directory in which compressed content is stored, or null if the store is not enabled.
+     */
+    private final File directory;
+
+    private final AssetChecksumGenerator checksumGenerator;
+
+    private final Logger logger;
+
+    public PrecompressedAssetStoreImpl(Map<String, ContentEncoder> configuration,
+
+                                       @Symbol(SymbolConstants.PRECOMPRESSED_ASSET_DIR)
+                                       String directory,
+
+                                       @Symbol(TapestryHttpSymbolConstants.PRODUCTION_MODE)
+                                       boolean productionMode,
+
+                                       AssetChecksumGenerator checksumGenerator, Logger logger)
+    {
+        this.encoders = configuration;
+        this.directory = productionMode && InternalUtils.isNonBlank(directory) && !configuration.isEmpty()
+                ? new File(directory)
+                : null;
+        this.checksumGenerator = checksumGenerator;
+        this.logger = logger;
+    }
+
+    @Override
+    public StreamableResource compress(StreamableResource uncompressed) throws IOException
+    {
+        assert uncompressed.getCompression() == CompressionStatus.COMPRESSABLE;
+
+        if (directory == null)
+        {
+            return new CompressedStreamableResource(uncompressed, checksumGenerator);
+        }
+
+        String digest = toDigest(uncompressed);
+
+        Map<String, BytestreamCache> variants = CollectionFactory.newMap();
+
+        String smallest = null;
+
+        for (Map.Entry<String, ContentEncoder> entry : encoders.entrySet())
+        {
+            String encoding = entry.getKey();
+
+            BytestreamCache content = findVariant(uncompressed, digest, encoding, entry.getValue());
+
+            // A variant that isn't smaller than the original is of no use.
+
+            if (content != null && content.size() < uncompressed.getSize())
+            {
+                variants.put(encoding, content);
+
+                if (smallest == null || content.size() < variants.get(smallest).size())
+                {
+                    smallest = encoding;
+                }
+            }
+        }
+
+        if (variants.isEmpty())
+        {
+            return uncompressed;
+        }
+
+        // Prefer GZip as the default variant, as it is universally supported.
+
+        String encoding = variants.containsKey(TapestryHttpInternalConstants.GZIP_CONTENT_ENCODING)
+                ? TapestryHttpInternalConstants.GZIP_CONTENT_ENCODING
+                : smallest;
+
+        return new PrecompressedStreamableResource(uncompressed, encoding, variants, checksumGenerator);
+    }
+
+    @Override
+    public StreamableResource selectVariant(StreamableResource resource, String acceptEncoding)
+    {
+        if (!(resource instanceof PrecompressedStreamableResource))
+        {
+            return resource;
+        }
+
+        PrecompressedStreamableResource precompressed = (PrecompressedStreamableResource) resource;
+
+        String best = null;
+
+        int bestSize = Integer.MAX_VALUE;
+
+        for (Map.Entry<String, BytestreamCache> entry : precompressed.getVariants().entrySet())
+        {
+            if (entry.getValue().size() < bestSize && isAccepted(acceptEncoding, entry.getKey()))
+            {
+                best = entry.getKey();
+                bestSize = entry.getValue().size();
+            }
+        }
+
+        return best == null
+                ? precompressed.getUncompressed().addResponseCustomizer(VARY_CUSTOMIZER)
+                : precompressed.withEncoding(best);
+    }
+
+    /**
+     * Determines if the encoding is acceptable, based on the Accept-Encoding header; an encoding is acceptable if
+     * listed (or matched by "*") without a quality value of zero.
+     */
+    static boolean isAccepted(String acceptEncoding, String encoding)
+    {
+        if (acceptEncoding == null)
+        {
+            return false;
+        }
+
+        boolean wildcard = false;
+
+        for (String element : CommonsUtils.splitAtCommas(acceptEncoding))
+        {
+            String[] terms = element.split(";");
+
+            String name = terms[0].trim();
+
+            if (name.equalsIgnoreCase(encoding))
+            {
+                return !isZeroQuality(terms);
+            }
+
+            if (name.equals("*"))
+            {
+                wildcard = !isZeroQuality(terms);
+            }
+        }
+
+        return wildcard;
+    }
+
+    private static boolean isZeroQuality(String[] terms)
+    {
+        for (int i = 1; i < terms.length; i++)
+        {
+            String term = terms[i].trim();
+
+            if (term.startsWith("q="))
+            {
+                try
+                {
+                    return Double.parseDouble(term.substring(2)) == 0;
+                } catch (NumberFormatException ex)
+                {
+                    return false;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Reads a previously stored variant, or encodes the content and stores the result. Returns null if the content
+     * can not be encoded.
+     */
+    private BytestreamCache findVariant(StreamableResource uncompressed, String digest, String encoding,
+                                        ContentEncoder encoder)
+    {
+        File file = new File(directory, digest + "." + encoding);
+
+        if (file.isFile())
+        {
+            try
+            {
+                return new BytestreamCache(Files.readAllBytes(file.toPath()));
+            } catch (IOException ex)
+            {
+                logger.warn(String.format("Unable to read compressed content for %s from %s: %s",
+                        uncompressed.getDescription(), file, ex.getMessage()));
+            }
+        }
+
+        byte[] encoded;
+
+        try
+        {
+            ByteArrayOutputStream bos = new ByteArrayOutputStream(uncompressed.getSize());
+
+            OutputStream stream = encoder.createEncodingStream(bos);
+
+            uncompressed.streamTo(stream);
+
+            stream.close();
+
+            encoded = bos.toByteArray();
+        } catch (IOException ex)
+        {
+            logger.warn(String.format("Unable to encode %s as '%s': %s",
+                    uncompressed.getDescription(), encoding, ex.getMessage()));
+
+            return null;
+        }
+
+        try
+        {
+            TapestryInternalUtils.writeFileAtomically(file, encoded);
+        } catch (IOException ex)
+        {
+            logger.warn(String.format("Unable to store compressed content for %s in %s: %s",
+                    uncompressed.getDescription(), directory, ex.getMessage()));
+        }
+
+        return new BytestreamCache(encoded);
+    }
+
+    /**
+     * Returns a SHA-256 checksum of the uncompressed content, as a hex string.
+     */
+    private static String toDigest(StreamableResource uncompressed) throws IOException
+    {
+        MessageDigest digest;
+
+        try
+        {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex)
+        {
+            throw new RuntimeException(ex);
+        }
+
+        InputStream stream = uncompressed.openStream();
+
+        try
+        {
+            byte[] buffer = new byte[8192];
+
+            while (true)
+            {
+                int length = stream.read(buffer);
+
+                if (length < 0)
+                {
+                    break;
+                }
+
+                digest.update(buffer, 0, length);
+            }
+        } finally
+        {
+            InternalUtils.close(stream);
+        }
+
+        StringBuilder builder = new StringBuilder();
+
+        for (byte b : digest.digest())
+        {
+            builder.append(String.format("%02x", b));
+        }
+
+        return builder.toString();
+    }
+}
@@ -0,0 +1,158 @@
+// Copyright 2021 The Apache Software Foundation
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package org.apache.tapestry5.internal.services.assets;
+
+import org.apache.tapestry5.http.ContentType;
+import org.apache.tapestry5.http.internal.TapestryHttpInternalConstants;
+import org.apache.tapestry5.http.services.Response;
+import org.apache.tapestry5.services.assets.AssetChecksumGenerator;
+import org.apache.tapestry5.services.assets.CompressionStatus;
+import org.apache.tapestry5.services.assets.ResponseCustomizer;
+import org.apache.tapestry5.services.assets.StreamableResource;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * One variant of a resource compressed by the {@link PrecompressedAssetStore}, which also identifies the other
+ * variants (and the uncompressed resource) so that the best one may be selected for each request.
+ *
+ * @since 5.7.0
+ */
+public class PrecompressedStreamableResource extends StreamableResourceImpl
+{
+    private final StreamableResource uncompressed;
+
+    private final String encoding;
+
+    private final Map<String, BytestreamCache> variants;
+
+    private final ResponseCustomizer encodingCustomizer;
+
+    /**
+     * @param uncompressed
+     *         the uncompressed resource
+     * @param encoding
+     *         encoding of this variant (a key of the variants map)
+     * @param variants
+     *         content of each available variant, keyed on encoding
+     */
+    PrecompressedStreamableResource(StreamableResource uncompressed, String encoding, Map<String, BytestreamCache> variants,
+                                    AssetChecksumGenerator assetChecksumGenerator)
+    {
+        super(uncompressed.getDescription(), uncompressed.getContentType(), CompressionStatus.COMPRESSED,
+                uncompressed.getLastModified(), variants.get(encoding), assetChecksumGenerator,
+                uncompressed.getResponseCustomizer());
+
+        this.uncompressed = uncompressed;
+        this.encoding = encoding;
+        this.variants = variants;
+
+        final ResponseCustomizer customizer = uncompressed.getResponseCustomizer();
+
+        encodingCustomizer = new ResponseCustomizer()
+        {
+            @Override
+            public void customizeResponse(StreamableResource resource, Response response) throws IOException
+            {
+                if (customizer != null)
+                {
+                    customizer.customizeResponse(resource, response);
+                }
+
+                response.setHeader(TapestryHttpInternalConstants.CONTENT_ENCODING_HEADER, encoding);
+                response.setHeader("Vary", "Accept-Encoding");
+            }
+        };
+    }
+
+    public String getEncoding()
+    {
+        return encoding;
+    }
+
+    StreamableResource getUncompressed()
+    {
+        return uncompressed;
+    }
+
+    Map<String, BytestreamCache> getVariants()
+    {
+        return variants;
+    }
+
+    /**
+     * Returns the variant for another encoding (which must be a key of the variants map).
+     */
+    PrecompressedStreamableResource withEncoding(String newEncoding)
+    {
+        return newEncoding.equals(encoding)
+                ? this
+                : new PrecompressedStreamableResource(uncompressed, newEncoding, variants, assetChecksumGenerator);
+    }
+
+    /**
+     * Returns the checksum of the uncompressed content, which is the same for every variant (so that the asset's URL
+     * does not depend on the variant).
+     *
+     * @see #getEntityTag()
+     */
+    @Override
+    public String getChecksum() throws IOException
+    {
+        return uncompressed.getChecksum();
+    }
+
+    /**
+     * Returns the checksum, qualified by the encoding. Each variant is a different representation of the asset, so
+     * each must have its own ETag; otherwise a cache could answer a request with a variant the client can't decode.
+     */
+    public String getEntityTag() throws IOException
+    {
+        return getChecksum() + "-" + encoding;
+    }
+
+    /**
+     * Returns a customizer that sets the Content-Encoding (and Vary) response headers, in addition to any customizer of
+     * the uncompressed resource.
+     */
+    @Override
+    public ResponseCustomizer getResponseCustomizer()
+    {
+        return encodingCustomizer;
+    }
+
+    @Override
+    public StreamableResource addResponseCustomizer(ResponseCustomizer customizer)
+    {
+        return new PrecompressedStreamableResource(uncompressed.addResponseCustomizer(customizer), encoding, variants,
+                assetChecksumGenerator);
+    }
+
+    @Override
+    public StreamableResource withContentType(ContentType newContentType)
+    {
+        return new PrecompressedStreamableResource(uncompressed.withContentType(newContentType), encoding, variants,
+                assetChecksumGenerator);
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("StreamableResource<%s %s %s lastModified: %tc size: %d>", getContentType(), description,
+                encoding, lastModified, getSize());
+    }
+}
@@ -1,4 +1,4 @@
-// Copyright 2011, 2012 The Apache Software Foundation
+// Copyright 2011, 2012, 2021 The Apache Software Foundation
 //
 // Licensed under the Apache License, Version 2.0 (the "License");
 // you may not use this file except in compliance with the License.
@@ -14,6 +14,7 @@
 
 package org.apache.tapestry5.internal.services.assets;
 
+import org.apache.tapestry5.SymbolConstants;
 import org.apache.tapestry5.commons.Resource;
 import org.apache.tapestry5.http.TapestryHttpSymbolConstants;
 import org.apache.tapestry5.internal.event.InvalidationEventHubImpl;
@@ -21,9 +22,12 @@ import org.apache.tapestry5.ioc.annotations.PostInjection;
 import org.apache.tapestry5.ioc.annotations.Symbol;
 import org.apache.tapestry5.ioc.internal.util.URLChangeTracker;
 import org.apache.tapestry5.ioc.services.ClasspathURLConverter;
+import org.apache.tapestry5.ioc.services.RegistryShutdownHub;
 import org.apache.tapestry5.ioc.services.UpdateListener;
 import org.apache.tapestry5.ioc.services.UpdateListenerHub;
 
+import java.util.Set;
+
 public class ResourceChangeTrackerImpl extends InvalidationEventHubImpl implements ResourceChangeTracker,
         UpdateListener
 {
@@ -38,14 +42,16 @@ public class ResourceChangeTrackerImpl extends InvalidationEventHubImpl implemen
 
     public ResourceChangeTrackerImpl(ClasspathURLConverter classpathURLConverter,
                                      @Symbol(TapestryHttpSymbolConstants.PRODUCTION_MODE)
-                                     boolean productionMode)
+                                     boolean productionMode,
+                                     @Symbol(SymbolConstants.WATCH_FILE_CHANGES)
+                                     boolean watchFileChanges)
     {
         super(productionMode);
 
         // Use granularity of seconds (not milliseconds) since that works properly
         // with response headers for identifying last modified. Don't track
         // folder changes, just changes to actual files.
-        tracker = productionMode ? null : new URLChangeTracker(classpathURLConverter, true, false);
+        tracker = productionMode ? null : new URLChangeTracker(classpathURLConverter, true, false, watchFileChanges);
     }
 
     @PostInjection
@@ -54,6 +60,23 @@ public class ResourceChangeTrackerImpl extends InvalidationEventHubImpl implemen
         hub.addUpdateListener(this);
     }
 
+    @PostInjection
+    public void closeTrackerOnShutdown(RegistryShutdownHub hub)
+    {
+        if (tracker == null)
+        {
+            return;
+        }
+
+        hub.addRegistryShutdownListener(new Runnable()
+        {
+            public void run()
+            {
+                tracker.close();
+            }
+        });
+    }
+
     public long trackResource(Resource resource)
     {
         if (tracker == null)
@@ -83,7 +106,16 @@ public class ResourceChangeTrackerImpl extends InvalidationEventHubImpl implemen
     {
         if (tracker.containsChanges())
         {
-            forceInvalidationEvent();
+            Set<String> changedURLs = tracker.getChangedURLs();
+
+            if (changedURLs == null)
+            {
+                forceInvalidationEvent();
+            } else
+            {
+                // The other tracked resources are unchanged, and remain tracked.
+                fireInvalidationEvent(changedURLs);
+            }
         }
     }
 
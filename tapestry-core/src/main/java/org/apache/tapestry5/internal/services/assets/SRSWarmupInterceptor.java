@@ -0,0 +1,76 @@
+// Copyright 2021 The Apache Software Foundation
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package org.apache.tapestry5.internal.services.assets;
+
+import org.apache.tapestry5.commons.Resource;
+import org.apache.tapestry5.commons.util.CollectionFactory;
+import org.apache.tapestry5.services.assets.ResourceDependencies;
+import org.apache.tapestry5.services.assets.StreamableResource;
+import org.apache.tapestry5.services.assets.StreamableResourceProcessing;
+import org.apache.tapestry5.services.assets.StreamableResourceSource;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Outermost interceptor for the {@link StreamableResourceSource} service, used while the {@link AssetWarmer} is
+ * running. A resource that has not yet been warmed up is obtained for {@linkplain StreamableResourceProcessing#FOR_AGGREGATION
+ * aggregation}: it is not minified, compressed or cached by the rest of the pipeline, so the request is not kept waiting
+ * on the minimizer. Such resources are kept (rather than being read, and checksummed, for every request) until they
+ * have been warmed up.
+ *
+ * @since 5.7.0
+ */
+public class SRSWarmupInterceptor extends DelegatingSRS
+{
+    private final AssetWarmer warmer;
+
+    private final Map<Resource, StreamableResource> unminified = CollectionFactory.newConcurrentMap();
+
+    public SRSWarmupInterceptor(StreamableResourceSource delegate, AssetWarmer warmer, ResourceChangeTracker tracker)
+    {
+        super(delegate);
+
+        this.warmer = warmer;
+
+        tracker.clearOnInvalidation(unminified);
+    }
+
+    @Override
+    public StreamableResource getStreamableResource(Resource baseResource, StreamableResourceProcessing processing, ResourceDependencies dependencies) throws IOException
+    {
+        if (processing == StreamableResourceProcessing.FOR_AGGREGATION || !warmer.isWarming(baseResource))
+        {
+            if (!unminified.isEmpty())
+            {
+                unminified.remove(baseResource);
+            }
+
+            return delegate.getStreamableResource(baseResource, processing, dependencies);
+        }
+
+        StreamableResource result = unminified.get(baseResource);
+
+        if (result == null)
+        {
+            result = delegate.getStreamableResource(baseResource, StreamableResourceProcessing.FOR_AGGREGATION, dependencies);
+
+            unminified.put(baseResource, result);
+        }
+
+        return result;
+    }
+}
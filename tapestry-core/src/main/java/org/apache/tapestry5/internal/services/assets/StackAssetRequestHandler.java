@@ -20,6 +20,7 @@ import org.apache.tapestry5.ioc.OperationTracker;
 import org.apache.tapestry5.services.LocalizationSetter;
 import org.apache.tapestry5.services.assets.AssetRequestHandler;
 import org.apache.tapestry5.services.assets.StreamableResource;
+import org.apache.tapestry5.services.javascript.JavaScriptAggregationStrategy;
 import org.apache.tapestry5.services.javascript.JavaScriptStack;
 import org.apache.tapestry5.services.javascript.JavaScriptStackSource;
 import org.slf4j.Logger;
@@ -129,6 +130,22 @@ public class StackAssetRequestHandler implements AssetRequestHandler
             return false;
         }
 
-        return resourceStreamer.streamResource(resource, checksum, ResourceStreamer.DEFAULT_OPTIONS);
+        if (resourceStreamer.streamResource(resource, checksum, ResourceStreamer.DEFAULT_OPTIONS))
+        {
+            return true;
+        }
+
+        // A page rendered while the stack was still being warmed up refers to the combined, but unminified,
+        // stack (see JavaScriptStackAssemblerImpl).
+
+        if (compressed || !stack.getJavaScriptAggregationStrategy().enablesMinimize())
+        {
+            return false;
+        }
+
+        StreamableResource unminified = javaScriptStackAssembler.assembleJavaScriptResourceForStack(stackName, false,
+                JavaScriptAggregationStrategy.COMBINE_ONLY);
+
+        return resourceStreamer.streamResource(unminified, checksum, ResourceStreamer.DEFAULT_OPTIONS);
     }
 }
@@ -12,16 +12,25 @@
 
 package org.apache.tapestry5.internal.services.assets;
 
+import org.apache.tapestry5.SymbolConstants;
 import org.apache.tapestry5.commons.Resource;
 import org.apache.tapestry5.commons.util.CollectionFactory;
 import org.apache.tapestry5.http.ContentType;
+import org.apache.tapestry5.http.TapestryHttpSymbolConstants;
 import org.apache.tapestry5.http.services.CompressionAnalyzer;
 import org.apache.tapestry5.internal.TapestryInternalUtils;
+import org.apache.tapestry5.ioc.annotations.Inject;
+import org.apache.tapestry5.ioc.annotations.Symbol;
+import org.apache.tapestry5.ioc.internal.util.URLChangeTracker;
 import org.apache.tapestry5.services.assets.*;
 
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.URL;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 import java.util.Map;
 import java.util.Set;
 
@@ -37,15 +46,36 @@ public class StreamableResourceSourceImpl implements StreamableResourceSource
 
     private final AssetChecksumGenerator checksumGenerator;
 
+    /**
+     * Minimum size of a file that is memory-mapped, or 0 to never map files.
+     */
+    private final long mappingThreshold;
+
     public StreamableResourceSourceImpl(Map<String, ResourceTransformer> configuration,
                                         ContentTypeAnalyzer contentTypeAnalyzer, CompressionAnalyzer compressionAnalyzer,
                                         ResourceChangeTracker resourceChangeTracker, AssetChecksumGenerator checksumGenerator)
+    {
+        this(configuration, contentTypeAnalyzer, compressionAnalyzer, resourceChangeTracker, checksumGenerator, false, 0);
+    }
+
+    /**
+     * @since 5.7.0
+     */
+    @Inject
+    public StreamableResourceSourceImpl(Map<String, ResourceTransformer> configuration,
+                                        ContentTypeAnalyzer contentTypeAnalyzer, CompressionAnalyzer compressionAnalyzer,
+                                        ResourceChangeTracker resourceChangeTracker, AssetChecksumGenerator checksumGenerator,
+                                        @Symbol(TapestryHttpSymbolConstants.PRODUCTION_MODE)
+                                        boolean productionMode,
+                                        @Symbol(SymbolConstants.ASSET_MEMORY_MAPPING_THRESHOLD)
+                                        long mappingThreshold)
     {
         this.configuration = configuration;
         this.contentTypeAnalyzer = contentTypeAnalyzer;
         this.compressionAnalyzer = compressionAnalyzer;
         this.resourceChangeTracker = resourceChangeTracker;
         this.checksumGenerator = checksumGenerator;
+        this.mappingThreshold = productionMode ? mappingThreshold : 0;
     }
 
     public Set<String> fileExtensionsForContentType(ContentType contentType)
@@ -80,20 +110,27 @@ public class StreamableResourceSourceImpl implements StreamableResourceSource
         // http://jashkenas.github.com/coffee-script/
         ResourceTransformer rt = configuration.get(fileSuffix);
 
-        InputStream transformed = rt == null ? baseResource.openStream() : rt.transform(baseResource, dependencies);
-
-        assert transformed != null;
-
-        BytestreamCache bytestreamCache = readStream(transformed);
-
-        transformed.close();
-
         ContentType contentType = rt == null
                 ? new ContentType(contentTypeAnalyzer.getContentType(baseResource))
                 : rt.getTransformedContentType();
 
         boolean compressable = compressionAnalyzer.isCompressable(contentType.getMimeType());
 
+        // Large files that are served as-is (typically, images and fonts) may be mapped, rather than copied
+        // onto the heap.
+        BytestreamCache bytestreamCache = rt == null && !compressable ? mapFile(baseResource) : null;
+
+        if (bytestreamCache == null)
+        {
+            InputStream transformed = rt == null ? baseResource.openStream() : rt.transform(baseResource, dependencies);
+
+            assert transformed != null;
+
+            bytestreamCache = readStream(transformed);
+
+            transformed.close();
+        }
+
         long lastModified = resourceChangeTracker.trackResource(baseResource);
 
         return new StreamableResourceImpl(baseResource.toString(), contentType, compressable ? CompressionStatus.COMPRESSABLE
@@ -111,4 +148,40 @@ public class StreamableResourceSourceImpl implements StreamableResourceSource
         return new BytestreamCache(bos);
     }
 
+    /**
+     * Memory-maps the file for the resource, if the resource is a file of at least {@link #mappingThreshold} bytes.
+     *
+     * @return the mapped content, or null if not mapped
+     */
+    private BytestreamCache mapFile(Resource resource) throws IOException
+    {
+        if (mappingThreshold <= 0)
+        {
+            return null;
+        }
+
+        URL url = resource.toURL();
+
+        if (url == null || !url.getProtocol().equals("file"))
+        {
+            return null;
+        }
+
+        File file = URLChangeTracker.toFileFromFileProtocolURL(url);
+
+        long length = file.length();
+
+        if (length < mappingThreshold || length > Integer.MAX_VALUE)
+        {
+            return null;
+        }
+
+        // The mapping remains valid after the channel is closed.
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ))
+        {
+            return new BytestreamCache(channel.map(FileChannel.MapMode.READ_ONLY, 0, length));
+        }
+    }
+
 }
@@ -22,6 +22,8 @@ import org.apache.tapestry5.runtime.PageLifecycleListener;
 import org.apache.tapestry5.services.pageload.ComponentResourceSelector;
 import org.slf4j.Logger;
 
+import java.util.Set;
+
 /**
  * Represents a unique page within the application. Pages are part of the <em>internal</em> structure of a Tapestry
  * application; end developers who refer to "page" are really referring to the {@link #getRootComponent() root
@@ -242,6 +244,22 @@ public interface Page extends PageLifecycleCallbackHub
      */
     Stats getStats();
 
+    /**
+     * Invoked once at the end of page construction, to identify what the page was constructed from.
+     *
+     * @since 5.7.0
+     */
+    void setDependencies(Set<String> dependencies);
+
+    /**
+     * Returns what the page was constructed from: the names of the component classes (including base classes and
+     * mixins) and the URLs (in external form) of the templates and message catalogs for those classes. When any of
+     * these change, the page must be discarded. This is empty in production mode, where nothing changes.
+     *
+     * @since 5.7.0
+     */
+    Set<String> getDependencies();
+
     /**
      * Returns the number of times the page has been attached to a request. This is a rough measure
      * of how important the page is, relative to other pages. This value is volatile, changing constantly.
@@ -29,8 +29,10 @@ import org.apache.tapestry5.services.PersistentFieldBundle;
 import org.apache.tapestry5.services.pageload.ComponentResourceSelector;
 import org.slf4j.Logger;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Pattern;
 
@@ -64,6 +66,8 @@ public class PageImpl implements Page
 
     private Stats stats;
 
+    private Set<String> dependencies = Collections.emptySet();
+
     private final AtomicInteger attachCount = new AtomicInteger();
 
     private final boolean exactParameterCountMatch;
@@ -117,6 +121,16 @@ public class PageImpl implements Page
         return stats;
     }
 
+    public void setDependencies(Set<String> dependencies)
+    {
+        this.dependencies = dependencies;
+    }
+
+    public Set<String> getDependencies()
+    {
+        return dependencies;
+    }
+
     @Override
     public String toString()
     {
@@ -17,6 +17,7 @@ package org.apache.tapestry5.internal.transform;
 import org.apache.tapestry5.Binding;
 import org.apache.tapestry5.annotations.Parameter;
 import org.apache.tapestry5.commons.internal.util.TapestryException;
+import org.apache.tapestry5.commons.services.Coercion;
 import org.apache.tapestry5.commons.services.TypeCoercer;
 import org.apache.tapestry5.commons.util.ExceptionUtils;
 import org.apache.tapestry5.func.F;
@@ -174,6 +175,11 @@ public class ParameterWorker implements ComponentClassTransformWorker2
 
                 final Class fieldType = classCache.forName(fieldTypeName);
 
+                // Values read from the binding are always coerced to the field type, so locate
+                // the coercion to that type once.
+
+                final Coercion<Object, Object> fieldTypeCoercion = typeCoercer.getCoercionTo(fieldType);
+
                 final PerThreadValue<ParameterState> stateValue = perThreadManager.createValue();
 
                 // Rely on some code generation in the component to set the default binding from
@@ -262,7 +268,7 @@ public class ParameterWorker implements ComponentClassTransformWorker2
                         {
                             Object boundValue = parameterBinding.get();
 
-                            result = typeCoercer.coerce(boundValue, fieldType);
+                            result = fieldTypeCoercion.coerce(boundValue);
                         } catch (RuntimeException ex)
                         {
                             throw new TapestryException(String.format(
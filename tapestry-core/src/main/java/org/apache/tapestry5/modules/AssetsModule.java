@@ -24,7 +24,7 @@ import org.apache.tapestry5.http.internal.TapestryHttpInternalConstants;
 import org.apache.tapestry5.http.services.ApplicationGlobals;
 import org.apache.tapestry5.http.services.CompressionAnalyzer;
 import org.apache.tapestry5.http.services.Dispatcher;
-import org.apache.tapestry5.http.services.Request;
+import org.apache.tapestry5.http.services.RequestGlobals;
 import org.apache.tapestry5.http.services.ResponseCompressionAnalyzer;
 import org.apache.tapestry5.internal.AssetConstants;
 import org.apache.tapestry5.internal.services.AssetSourceImpl;
@@ -77,6 +77,8 @@ public class AssetsModule
         binder.bind(ResourceMinimizer.class, MasterResourceMinimizer.class);
         binder.bind(AssetChecksumGenerator.class, AssetChecksumGeneratorImpl.class);
         binder.bind(JavaScriptStackAssembler.class, JavaScriptStackAssemblerImpl.class);
+        binder.bind(PrecompressedAssetStore.class, PrecompressedAssetStoreImpl.class);
+        binder.bind(AssetWarmer.class, AssetWarmerImpl.class);
     }
 
     @Contribute(AssetSource.class)
@@ -113,6 +115,9 @@ public class AssetsModule
 
         configuration.add("tapestry.asset.root", "classpath:META-INF/assets/tapestry5");
         configuration.add(SymbolConstants.OMIT_EXPIRATION_CACHE_CONTROL_HEADER, "max-age=60,must-revalidate");
+        configuration.add(SymbolConstants.ASSET_MEMORY_MAPPING_THRESHOLD, 0);
+        configuration.add(SymbolConstants.PRECOMPRESSED_ASSET_DIR, "");
+        configuration.add(SymbolConstants.ASSET_WARMUP_PARALLELISM, 0);
     }
 
     // The use of decorators is to allow third-parties to get their own extensions
@@ -123,10 +128,10 @@ public class AssetsModule
                                                       @Symbol(TapestryHttpSymbolConstants.GZIP_COMPRESSION_ENABLED)
                                                       boolean gzipEnabled, @Symbol(TapestryHttpSymbolConstants.MIN_GZIP_SIZE)
                                                       int compressionCutoff,
-                                                      AssetChecksumGenerator checksumGenerator)
+                                                      PrecompressedAssetStore precompressedAssetStore)
     {
         return gzipEnabled
-                ? new SRSCompressingInterceptor(delegate, compressionCutoff, checksumGenerator)
+                ? new SRSCompressingInterceptor(delegate, compressionCutoff, precompressedAssetStore)
                 : null;
     }
 
@@ -141,6 +146,26 @@ public class AssetsModule
                 : null;
     }
 
+    /**
+     * While assets are being warmed up in the background, bypasses the rest of the pipeline (minification in
+     * particular) for assets that are not yet warmed up.
+     *
+     * @since 5.7.0
+     */
+    @Decorate(id = "Warmup", serviceInterface = StreamableResourceSource.class)
+    @Order("before:CacheCompressed")
+    public StreamableResourceSource enableWarmup(StreamableResourceSource delegate,
+                                                 @Symbol(TapestryHttpSymbolConstants.PRODUCTION_MODE)
+                                                 boolean productionMode,
+                                                 @Symbol(SymbolConstants.ASSET_WARMUP_PARALLELISM)
+                                                 int parallelism,
+                                                 AssetWarmer warmer, ResourceChangeTracker tracker)
+    {
+        return productionMode && parallelism > 0
+                ? new SRSWarmupInterceptor(delegate, warmer, tracker)
+                : null;
+    }
+
     @Decorate(id = "Cache", serviceInterface = StreamableResourceSource.class)
     @Order("after:GZipCompression")
     public StreamableResourceSource enableUncompressedCaching(StreamableResourceSource delegate,
@@ -181,10 +206,10 @@ public class AssetsModule
                                                                               @Symbol(SymbolConstants.MINIFICATION_ENABLED)
                                                                               boolean enabled,
                                                                               JavaScriptStackSource javaScriptStackSource,
-                                                                              Request request)
+                                                                              RequestGlobals requestGlobals)
     {
         return enabled
-                ? new JavaScriptStackMinimizeDisabler(delegate, javaScriptStackSource, request)
+                ? new JavaScriptStackMinimizeDisabler(delegate, javaScriptStackSource, requestGlobals)
                 : null;
     }
 
@@ -263,6 +288,18 @@ public class AssetsModule
         configuration.add("application/vnd.ms-fontobject", false);
     }
 
+    /**
+     * Contributes "gzip". Encoders for other encodings, such as Brotli ("br"), may be contributed when a suitable
+     * library is available.
+     *
+     * @since 5.7.0
+     */
+    @Contribute(PrecompressedAssetStore.class)
+    public static void setupStandardContentEncoders(MappedConfiguration<String, ContentEncoder> configuration)
+    {
+        configuration.add(TapestryHttpInternalConstants.GZIP_CONTENT_ENCODING, new GZipContentEncoder());
+    }
+
     @Marker(ContextProvider.class)
     public static AssetFactory buildContextAssetFactory(ApplicationGlobals globals,
                                                         AssetPathConstructor assetPathConstructor,
@@ -383,6 +420,18 @@ public class AssetsModule
         configuration.add("Asset", assetDispatcher, "before:ComponentEvent");
     }
     
+    /**
+     * Starts warming up assets, in the background, when enabled.
+     *
+     * @see SymbolConstants#ASSET_WARMUP_PARALLELISM
+     * @since 5.7.0
+     */
+    @Startup
+    public static void startAssetWarmup(AssetWarmer warmer)
+    {
+        warmer.start();
+    }
+
     @Primary
     public static ClasspathAssetProtectionRule buildClasspathAssetProtectionRule(
             List<ClasspathAssetProtectionRule> rules, ChainBuilder chainBuilder)
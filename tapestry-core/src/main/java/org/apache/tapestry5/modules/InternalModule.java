@@ -45,6 +45,7 @@ import org.apache.tapestry5.internal.services.PageElementFactoryImpl;
 import org.apache.tapestry5.internal.services.PageLoader;
 import org.apache.tapestry5.internal.services.PageMarkupRenderer;
 import org.apache.tapestry5.internal.services.PageMarkupRendererImpl;
+import org.apache.tapestry5.internal.services.PageNameTrieSource;
 import org.apache.tapestry5.internal.services.PageRenderQueue;
 import org.apache.tapestry5.internal.services.PageRenderQueueImpl;
 import org.apache.tapestry5.internal.services.PageResponseRenderer;
@@ -112,6 +113,7 @@ public class InternalModule
         binder.bind(InternalRequestGlobals.class, InternalRequestGlobalsImpl.class);
         binder.bind(EndOfRequestEventHub.class);
         binder.bind(ComponentModelSource.class);
+        binder.bind(PageNameTrieSource.class);
         binder.bind(JavaScriptStackPathConstructor.class);
         binder.bind(AjaxFormUpdateController.class);
         binder.bind(ResourceDigestManager.class, ResourceDigestManagerImpl.class);  // Remove in Tapestry 5.5
@@ -27,6 +27,7 @@ import org.apache.tapestry5.http.services.Dispatcher;
 import org.apache.tapestry5.http.services.Request;
 import org.apache.tapestry5.internal.InternalConstants;
 import org.apache.tapestry5.internal.services.DocumentLinker;
+import org.apache.tapestry5.internal.services.StreamingMarkupWriter;
 import org.apache.tapestry5.internal.services.ResourceStreamer;
 import org.apache.tapestry5.internal.services.ajax.JavaScriptSupportImpl;
 import org.apache.tapestry5.internal.services.assets.ResourceChangeTracker;
@@ -318,9 +319,20 @@ public class JavaScriptModule
             {
                 DocumentLinker linker = environment.peekRequired(DocumentLinker.class);
 
-                JavaScriptSupportImpl support = new JavaScriptSupportImpl(linker, javascriptStackSource,
+                final JavaScriptSupportImpl support = new JavaScriptSupportImpl(linker, javascriptStackSource,
                         javascriptStackPathConstructor, suppressCoreStylesheetsHook);
 
+                if (writer instanceof StreamingMarkupWriter)
+                {
+                    ((StreamingMarkupWriter) writer).addCommitCallback(new Runnable()
+                    {
+                        public void run()
+                        {
+                            support.commitStylesheets();
+                        }
+                    });
+                }
+
                 environment.push(JavaScriptSupport.class, support);
 
                 renderer.renderMarkup(writer);
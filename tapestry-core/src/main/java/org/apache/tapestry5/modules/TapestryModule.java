@@ -1300,13 +1300,18 @@ public final class TapestryModule
 
     public static ComponentClassResolver buildComponentClassResolver(@Autobuild
                                                                      ComponentClassResolverImpl service, @ComponentClasses
-                                                                     InvalidationEventHub hub)
+                                                                     InvalidationEventHub hub,
+                                                                     PageNameTrieSource pageNameTrieSource)
     {
         // Allow the resolver to clean its cache when the component classes
         // change
 
         hub.addInvalidationListener(service);
 
+        // The trie of page names isn't part of the service interface
+
+        pageNameTrieSource.setComponentClassResolver(service);
+
         return service;
     }
 
@@ -1792,9 +1797,20 @@ public final class TapestryModule
     {
         MarkupRendererFilter documentLinker = new MarkupRendererFilter()
         {
-            public void renderMarkup(MarkupWriter writer, MarkupRenderer renderer)
+            public void renderMarkup(final MarkupWriter writer, MarkupRenderer renderer)
             {
-                DocumentLinkerImpl linker = new DocumentLinkerImpl(moduleManager, omitGeneratorMeta, enablePageloadingMask, tapestryVersion);
+                final DocumentLinkerImpl linker = new DocumentLinkerImpl(moduleManager, omitGeneratorMeta, enablePageloadingMask, tapestryVersion);
+
+                if (writer instanceof StreamingMarkupWriter)
+                {
+                    ((StreamingMarkupWriter) writer).addCommitCallback(new Runnable()
+                    {
+                        public void run()
+                        {
+                            linker.updateHead(writer.getDocument());
+                        }
+                    });
+                }
 
                 environment.push(DocumentLinker.class, linker);
 
@@ -1857,6 +1873,19 @@ public final class TapestryModule
         {
             public void renderMarkup(MarkupWriter writer, MarkupRenderer renderer)
             {
+                // When streaming, the core stack's stylesheets must be known before the <head> is written.
+
+                if (writer instanceof StreamingMarkupWriter)
+                {
+                    ((StreamingMarkupWriter) writer).addCommitCallback(new Runnable()
+                    {
+                        public void run()
+                        {
+                            environment.peekRequired(JavaScriptSupport.class).importStack(InternalConstants.CORE_STACK_NAME);
+                        }
+                    });
+                }
+
                 renderer.renderMarkup(writer);
 
                 environment.peekRequired(JavaScriptSupport.class).importStack(InternalConstants.CORE_STACK_NAME);
@@ -2187,6 +2216,17 @@ public final class TapestryModule
 
         configuration.add(SymbolConstants.ENABLE_PAGELOADING_MASK, true);
         configuration.add(SymbolConstants.PRELOADER_MODE, PreloaderMode.PRODUCTION);
+        configuration.add(SymbolConstants.PRELOADER_PARALLELISM, 1);
+
+        configuration.add(SymbolConstants.STREAMING_RENDER_ENABLED, false);
+        configuration.add(SymbolConstants.PAGE_CACHE_MAX_SIZE, 0);
+        configuration.add(SymbolConstants.COMPONENT_CLASS_CACHE_DIR, "");
+        configuration.add(SymbolConstants.COMPONENT_TEMPLATE_CACHE_DIR, "");
+        configuration.add(SymbolConstants.METHOD_HANDLE_PROPERTY_CONDUITS, false);
+        configuration.add(SymbolConstants.WATCH_FILE_CHANGES, false);
+        configuration.add(SymbolConstants.COMPACT_CLIENT_DATA, true);
+        configuration.add(SymbolConstants.HMAC_ALGORITHM, "HmacSHA256");
+        configuration.add(SymbolConstants.LEGACY_HMAC_ALGORITHM, "HmacSHA1");
     }
 
     /**
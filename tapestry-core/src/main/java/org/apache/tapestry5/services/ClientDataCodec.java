@@ -0,0 +1,69 @@
+// Copyright 2021 The Apache Software Foundation
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.apache.tapestry5.services;
+
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+
+/**
+ * Writes and reads values of a particular type in the compact format used by the {@link ClientDataEncoder}, rather
+ * than using Java serialization. Codecs are contributed to the ClientDataEncoder service, mapped by type; a codec
+ * is also used for subclasses of its type (for example, proxies of entity classes), and for values stored inside
+ * objects that are otherwise serialized (such as the fields of a {@link org.apache.tapestry5.ComponentAction}).
+ *
+ * The name of the contributed type is stored along with the data, so a codec should be contributed for the same
+ * type as long as client data written by it may still be decoded.
+ *
+ * @param <T>
+ *         the type of value
+ * @see org.apache.tapestry5.SymbolConstants#COMPACT_CLIENT_DATA
+ * @see org.apache.tapestry5.internal.services.ValueEncoderClientDataCodec
+ * @since 5.7.0
+ */
+public interface ClientDataCodec<T>
+{
+    /**
+     * Writes the value. Other objects (such as the value's properties) may be written using
+     * {@link ObjectOutput#writeObject(Object)}.
+     *
+     * @param value
+     *         the value to write, never null
+     * @param output
+     *         to which the value is written
+     */
+    void write(T value, ObjectOutput output) throws IOException;
+
+    /**
+     * Returns true if the value should be written by this codec. Otherwise, the value is written as if no codec had
+     * been contributed for it (usually, using Java serialization). This is true by default.
+     *
+     * @param value
+     *         the value to write, never null
+     */
+    default boolean canWrite(T value)
+    {
+        return true;
+    }
+
+    /**
+     * Reads a value previously written by {@link #write(Object, ObjectOutput)}.
+     *
+     * @param input
+     *         from which the value is read
+     * @return the value
+     */
+    T read(ObjectInput input) throws IOException, ClassNotFoundException;
+}
@@ -12,6 +12,8 @@
 
 package org.apache.tapestry5.services;
 
+import org.apache.tapestry5.ioc.annotations.UsesMappedConfiguration;
+
 import java.io.IOException;
 import java.io.ObjectInputStream;
 
@@ -24,8 +26,13 @@ import java.io.ObjectInputStream;
  * as a prefix. HMAC requires a secret key, configured using the
  * {@link org.apache.tapestry5.SymbolConstants#HMAC_PASSPHRASE} symbol.
  *
+ * Starting in release 5.7.0, objects are written in a compact format, unless the
+ * {@link org.apache.tapestry5.SymbolConstants#COMPACT_CLIENT_DATA} symbol is false. The service's configuration
+ * maps types to the {@link ClientDataCodec}s used to write them in that format.
+ *
  * @since 5.1.0.1
  */
+@UsesMappedConfiguration(key = Class.class, value = ClientDataCodec.class)
 public interface ClientDataEncoder
 {
     /**
@@ -1,4 +1,4 @@
-// Copyright 2006-2013 The Apache Software Foundation
+// Copyright 2006-2013, 2021 The Apache Software Foundation
 //
 // Licensed under the Apache License, Version 2.0 (the "License");
 // you may not use this file except in compliance with the License.
@@ -14,6 +14,8 @@
 
 package org.apache.tapestry5.services;
 
+import java.io.PrintWriter;
+
 import org.apache.tapestry5.MarkupWriter;
 import org.apache.tapestry5.http.ContentType;
 import org.apache.tapestry5.internal.structure.Page;
@@ -92,4 +94,26 @@ public interface MarkupWriterFactory
      * @since 5.4
      */
     MarkupWriter newPartialMarkupWriter(Page page);
+
+    /**
+     * Obtains a markup writer for the provided page that streams the content of the {@code <body>} to the
+     * provided output as it is rendered, rather than retaining the entire DOM until rendering is complete.
+     * When the page's content type is not HTML, a normal (non-streaming) markup writer is returned instead.
+     * In either case, {@link MarkupWriter#toMarkup(PrintWriter)} must be invoked once rendering is complete, to
+     * write any content that has not yet been streamed.
+     *
+     * The default implementation does not stream, and simply returns {@link #newMarkupWriter(Page)}.
+     *
+     * @param page
+     *         the page to obtain a writer for
+     * @param output
+     *         to which streamed content is written
+     * @return writer configured for the page
+     * @see org.apache.tapestry5.SymbolConstants#STREAMING_RENDER_ENABLED
+     * @since 5.7.0
+     */
+    default MarkupWriter newStreamingMarkupWriter(Page page, PrintWriter output)
+    {
+        return newMarkupWriter(page);
+    }
 }
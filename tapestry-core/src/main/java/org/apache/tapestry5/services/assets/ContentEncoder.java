@@ -0,0 +1,38 @@
+// Copyright 2021 The Apache Software Foundation
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package org.apache.tapestry5.services.assets;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Compresses asset content for a particular HTTP content encoding, such as "gzip" or "br". Content encoders are
+ * contributed, keyed on the encoding name (as used in the Accept-Encoding and Content-Encoding headers), to the
+ * PrecompressedAssetStore service; they are only used when
+ * {@linkplain org.apache.tapestry5.SymbolConstants#PRECOMPRESSED_ASSET_DIR precompressed assets} are enabled.
+ * Tapestry provides "gzip"; an encoder for Brotli (or any other encoding) may be contributed when a suitable library
+ * is available.
+ *
+ * @since 5.7.0
+ */
+public interface ContentEncoder
+{
+    /**
+     * Returns a stream that encodes the content written to it, writing the encoded content to the provided stream.
+     * Closing the returned stream must complete the encoding, and close the provided stream.
+     */
+    OutputStream createEncodingStream(OutputStream output) throws IOException;
+}
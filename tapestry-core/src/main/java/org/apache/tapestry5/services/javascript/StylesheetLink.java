@@ -76,6 +76,16 @@ public final class StylesheetLink
         return asset != null ? asset.toClientURL() : url;
     }
 
+    /**
+     * Returns the stylesheet asset, or null if the link was created from a URL.
+     *
+     * @since 5.7.0
+     */
+    public Asset getAsset()
+    {
+        return asset;
+    }
+
     /**
      * Returns an instance of {@link StylesheetOptions}. Never returns null (a blank options
      * object is returned if null is passed to the constructor).
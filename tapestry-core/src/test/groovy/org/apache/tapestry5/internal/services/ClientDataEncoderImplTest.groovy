@@ -1,14 +1,22 @@
 package org.apache.tapestry5.internal.services
 
 import org.apache.tapestry5.alerts.AlertManager
+import org.apache.tapestry5.beanmodel.services.PlasticProxyFactoryImpl
 import org.apache.tapestry5.services.ClientDataEncoder
 import org.apache.tapestry5.test.ioc.TestBase
 import org.easymock.EasyMock
 import org.slf4j.Logger
+import org.slf4j.LoggerFactory
 import org.testng.annotations.Test
 
 class ClientDataEncoderImplTest extends TestBase {
 
+    def newEncoder(String passphrase, Logger logger = null, AlertManager alertManager = null) {
+        def proxyFactory = new PlasticProxyFactoryImpl(getClass().classLoader, LoggerFactory.getLogger(PlasticProxyFactoryImpl))
+
+        new ClientDataEncoderImpl(null, passphrase, logger, "foo.bar", alertManager, true, proxyFactory, "HmacSHA256", "HmacSHA1", [:])
+    }
+
     def tryEncodeAndDecode(ClientDataEncoder cde) {
         def now = new Date()
         def input = "The current time is $now"
@@ -51,7 +59,7 @@ class ClientDataEncoderImplTest extends TestBase {
 
         replay()
 
-        ClientDataEncoder cde = new ClientDataEncoderImpl(null, "", logger, "foo.bar", alertManager)
+        ClientDataEncoder cde = newEncoder("", logger, alertManager)
 
         tryEncodeAndDecode cde
 
@@ -60,15 +68,15 @@ class ClientDataEncoderImplTest extends TestBase {
 
     @Test
     void no_logged_error_with_non_blank_passphrase() {
-        ClientDataEncoder cde = new ClientDataEncoderImpl(null, "Testing, Testing, 1.., 2.., 3...", null, "foo.bar", null)
+        ClientDataEncoder cde = newEncoder("Testing, Testing, 1.., 2.., 3...")
 
         tryEncodeAndDecode cde
     }
 
     @Test
     void passphrase_affects_encoded_output() {
-        ClientDataEncoder first = new ClientDataEncoderImpl(null, "first passphrase", null, "foo.bar", null)
-        ClientDataEncoder second = new ClientDataEncoderImpl(null, " different passphrase ", null, "foo.bar", null)
+        ClientDataEncoder first = newEncoder("first passphrase")
+        ClientDataEncoder second = newEncoder(" different passphrase ")
 
         def input = "current time millis is ${System.currentTimeMillis()} ms"
 
@@ -82,7 +90,7 @@ class ClientDataEncoderImplTest extends TestBase {
 
     @Test(expectedExceptions = IllegalArgumentException)
     void decode_with_missing_hmac_prefix_is_a_failure() {
-        ClientDataEncoder cde = new ClientDataEncoderImpl(null, "a passphrase", null, "foo.bar", null)
+        ClientDataEncoder cde = newEncoder("a passphrase")
 
         cde.decodeClientData("so completely invalid")
     }
@@ -92,8 +100,8 @@ class ClientDataEncoderImplTest extends TestBase {
 
         // Simulate tampering by encoding with one passphrase and attempting to decode with a different
         // passphrase.
-        ClientDataEncoder first = new ClientDataEncoderImpl(null, "first passphrase", null, "foo.bar", null)
-        ClientDataEncoder second = new ClientDataEncoderImpl(null, " different passphrase ", null, "foo.bar", null)
+        ClientDataEncoder first = newEncoder("first passphrase")
+        ClientDataEncoder second = newEncoder(" different passphrase ")
 
         def input = "current time millis is ${System.currentTimeMillis()} ms"
 
@@ -110,7 +118,7 @@ class ClientDataEncoderImplTest extends TestBase {
 
     @Test(expectedExceptions = EOFException)
     void check_for_eof() {
-        ClientDataEncoder cde = new ClientDataEncoderImpl(null, "hmac passphrase", null, "foo.bar", null)
+        ClientDataEncoder cde = newEncoder("hmac passphrase")
 
         def sink = cde.createSink()
 
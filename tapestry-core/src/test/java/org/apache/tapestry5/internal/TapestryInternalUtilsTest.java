@@ -1,4 +1,4 @@
-// Copyright 2006, 2007, 2008, 2009, 2011 The Apache Software Foundation
+// Copyright 2006, 2007, 2008, 2009, 2011, 2021 The Apache Software Foundation
 //
 // Licensed under the Apache License, Version 2.0 (the "License");
 // you may not use this file except in compliance with the License.
@@ -27,6 +27,9 @@ import org.apache.tapestry5.runtime.ComponentResourcesAware;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
 import java.util.*;
 import java.util.regex.Pattern;
 
@@ -423,4 +426,25 @@ public class TapestryInternalUtilsTest extends InternalBaseTestCase
         assertEquals(TapestryInternalUtils.toFileSuffix("foo.tar.gz"), "gz");
         assertEquals(TapestryInternalUtils.toFileSuffix("just-a-file"), "");
     }
+
+    @Test
+    public void delete_all_except() throws IOException
+    {
+        File directory = Files.createTempDirectory("cache").toFile();
+
+        File keep = new File(directory, "keep");
+        File stale = new File(new File(directory, "stale"), "nested");
+
+        keep.mkdirs();
+        stale.mkdirs();
+
+        Files.write(new File(keep, "file").toPath(), new byte[]{1});
+        Files.write(new File(stale, "file").toPath(), new byte[]{2});
+        Files.write(new File(directory, "file").toPath(), new byte[]{3});
+
+        assertTrue(TapestryInternalUtils.deleteAllExcept(directory, keep).isEmpty());
+
+        assertEquals(directory.list(), new String[]{"keep"});
+        assertTrue(new File(keep, "file").isFile());
+    }
 }
@@ -0,0 +1,125 @@
+// Copyright 2021 The Apache Software Foundation
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.apache.tapestry5.internal.pageload;
+
+import org.apache.tapestry5.commons.util.CollectionFactory;
+import org.apache.tapestry5.internal.services.ComponentInstantiatorSource;
+import org.apache.tapestry5.internal.test.InternalBaseTestCase;
+import org.apache.tapestry5.ioc.Invokable;
+import org.apache.tapestry5.ioc.internal.QuietOperationTracker;
+import org.apache.tapestry5.ioc.internal.services.ThreadLocaleImpl;
+import org.apache.tapestry5.ioc.services.ParallelExecutor;
+import org.apache.tapestry5.ioc.services.ThreadLocale;
+import org.apache.tapestry5.runtime.Component;
+import org.apache.tapestry5.services.ComponentClassResolver;
+import org.apache.tapestry5.services.ComponentSource;
+import org.apache.tapestry5.services.LocalizationSetter;
+import org.apache.tapestry5.services.pageload.PagePreloader;
+import org.easymock.IAnswer;
+import org.slf4j.LoggerFactory;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class PagePreloaderImplTest extends InternalBaseTestCase
+{
+    @Test
+    public void pages_loaded_in_parallel_after_classes_are_transformed() throws Exception
+    {
+        ComponentClassResolver resolver = mockComponentClassResolver();
+        ComponentInstantiatorSource instantiatorSource = newMock(ComponentInstantiatorSource.class);
+        ComponentSource componentSource = newMock(ComponentSource.class);
+        LocalizationSetter localizationSetter = mockLocalizationSetter();
+        final ThreadLocale threadLocale = new ThreadLocaleImpl();
+
+        final List<String> loadingThreads = CollectionFactory.newThreadSafeList();
+
+        List<String> pageNames = Arrays.asList("Index", "Login", "Admin");
+
+        expect(localizationSetter.getSupportedLocales()).andReturn(Collections.singletonList(Locale.FRENCH));
+
+        for (String pageName : pageNames)
+        {
+            String className = "org.example.pages." + pageName;
+
+            expect(resolver.resolvePageNameToClassName(pageName)).andReturn(className);
+            expect(instantiatorSource.getInstantiator(className)).andReturn(null);
+
+            expect(componentSource.getPage(pageName)).andAnswer(new IAnswer<Component>()
+            {
+                @Override
+                public Component answer()
+                {
+                    if (threadLocale.getLocale() == Locale.FRENCH)
+                    {
+                        loadingThreads.add(Thread.currentThread().getName());
+                    }
+
+                    return null;
+                }
+            });
+        }
+
+        replay();
+
+        final ExecutorService executorService = Executors.newFixedThreadPool(2);
+
+        ParallelExecutor executor = new ParallelExecutor()
+        {
+            @Override
+            public <T> Future<T> invoke(final Invokable<T> invocable)
+            {
+                return executorService.submit(new Callable<T>()
+                {
+                    @Override
+                    public T call()
+                    {
+                        return invocable.invoke();
+                    }
+                });
+            }
+
+            @Override
+            public <T> T invoke(Class<T> proxyType, Invokable<T> invocable)
+            {
+                throw new UnsupportedOperationException();
+            }
+        };
+
+        PagePreloader preloader = new PagePreloaderImpl(LoggerFactory.getLogger(PagePreloaderImpl.class),
+                new QuietOperationTracker(), componentSource, pageNames, threadLocale, localizationSetter,
+                resolver, instantiatorSource, executor, 2);
+
+        try
+        {
+            preloader.preloadPages();
+        } finally
+        {
+            executorService.shutdown();
+        }
+
+        assertEquals(loadingThreads.size(), 3);
+        assertFalse(loadingThreads.contains(Thread.currentThread().getName()));
+
+        verify();
+    }
+}
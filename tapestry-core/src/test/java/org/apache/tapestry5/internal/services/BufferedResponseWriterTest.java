@@ -0,0 +1,76 @@
+// Copyright 2021 The Apache Software Foundation
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.apache.tapestry5.internal.services;
+
+import org.apache.tapestry5.http.services.Response;
+import org.apache.tapestry5.test.ioc.TestBase;
+import org.testng.annotations.Test;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+
+public class BufferedResponseWriterTest extends TestBase
+{
+    @Test
+    public void nothing_sent_until_buffer_is_full() throws Exception
+    {
+        Response response = newMock(Response.class);
+        StringWriter sw = new StringWriter();
+
+        replay();
+
+        BufferedResponseWriter writer = new BufferedResponseWriter(response, "text/html", 10);
+
+        writer.write("<html>");
+        writer.flush();
+
+        verify();
+
+        expect(response.getPrintWriter("text/html")).andReturn(new PrintWriter(sw));
+
+        replay();
+
+        writer.write("<body>");
+
+        assertEquals(sw.toString(), "<html><body>");
+
+        writer.write("</body></html>".toCharArray());
+        writer.close();
+
+        assertEquals(sw.toString(), "<html><body></body></html>");
+
+        verify();
+    }
+
+    @Test
+    public void short_content_sent_on_close() throws Exception
+    {
+        Response response = newMock(Response.class);
+        StringWriter sw = new StringWriter();
+
+        expect(response.getPrintWriter("text/html")).andReturn(new PrintWriter(sw));
+
+        replay();
+
+        BufferedResponseWriter writer = new BufferedResponseWriter(response, "text/html", 1000);
+
+        writer.write("<html></html>");
+        writer.close();
+
+        assertEquals(sw.toString(), "<html></html>");
+
+        verify();
+    }
+}
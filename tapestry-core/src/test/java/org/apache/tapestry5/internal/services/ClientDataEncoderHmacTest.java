@@ -0,0 +1,125 @@
+// Copyright 2021 The Apache Software Foundation
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.apache.tapestry5.internal.services;
+
+import org.apache.commons.codec.binary.Base64;
+import org.apache.tapestry5.beanmodel.services.PlasticProxyFactoryImpl;
+import org.apache.tapestry5.services.ClientDataCodec;
+import org.apache.tapestry5.services.ClientDataEncoder;
+import org.apache.tapestry5.services.ClientDataSink;
+import org.apache.tapestry5.test.ioc.TestBase;
+import org.slf4j.LoggerFactory;
+import org.testng.annotations.Test;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Collections;
+import java.util.zip.GZIPOutputStream;
+
+public class ClientDataEncoderHmacTest extends TestBase
+{
+    private static final String PASSPHRASE = "hmac passphrase";
+
+    private ClientDataEncoder newEncoder(String legacyHmacAlgorithm) throws Exception
+    {
+        return new ClientDataEncoderImpl(null, PASSPHRASE, null, "foo.bar", null, true,
+                new PlasticProxyFactoryImpl(getClass().getClassLoader(), LoggerFactory.getLogger(getClass())),
+                "HmacSHA256", legacyHmacAlgorithm, Collections.<Class, ClientDataCodec>emptyMap());
+    }
+
+    /**
+     * Client data, as written by releases prior to 5.7.0.
+     */
+    private static String legacyClientData(Object value) throws Exception
+    {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+
+        ObjectOutputStream out = new ObjectOutputStream(new GZIPOutputStream(bos));
+        out.writeObject(value);
+        out.close();
+
+        Mac mac = Mac.getInstance("HmacSHA1");
+        mac.init(new SecretKeySpec(PASSPHRASE.getBytes("UTF8"), "HmacSHA1"));
+
+        return Base64.encodeBase64String(mac.doFinal(bos.toByteArray())) + ":"
+                + Base64.encodeBase64String(bos.toByteArray());
+    }
+
+    private static void assertRejected(ClientDataEncoder encoder, String clientData) throws IOException
+    {
+        try
+        {
+            encoder.decodeClientData(clientData);
+            unreachable();
+        } catch (RuntimeException ex)
+        {
+            assertMessageContains(ex, "HMAC signature does not match");
+        }
+    }
+
+    @Test
+    public void encoder_rejects_tampered_data() throws Exception
+    {
+        ClientDataEncoder encoder = newEncoder("HmacSHA1");
+
+        ClientDataSink sink = encoder.createSink();
+
+        sink.getObjectOutputStream().writeObject("barney");
+
+        String clientData = sink.getClientData();
+
+        int colonx = clientData.indexOf(':');
+
+        // An HmacSHA256 signature is 32 bytes, which is 44 characters of Base64.
+
+        assertEquals(colonx, 44);
+
+        ObjectInputStream in = encoder.decodeClientData(clientData);
+
+        assertEquals(in.readObject(), "barney");
+
+        String other = encoder.createSink().getClientData();
+
+        assertRejected(encoder, clientData.substring(0, colonx) + other.substring(other.indexOf(':')));
+    }
+
+    @Test
+    public void data_signed_with_legacy_algorithm_is_accepted() throws Exception
+    {
+        ObjectInputStream in = newEncoder("HmacSHA1").decodeClientData(legacyClientData("fred"));
+
+        assertEquals(in.readObject(), "fred");
+    }
+
+    @Test
+    public void tampered_legacy_data_is_rejected() throws Exception
+    {
+        String clientData = legacyClientData("fred");
+        String other = legacyClientData("barney");
+
+        assertRejected(newEncoder("HmacSHA1"),
+                clientData.substring(0, clientData.indexOf(':')) + other.substring(other.indexOf(':')));
+    }
+
+    @Test
+    public void legacy_algorithm_may_be_disabled() throws Exception
+    {
+        assertRejected(newEncoder(""), legacyClientData("fred"));
+    }
+}
@@ -0,0 +1,419 @@
+// Copyright 2021 The Apache Software Foundation
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.apache.tapestry5.internal.services;
+
+import org.apache.tapestry5.ValueEncoder;
+import org.apache.tapestry5.internal.test.InternalBaseTestCase;
+import org.apache.tapestry5.services.ClientDataCodec;
+import org.apache.tapestry5.services.ClientDataEncoder;
+import org.apache.tapestry5.services.ClientDataSink;
+import org.apache.tapestry5.services.ValueEncoderSource;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InvalidClassException;
+import java.io.ObjectInput;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutput;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.lang.annotation.ElementType;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class CompactObjectStreamTest extends InternalBaseTestCase
+{
+    public static class Point
+    {
+        final int x, y;
+
+        Point(int x, int y)
+        {
+            this.x = x;
+            this.y = y;
+        }
+    }
+
+    public static class SubPoint extends Point
+    {
+        SubPoint(int x, int y)
+        {
+            super(x, y);
+        }
+    }
+
+    public static class Holder implements Serializable
+    {
+        private static final long serialVersionUID = 1L;
+
+        // Not serializable, but has a codec.
+
+        transient Point point;
+
+        String name;
+
+        private void writeObject(ObjectOutputStream out) throws IOException
+        {
+            out.defaultWriteObject();
+            out.writeObject(point);
+        }
+
+        private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException
+        {
+            in.defaultReadObject();
+            point = (Point) in.readObject();
+        }
+    }
+
+    public static class Entity implements Serializable
+    {
+        private static final long serialVersionUID = 1L;
+
+        Long id;
+
+        String name;
+
+        Entity(Long id, String name)
+        {
+            this.id = id;
+            this.name = name;
+        }
+    }
+
+    /**
+     * Reads entities "from the database", where each entity has the name "stored".
+     */
+    private static final ValueEncoder<Entity> ENTITY_ENCODER = new ValueEncoder<Entity>()
+    {
+        public String toClient(Entity value)
+        {
+            return value.id == null ? null : value.id.toString();
+        }
+
+        public Entity toValue(String clientValue)
+        {
+            return new Entity(Long.valueOf(clientValue), "stored");
+        }
+    };
+
+    private static final ClientDataCodec<Point> POINT_CODEC = new ClientDataCodec<Point>()
+    {
+        public void write(Point value, ObjectOutput output) throws IOException
+        {
+            output.writeInt(value.x);
+            output.writeInt(value.y);
+        }
+
+        public Point read(ObjectInput input) throws IOException
+        {
+            return new Point(input.readInt(), input.readInt());
+        }
+    };
+
+    private final ClientDataCodecRegistry registry = new ClientDataCodecRegistry(
+            Collections.<Class, ClientDataCodec>singletonMap(Point.class, POINT_CODEC));
+
+    private byte[] write(Object... values) throws IOException
+    {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+
+        ObjectOutputStream out = new CompactObjectOutputStream(bos, registry);
+
+        for (Object value : values)
+        {
+            out.writeObject(value);
+        }
+
+        out.close();
+
+        return bos.toByteArray();
+    }
+
+    private ObjectInputStream open(byte[] data) throws IOException
+    {
+        return new CompactObjectInputStream(new ByteArrayInputStream(data), registry, getClass().getClassLoader());
+    }
+
+    @Test
+    public void round_trip_of_common_values() throws Exception
+    {
+        List<Object> list = new ArrayList<Object>();
+        list.add("fred");
+        list.add(null);
+        list.add(-3);
+
+        Map<Object, Object> map = new HashMap<Object, Object>();
+        map.put("key", 97L);
+
+        Object[] values = {null, "fred", "fred", "\u00e9t\u00e9", true, false, 0, -1, Integer.MAX_VALUE,
+                Integer.MIN_VALUE, Long.MIN_VALUE, (short) 7, (byte) -2, 'x', 1.5f, -2.25d, ElementType.FIELD,
+                list, map, new java.util.Date(1000L)};
+
+        ObjectInputStream in = open(write(values));
+
+        for (Object value : values)
+        {
+            assertEquals(in.readObject(), value);
+        }
+
+        in.close();
+    }
+
+    @Test
+    public void primitives_mixed_with_objects() throws Exception
+    {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+
+        ObjectOutputStream out = new CompactObjectOutputStream(bos, registry);
+
+        out.writeUTF("form.field");
+        out.writeBoolean(true);
+        out.writeObject("action");
+        out.writeInt(42);
+        out.close();
+
+        ObjectInputStream in = open(bos.toByteArray());
+
+        assertEquals(in.readUTF(), "form.field");
+        assertTrue(in.readBoolean());
+        assertEquals(in.readObject(), "action");
+        assertEquals(in.readInt(), 42);
+
+        try
+        {
+            in.readUTF();
+            unreachable();
+        } catch (EOFException ex)
+        {
+            // Expected
+        }
+    }
+
+    @Test
+    public void shared_collections_are_read_as_one_instance() throws Exception
+    {
+        List<Object> shared = new ArrayList<Object>();
+        shared.add("wilma");
+
+        Map<Object, Object> map = new HashMap<Object, Object>();
+        map.put("first", shared);
+        map.put("second", shared);
+
+        ObjectInputStream in = open(write(map, shared));
+
+        Map<?, ?> mapCopy = (Map<?, ?>) in.readObject();
+
+        assertEquals(mapCopy, map);
+        assertSame(mapCopy.get("second"), mapCopy.get("first"));
+        assertSame(in.readObject(), mapCopy.get("first"));
+    }
+
+    @Test
+    public void collections_that_contain_themselves() throws Exception
+    {
+        List<Object> list = new ArrayList<Object>();
+        list.add("betty");
+        list.add(list);
+
+        Map<Object, Object> map = new HashMap<Object, Object>();
+        map.put("self", map);
+
+        ObjectInputStream in = open(write(list, map));
+
+        List<?> listCopy = (List<?>) in.readObject();
+
+        assertEquals(listCopy.size(), 2);
+        assertEquals(listCopy.get(0), "betty");
+        assertSame(listCopy.get(1), listCopy);
+
+        Map<?, ?> mapCopy = (Map<?, ?>) in.readObject();
+
+        assertSame(mapCopy.get("self"), mapCopy);
+    }
+
+    @Test
+    public void open_recognizes_the_format() throws Exception
+    {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+
+        bos.write(CompactObjectOutputStream.HEADER);
+        bos.write(write("compact"));
+
+        ObjectInputStream in = CompactObjectInputStream.open(new ByteArrayInputStream(bos.toByteArray()), registry,
+                getClass().getClassLoader());
+
+        assertTrue(in instanceof CompactObjectInputStream);
+        assertEquals(in.readObject(), "compact");
+
+        bos.reset();
+
+        ObjectOutputStream out = new ObjectOutputStream(bos);
+        out.writeObject("serialized");
+        out.close();
+
+        in = CompactObjectInputStream.open(new ByteArrayInputStream(bos.toByteArray()), registry,
+                getClass().getClassLoader());
+
+        assertFalse(in instanceof CompactObjectInputStream);
+        assertEquals(in.readObject(), "serialized");
+    }
+
+    @Test
+    public void values_written_by_codec() throws Exception
+    {
+        ObjectInputStream in = open(write(new Point(3, 4), new SubPoint(5, 6)));
+
+        Point point = (Point) in.readObject();
+
+        assertEquals(point.x, 3);
+        assertEquals(point.y, 4);
+
+        point = (Point) in.readObject();
+
+        assertEquals(point.getClass(), Point.class);
+        assertEquals(point.x, 5);
+    }
+
+    @Test
+    public void codec_used_inside_serialized_objects() throws Exception
+    {
+        Holder holder = new Holder();
+        holder.point = new Point(7, 8);
+        holder.name = "barney";
+
+        ObjectInputStream in = open(write(holder, holder, "after"));
+
+        Holder copy = (Holder) in.readObject();
+
+        assertEquals(copy.name, "barney");
+        assertEquals(copy.point.x, 7);
+        assertEquals(copy.point.y, 8);
+
+        // The serialized objects share a single stream, so repeated objects are references.
+
+        assertSame(in.readObject(), copy);
+        assertEquals(in.readObject(), "after");
+    }
+
+    @Test
+    public void values_declined_by_codec_are_serialized() throws Exception
+    {
+        ValueEncoderSource source = newMock(ValueEncoderSource.class);
+
+        expect(source.getValueEncoder(Entity.class)).andReturn(ENTITY_ENCODER).anyTimes();
+
+        replay();
+
+        ClientDataCodecRegistry entityRegistry = new ClientDataCodecRegistry(
+                Collections.<Class, ClientDataCodec>singletonMap(Entity.class,
+                        new ValueEncoderClientDataCodec<Entity>(source, Entity.class)));
+
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+
+        ObjectOutputStream out = new CompactObjectOutputStream(bos, entityRegistry);
+
+        // A transient entity (that has no id) is not in the database, so it must be serialized.
+
+        out.writeObject(new Entity(null, "transient"));
+        out.writeObject(new Entity(97L, "edited"));
+        out.close();
+
+        ObjectInputStream in = new CompactObjectInputStream(new ByteArrayInputStream(bos.toByteArray()),
+                entityRegistry, getClass().getClassLoader());
+
+        Entity transientEntity = (Entity) in.readObject();
+
+        assertNull(transientEntity.id);
+        assertEquals(transientEntity.name, "transient");
+
+        Entity storedEntity = (Entity) in.readObject();
+
+        assertEquals(storedEntity.id, Long.valueOf(97L));
+        assertEquals(storedEntity.name, "stored");
+
+        verify();
+    }
+
+    @Test
+    public void missing_codec_is_reported() throws Exception
+    {
+        ClientDataCodecRegistry emptyRegistry = new ClientDataCodecRegistry(
+                Collections.<Class, ClientDataCodec>emptyMap());
+
+        Holder holder = new Holder();
+        holder.point = new Point(1, 2);
+
+        for (Object value : new Object[]{new Point(1, 2), holder})
+        {
+            ObjectInputStream in = new CompactObjectInputStream(new ByteArrayInputStream(write(value)),
+                    emptyRegistry, getClass().getClassLoader());
+
+            try
+            {
+                in.readObject();
+                unreachable();
+            } catch (InvalidClassException ex)
+            {
+                assertEquals(ex.classname, Point.class.getName());
+                assertMessageContains(ex, "No ClientDataCodec has been contributed");
+            }
+        }
+    }
+
+    @Test
+    public void compact_form_data_is_smaller() throws Exception
+    {
+        List<Object> values = new ArrayList<Object>();
+
+        for (int i = 0; i < 50; i++)
+        {
+            values.add(i);
+            values.add("field_" + (i % 10));
+        }
+
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+
+        ObjectOutputStream out = new ObjectOutputStream(bos);
+        out.writeObject(values);
+        out.close();
+
+        assertTrue(write(values).length < bos.size() / 2);
+    }
+
+    @Test
+    public void encoder_round_trip() throws Exception
+    {
+        ClientDataEncoder encoder = getService(ClientDataEncoder.class);
+
+        ClientDataSink sink = encoder.createSink();
+
+        sink.getObjectOutputStream().writeObject("barney");
+        sink.getObjectOutputStream().writeObject(ElementType.TYPE);
+
+        ObjectInputStream in = encoder.decodeClientData(sink.getClientData());
+
+        assertTrue(in instanceof CompactObjectInputStream);
+        assertEquals(in.readObject(), "barney");
+        assertEquals(in.readObject(), ElementType.TYPE);
+
+        in.close();
+    }
+}
@@ -63,7 +63,7 @@ public class ComponentEventDispatcherTest extends InternalBaseTestCase
         replay();
 
         Dispatcher dispatcher = new ComponentEventDispatcher(null,
-                new ComponentEventLinkEncoderImpl(null, contextPathEncoder, ls,
+                new ComponentEventLinkEncoderImpl(null, null, contextPathEncoder, ls,
                         response, null, null, null, true, null, "", null, null));
 
         assertFalse(dispatcher.dispatch(request, response));
@@ -149,6 +149,7 @@ public class ComponentEventDispatcherTest extends InternalBaseTestCase
         Request request = mockRequest();
         Response response = mockResponse();
         ComponentClassResolver resolver = mockComponentClassResolver();
+        PageNameTrieSource trieSource = mockPageNameTrieSource();
         LocalizationSetter ls = mockLocalizationSetter();
         MetaDataLocator metaDataLocator = neverWhitelistProtected();
 
@@ -162,9 +163,7 @@ public class ComponentEventDispatcherTest extends InternalBaseTestCase
 
         expect(ls.isSupportedLocaleName("mypage:eventname")).andReturn(false);
 
-        train_isPageName(resolver, "mypage", true);
-
-        train_canonicalizePageName(resolver, "mypage", "mypage");
+        train_getPageNameTrie(trieSource, "mypage", "mypage");
 
         train_getParameter(request, InternalConstants.PAGE_CONTEXT_NAME, "alpha/beta");
 
@@ -179,7 +178,7 @@ public class ComponentEventDispatcherTest extends InternalBaseTestCase
         replay();
 
         Dispatcher dispatcher = new ComponentEventDispatcher(handler,
-                new ComponentEventLinkEncoderImpl(resolver, contextPathEncoder, ls,
+                new ComponentEventLinkEncoderImpl(resolver, trieSource, contextPathEncoder, ls,
                         response, null, null, null, true, null, "", metaDataLocator, null));
 
         assertTrue(dispatcher.dispatch(request, response));
@@ -194,6 +193,7 @@ public class ComponentEventDispatcherTest extends InternalBaseTestCase
         Request request = mockRequest();
         Response response = mockResponse();
         ComponentClassResolver resolver = mockComponentClassResolver();
+        PageNameTrieSource trieSource = mockPageNameTrieSource();
         LocalizationSetter ls = mockLocalizationSetter();
         MetaDataLocator metaDataLocator = neverWhitelistProtected();
 
@@ -205,9 +205,7 @@ public class ComponentEventDispatcherTest extends InternalBaseTestCase
 
         expect(ls.isSupportedLocaleName("activepage:eventname")).andReturn(false);
 
-        train_isPageName(resolver, "activepage", true);
-
-        train_canonicalizePageName(resolver, "activepage", "activepage");
+        train_getPageNameTrie(trieSource, "activepage", "activepage");
 
         train_getParameter(request, InternalConstants.PAGE_CONTEXT_NAME, null);
 
@@ -224,7 +222,7 @@ public class ComponentEventDispatcherTest extends InternalBaseTestCase
         replay();
 
         Dispatcher dispatcher = new ComponentEventDispatcher(handler,
-                new ComponentEventLinkEncoderImpl(resolver, contextPathEncoder, ls,
+                new ComponentEventLinkEncoderImpl(resolver, trieSource, contextPathEncoder, ls,
                         response, null, null, null, true, null, "", metaDataLocator, null));
 
         assertTrue(dispatcher.dispatch(request, response));
@@ -238,18 +236,19 @@ public class ComponentEventDispatcherTest extends InternalBaseTestCase
         Request request = mockRequest();
         Response response = mockResponse();
         ComponentClassResolver resolver = mockComponentClassResolver();
+        PageNameTrieSource trieSource = mockPageNameTrieSource();
         LocalizationSetter ls = mockLocalizationSetter();
 
         expect(ls.isSupportedLocaleName("en")).andReturn(true);
 
         train_getPath(request, "/en/mypage.foo");
 
-        train_isPageName(resolver, "mypage", false);
+        train_getPageNameTrie(trieSource);
 
         replay();
 
         Dispatcher dispatcher = new ComponentEventDispatcher(null,
-                new ComponentEventLinkEncoderImpl(resolver, contextPathEncoder, ls,
+                new ComponentEventLinkEncoderImpl(resolver, trieSource, contextPathEncoder, ls,
                         response, null, null, null, true, null, "", null, null));
 
         assertFalse(dispatcher.dispatch(request, response));
@@ -264,6 +263,7 @@ public class ComponentEventDispatcherTest extends InternalBaseTestCase
         Request request = mockRequest();
         Response response = mockResponse();
         ComponentClassResolver resolver = mockComponentClassResolver();
+        PageNameTrieSource trieSource = mockPageNameTrieSource();
         LocalizationSetter localizationSetter = mockLocalizationSetter();
         MetaDataLocator metaDataLocator = neverWhitelistProtected();
 
@@ -275,9 +275,7 @@ public class ComponentEventDispatcherTest extends InternalBaseTestCase
 
         expect(localizationSetter.isSupportedLocaleName(localeName)).andReturn(false);
 
-        train_isPageName(resolver, containerPageName, true);
-
-        train_canonicalizePageName(resolver, containerPageName, containerPageName);
+        train_getPageNameTrie(trieSource, containerPageName, containerPageName);
 
         train_getParameter(request, InternalConstants.PAGE_CONTEXT_NAME, null);
 
@@ -292,7 +290,7 @@ public class ComponentEventDispatcherTest extends InternalBaseTestCase
         replay();
 
         Dispatcher dispatcher = new ComponentEventDispatcher(handler,
-                new ComponentEventLinkEncoderImpl(resolver, contextPathEncoder, localizationSetter,
+                new ComponentEventLinkEncoderImpl(resolver, trieSource, contextPathEncoder, localizationSetter,
                         response, null, null, null, true, null, "", metaDataLocator, null));
 
         assertTrue(dispatcher.dispatch(request, response));
@@ -315,6 +313,7 @@ public class ComponentEventDispatcherTest extends InternalBaseTestCase
         Request request = mockRequest();
         Response response = mockResponse();
         ComponentClassResolver resolver = mockComponentClassResolver();
+        PageNameTrieSource trieSource = mockPageNameTrieSource();
         LocalizationSetter localizationSetter = mockLocalizationSetter();
         MetaDataLocator metaDataLocator = newMock(MetaDataLocator.class);
         ClientWhitelist whitelist = newMock(ClientWhitelist.class);
@@ -329,9 +328,7 @@ public class ComponentEventDispatcherTest extends InternalBaseTestCase
 
         expect(localizationSetter.isSupportedLocaleName("foo")).andReturn(false);
 
-        train_isPageName(resolver, containerPageName, true);
-
-        train_canonicalizePageName(resolver, containerPageName, containerPageName);
+        train_getPageNameTrie(trieSource, containerPageName, containerPageName);
 
         expect(metaDataLocator.findMeta(MetaDataConstants.WHITELIST_ONLY_PAGE, containerPageName, boolean.class)).andReturn(true);
         expect(whitelist.isClientRequestOnWhitelist()).andReturn(true);
@@ -349,7 +346,7 @@ public class ComponentEventDispatcherTest extends InternalBaseTestCase
         replay();
 
         Dispatcher dispatcher = new ComponentEventDispatcher(handler,
-                new ComponentEventLinkEncoderImpl(resolver, contextPathEncoder, localizationSetter,
+                new ComponentEventLinkEncoderImpl(resolver, trieSource, contextPathEncoder, localizationSetter,
                         response, null, null, null, true, null, "", metaDataLocator, whitelist));
 
         assertTrue(dispatcher.dispatch(request, response));
@@ -368,6 +365,7 @@ public class ComponentEventDispatcherTest extends InternalBaseTestCase
         Request request = mockRequest();
         Response response = mockResponse();
         ComponentClassResolver resolver = mockComponentClassResolver();
+        PageNameTrieSource trieSource = mockPageNameTrieSource();
         LocalizationSetter localizationSetter = mockLocalizationSetter();
         MetaDataLocator metaDataLocator = newMock(MetaDataLocator.class);
         ClientWhitelist whitelist = newMock(ClientWhitelist.class);
@@ -376,9 +374,7 @@ public class ComponentEventDispatcherTest extends InternalBaseTestCase
 
         expect(localizationSetter.isSupportedLocaleName("foo")).andReturn(false);
 
-        train_isPageName(resolver, containerPageName, true);
-
-        train_canonicalizePageName(resolver, containerPageName, containerPageName);
+        train_getPageNameTrie(trieSource, containerPageName, containerPageName);
 
         expect(metaDataLocator.findMeta(MetaDataConstants.WHITELIST_ONLY_PAGE, containerPageName, boolean.class)).andReturn(true);
         expect(whitelist.isClientRequestOnWhitelist()).andReturn(false);
@@ -386,7 +382,7 @@ public class ComponentEventDispatcherTest extends InternalBaseTestCase
         replay();
 
         Dispatcher dispatcher = new ComponentEventDispatcher(handler,
-                new ComponentEventLinkEncoderImpl(resolver, contextPathEncoder, localizationSetter,
+                new ComponentEventLinkEncoderImpl(resolver, trieSource, contextPathEncoder, localizationSetter,
                         response, null, null, null, true, null, "", metaDataLocator, whitelist));
 
         assertFalse(dispatcher.dispatch(request, response));
@@ -1,4 +1,4 @@
-// Copyright 2009-2013 The Apache Software Foundation
+// Copyright 2009-2013, 2021 The Apache Software Foundation
 //
 // Licensed under the Apache License, Version 2.0 (the "License");
 // you may not use this file except in compliance with the License.
@@ -69,7 +69,7 @@ public class ComponentEventLinkEncoderImplTest extends InternalBaseTestCase
 
         replay();
 
-        ComponentEventLinkEncoder encoder = new ComponentEventLinkEncoderImpl(null, contextPathEncoder, null,
+        ComponentEventLinkEncoder encoder = new ComponentEventLinkEncoderImpl(null, null, contextPathEncoder, null,
                 response, manager, null, null, false, "/myapp", "", null, null);
 
         PageRenderRequestParameters parameters = new PageRenderRequestParameters("MyPage", new EmptyEventContext());
@@ -94,7 +94,7 @@ public class ComponentEventLinkEncoderImplTest extends InternalBaseTestCase
 
         replay();
 
-        ComponentEventLinkEncoder encoder = new ComponentEventLinkEncoderImpl(null, contextPathEncoder, null,
+        ComponentEventLinkEncoder encoder = new ComponentEventLinkEncoderImpl(null, null, contextPathEncoder, null,
                 response, manager, null, null, false, "", "", null, null);
 
         PageRenderRequestParameters parameters = new PageRenderRequestParameters("admin/Index", new ArrayEventContext(
@@ -120,7 +120,7 @@ public class ComponentEventLinkEncoderImplTest extends InternalBaseTestCase
 
         replay();
 
-        ComponentEventLinkEncoder encoder = new ComponentEventLinkEncoderImpl(null, contextPathEncoder, null,
+        ComponentEventLinkEncoder encoder = new ComponentEventLinkEncoderImpl(null, null, contextPathEncoder, null,
                 response, manager, null, null, false, "", "", null, null);
 
         PageRenderRequestParameters parameters = new PageRenderRequestParameters("Index", new EmptyEventContext());
@@ -136,6 +136,7 @@ public class ComponentEventLinkEncoderImplTest extends InternalBaseTestCase
     public void empty_path() throws Exception
     {
         ComponentClassResolver resolver = mockComponentClassResolver();
+        PageNameTrieSource trieSource = mockPageNameTrieSource();
         Request request = mockRequest();
         Response response = mockResponse();
         LocalizationSetter ls = mockLocalizationSetter();
@@ -144,11 +145,11 @@ public class ComponentEventLinkEncoderImplTest extends InternalBaseTestCase
 
         train_setLocaleFromLocaleName(ls, "", false);
 
-        train_isPageName(resolver, "", false);
+        train_getPageNameTrie(trieSource);
 
         replay();
 
-        ComponentEventLinkEncoderImpl linkEncoder = new ComponentEventLinkEncoderImpl(resolver, contextPathEncoder, ls,
+        ComponentEventLinkEncoderImpl linkEncoder = new ComponentEventLinkEncoderImpl(resolver, trieSource, contextPathEncoder, ls,
                 response, null, null, null, true, null, "", null, null);
 
         PageRenderRequestParameters parameters = linkEncoder.decodePageRenderRequest(request);
@@ -162,18 +163,19 @@ public class ComponentEventLinkEncoderImplTest extends InternalBaseTestCase
     public void not_a_page_request() throws Exception
     {
         ComponentClassResolver resolver = mockComponentClassResolver();
+        PageNameTrieSource trieSource = mockPageNameTrieSource();
         Request request = mockRequest();
         Response response = mockResponse();
         LocalizationSetter ls = mockLocalizationSetter();
 
-        stub_isPageName(resolver, false);
+        train_getPageNameTrie(trieSource);
 
         train_setLocaleFromLocaleName(ls, "foo", false);
         train_getPath(request, "/foo/Bar.baz");
 
         replay();
 
-        ComponentEventLinkEncoderImpl linkEncoder = new ComponentEventLinkEncoderImpl(resolver, contextPathEncoder, ls,
+        ComponentEventLinkEncoderImpl linkEncoder = new ComponentEventLinkEncoderImpl(resolver, trieSource, contextPathEncoder, ls,
                 response, null, null, null, true, null, "", null, null);
 
         PageRenderRequestParameters parameters = linkEncoder.decodePageRenderRequest(request);
@@ -187,6 +189,7 @@ public class ComponentEventLinkEncoderImplTest extends InternalBaseTestCase
     public void just_the_locale_name() throws Exception
     {
         ComponentClassResolver resolver = mockComponentClassResolver();
+        PageNameTrieSource trieSource = mockPageNameTrieSource();
         Request request = mockRequest();
         Response response = mockResponse();
         LocalizationSetter ls = mockLocalizationSetter();
@@ -195,11 +198,11 @@ public class ComponentEventLinkEncoderImplTest extends InternalBaseTestCase
 
         train_setLocaleFromLocaleName(ls, "en", true);
 
-        train_isPageName(resolver, "", false);
+        train_getPageNameTrie(trieSource);
 
         replay();
 
-        ComponentEventLinkEncoderImpl linkEncoder = new ComponentEventLinkEncoderImpl(resolver, contextPathEncoder, ls,
+        ComponentEventLinkEncoderImpl linkEncoder = new ComponentEventLinkEncoderImpl(resolver, trieSource, contextPathEncoder, ls,
                 response, null, null, null, true, null, "", null, null);
 
         PageRenderRequestParameters parameters = linkEncoder.decodePageRenderRequest(request);
@@ -225,6 +228,7 @@ public class ComponentEventLinkEncoderImplTest extends InternalBaseTestCase
     public void page_activation_context_for_root_index_page() throws Exception
     {
         ComponentClassResolver resolver = mockComponentClassResolver();
+        PageNameTrieSource trieSource = mockPageNameTrieSource();
         Request request = mockRequest(false);
         LocalizationSetter ls = mockLocalizationSetter();
         MetaDataLocator metaDataLocator = neverWhitelistProtected();
@@ -233,18 +237,14 @@ public class ComponentEventLinkEncoderImplTest extends InternalBaseTestCase
 
         train_setLocaleFromLocaleName(ls, "foo", false);
 
-        train_isPageName(resolver, "foo/bar", false);
-        train_isPageName(resolver, "foo", false);
-        train_isPageName(resolver, "", true);
-
-        train_canonicalizePageName(resolver, "", "index");
+        train_getPageNameTrie(trieSource, "", "index");
 
         train_getLocale(request, Locale.ITALIAN);
         ls.setNonPersistentLocaleFromLocaleName("it");
 
         replay();
 
-        ComponentEventLinkEncoderImpl linkEncoder = new ComponentEventLinkEncoderImpl(resolver, contextPathEncoder, ls,
+        ComponentEventLinkEncoderImpl linkEncoder = new ComponentEventLinkEncoderImpl(resolver, trieSource, contextPathEncoder, ls,
                 null, null, null, null, true, null, "", metaDataLocator, null);
 
         PageRenderRequestParameters parameters = linkEncoder.decodePageRenderRequest(request);
@@ -271,6 +271,7 @@ public class ComponentEventLinkEncoderImplTest extends InternalBaseTestCase
     private void no_extra_context(boolean finalSlash) throws Exception
     {
         ComponentClassResolver resolver = mockComponentClassResolver();
+        PageNameTrieSource trieSource = mockPageNameTrieSource();
         Request request = mockRequest(false);
         LocalizationSetter ls = mockLocalizationSetter();
         MetaDataLocator metaDataLocator = neverWhitelistProtected();
@@ -280,13 +281,11 @@ public class ComponentEventLinkEncoderImplTest extends InternalBaseTestCase
 
         train_setLocaleFromLocaleName(ls, "foo", false);
 
-        train_isPageName(resolver, "foo/Bar", true);
-
-        train_canonicalizePageName(resolver, "foo/Bar", "foo/bar");
+        train_getPageNameTrie(trieSource, "foo/Bar", "foo/bar");
 
         replay();
 
-        ComponentEventLinkEncoderImpl linkEncoder = new ComponentEventLinkEncoderImpl(resolver, contextPathEncoder, ls,
+        ComponentEventLinkEncoderImpl linkEncoder = new ComponentEventLinkEncoderImpl(resolver, trieSource, contextPathEncoder, ls,
                 null, null, null, null, true, null, "", metaDataLocator, null);
 
         PageRenderRequestParameters parameters = linkEncoder.decodePageRenderRequest(request);
@@ -302,6 +301,7 @@ public class ComponentEventLinkEncoderImplTest extends InternalBaseTestCase
     public void page_requires_whitelist_and_client_on_whitelist() throws Exception
     {
         ComponentClassResolver resolver = mockComponentClassResolver();
+        PageNameTrieSource trieSource = mockPageNameTrieSource();
         Request request = mockRequest(false);
         LocalizationSetter ls = mockLocalizationSetter();
         MetaDataLocator metaDataLocator = mockMetaDataLocator();
@@ -313,16 +313,14 @@ public class ComponentEventLinkEncoderImplTest extends InternalBaseTestCase
 
         train_setLocaleFromLocaleName(ls, "foo", false);
 
-        train_isPageName(resolver, "foo/Bar", true);
-
-        train_canonicalizePageName(resolver, "foo/Bar", "foo/bar");
+        train_getPageNameTrie(trieSource, "foo/Bar", "foo/bar");
 
         expect(metaDataLocator.findMeta(MetaDataConstants.WHITELIST_ONLY_PAGE, "foo/bar", boolean.class)).andReturn(true);
         expect(whitelist.isClientRequestOnWhitelist()).andReturn(true);
 
         replay();
 
-        ComponentEventLinkEncoderImpl linkEncoder = new ComponentEventLinkEncoderImpl(resolver, contextPathEncoder, ls,
+        ComponentEventLinkEncoderImpl linkEncoder = new ComponentEventLinkEncoderImpl(resolver, trieSource, contextPathEncoder, ls,
                 null, null, null, null, true, null, "", metaDataLocator, whitelist);
 
         PageRenderRequestParameters parameters = linkEncoder.decodePageRenderRequest(request);
@@ -338,6 +336,7 @@ public class ComponentEventLinkEncoderImplTest extends InternalBaseTestCase
     public void page_requires_whitelist_and_client_not_on_whitelist()
     {
         ComponentClassResolver resolver = mockComponentClassResolver();
+        PageNameTrieSource trieSource = mockPageNameTrieSource();
         Request request = mockRequest();
         LocalizationSetter ls = mockLocalizationSetter();
         MetaDataLocator metaDataLocator = mockMetaDataLocator();
@@ -349,22 +348,51 @@ public class ComponentEventLinkEncoderImplTest extends InternalBaseTestCase
 
         train_setLocaleFromLocaleName(ls, "foo", false);
 
-        train_isPageName(resolver, "foo/Bar", true);
+        train_getPageNameTrie(trieSource, "foo/Bar", "foo/bar");
 
-        train_canonicalizePageName(resolver, "foo/Bar", "foo/bar");
+        expect(metaDataLocator.findMeta(MetaDataConstants.WHITELIST_ONLY_PAGE, "foo/bar", boolean.class)).andReturn(true);
+        expect(whitelist.isClientRequestOnWhitelist()).andReturn(false);
+
+        replay();
+
+        ComponentEventLinkEncoderImpl linkEncoder = new ComponentEventLinkEncoderImpl(resolver, trieSource, contextPathEncoder, ls,
+                null, null, null, null, true, null, "", metaDataLocator, whitelist);
+
+        assertNull(linkEncoder.decodePageRenderRequest(request));
+
+        verify();
+    }
+
+    @Test
+    public void whitelist_only_page_falls_back_to_shorter_page_name() throws Exception
+    {
+        ComponentClassResolver resolver = mockComponentClassResolver();
+        PageNameTrieSource trieSource = mockPageNameTrieSource();
+        Request request = mockRequest(false);
+        LocalizationSetter ls = mockLocalizationSetter();
+        MetaDataLocator metaDataLocator = mockMetaDataLocator();
+        ClientWhitelist whitelist = newMock(ClientWhitelist.class);
+
+        train_getPath(request, "/foo/Bar/zip");
+
+        train_setLocaleFromLocaleName(ls, "foo", false);
+
+        train_getPageNameTrie(trieSource, "foo/Bar", "foo/bar", "Foo", "Foo");
 
         expect(metaDataLocator.findMeta(MetaDataConstants.WHITELIST_ONLY_PAGE, "foo/bar", boolean.class)).andReturn(true);
         expect(whitelist.isClientRequestOnWhitelist()).andReturn(false);
 
-        train_isPageName(resolver, "foo", false);
-        train_isPageName(resolver, "", false);
+        expect(metaDataLocator.findMeta(MetaDataConstants.WHITELIST_ONLY_PAGE, "Foo", boolean.class)).andReturn(false);
 
         replay();
 
-        ComponentEventLinkEncoderImpl linkEncoder = new ComponentEventLinkEncoderImpl(resolver, contextPathEncoder, ls,
+        ComponentEventLinkEncoderImpl linkEncoder = new ComponentEventLinkEncoderImpl(resolver, trieSource, contextPathEncoder, ls,
                 null, null, null, null, true, null, "", metaDataLocator, whitelist);
 
-        assertNull(linkEncoder.decodePageRenderRequest(request));
+        PageRenderRequestParameters parameters = linkEncoder.decodePageRenderRequest(request);
+
+        assertEquals(parameters.getLogicalPageName(), "Foo");
+        assertArraysEqual(parameters.getActivationContext().toStrings(), "Bar", "zip");
 
         verify();
     }
@@ -384,6 +412,7 @@ public class ComponentEventLinkEncoderImplTest extends InternalBaseTestCase
     private void context_passed_in_path(boolean finalSlash) throws Exception
     {
         ComponentClassResolver resolver = mockComponentClassResolver();
+        PageNameTrieSource trieSource = mockPageNameTrieSource();
         Request request = mockRequest(true);
         LocalizationSetter ls = mockLocalizationSetter();
         MetaDataLocator metaDataLocator = neverWhitelistProtected();
@@ -393,6 +422,37 @@ public class ComponentEventLinkEncoderImplTest extends InternalBaseTestCase
 
         train_setLocaleFromLocaleName(ls, "foo", false);
 
+        train_getPageNameTrie(trieSource, "foo/Bar", "foo/bar");
+
+        replay();
+
+        ComponentEventLinkEncoderImpl linkEncoder = new ComponentEventLinkEncoderImpl(resolver, trieSource, contextPathEncoder, ls,
+                null, null, null, null, true, null, "", metaDataLocator, null);
+
+        PageRenderRequestParameters parameters = linkEncoder.decodePageRenderRequest(request);
+
+        assertEquals(parameters.getLogicalPageName(), "foo/bar");
+        assertArraysEqual(parameters.getActivationContext().toStrings(), "zip", "zoom");
+        assertTrue(parameters.isLoopback());
+
+        verify();
+    }
+
+    @Test
+    public void page_render_request_without_page_name_trie() throws Exception
+    {
+        ComponentClassResolver resolver = mockComponentClassResolver();
+        PageNameTrieSource trieSource = mockPageNameTrieSource();
+        Request request = mockRequest(false);
+        LocalizationSetter ls = mockLocalizationSetter();
+        MetaDataLocator metaDataLocator = neverWhitelistProtected();
+
+        train_getPath(request, "/foo/Bar/zip/zoom");
+
+        train_setLocaleFromLocaleName(ls, "foo", false);
+
+        expect(trieSource.getPageNameTrie()).andReturn(null);
+
         train_isPageName(resolver, "foo/Bar/zip/zoom", false);
 
         train_isPageName(resolver, "foo/Bar/zip", false);
@@ -403,22 +463,22 @@ public class ComponentEventLinkEncoderImplTest extends InternalBaseTestCase
 
         replay();
 
-        ComponentEventLinkEncoderImpl linkEncoder = new ComponentEventLinkEncoderImpl(resolver, contextPathEncoder, ls,
+        ComponentEventLinkEncoderImpl linkEncoder = new ComponentEventLinkEncoderImpl(resolver, trieSource, contextPathEncoder, ls,
                 null, null, null, null, true, null, "", metaDataLocator, null);
 
         PageRenderRequestParameters parameters = linkEncoder.decodePageRenderRequest(request);
 
         assertEquals(parameters.getLogicalPageName(), "foo/bar");
         assertArraysEqual(parameters.getActivationContext().toStrings(), "zip", "zoom");
-        assertTrue(parameters.isLoopback());
 
         verify();
     }
 
     @Test
-    public void page_name_includes_dash_in_component_event_request()
+    public void component_event_request_without_page_name_trie()
     {
         ComponentClassResolver resolver = mockComponentClassResolver();
+        PageNameTrieSource trieSource = mockPageNameTrieSource();
         Request request = mockRequest();
         LocalizationSetter ls = mockLocalizationSetter();
         MetaDataLocator metaDataLocator = neverWhitelistProtected();
@@ -431,8 +491,9 @@ public class ComponentEventLinkEncoderImplTest extends InternalBaseTestCase
 
         ls.setNonPersistentLocaleFromLocaleName("en");
 
-        String path = "/foo-bar/baz.biff";
-        train_getPath(request, path);
+        train_getPath(request, "/foo-bar/baz.biff");
+
+        expect(trieSource.getPageNameTrie()).andReturn(null);
 
         train_isPageName(resolver, "foo-bar/baz", true);
 
@@ -440,7 +501,42 @@ public class ComponentEventLinkEncoderImplTest extends InternalBaseTestCase
 
         replay();
 
-        ComponentEventLinkEncoderImpl linkEncoder = new ComponentEventLinkEncoderImpl(resolver, contextPathEncoder, ls,
+        ComponentEventLinkEncoderImpl linkEncoder = new ComponentEventLinkEncoderImpl(resolver, trieSource, contextPathEncoder, ls,
+                null, null, null, null, true, null, "", metaDataLocator, null);
+
+        ComponentEventRequestParameters parameters = linkEncoder.decodeComponentEventRequest(request);
+
+        assertEquals(parameters.getActivePageName(), "foo-bar/Baz");
+        assertEquals(parameters.getNestedComponentId(), "biff");
+
+        verify();
+    }
+
+    @Test
+    public void page_name_includes_dash_in_component_event_request()
+    {
+        ComponentClassResolver resolver = mockComponentClassResolver();
+        PageNameTrieSource trieSource = mockPageNameTrieSource();
+        Request request = mockRequest();
+        LocalizationSetter ls = mockLocalizationSetter();
+        MetaDataLocator metaDataLocator = neverWhitelistProtected();
+
+        expect(ls.isSupportedLocaleName("foo-bar")).andReturn(false);
+
+        train_getParameter(request, InternalConstants.PAGE_CONTEXT_NAME, null);
+        train_getParameter(request, InternalConstants.CONTAINER_PAGE_NAME, null);
+        train_getLocale(request, Locale.ENGLISH);
+
+        ls.setNonPersistentLocaleFromLocaleName("en");
+
+        String path = "/foo-bar/baz.biff";
+        train_getPath(request, path);
+
+        train_getPageNameTrie(trieSource, "foo-bar/baz", "foo-bar/Baz");
+
+        replay();
+
+        ComponentEventLinkEncoderImpl linkEncoder = new ComponentEventLinkEncoderImpl(resolver, trieSource, contextPathEncoder, ls,
                 null, null, null, null, true, null, "", metaDataLocator, null);
 
         ComponentEventRequestParameters parameters = linkEncoder.decodeComponentEventRequest(request);
@@ -456,6 +552,7 @@ public class ComponentEventLinkEncoderImplTest extends InternalBaseTestCase
     public void decode_compoent_event_request_with_slash_in_context_path() throws Exception
     {
         ComponentClassResolver resolver = mockComponentClassResolver();
+        PageNameTrieSource trieSource = mockPageNameTrieSource();
         Request request = mockRequest();
         Response response = mockResponse();
         LocalizationSetter ls = mockLocalizationSetter();
@@ -471,13 +568,11 @@ public class ComponentEventLinkEncoderImplTest extends InternalBaseTestCase
 
         train_getPath(request, "/foo/bar/page.component:event");
 
-        train_isPageName(resolver, "page", true);
-
-        train_canonicalizePageName(resolver, "page", "Page");
+        train_getPageNameTrie(trieSource, "page", "Page");
 
         replay();
 
-        ComponentEventLinkEncoderImpl linkEncoder = new ComponentEventLinkEncoderImpl(resolver, contextPathEncoder, ls,
+        ComponentEventLinkEncoderImpl linkEncoder = new ComponentEventLinkEncoderImpl(resolver, trieSource, contextPathEncoder, ls,
                 response, null, null, null, true, null, "foo/bar", metaDataLocator, null);
 
         ComponentEventRequestParameters parameters = linkEncoder.decodeComponentEventRequest(request);
@@ -493,6 +588,7 @@ public class ComponentEventLinkEncoderImplTest extends InternalBaseTestCase
     public void illegal_activation_context_leads_to_http_404() throws Exception
     {
         ComponentClassResolver resolver = mockComponentClassResolver();
+        PageNameTrieSource trieSource = mockPageNameTrieSource();
         Request request = mockRequest();
         Response response = mockResponse();
         LocalizationSetter ls = mockLocalizationSetter();
@@ -501,15 +597,11 @@ public class ComponentEventLinkEncoderImplTest extends InternalBaseTestCase
         train_getPath(request, "/foo/pageid=123");
         train_setLocaleFromLocaleName(ls, "foo", false);
 
-        train_isPageName(resolver, "foo/pageid=123", false);
-        train_isPageName(resolver, "foo", false);
-        train_isPageName(resolver, "", true);
-
-        train_canonicalizePageName(resolver, "", "Index");
+        train_getPageNameTrie(trieSource, "", "Index");
 
         replay();
 
-        ComponentEventLinkEncoderImpl linkEncoder = new ComponentEventLinkEncoderImpl(resolver, contextPathEncoder, ls,
+        ComponentEventLinkEncoderImpl linkEncoder = new ComponentEventLinkEncoderImpl(resolver, trieSource, contextPathEncoder, ls,
                 response, null, null, null, true, null, "", metaDataLocator, null);
 
         PageRenderRequestParameters parameters = linkEncoder.decodePageRenderRequest(request);
@@ -0,0 +1,88 @@
+// Copyright 2021 The Apache Software Foundation
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.apache.tapestry5.internal.services;
+
+import org.apache.tapestry5.test.ioc.TestBase;
+import org.slf4j.LoggerFactory;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+public class FileSystemClassBytecodeCacheTest extends TestBase
+{
+    private FileSystemClassBytecodeCache createCache(File directory)
+    {
+        return new FileSystemClassBytecodeCache(directory, LoggerFactory.getLogger(FileSystemClassBytecodeCache.class));
+    }
+
+    @Test
+    public void bytecode_is_found_by_a_later_cache() throws IOException
+    {
+        File directory = Files.createTempDirectory("bytecode").toFile();
+
+        createCache(directory).put("foo.pages.Index", "abc", new byte[]{1, 2, 3});
+
+        FileSystemClassBytecodeCache cache = createCache(directory);
+
+        assertEquals(cache.get("foo.pages.Index", "abc"), new byte[]{1, 2, 3});
+        assertNull(cache.get("foo.pages.Index", "def"));
+        assertNull(cache.get("foo.pages.Other", "abc"));
+
+        assertEquals(cache.getHits(), 1);
+        assertEquals(cache.getMisses(), 2);
+    }
+
+    @Test
+    public void stale_bytecode_of_a_class_is_deleted() throws IOException
+    {
+        File directory = Files.createTempDirectory("bytecode").toFile();
+
+        FileSystemClassBytecodeCache cache = createCache(directory);
+
+        cache.put("foo.pages.Index", "abc", new byte[]{1});
+        cache.put("foo.pages.Other", "abc", new byte[]{2});
+        cache.put("foo.pages.Index", "def", new byte[]{3});
+
+        assertNull(cache.get("foo.pages.Index", "abc"));
+        assertEquals(cache.get("foo.pages.Index", "def"), new byte[]{3});
+        assertEquals(cache.get("foo.pages.Other", "abc"), new byte[]{2});
+
+        assertEquals(new File(directory, "foo.pages.Index").list(), new String[]{"def.class"});
+    }
+
+    @Test
+    public void clear_discards_all_bytecode() throws IOException
+    {
+        File directory = Files.createTempDirectory("bytecode").toFile();
+
+        FileSystemClassBytecodeCache cache = createCache(directory);
+
+        cache.put("foo.pages.Index", "abc", new byte[]{1});
+        cache.put("foo.pages.Other", "abc", new byte[]{2});
+
+        cache.clear();
+
+        assertNull(cache.get("foo.pages.Index", "abc"));
+        assertNull(cache.get("foo.pages.Other", "abc"));
+
+        // The cache is still usable afterwards.
+
+        cache.put("foo.pages.Index", "def", new byte[]{3});
+
+        assertEquals(cache.get("foo.pages.Index", "def"), new byte[]{3});
+    }
+}
@@ -0,0 +1,87 @@
+// Copyright 2021 The Apache Software Foundation
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.apache.tapestry5.internal.services;
+
+import org.apache.tapestry5.commons.util.CollectionFactory;
+import org.apache.tapestry5.test.ioc.TestBase;
+import org.testng.annotations.Test;
+
+import java.util.Collections;
+import java.util.Map;
+
+public class LayeredMessageCatalogTest extends TestBase
+{
+    private static Map<String, String> properties(String... keysAndValues)
+    {
+        Map<String, String> result = CollectionFactory.newMap();
+
+        for (int i = 0; i < keysAndValues.length; i += 2)
+        {
+            result.put(keysAndValues[i], keysAndValues[i + 1]);
+        }
+
+        return result;
+    }
+
+    @Test
+    public void overrides_shadow_parent_values()
+    {
+        Map<String, String> parent = new LayeredMessageCatalog(Collections.<String, String>emptyMap(),
+                properties("title", "Title", "label", "Label"));
+
+        Map<String, String> child = new LayeredMessageCatalog(parent, properties("Label", "Etiquette", "extra", "Extra"));
+
+        assertEquals(child.get("label"), "Etiquette");
+        assertEquals(child.get("TITLE"), "Title");
+        assertEquals(child.get("extra"), "Extra");
+        assertNull(child.get("missing"));
+        assertFalse(child.containsKey("missing"));
+
+        assertEquals(child.size(), 3);
+        assertEquals(child.keySet().size(), 3);
+
+        // The parent is unchanged.
+
+        assertEquals(parent.get("label"), "Label");
+        assertEquals(parent.size(), 2);
+    }
+
+    @Test
+    public void deep_layers_are_flattened()
+    {
+        Map<String, String> catalog = Collections.emptyMap();
+
+        for (int i = 0; i < 20; i++)
+        {
+            catalog = new LayeredMessageCatalog(catalog, properties("key" + i, "value" + i, "shared", "layer" + i));
+        }
+
+        assertEquals(catalog.size(), 21);
+        assertEquals(catalog.get("KEY0"), "value0");
+        assertEquals(catalog.get("key19"), "value19");
+        assertEquals(catalog.get("shared"), "layer19");
+    }
+
+    @Test
+    public void keys_are_interned()
+    {
+        Map<String, String> first = new LayeredMessageCatalog(Collections.<String, String>emptyMap(),
+                properties(new String("message-key"), "first"));
+        Map<String, String> second = new LayeredMessageCatalog(Collections.<String, String>emptyMap(),
+                properties(new String("message-key"), "second"));
+
+        assertSame(first.keySet().iterator().next(), second.keySet().iterator().next());
+    }
+}
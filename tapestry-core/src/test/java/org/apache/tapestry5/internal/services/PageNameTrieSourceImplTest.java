@@ -0,0 +1,44 @@
+// Copyright 2021 The Apache Software Foundation
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.apache.tapestry5.internal.services;
+
+import org.apache.tapestry5.internal.test.InternalBaseTestCase;
+import org.apache.tapestry5.services.ComponentClassResolver;
+import org.testng.annotations.Test;
+
+public class PageNameTrieSourceImplTest extends InternalBaseTestCase
+{
+    @Test
+    public void no_trie_until_a_resolver_is_registered()
+    {
+        assertNull(new PageNameTrieSourceImpl().getPageNameTrie());
+    }
+
+    @Test
+    public void provides_the_trie_of_the_resolver_service()
+    {
+        ComponentClassResolver resolver = getService(ComponentClassResolver.class);
+
+        // Realizes the resolver service.
+
+        String pageName = resolver.canonicalizePageName("core/exceptionreport");
+
+        PageNameTrie trie = getService(PageNameTrieSource.class).getPageNameTrie();
+
+        String path = "core/EXCEPTIONREPORT";
+
+        assertEquals(trie.find(path, 0, path.length()), pageName);
+    }
+}
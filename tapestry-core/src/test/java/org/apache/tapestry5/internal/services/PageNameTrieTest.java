@@ -0,0 +1,87 @@
+// Copyright 2021 The Apache Software Foundation
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.apache.tapestry5.internal.services;
+
+import org.apache.tapestry5.commons.util.CollectionFactory;
+import org.apache.tapestry5.test.ioc.TestBase;
+import org.testng.annotations.Test;
+
+import java.util.Map;
+
+public class PageNameTrieTest extends TestBase
+{
+    private PageNameTrie newTrie()
+    {
+        Map<String, String> pageNameToCanonicalPageName = CollectionFactory.newCaseInsensitiveMap();
+
+        pageNameToCanonicalPageName.put("", "Index");
+        pageNameToCanonicalPageName.put("Index", "Index");
+        pageNameToCanonicalPageName.put("admin/UserEdit", "admin/UserEdit");
+        pageNameToCanonicalPageName.put("admin", "admin/Index");
+        pageNameToCanonicalPageName.put("core/ExceptionReport", "core/ExceptionReport");
+        pageNameToCanonicalPageName.put("core/Index", "core/Index");
+
+        return new PageNameTrie(pageNameToCanonicalPageName);
+    }
+
+    @Test
+    public void find_is_case_insensitive()
+    {
+        PageNameTrie trie = newTrie();
+
+        assertEquals(trie.find("admin/useredit"), "admin/UserEdit");
+        assertEquals(trie.find("ADMIN"), "admin/Index");
+        assertEquals(trie.find(""), "Index");
+        assertNull(trie.find("admin/"));
+        assertNull(trie.find("admin/UserEditor"));
+    }
+
+    @Test
+    public void find_within_path()
+    {
+        PageNameTrie trie = newTrie();
+
+        String path = "en/admin/UserEdit.form:submit";
+
+        assertEquals(trie.find(path, 3, 17), "admin/UserEdit");
+        assertNull(trie.find(path, 0, 17));
+    }
+
+    @Test
+    public void core_pages_found_without_prefix_unless_overridden()
+    {
+        PageNameTrie trie = newTrie();
+
+        assertEquals(trie.find("exceptionreport"), "core/ExceptionReport");
+        assertEquals(trie.find("core/exceptionreport"), "core/ExceptionReport");
+
+        // The application's own Index page takes precedence.
+
+        assertEquals(trie.find("index"), "Index");
+    }
+
+    @Test
+    public void longest_prefix_is_made_of_complete_terms()
+    {
+        PageNameTrie trie = newTrie();
+
+        assertEquals(trie.findLongestPrefix("admin/useredit/37", 0, 17), 14);
+        assertEquals(trie.findLongestPrefix("admin/useredit", 0, 14), 14);
+        assertEquals(trie.findLongestPrefix("admin/usereditor/37", 0, 19), 5);
+        assertEquals(trie.findLongestPrefix("admin/useredit/37", 0, 5), 5);
+        assertEquals(trie.findLongestPrefix("administration", 0, 14), -1);
+        assertEquals(trie.findLongestPrefix("", 0, 0), -1);
+    }
+}
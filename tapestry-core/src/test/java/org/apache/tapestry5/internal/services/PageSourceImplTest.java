@@ -0,0 +1,292 @@
+// Copyright 2021 The Apache Software Foundation
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.apache.tapestry5.internal.services;
+
+import org.apache.tapestry5.commons.Resource;
+import org.apache.tapestry5.commons.util.CollectionFactory;
+import org.apache.tapestry5.internal.event.InvalidationEventHubImpl;
+import org.apache.tapestry5.internal.services.assets.ResourceChangeTracker;
+import org.apache.tapestry5.internal.structure.Page;
+import org.apache.tapestry5.internal.test.InternalBaseTestCase;
+import org.apache.tapestry5.services.pageload.ComponentRequestSelectorAnalyzer;
+import org.apache.tapestry5.services.pageload.ComponentResourceSelector;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class PageSourceImplTest extends InternalBaseTestCase
+{
+    private final ComponentRequestSelectorAnalyzer analyzer = new ComponentRequestSelectorAnalyzer()
+    {
+        public ComponentResourceSelector buildSelectorForRequest()
+        {
+            return new ComponentResourceSelector(Locale.ENGLISH);
+        }
+    };
+
+    private static class StubPageLoader implements PageLoader
+    {
+        final Map<String, Page> pages = CollectionFactory.newMap();
+
+        final AtomicInteger loadCount = new AtomicInteger();
+
+        public Page loadPage(String pageName, ComponentResourceSelector selector)
+        {
+            loadCount.incrementAndGet();
+
+            return pages.get(pageName);
+        }
+    }
+
+    private static class StubInvalidationEventHub extends InvalidationEventHubImpl implements ResourceChangeTracker
+    {
+        StubInvalidationEventHub()
+        {
+            super(false);
+        }
+
+        void fire(String... resources)
+        {
+            fireInvalidationEvent(CollectionFactory.newSet(resources));
+        }
+
+        public long trackResource(Resource resource)
+        {
+            return 0;
+        }
+
+        public void forceInvalidationEvent()
+        {
+            fire();
+        }
+
+        public void addDependency(Resource dependency)
+        {
+        }
+    }
+
+    @Test
+    public void bounded_cache_evicts_least_recently_used_page()
+    {
+        StubPageLoader loader = new StubPageLoader();
+
+        Page alpha = mockPage();
+        Page beta = mockPage();
+        Page gamma = mockPage();
+
+        replay();
+
+        loader.pages.put("Alpha", alpha);
+        loader.pages.put("Beta", beta);
+        loader.pages.put("Gamma", gamma);
+
+        PageSource source = new PageSourceImpl(loader, analyzer, 2);
+
+        assertSame(source.getPage("Alpha"), alpha);
+        assertSame(source.getPage("Beta"), beta);
+
+        // Alpha is now more recently used than Beta
+
+        assertSame(source.getPage("Alpha"), alpha);
+
+        assertSame(source.getPage("Gamma"), gamma);
+
+        assertEquals(source.getAllPages(), CollectionFactory.newSet(alpha, gamma));
+
+        PageCacheStatistics statistics = source.getCacheStatistics();
+
+        assertEquals(statistics.hits, 1L);
+        assertEquals(statistics.misses, 3L);
+        assertEquals(statistics.loads, 3L);
+        assertEquals(statistics.evictions, 1L);
+        assertEquals(statistics.cachedPages, 2);
+        assertEquals(statistics.maxSize, 2);
+
+        // Beta must be reloaded
+
+        assertSame(source.getPage("Beta"), beta);
+        assertEquals(loader.loadCount.get(), 4);
+
+        verify();
+    }
+
+    @Test
+    public void clear_cache_forces_reload()
+    {
+        StubPageLoader loader = new StubPageLoader();
+
+        Page alpha = mockPage();
+
+        replay();
+
+        loader.pages.put("Alpha", alpha);
+
+        PageSource source = new PageSourceImpl(loader, analyzer, 0);
+
+        source.getPage("Alpha");
+        source.getPage("Alpha");
+
+        assertEquals(loader.loadCount.get(), 1);
+
+        source.clearCache();
+
+        assertTrue(source.getAllPages().isEmpty());
+
+        source.getPage("Alpha");
+
+        assertEquals(loader.loadCount.get(), 2);
+
+        verify();
+    }
+
+    @Test
+    public void concurrent_requests_for_same_page_share_single_load() throws Exception
+    {
+        final Page alpha = mockPage();
+
+        replay();
+
+        final CountDownLatch loadStarted = new CountDownLatch(1);
+        final CountDownLatch releaseLoad = new CountDownLatch(1);
+        final AtomicInteger loadCount = new AtomicInteger();
+
+        PageLoader loader = new PageLoader()
+        {
+            public Page loadPage(String pageName, ComponentResourceSelector selector)
+            {
+                loadCount.incrementAndGet();
+
+                loadStarted.countDown();
+
+                try
+                {
+                    releaseLoad.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException ex)
+                {
+                    throw new RuntimeException(ex);
+                }
+
+                return alpha;
+            }
+        };
+
+        final PageSource source = new PageSourceImpl(loader, analyzer, 0);
+
+        final List<Page> results = CollectionFactory.newThreadSafeList();
+
+        Runnable request = new Runnable()
+        {
+            public void run()
+            {
+                results.add(source.getPage("Alpha"));
+            }
+        };
+
+        Thread first = new Thread(request);
+        first.start();
+
+        loadStarted.await(10, TimeUnit.SECONDS);
+
+        Thread second = new Thread(request);
+        second.start();
+
+        // Give the second thread a chance to start waiting on the first thread's load.
+
+        while (source.getCacheStatistics().misses < 2)
+        {
+            Thread.sleep(10);
+        }
+
+        releaseLoad.countDown();
+
+        first.join();
+        second.join();
+
+        assertEquals(loadCount.get(), 1);
+        assertEquals(results.size(), 2);
+        assertSame(results.get(0), alpha);
+        assertSame(results.get(1), alpha);
+
+        verify();
+    }
+
+    @Test
+    public void only_dependent_pages_are_discarded_on_partial_invalidation()
+    {
+        StubPageLoader loader = new StubPageLoader();
+
+        Page alpha = mockPage();
+        Page beta = mockPage();
+
+        train_getDependencies(alpha, "pages.Alpha", "file:/pages/Alpha.tml", "file:/pages/Alpha.properties");
+        train_getDependencies(beta, "pages.Beta", "file:/pages/Beta.tml");
+
+        replay();
+
+        loader.pages.put("Alpha", alpha);
+        loader.pages.put("Beta", beta);
+
+        PageSourceImpl source = new PageSourceImpl(loader, analyzer, 0);
+
+        StubInvalidationEventHub classes = new StubInvalidationEventHub();
+        StubInvalidationEventHub templates = new StubInvalidationEventHub();
+        StubInvalidationEventHub messages = new StubInvalidationEventHub();
+        StubInvalidationEventHub resources = new StubInvalidationEventHub();
+
+        source.setupInvalidation(classes, templates, messages, resources);
+
+        source.getPage("Alpha");
+        source.getPage("Beta");
+
+        templates.fire("file:/pages/Beta.tml");
+
+        assertEquals(source.getAllPages(), CollectionFactory.newSet(alpha));
+
+        source.getPage("Beta");
+
+        // Just the content of an asset changed.
+
+        resources.fire("file:/assets/site.css");
+
+        messages.fire("file:/pages/Alpha.properties");
+
+        assertEquals(source.getAllPages(), CollectionFactory.newSet(beta));
+
+        source.getPage("Alpha");
+
+        // Not a dependency of any page; likely the application message catalog.
+
+        messages.fire("file:/app.properties");
+
+        assertTrue(source.getAllPages().isEmpty());
+
+        assertEquals(loader.loadCount.get(), 4);
+
+        verify();
+    }
+
+    private void train_getDependencies(Page page, String... dependencies)
+    {
+        Set<String> set = CollectionFactory.newSet(dependencies);
+
+        expect(page.getDependencies()).andReturn(set).anyTimes();
+    }
+}
@@ -1,4 +1,4 @@
-// Copyright 2006-2013 The Apache Software Foundation
+// Copyright 2006-2013, 2021 The Apache Software Foundation
 //
 // Licensed under the Apache License, Version 2.0 (the "License");
 // you may not use this file except in compliance with the License.
@@ -17,6 +17,8 @@ package org.apache.tapestry5.internal.services;
 import org.apache.tapestry5.http.internal.services.ClusteredSessionImpl;
 import org.apache.tapestry5.http.internal.services.SessionImpl;
 import org.apache.tapestry5.http.internal.services.SessionLock;
+import org.apache.tapestry5.http.internal.services.SessionReplicationStatistics;
+import org.apache.tapestry5.http.internal.services.SessionReplicationTracker;
 import org.apache.tapestry5.http.services.Session;
 import org.apache.tapestry5.http.services.SessionPersistedObjectAnalyzer;
 import org.apache.tapestry5.internal.test.InternalBaseTestCase;
@@ -24,6 +26,7 @@ import org.testng.annotations.Test;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpSession;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Enumeration;
@@ -169,7 +172,7 @@ public class SessionImplTest extends InternalBaseTestCase
         Object dirty = new Object();
         SessionLock lock = mockLock();
 
-        lock.acquireWriteLock();
+        lock.acquireAttributeLock("dirty");
 
         train_getAttribute(hs, "dirty", dirty);
 
@@ -185,7 +188,7 @@ public class SessionImplTest extends InternalBaseTestCase
 
         train_getSession(hsr, false, hs);
 
-        lock.acquireWriteLock();
+        lock.acquireAttributeLock("dirty");
 
         hs.setAttribute("dirty", dirty);
 
@@ -195,4 +198,90 @@ public class SessionImplTest extends InternalBaseTestCase
 
         verify();
     }
+
+    @Test
+    public void unchanged_attribute_is_not_restored_when_fingerprinting()
+    {
+        HttpSession hs = mockHttpSession();
+        HttpServletRequest hsr = mockHttpServletRequest();
+        SessionPersistedObjectAnalyzer analyzer = newMock(SessionPersistedObjectAnalyzer.class);
+        ArrayList<String> value = new ArrayList<String>(Arrays.asList("fred"));
+        SessionLock lock = mockLock();
+        SessionReplicationTracker tracker = new SessionReplicationTracker();
+
+        lock.acquireAttributeLock("list");
+
+        train_getAttribute(hs, "list", value);
+
+        replay();
+
+        Session session = new ClusteredSessionImpl(hsr, hs, lock, analyzer, true, tracker);
+
+        assertSame(session.getAttribute("list"), value);
+
+        verify();
+
+        // Even though the analyzer considers the value dirty, it has not changed.
+
+        expect(analyzer.checkAndResetDirtyState(value)).andReturn(true);
+
+        train_getSession(hsr, false, hs);
+
+        replay();
+
+        session.restoreDirtyObjects();
+
+        verify();
+
+        SessionReplicationStatistics statistics = tracker.getStatistics();
+
+        assertEquals(statistics.requests, 1L);
+        assertEquals(statistics.storedAttributes, 0L);
+        assertEquals(statistics.storedBytes, 0L);
+    }
+
+    @Test
+    public void changed_attribute_is_restored_when_fingerprinting()
+    {
+        HttpSession hs = mockHttpSession();
+        HttpServletRequest hsr = mockHttpServletRequest();
+        SessionPersistedObjectAnalyzer analyzer = newMock(SessionPersistedObjectAnalyzer.class);
+        ArrayList<String> value = new ArrayList<String>(Arrays.asList("fred"));
+        SessionLock lock = mockLock();
+        SessionReplicationTracker tracker = new SessionReplicationTracker();
+
+        lock.acquireAttributeLock("list");
+
+        train_getAttribute(hs, "list", value);
+
+        replay();
+
+        Session session = new ClusteredSessionImpl(hsr, hs, lock, analyzer, true, tracker);
+
+        assertSame(session.getAttribute("list"), value);
+
+        verify();
+
+        value.add("barney");
+
+        expect(analyzer.checkAndResetDirtyState(value)).andReturn(false);
+
+        train_getSession(hsr, false, hs);
+
+        lock.acquireAttributeLock("list");
+
+        hs.setAttribute("list", value);
+
+        replay();
+
+        session.restoreDirtyObjects();
+
+        verify();
+
+        SessionReplicationStatistics statistics = tracker.getStatistics();
+
+        assertEquals(statistics.storedAttributes, 1L);
+        assertTrue(statistics.storedBytes > 0);
+        assertEquals(statistics.getAverageBytesPerRequest(), (double) statistics.storedBytes);
+    }
 }
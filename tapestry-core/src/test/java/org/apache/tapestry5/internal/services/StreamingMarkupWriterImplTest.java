@@ -0,0 +1,152 @@
+// Copyright 2021 The Apache Software Foundation
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.apache.tapestry5.internal.services;
+
+import org.apache.tapestry5.dom.DefaultMarkupModel;
+import org.apache.tapestry5.dom.XMLMarkupModel;
+import org.apache.tapestry5.internal.test.InternalBaseTestCase;
+import org.testng.annotations.Test;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+
+public class StreamingMarkupWriterImplTest extends InternalBaseTestCase
+{
+    @Test
+    public void body_children_are_streamed_as_they_end()
+    {
+        StringWriter output = new StringWriter();
+        PrintWriter pw = new PrintWriter(output);
+
+        StreamingMarkupWriterImpl w = new StreamingMarkupWriterImpl(new DefaultMarkupModel(), null, "text/html", pw);
+
+        w.element("html");
+        w.element("head");
+        w.element("title");
+        w.write("Report");
+        w.end();
+        w.end();
+        w.element("body", "class", "report");
+        w.element("div");
+        w.write("first");
+
+        assertEquals(output.toString(), "");
+        assertFalse(w.isCommitted());
+
+        w.end();
+
+        assertTrue(w.isCommitted());
+        assertEquals(output.toString(),
+                "<html><head><title>Report</title></head><body class=\"report\"><div>first</div>");
+
+        // Streamed content is no longer part of the DOM.
+
+        assertNull(w.getDocument().find("html/head"));
+
+        w.element("p");
+        w.write("second");
+        w.end();
+        w.end(); // body
+        w.end(); // html
+
+        w.toMarkup(pw);
+        pw.flush();
+
+        assertEquals(output.toString(),
+                "<html><head><title>Report</title></head><body class=\"report\"><div>first</div><p>second</p></body></html>");
+    }
+
+    @Test
+    public void commit_callbacks_invoked_in_reverse_order_before_head_is_written()
+    {
+        StringWriter output = new StringWriter();
+        PrintWriter pw = new PrintWriter(output);
+
+        final StreamingMarkupWriterImpl w = new StreamingMarkupWriterImpl(new DefaultMarkupModel(), null, "text/html", pw);
+
+        w.addCommitCallback(new Runnable()
+        {
+            public void run()
+            {
+                w.getDocument().find("html/head").element("meta", "name", "outer");
+            }
+        });
+
+        w.addCommitCallback(new Runnable()
+        {
+            public void run()
+            {
+                w.getDocument().find("html/head").element("meta", "name", "inner");
+            }
+        });
+
+        w.element("html");
+        w.element("head");
+        w.end();
+        w.element("body");
+        w.element("div");
+        w.end();
+
+        assertEquals(output.toString(),
+                "<html><head><meta name=\"inner\"/><meta name=\"outer\"/></head><body><div></div>");
+    }
+
+    @Test
+    public void content_added_after_streaming_is_written_at_end()
+    {
+        StringWriter output = new StringWriter();
+        PrintWriter pw = new PrintWriter(output);
+
+        StreamingMarkupWriterImpl w = new StreamingMarkupWriterImpl(new DefaultMarkupModel(), null, "text/html", pw);
+
+        w.element("html");
+        w.element("body");
+        w.element("div");
+        w.end();
+        w.end();
+        w.end();
+
+        w.getDocument().find("html/body").element("script").raw("init();");
+
+        w.toMarkup(pw);
+        pw.flush();
+
+        assertEquals(output.toString(), "<html><body><div></div><script>init();</script></body></html>");
+    }
+
+    @Test
+    public void non_html_document_is_not_streamed()
+    {
+        StringWriter output = new StringWriter();
+        PrintWriter pw = new PrintWriter(output);
+
+        StreamingMarkupWriterImpl w = new StreamingMarkupWriterImpl(new XMLMarkupModel(), null, "text/xml", pw);
+
+        w.element("root");
+        w.element("body");
+        w.element("child");
+        w.end();
+        w.end();
+        w.end();
+
+        assertFalse(w.isCommitted());
+        assertEquals(output.toString(), "");
+
+        w.toMarkup(pw);
+        pw.flush();
+
+        assertEquals(output.toString(), "<?xml version=\"1.0\"?>\n<root><body><child/></body></root>");
+    }
+}
@@ -0,0 +1,280 @@
+// Copyright 2021 The Apache Software Foundation
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.apache.tapestry5.internal.services;
+
+import org.apache.tapestry5.http.internal.services.SessionLockStatistics;
+import org.apache.tapestry5.http.internal.services.TapestrySessionFactory;
+import org.apache.tapestry5.http.internal.services.TapestrySessionFactoryImpl;
+import org.apache.tapestry5.http.services.Session;
+import org.apache.tapestry5.internal.test.InternalBaseTestCase;
+import org.apache.tapestry5.ioc.services.PerthreadManager;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpSession;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+public class TapestrySessionFactoryImplTest extends InternalBaseTestCase
+{
+    private ExecutorService executor;
+
+    private PerthreadManager perthreadManager;
+
+    private HttpServletRequest request;
+
+    @BeforeMethod
+    public void setup()
+    {
+        executor = Executors.newCachedThreadPool();
+
+        perthreadManager = getService(PerthreadManager.class);
+
+        final Map<String, Object> attributes = new ConcurrentHashMap<String, Object>();
+
+        final HttpSession session = (HttpSession) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class[]{HttpSession.class}, new InvocationHandler()
+                {
+                    public Object invoke(Object proxy, Method method, Object[] args)
+                    {
+                        // The session is a key of a WeakHashMap.
+
+                        if (method.getName().equals("hashCode"))
+                        {
+                            return System.identityHashCode(proxy);
+                        }
+
+                        if (method.getName().equals("equals"))
+                        {
+                            return proxy == args[0];
+                        }
+
+                        if (method.getName().equals("getAttribute"))
+                        {
+                            return attributes.get(args[0]);
+                        }
+
+                        if (method.getName().equals("setAttribute"))
+                        {
+                            attributes.put((String) args[0], args[1]);
+                        }
+
+                        return null;
+                    }
+                });
+
+        request = (HttpServletRequest) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class[]{HttpServletRequest.class}, new InvocationHandler()
+                {
+                    public Object invoke(Object proxy, Method method, Object[] args)
+                    {
+                        return method.getName().equals("getSession") ? session : null;
+                    }
+                });
+    }
+
+    @AfterMethod
+    public void shutdownExecutor()
+    {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Sets the attribute, then holds the session's locks until released.
+     */
+    private Future<?> holdAttribute(final TapestrySessionFactory factory, final String name,
+                                    final CountDownLatch locked, final CountDownLatch release)
+    {
+        return executor.submit(new Callable<Object>()
+        {
+            public Object call() throws Exception
+            {
+                try
+                {
+                    factory.getSession(true).setAttribute(name, "value");
+
+                    locked.countDown();
+
+                    release.await();
+                } finally
+                {
+                    perthreadManager.cleanup();
+                }
+
+                return null;
+            }
+        });
+    }
+
+    private Future<?> setAttribute(final TapestrySessionFactory factory, final String name)
+    {
+        return executor.submit(new Callable<Object>()
+        {
+            public Object call()
+            {
+                try
+                {
+                    factory.getSession(true).setAttribute(name, "other value");
+                } finally
+                {
+                    perthreadManager.cleanup();
+                }
+
+                return null;
+            }
+        });
+    }
+
+    @Test
+    public void striped_locks_allow_access_to_other_attributes() throws Exception
+    {
+        TapestrySessionFactory factory = new TapestrySessionFactoryImpl(false, null, request, perthreadManager,
+                true, 16, false);
+
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<?> holder = holdAttribute(factory, "a", locked, release);
+
+        assertTrue(locked.await(5, TimeUnit.SECONDS));
+
+        // A different stripe is not blocked.
+
+        setAttribute(factory, "b").get(5, TimeUnit.SECONDS);
+
+        // The same attribute is.
+
+        Future<?> same = setAttribute(factory, "a");
+
+        try
+        {
+            same.get(200, TimeUnit.MILLISECONDS);
+            unreachable();
+        } catch (TimeoutException ex)
+        {
+            // Expected
+        }
+
+        release.countDown();
+
+        holder.get(5, TimeUnit.SECONDS);
+        same.get(5, TimeUnit.SECONDS);
+
+        SessionLockStatistics statistics = factory.getLockStatistics();
+
+        assertEquals(statistics.waits, 1L);
+        assertTrue(statistics.maxWaitTime >= 200);
+        assertEquals(statistics.reorderings, 0L);
+    }
+
+    @Test
+    public void single_lock_serializes_access_to_all_attributes() throws Exception
+    {
+        TapestrySessionFactory factory = new TapestrySessionFactoryImpl(false, null, request, perthreadManager,
+                true, 0, false);
+
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<?> holder = holdAttribute(factory, "a", locked, release);
+
+        assertTrue(locked.await(5, TimeUnit.SECONDS));
+
+        Future<?> other = setAttribute(factory, "b");
+
+        try
+        {
+            other.get(200, TimeUnit.MILLISECONDS);
+            unreachable();
+        } catch (TimeoutException ex)
+        {
+            // Expected
+        }
+
+        release.countDown();
+
+        holder.get(5, TimeUnit.SECONDS);
+        other.get(5, TimeUnit.SECONDS);
+
+        assertEquals(factory.getLockStatistics().waits, 1L);
+    }
+
+    @Test
+    public void out_of_order_attribute_locks_are_acquired_in_order() throws Exception
+    {
+        final TapestrySessionFactory factory = new TapestrySessionFactoryImpl(false, null, request, perthreadManager,
+                true, 16, false);
+
+        final CountDownLatch bothLocked = new CountDownLatch(2);
+
+        // "a" and "b" are in stripes 1 and 2; each thread locks one, then the other.
+
+        Callable<Object> ab = lockInTurn(factory, bothLocked, "a", "b");
+        Callable<Object> ba = lockInTurn(factory, bothLocked, "b", "a");
+
+        Future<?> first = executor.submit(ab);
+        Future<?> second = executor.submit(ba);
+
+        first.get(5, TimeUnit.SECONDS);
+        second.get(5, TimeUnit.SECONDS);
+
+        // Only the thread that held the higher stripe releases it, and locks both stripes in order.
+
+        assertEquals(factory.getLockStatistics().reorderings, 1L);
+    }
+
+    private Callable<Object> lockInTurn(final TapestrySessionFactory factory, final CountDownLatch bothLocked,
+                                       final String firstName, final String secondName)
+    {
+        return new Callable<Object>()
+        {
+            public Object call() throws Exception
+            {
+                try
+                {
+                    factory.getSession(true).setAttribute(firstName, "value");
+
+                    bothLocked.countDown();
+                    bothLocked.await();
+
+                    Session session = factory.getSession(true);
+
+                    session.setAttribute(secondName, "value");
+
+                    // Both attributes are still locked; the stripes are unlocked just once, at the end of the request.
+
+                    session.setAttribute(firstName, "value");
+                } finally
+                {
+                    perthreadManager.cleanup();
+                }
+
+                return null;
+            }
+        };
+    }
+}
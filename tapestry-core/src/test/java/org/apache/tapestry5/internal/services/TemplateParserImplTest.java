@@ -19,9 +19,11 @@ import org.apache.tapestry5.commons.internal.util.TapestryException;
 import org.apache.tapestry5.commons.util.CollectionFactory;
 import org.apache.tapestry5.internal.parser.*;
 import org.apache.tapestry5.internal.test.InternalBaseTestCase;
+import org.apache.tapestry5.ioc.internal.QuietOperationTracker;
 import org.apache.tapestry5.ioc.internal.util.AbstractResource;
 import org.apache.tapestry5.ioc.internal.util.ClasspathResource;
 import org.apache.tapestry5.test.TapestryRunnerConstants;
+import org.slf4j.LoggerFactory;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
@@ -32,9 +34,15 @@ import java.util.Map;
 
 import static java.lang.String.format;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
+import java.nio.file.Files;
 
 /**
  * This is used to test the template parser ... and in some cases, the underlying behavior of the SAX APIs.
@@ -1130,4 +1138,109 @@ public class TemplateParserImplTest extends InternalBaseTestCase
             }
         }
     }
+
+    @DataProvider
+    public Object[][] serializable_templates()
+    {
+        return new Object[][]
+                {
+                        {"justHTML.tml"},
+                        {"namespaced_element.tml"},
+                        {"cdata.tml"},
+                        {"comment.tml"},
+                        {"componentWithParameters.tml"},
+                        {"component_with_mixins.tml"},
+                        {"component_ids.tml"},
+                        {"expansions_in_normal_text.tml"},
+                        {"block_element.tml"},
+                        {"overrides.tml"},
+                        {"extension_point.tml"},
+                        {"chinese_utf-8.tml"},
+                        {"instrumented_element.tml"}
+                };
+    }
+
+    @Test(dataProvider = "serializable_templates")
+    public void serialized_template_matches_parsed_template(String file) throws Exception
+    {
+        ComponentTemplate template = parse(file);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        ComponentTemplateSerializer.write(template, new DataOutputStream(bytes));
+
+        ComponentTemplate restored = ComponentTemplateSerializer.read(template.getResource(),
+                new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertSame(restored.getResource(), template.getResource());
+        assertEquals(restored.isExtension(), template.isExtension());
+        assertEquals(restored.usesStrictMixinParameters(), template.usesStrictMixinParameters());
+        assertEquals(describe(restored.getTokens()), describe(template.getTokens()));
+
+        assertEquals(restored.getComponentIds().keySet(), template.getComponentIds().keySet());
+
+        for (String id : template.getComponentIds().keySet())
+        {
+            assertEquals(restored.getComponentIds().get(id).getLine(), template.getComponentIds().get(id).getLine());
+        }
+
+        for (String id : new String[]{"alpha", "gamma", "title"})
+        {
+            List<TemplateToken> expected = template.getExtensionPointTokens(id);
+
+            if (expected == null)
+            {
+                assertNull(restored.getExtensionPointTokens(id));
+            } else
+            {
+                assertEquals(describe(restored.getExtensionPointTokens(id)), describe(expected));
+            }
+        }
+    }
+
+    private List<String> describe(List<TemplateToken> tokens)
+    {
+        List<String> result = CollectionFactory.newList();
+
+        for (TemplateToken token : tokens)
+        {
+            // Not all tokens have a useful toString()
+
+            String details = token instanceof ExtensionPointToken
+                    ? ((ExtensionPointToken) token).getExtensionPointId()
+                    : token instanceof BodyToken ? "" : token.toString();
+
+            result.add(format("%s %d:%d %s", token.getTokenType(), token.getLocation().getLine(),
+                    token.getLocation().getColumn(), details));
+        }
+
+        return result;
+    }
+
+    @Test
+    public void template_cache_of_other_versions_is_deleted() throws Exception
+    {
+        File directory = Files.createTempDirectory("templates").toFile();
+
+        File stale = new File(directory, "5.6.0-1.0");
+        stale.mkdirs();
+        Files.write(new File(stale, "abc.tpl").toPath(), new byte[]{1});
+
+        TemplateParser parser = new TemplateParserImpl(getParser().getDTDURLMappings(), true,
+                new QuietOperationTracker(), LoggerFactory.getLogger(TemplateParserImpl.class), true,
+                directory.getPath(), "5.7.0", "1.0");
+
+        assertEquals(directory.list(), new String[0]);
+
+        Resource resource = getResource("justHTML.tml");
+
+        ComponentTemplate parsed = parser.parseTemplate(resource);
+
+        File current = new File(directory, "5.7.0-1.0");
+
+        assertEquals(directory.list(), new String[]{current.getName()});
+        assertEquals(current.list().length, 1);
+
+        assertEquals(describe(parser.parseTemplate(resource).getTokens()), describe(parsed.getTokens()));
+    }
 }
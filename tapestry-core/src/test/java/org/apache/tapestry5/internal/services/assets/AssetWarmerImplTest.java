@@ -0,0 +1,98 @@
+// Copyright 2021 The Apache Software Foundation
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package org.apache.tapestry5.internal.services.assets;
+
+import org.apache.tapestry5.commons.Resource;
+import org.apache.tapestry5.commons.util.CollectionFactory;
+import org.apache.tapestry5.http.ContentType;
+import org.apache.tapestry5.ioc.Invokable;
+import org.apache.tapestry5.ioc.internal.util.ClasspathResource;
+import org.apache.tapestry5.ioc.services.ClasspathMatcher;
+import org.apache.tapestry5.ioc.services.ClasspathScanner;
+import org.apache.tapestry5.ioc.services.ParallelExecutor;
+import org.apache.tapestry5.ioc.services.ThreadLocale;
+import org.apache.tapestry5.services.LocalizationSetter;
+import org.apache.tapestry5.services.assets.ResourceDependencies;
+import org.apache.tapestry5.services.assets.StreamableResourceProcessing;
+import org.apache.tapestry5.services.assets.StreamableResourceSource;
+import org.apache.tapestry5.services.javascript.JavaScriptStackSource;
+import org.apache.tapestry5.services.javascript.ModuleManager;
+import org.apache.tapestry5.test.ioc.TestBase;
+import org.easymock.Capture;
+import org.easymock.EasyMock;
+import org.slf4j.Logger;
+import org.testng.annotations.Test;
+
+import java.util.Collections;
+import java.util.Locale;
+
+public class AssetWarmerImplTest extends TestBase
+{
+    @Test
+    public void only_scheduled_resources_are_warming() throws Exception
+    {
+        Logger logger = newMock(Logger.class);
+        ParallelExecutor executor = newMock(ParallelExecutor.class);
+        ThreadLocale threadLocale = newMock(ThreadLocale.class);
+        LocalizationSetter localizationSetter = newMock(LocalizationSetter.class);
+        JavaScriptStackSource stackSource = newMock(JavaScriptStackSource.class);
+        ModuleManager moduleManager = newMock(ModuleManager.class);
+        StreamableResourceSource streamableResourceSource = newMock(StreamableResourceSource.class);
+        ClasspathScanner classpathScanner = newMock(ClasspathScanner.class);
+
+        Resource module = new ClasspathResource("META-INF/modules/app.js");
+        Resource other = new ClasspathResource("META-INF/modules/other.js");
+
+        Capture<Invokable<Void>> worker = EasyMock.newCapture();
+
+        expect(localizationSetter.getSupportedLocales()).andReturn(Collections.singletonList(Locale.ENGLISH));
+        expect(stackSource.getStackNames()).andReturn(Collections.<String>emptyList());
+        expect(streamableResourceSource.fileExtensionsForContentType(EasyMock.isA(ContentType.class)))
+                .andReturn(Collections.<String>emptySet());
+        expect(classpathScanner.scan(EasyMock.eq("META-INF/modules/"), EasyMock.isA(ClasspathMatcher.class)))
+                .andReturn(CollectionFactory.newSet("META-INF/modules/app.js"));
+        expect(moduleManager.findResourceForModule("app")).andReturn(module);
+        expect(stackSource.findStackForJavaScriptLibrary(module)).andReturn(null);
+        expect(executor.invoke(EasyMock.capture(worker))).andReturn(null);
+
+        threadLocale.setLocale(Locale.ENGLISH);
+        expect(streamableResourceSource.getStreamableResource(EasyMock.eq(module),
+                EasyMock.eq(StreamableResourceProcessing.COMPRESSION_DISABLED), EasyMock.<ResourceDependencies>anyObject()))
+                .andReturn(null);
+
+        logger.info(EasyMock.anyObject(String.class));
+        EasyMock.expectLastCall().anyTimes();
+
+        replay();
+
+        AssetWarmer warmer = new AssetWarmerImpl(logger, executor, threadLocale, localizationSetter, stackSource,
+                null, moduleManager, streamableResourceSource, null, classpathScanner, true, 1, false, false);
+
+        assertFalse(warmer.isWarming(module));
+
+        warmer.start();
+
+        assertTrue(warmer.isWarming(module));
+        assertFalse(warmer.isWarming(other));
+        assertFalse(warmer.isWarming("core", Locale.ENGLISH));
+
+        worker.getValue().invoke();
+
+        assertFalse(warmer.isWarming(module));
+
+        verify();
+    }
+}
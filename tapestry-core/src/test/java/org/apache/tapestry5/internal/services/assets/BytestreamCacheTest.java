@@ -0,0 +1,135 @@
+// Copyright 2021 The Apache Software Foundation
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package org.apache.tapestry5.internal.services.assets;
+
+import org.apache.tapestry5.internal.TapestryInternalUtils;
+import org.apache.tapestry5.test.ioc.TestBase;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+
+public class BytestreamCacheTest extends TestBase
+{
+    private static byte[] content(int size)
+    {
+        byte[] result = new byte[size];
+
+        for (int i = 0; i < size; i++)
+        {
+            result[i] = (byte) i;
+        }
+
+        return result;
+    }
+
+    @Test
+    public void mapped_file() throws IOException
+    {
+        byte[] content = content(20000);
+
+        File file = File.createTempFile("bytestream", ".bin");
+
+        file.deleteOnExit();
+
+        Files.write(file.toPath(), content);
+
+        BytestreamCache cache;
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ))
+        {
+            cache = new BytestreamCache(channel.map(FileChannel.MapMode.READ_ONLY, 0, content.length));
+        }
+
+        assertEquals(cache.size(), content.length);
+
+        // Twice, to ensure that the buffer is not consumed.
+
+        for (int i = 0; i < 2; i++)
+        {
+            ByteArrayOutputStream bos = new ByteArrayOutputStream();
+
+            cache.writeTo(bos);
+
+            assertEquals(bos.toByteArray(), content);
+
+            bos.reset();
+
+            InputStream is = cache.openStream();
+
+            TapestryInternalUtils.copy(is, bos);
+
+            is.close();
+
+            assertEquals(bos.toByteArray(), content);
+        }
+    }
+
+    @Test
+    public void buffer_written_directly_to_channel() throws IOException
+    {
+        byte[] content = content(1000);
+
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+
+        class ChannelOutputStream extends OutputStream implements WritableByteChannel
+        {
+            int writes;
+
+            @Override
+            public void write(int b)
+            {
+                throw new IllegalStateException();
+            }
+
+            @Override
+            public int write(ByteBuffer src)
+            {
+                writes++;
+
+                int length = src.remaining();
+
+                while (src.hasRemaining())
+                {
+                    bos.write(src.get());
+                }
+
+                return length;
+            }
+
+            @Override
+            public boolean isOpen()
+            {
+                return true;
+            }
+        }
+
+        ChannelOutputStream os = new ChannelOutputStream();
+
+        new BytestreamCache(ByteBuffer.wrap(content)).writeTo(os);
+
+        assertEquals(os.writes, 1);
+        assertEquals(bos.toByteArray(), content);
+    }
+}
@@ -0,0 +1,192 @@
+// Copyright 2021 The Apache Software Foundation
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package org.apache.tapestry5.internal.services.assets;
+
+import org.apache.tapestry5.commons.Resource;
+import org.apache.tapestry5.commons.util.CollectionFactory;
+import org.apache.tapestry5.http.ContentType;
+import org.apache.tapestry5.services.assets.AssetChecksumGenerator;
+import org.apache.tapestry5.services.assets.CompressionStatus;
+import org.apache.tapestry5.services.assets.ContentEncoder;
+import org.apache.tapestry5.services.assets.StreamableResource;
+import org.apache.tapestry5.test.ioc.TestBase;
+import org.slf4j.LoggerFactory;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Map;
+
+public class PrecompressedAssetStoreImplTest extends TestBase
+{
+    /**
+     * Writes just every thousandth byte; not much of an encoding, but smaller than anything GZip can manage.
+     */
+    static class SkippingEncoder implements ContentEncoder
+    {
+        int count;
+
+        @Override
+        public OutputStream createEncodingStream(OutputStream output)
+        {
+            count++;
+
+            return new FilterOutputStream(output)
+            {
+                int index;
+
+                @Override
+                public void write(int b) throws IOException
+                {
+                    if (index++ % 1000 == 0)
+                    {
+                        out.write(b);
+                    }
+                }
+            };
+        }
+    }
+
+    private final AssetChecksumGenerator checksumGenerator = new AssetChecksumGenerator()
+    {
+        @Override
+        public String generateChecksum(Resource resource)
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public String generateChecksum(StreamableResource resource)
+        {
+            return "abc123";
+        }
+    };
+
+    private StreamableResource createResource()
+    {
+        StringBuilder builder = new StringBuilder();
+
+        for (int i = 0; i < 1000; i++)
+        {
+            builder.append("function f").append(i).append("() { return ").append(i).append("; }\n");
+        }
+
+        return new StreamableResourceImpl("test.js", new ContentType("text/javascript"), CompressionStatus.COMPRESSABLE,
+                0, new BytestreamCache(builder.toString().getBytes()), checksumGenerator, null);
+    }
+
+    private PrecompressedAssetStore createStore(File directory, ContentEncoder skipping)
+    {
+        Map<String, ContentEncoder> encoders = CollectionFactory.newMap();
+
+        encoders.put("gzip", new GZipContentEncoder());
+        encoders.put("x-skip", skipping);
+
+        return new PrecompressedAssetStoreImpl(encoders, directory.getPath(), true, checksumGenerator,
+                LoggerFactory.getLogger(PrecompressedAssetStoreImpl.class));
+    }
+
+    private static byte[] toBytes(StreamableResource resource) throws IOException
+    {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+
+        resource.streamTo(bos);
+
+        return bos.toByteArray();
+    }
+
+    @DataProvider
+    public Object[][] accept_encoding_data()
+    {
+        return new Object[][]{
+                {null, "gzip", false},
+                {"gzip", "gzip", true},
+                {"GZIP", "gzip", true},
+                {"deflate, gzip", "gzip", true},
+                {"deflate, gzip", "br", false},
+                {"br;q=1.0, gzip;q=0.8", "gzip", true},
+                {"br;q=0, gzip", "br", false},
+                {"*", "br", true},
+                {"*;q=0, gzip", "br", false},
+                {"br;q=0, *", "br", false},
+                {"gzip;q=x", "gzip", true}
+        };
+    }
+
+    @Test(dataProvider = "accept_encoding_data")
+    public void accepted_encodings(String acceptEncoding, String encoding, boolean expected)
+    {
+        assertEquals(PrecompressedAssetStoreImpl.isAccepted(acceptEncoding, encoding), expected);
+    }
+
+    @Test
+    public void variants_are_stored_and_selected() throws IOException
+    {
+        File directory = Files.createTempDirectory("precompressed").toFile();
+
+        SkippingEncoder skipping = new SkippingEncoder();
+
+        StreamableResource uncompressed = createResource();
+
+        StreamableResource compressed = createStore(directory, skipping).compress(uncompressed);
+
+        assertEquals(compressed.getCompression(), CompressionStatus.COMPRESSED);
+        assertEquals(((PrecompressedStreamableResource) compressed).getEncoding(), "gzip");
+        assertEquals(compressed.getChecksum(), "abc123");
+        assertEquals(directory.list().length, 2);
+        assertEquals(skipping.count, 1);
+
+        // A new store, as after a restart, finds the stored variants.
+
+        PrecompressedAssetStore store = createStore(directory, skipping);
+
+        compressed = store.compress(uncompressed);
+
+        assertEquals(skipping.count, 1);
+
+        StreamableResource selected = store.selectVariant(compressed, "gzip, x-skip");
+
+        assertEquals(((PrecompressedStreamableResource) selected).getEncoding(), "x-skip");
+        assertEquals(selected.getSize(), (uncompressed.getSize() + 999) / 1000);
+        assertEquals(selected.getChecksum(), "abc123");
+        assertEquals(((PrecompressedStreamableResource) selected).getEntityTag(), "abc123-x-skip");
+
+        selected = store.selectVariant(compressed, "gzip");
+
+        assertEquals(((PrecompressedStreamableResource) selected).getEncoding(), "gzip");
+        assertEquals(((PrecompressedStreamableResource) selected).getEntityTag(), "abc123-gzip");
+
+        selected = store.selectVariant(compressed, "identity");
+
+        assertEquals(selected.getCompression(), CompressionStatus.COMPRESSABLE);
+        assertEquals(toBytes(selected), toBytes(uncompressed));
+    }
+
+    @Test
+    public void other_resources_are_unchanged() throws IOException
+    {
+        StreamableResource resource = createResource();
+
+        File directory = Files.createTempDirectory("precompressed").toFile();
+
+        assertSame(createStore(directory, new SkippingEncoder()).selectVariant(resource, "gzip"), resource);
+    }
+}
@@ -0,0 +1,154 @@
+// Copyright 2021 The Apache Software Foundation
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package org.apache.tapestry5.internal.services.assets;
+
+import org.apache.tapestry5.commons.Resource;
+import org.apache.tapestry5.commons.services.InvalidationListener;
+import org.apache.tapestry5.commons.util.CollectionFactory;
+import org.apache.tapestry5.http.ContentType;
+import org.apache.tapestry5.ioc.internal.util.ClasspathResource;
+import org.apache.tapestry5.services.assets.CompressionStatus;
+import org.apache.tapestry5.services.assets.ResourceDependencies;
+import org.apache.tapestry5.services.assets.StreamableResource;
+import org.apache.tapestry5.services.assets.StreamableResourceProcessing;
+import org.apache.tapestry5.services.assets.StreamableResourceSource;
+import org.apache.tapestry5.test.ioc.TestBase;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+public class SRSWarmupInterceptorTest extends TestBase
+{
+    static class RecordingSource implements StreamableResourceSource
+    {
+        final List<StreamableResourceProcessing> processings = CollectionFactory.newList();
+
+        @Override
+        public Set<String> fileExtensionsForContentType(ContentType contentType)
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public StreamableResource getStreamableResource(Resource baseResource, StreamableResourceProcessing processing, ResourceDependencies dependencies)
+        {
+            processings.add(processing);
+
+            return new StreamableResourceImpl(baseResource.toString(), new ContentType("text/javascript"),
+                    CompressionStatus.COMPRESSABLE, 0, new BytestreamCache(new byte[0]), null, null);
+        }
+    }
+
+    static class StubWarmer implements AssetWarmer
+    {
+        final Set<Resource> warming = CollectionFactory.newSet();
+
+        @Override
+        public void start()
+        {
+        }
+
+        @Override
+        public boolean isWarming(Resource resource)
+        {
+            return warming.contains(resource);
+        }
+
+        @Override
+        public boolean isWarming(String stackName, Locale locale)
+        {
+            return false;
+        }
+    }
+
+    static class StubTracker implements ResourceChangeTracker
+    {
+        @Override
+        public long trackResource(Resource resource)
+        {
+            return 0;
+        }
+
+        @Override
+        public void forceInvalidationEvent()
+        {
+        }
+
+        @Override
+        public void addInvalidationListener(InvalidationListener listener)
+        {
+        }
+
+        @Override
+        public void addInvalidationCallback(Runnable callback)
+        {
+        }
+
+        @Override
+        public void clearOnInvalidation(Map<?, ?> map)
+        {
+        }
+
+        @Override
+        public void addDependency(Resource dependency)
+        {
+        }
+    }
+
+    private final Resource resource = new ClasspathResource("org/example/module.js");
+
+    @Test
+    public void warmed_resource_uses_full_pipeline() throws Exception
+    {
+        RecordingSource delegate = new RecordingSource();
+        StubTracker tracker = new StubTracker();
+
+        StreamableResourceSource interceptor = new SRSWarmupInterceptor(delegate, new StubWarmer(), tracker);
+
+        interceptor.getStreamableResource(resource, StreamableResourceProcessing.COMPRESSION_ENABLED, tracker);
+
+        assertEquals(delegate.processings, CollectionFactory.newList(StreamableResourceProcessing.COMPRESSION_ENABLED));
+    }
+
+    @Test
+    public void resource_being_warmed_is_not_minified_until_warmed() throws Exception
+    {
+        RecordingSource delegate = new RecordingSource();
+        StubWarmer warmer = new StubWarmer();
+        StubTracker tracker = new StubTracker();
+
+        warmer.warming.add(resource);
+
+        StreamableResourceSource interceptor = new SRSWarmupInterceptor(delegate, warmer, tracker);
+
+        StreamableResource first = interceptor.getStreamableResource(resource, StreamableResourceProcessing.COMPRESSION_ENABLED, tracker);
+        StreamableResource second = interceptor.getStreamableResource(resource, StreamableResourceProcessing.COMPRESSION_DISABLED, tracker);
+
+        assertSame(second, first);
+        assertEquals(delegate.processings, CollectionFactory.newList(StreamableResourceProcessing.FOR_AGGREGATION));
+
+        warmer.warming.clear();
+
+        StreamableResource warmed = interceptor.getStreamableResource(resource, StreamableResourceProcessing.COMPRESSION_DISABLED, tracker);
+
+        assertNotSame(warmed, first);
+        assertEquals(delegate.processings, CollectionFactory.newList(StreamableResourceProcessing.FOR_AGGREGATION,
+                StreamableResourceProcessing.COMPRESSION_DISABLED));
+    }
+}
@@ -1,4 +1,4 @@
-// Copyright 2006-2012 The Apache Software Foundation
+// Copyright 2006-2012, 2021 The Apache Software Foundation
 //
 // Licensed under the Apache License, Version 2.0 (the "License");
 // you may not use this file except in compliance with the License.
@@ -25,6 +25,7 @@ import org.apache.tapestry5.commons.services.ClassPropertyAdapter;
 import org.apache.tapestry5.commons.services.InvalidationListener;
 import org.apache.tapestry5.commons.services.PropertyAccess;
 import org.apache.tapestry5.commons.services.PropertyAdapter;
+import org.apache.tapestry5.commons.util.CollectionFactory;
 import org.apache.tapestry5.http.ContentType;
 import org.apache.tapestry5.http.services.BaseURLSource;
 import org.apache.tapestry5.http.services.Request;
@@ -57,6 +58,8 @@ import org.apache.tapestry5.services.ComponentClassResolver;
 import org.apache.tapestry5.services.LinkCreationListener2;
 import org.apache.tapestry5.services.LocalizationSetter;
 import org.apache.tapestry5.services.MetaDataLocator;
+import org.apache.tapestry5.internal.services.PageNameTrie;
+import org.apache.tapestry5.internal.services.PageNameTrieSource;
 import org.apache.tapestry5.test.TapestryTestCase;
 import org.easymock.EasyMock;
 import org.testng.annotations.AfterMethod;
@@ -65,6 +68,7 @@ import org.testng.annotations.BeforeSuite;
 
 import java.io.*;
 import java.lang.annotation.Annotation;
+import java.util.Map;
 
 import static org.easymock.EasyMock.isA;
 
@@ -283,6 +287,29 @@ public class InternalBaseTestCase extends TapestryTestCase implements Registry
         expect(resolver.isPageName(pageName)).andReturn(result);
     }
 
+    protected final PageNameTrieSource mockPageNameTrieSource()
+    {
+        return newMock(PageNameTrieSource.class);
+    }
+
+    /**
+     * Trains the source to provide a trie of page names.
+     *
+     * @param pageNamesAndCanonicalNames
+     *         alternating page names and the corresponding canonical page names
+     */
+    protected final void train_getPageNameTrie(PageNameTrieSource source, String... pageNamesAndCanonicalNames)
+    {
+        Map<String, String> pageNameToCanonicalPageName = CollectionFactory.newCaseInsensitiveMap();
+
+        for (int i = 0; i < pageNamesAndCanonicalNames.length; i += 2)
+        {
+            pageNameToCanonicalPageName.put(pageNamesAndCanonicalNames[i], pageNamesAndCanonicalNames[i + 1]);
+        }
+
+        expect(source.getPageNameTrie()).andReturn(new PageNameTrie(pageNameToCanonicalPageName));
+    }
+
     protected final PageResponseRenderer mockPageResponseRenderer()
     {
         return newMock(PageResponseRenderer.class);
@@ -0,0 +1,44 @@
+// Copyright 2021 The Apache Software Foundation
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.apache.tapestry5.hibernate.web.internal;
+
+import org.apache.tapestry5.internal.services.ValueEncoderClientDataCodec;
+import org.apache.tapestry5.services.ValueEncoderSource;
+import org.hibernate.Session;
+
+/**
+ * Stores the id of an entity in client data, if the entity is managed by the current {@link Session}. Transient and
+ * detached entities are serialized instead, so that they are read back as they were written, rather than as they
+ * are in the database.
+ *
+ * @since 5.7.0
+ */
+public class HibernateEntityClientDataCodec<E> extends ValueEncoderClientDataCodec<E>
+{
+    private final Session session;
+
+    public HibernateEntityClientDataCodec(ValueEncoderSource valueEncoderSource, Class<E> entityClass, Session session)
+    {
+        super(valueEncoderSource, entityClass);
+
+        this.session = session;
+    }
+
+    @Override
+    public boolean canWrite(E value)
+    {
+        return session.contains(value) && super.canWrite(value);
+    }
+}
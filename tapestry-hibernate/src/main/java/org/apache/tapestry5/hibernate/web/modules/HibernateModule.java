@@ -1,4 +1,4 @@
-// Copyright 2007-2013 The Apache Software Foundation
+// Copyright 2007-2013, 2021 The Apache Software Foundation
 //
 // Licensed under the Apache License, Version 2.0 (the "License");
 // you may not use this file except in compliance with the License.
@@ -27,6 +27,7 @@ import org.apache.tapestry5.hibernate.web.HibernatePersistenceConstants;
 import org.apache.tapestry5.hibernate.web.internal.CommitAfterWorker;
 import org.apache.tapestry5.hibernate.web.internal.EntityApplicationStatePersistenceStrategy;
 import org.apache.tapestry5.hibernate.web.internal.EntityPersistentFieldStrategy;
+import org.apache.tapestry5.hibernate.web.internal.HibernateEntityClientDataCodec;
 import org.apache.tapestry5.hibernate.web.internal.HibernateEntityValueEncoder;
 import org.apache.tapestry5.http.internal.TapestryHttpInternalConstants;
 import org.apache.tapestry5.ioc.LoggerSource;
@@ -36,10 +37,13 @@ import org.apache.tapestry5.ioc.annotations.Symbol;
 import org.apache.tapestry5.ioc.services.ServiceOverride;
 import org.apache.tapestry5.services.ApplicationStateContribution;
 import org.apache.tapestry5.services.ApplicationStatePersistenceStrategy;
+import org.apache.tapestry5.services.ClientDataCodec;
+import org.apache.tapestry5.services.ClientDataEncoder;
 import org.apache.tapestry5.services.ComponentClassResolver;
 import org.apache.tapestry5.services.LibraryMapping;
 import org.apache.tapestry5.services.PersistentFieldStrategy;
 import org.apache.tapestry5.services.ValueEncoderFactory;
+import org.apache.tapestry5.services.ValueEncoderSource;
 import org.apache.tapestry5.services.dashboard.DashboardManager;
 import org.apache.tapestry5.services.dashboard.DashboardTab;
 import org.apache.tapestry5.services.transform.ComponentClassTransformWorker2;
@@ -118,6 +122,35 @@ public class HibernateModule
         }
     }
 
+    /**
+     * Contributes {@link ClientDataCodec}s for all registered Hibernate entity classes, so that only the id of an entity
+     * (as encoded by its {@link ValueEncoder}) is stored in client data, such as form data. Entities that are not
+     * managed by the current session are still serialized.
+     *
+     * @since 5.7.0
+     */
+    @Contribute(ClientDataEncoder.class)
+    @SuppressWarnings("unchecked")
+    public static void provideEntityClientDataCodecs(MappedConfiguration<Class, ClientDataCodec> configuration,
+                                                     @Symbol(HibernateSymbols.PROVIDE_ENTITY_VALUE_ENCODERS)
+                                                     boolean provideEncoders,
+                                                     HibernateSessionSource sessionSource, Session session,
+                                                     ValueEncoderSource valueEncoderSource)
+    {
+        if (!provideEncoders)
+            return;
+
+        for (ClassMetadata classMetadata : sessionSource.getSessionFactory().getAllClassMetadata().values())
+        {
+            Class entityClass = classMetadata.getMappedClass();
+
+            if (entityClass != null)
+            {
+                configuration.add(entityClass, new HibernateEntityClientDataCodec(valueEncoderSource, entityClass, session));
+            }
+        }
+    }
+
     /**
      * Contributes the following:
      * <dl>
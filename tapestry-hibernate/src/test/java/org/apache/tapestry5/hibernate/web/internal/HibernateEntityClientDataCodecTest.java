@@ -0,0 +1,65 @@
+// Copyright 2021 The Apache Software Foundation
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.apache.tapestry5.hibernate.web.internal;
+
+import org.apache.tapestry5.ValueEncoder;
+import org.apache.tapestry5.services.ValueEncoderSource;
+import org.apache.tapestry5.test.ioc.TestBase;
+import org.hibernate.Session;
+import org.testng.annotations.Test;
+
+public class HibernateEntityClientDataCodecTest extends TestBase
+{
+    @Test
+    @SuppressWarnings("unchecked")
+    public void only_managed_entities_with_an_id_are_written_by_the_codec()
+    {
+        Session session = newMock(Session.class);
+        ValueEncoderSource source = newMock(ValueEncoderSource.class);
+        ValueEncoder<SampleEntity> encoder = newMock(ValueEncoder.class);
+
+        SampleEntity transientEntity = new SampleEntity();
+        SampleEntity detachedEntity = new SampleEntity();
+        SampleEntity unsavedEntity = new SampleEntity();
+        SampleEntity managedEntity = new SampleEntity();
+
+        detachedEntity.setId(1L);
+        managedEntity.setId(2L);
+
+        expect(source.getValueEncoder(SampleEntity.class)).andReturn(encoder).anyTimes();
+
+        expect(session.contains(transientEntity)).andReturn(false);
+        expect(session.contains(detachedEntity)).andReturn(false);
+
+        // Saved, but the id is not yet generated.
+        expect(session.contains(unsavedEntity)).andReturn(true);
+        expect(encoder.toClient(unsavedEntity)).andReturn(null);
+
+        expect(session.contains(managedEntity)).andReturn(true);
+        expect(encoder.toClient(managedEntity)).andReturn("2");
+
+        replay();
+
+        HibernateEntityClientDataCodec<SampleEntity> codec = new HibernateEntityClientDataCodec<SampleEntity>(source,
+                SampleEntity.class, session);
+
+        assertFalse(codec.canWrite(transientEntity));
+        assertFalse(codec.canWrite(detachedEntity));
+        assertFalse(codec.canWrite(unsavedEntity));
+        assertTrue(codec.canWrite(managedEntity));
+
+        verify();
+    }
+}
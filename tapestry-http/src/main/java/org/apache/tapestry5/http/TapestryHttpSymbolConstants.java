@@ -65,6 +65,7 @@ final public class TapestryHttpSymbolConstants {
      * up processing for more Ajax intensive applications (but care should then be given to ensuring that objects shared inside
      * the session are themselves immutable or thread-safe).
      *
+     * @see #SESSION_LOCK_STRIPES
      * @since 5.4
      */
     public static final String SESSION_LOCKING_ENABLED = "tapestry.session-locking-enabled";
@@ -133,4 +134,40 @@ final public class TapestryHttpSymbolConstants {
      */
     public static final String GZIP_COMPRESSION_ENABLED = "tapestry.gzip-compression-enabled";
 
+    /**
+     * The compression level used when compressing dynamic responses using GZIP, from 1 (fastest) to 9 (smallest).
+     * The default, -1, is zlib's default level (currently, 6).
+     *
+     * @see #GZIP_COMPRESSION_ENABLED
+     * @since 5.7.0
+     */
+    public static final String GZIP_COMPRESSION_LEVEL = "tapestry.gzip-compression-level";
+
+    /**
+     * When {@linkplain #SESSION_LOCKING_ENABLED session locking} is enabled, the number of locks (stripes) each session's
+     * attributes are divided between. Getting or setting an attribute then takes an exclusive lock on just the stripe
+     * of the attribute's name (and a shared lock on the session), so concurrent requests from the same client that use
+     * different attributes do not wait on each other. Locks are acquired in a fixed order, so a request that needs the
+     * lock of a lower numbered stripe than one it already holds briefly releases the higher numbered stripes; this is
+     * counted as a reordering by {@link org.apache.tapestry5.http.internal.services.TapestrySessionFactory#getLockStatistics()}.
+     * The default, 0, uses a single lock for all of the session's attributes.
+     *
+     * @since 5.7.0
+     */
+    public static final String SESSION_LOCK_STRIPES = "tapestry.session-lock-stripes";
+
+    /**
+     * When {@linkplain #CLUSTERED_SESSIONS clustering}, if "true" then the serialized form of each session attribute is
+     * fingerprinted (hashed) when it is first read during a request, and at the end of the request only attributes whose
+     * fingerprint has changed are re-stored into the session (and so replicated). This avoids replicating attributes
+     * that were only read, at the cost of serializing each attribute twice. The
+     * {@link org.apache.tapestry5.http.services.SessionPersistedObjectAnalyzer} is only used for attributes that can not
+     * be serialized. The number of bytes stored is reported by
+     * {@link org.apache.tapestry5.http.internal.services.TapestrySessionFactory#getReplicationStatistics()}.
+     * The default is {@code false}.
+     *
+     * @since 5.7.0
+     */
+    public static final String CLUSTERED_SESSION_FINGERPRINTS = "tapestry.clustered-session-fingerprints";
+
 }
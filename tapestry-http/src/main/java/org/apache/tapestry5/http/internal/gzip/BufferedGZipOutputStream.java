@@ -14,11 +14,8 @@
 
 package org.apache.tapestry5.http.internal.gzip;
 
-import java.io.BufferedOutputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
-import java.util.zip.GZIPOutputStream;
 
 import javax.servlet.ServletOutputStream;
 import javax.servlet.http.HttpServletResponse;
@@ -28,7 +25,12 @@ import org.apache.tapestry5.http.services.CompressionAnalyzer;
 
 /**
  * A buffered output stream that, when a certain number of bytes is buffered (the cutover point) will open a compressed
- * stream (via {@link org.apache.tapestry5.http.services.Response#getOutputStream(String)}
+ * stream (via {@link org.apache.tapestry5.http.services.Response#getOutputStream(String)}.
+ *
+ * Starting in 5.7.0, content is buffered in a fixed size buffer obtained (along with a {@link java.util.zip.Deflater})
+ * from a {@link GZipCompressorPool}; once the decision to compress has been made, the buffer is compressed each time
+ * it fills, and the compressed output streamed to the client. The compressor is returned to the pool when the stream
+ * is closed.
  */
 public class BufferedGZipOutputStream extends ServletOutputStream
 {
@@ -40,67 +42,88 @@ public class BufferedGZipOutputStream extends ServletOutputStream
 
     private final int cutover;
 
-    private ByteArrayOutputStream byteArrayOutputStream;
+    private final GZipCompressorPool pool;
 
     /**
-     * Initially the ByteArrayOutputStream, later the response output stream (possibly wrapped with a
-     * GZIPOutputStream).
+     * Null once the stream is closed.
      */
-    private OutputStream currentOutputStream;
+    private GZipCompressor compressor;
 
+    private final byte[] buffer;
+
+    private int count;
+
+    /**
+     * Null until the cutover point is reached (or the stream is flushed or closed), then the response output stream.
+     */
+    private OutputStream responseOutputStream;
+
+    private boolean compressing;
+
+    /**
+     * @param cutover
+     *         number of bytes to buffer before deciding to compress the content; must be no larger than the
+     *         size of the buffers of the pool's compressors
+     */
     public BufferedGZipOutputStream(String contentType, HttpServletResponse response, int cutover,
-                                    CompressionAnalyzer analyzer)
+                                    CompressionAnalyzer analyzer, GZipCompressorPool pool)
     {
         this.contentType = contentType;
         this.response = response;
         this.cutover = cutover;
         this.analyzer = analyzer;
+        this.pool = pool;
+
+        compressor = pool.acquire();
 
-        byteArrayOutputStream = new ByteArrayOutputStream(cutover);
+        buffer = compressor.getBuffer();
 
-        currentOutputStream = byteArrayOutputStream;
+        assert cutover <= buffer.length;
     }
 
     private void checkForCutover() throws IOException
     {
-        if (byteArrayOutputStream == null) return;
-
-        if (byteArrayOutputStream.size() < cutover) return;
-
-        // Time to switch over to GZIP.
-        openResponseOutputStream(true);
+        if (responseOutputStream == null && count >= cutover)
+        {
+            // Time to switch over to GZIP.
+            openResponseOutputStream(true);
+        }
     }
 
     private void openResponseOutputStream(boolean gzip) throws IOException
     {
-        OutputStream responseOutputStream = response.getOutputStream();
+        responseOutputStream = response.getOutputStream();
 
-        boolean useCompression = gzip && analyzer.isCompressable(contentType);
+        compressing = gzip && analyzer.isCompressable(contentType);
 
-        OutputStream possiblyCompressed = useCompression
-                ? new GZIPOutputStream(responseOutputStream)
-                : responseOutputStream;
-
-        if (useCompression)
+        if (compressing)
         {
             response.setHeader(
                     TapestryHttpInternalConstants.CONTENT_ENCODING_HEADER, 
                     TapestryHttpInternalConstants.GZIP_CONTENT_ENCODING);
-        }
-
-        currentOutputStream =
-                new BufferedOutputStream(possiblyCompressed);
-
-        // Write what content we already have to the new stream.
 
-        byteArrayOutputStream.writeTo(currentOutputStream);
+            compressor.start(responseOutputStream);
+        }
+    }
 
-        byteArrayOutputStream = null;
+    private void checkOpen() throws IOException
+    {
+        if (compressor == null)
+        {
+            throw new IOException("Stream is closed.");
+        }
     }
 
     public void write(int b) throws IOException
     {
-        currentOutputStream.write(b);
+        checkOpen();
+
+        if (count == buffer.length)
+        {
+            drain();
+        }
+
+        buffer[count++] = (byte) b;
 
         checkForCutover();
     }
@@ -108,39 +131,112 @@ public class BufferedGZipOutputStream extends ServletOutputStream
     @Override
     public void write(byte[] b) throws IOException
     {
-        currentOutputStream.write(b);
-
-        checkForCutover();
+        write(b, 0, b.length);
     }
 
     @Override
     public void write(byte[] b, int off, int len) throws IOException
     {
-        currentOutputStream.write(b, off, len);
+        checkOpen();
+
+        if (len > buffer.length - count)
+        {
+            // The buffer can't hold the content, so the cutover point has been reached.
+
+            if (responseOutputStream == null)
+            {
+                openResponseOutputStream(true);
+            }
+
+            drain();
+
+            if (len >= buffer.length)
+            {
+                writeToResponse(b, off, len);
+
+                return;
+            }
+        }
+
+        System.arraycopy(b, off, buffer, count, len);
+
+        count += len;
 
         checkForCutover();
     }
 
+    /**
+     * Writes (possibly, compresses) the buffered content.
+     */
+    private void drain() throws IOException
+    {
+        writeToResponse(buffer, 0, count);
+
+        count = 0;
+    }
+
+    private void writeToResponse(byte[] b, int off, int len) throws IOException
+    {
+        if (compressing)
+        {
+            compressor.compress(b, off, len, responseOutputStream);
+        } else
+        {
+            responseOutputStream.write(b, off, len);
+        }
+    }
+
     @Override
     public void flush() throws IOException
     {
-        forceOutputStream().flush();
+        checkOpen();
+
+        forceOutputStream();
+
+        drain();
+
+        if (compressing)
+        {
+            compressor.flush(responseOutputStream);
+        }
+
+        responseOutputStream.flush();
     }
 
     @Override
     public void close() throws IOException
     {
-        // When closing, if we haven't accumulated enough output yet to start compressing,
-        // then send what we have, uncompressed.
+        if (compressor == null)
+        {
+            return;
+        }
+
+        try
+        {
+            // When closing, if we haven't accumulated enough output yet to start compressing,
+            // then send what we have, uncompressed.
+
+            forceOutputStream();
+
+            drain();
+
+            if (compressing)
+            {
+                compressor.finish(responseOutputStream);
+            }
 
-        forceOutputStream().close();
+            responseOutputStream.close();
+        } finally
+        {
+            pool.release(compressor);
+
+            compressor = null;
+        }
     }
 
-    private OutputStream forceOutputStream() throws IOException
+    private void forceOutputStream() throws IOException
     {
-        if (byteArrayOutputStream != null)
+        if (responseOutputStream == null)
             openResponseOutputStream(false);
-
-        return currentOutputStream;
     }
 }
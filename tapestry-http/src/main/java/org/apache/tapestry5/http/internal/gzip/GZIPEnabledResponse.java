@@ -34,10 +34,12 @@ public class GZIPEnabledResponse extends HttpServletResponseWrapper
 
     private final CompressionAnalyzer analyzer;
 
+    private final GZipCompressorPool pool;
+
     private boolean contentLengthSet = false;
 
     public GZIPEnabledResponse(HttpServletResponse response, HttpServletRequest request, int cutover,
-                               CompressionAnalyzer analyzer)
+                               CompressionAnalyzer analyzer, GZipCompressorPool pool)
     {
         super(response);
 
@@ -45,6 +47,7 @@ public class GZIPEnabledResponse extends HttpServletResponseWrapper
         this.response = response;
         this.cutover = cutover;
         this.analyzer = analyzer;
+        this.pool = pool;
     }
 
     public void setContentLength(int len)
@@ -62,7 +65,7 @@ public class GZIPEnabledResponse extends HttpServletResponseWrapper
 
         String contentType = getContentType();
 
-        return new BufferedGZipOutputStream(contentType, response, cutover, analyzer);
+        return new BufferedGZipOutputStream(contentType, response, cutover, analyzer, pool);
     }
 
     private boolean isCompressionDisabled()
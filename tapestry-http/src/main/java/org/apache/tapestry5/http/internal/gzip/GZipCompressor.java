@@ -0,0 +1,159 @@
+// Copyright 2021 The Apache Software Foundation
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package org.apache.tapestry5.http.internal.gzip;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Compresses content in the GZIP format, using a {@link Deflater} and buffers that are allocated once, and reused for
+ * many responses (via a {@link GZipCompressorPool}). Content is written to the {@linkplain #getBuffer() buffer} by the
+ * caller, then {@linkplain #compress(byte[], int, int, OutputStream) compressed} to the output stream.
+ *
+ * Instances are not thread safe.
+ *
+ * @since 5.7.0
+ */
+public final class GZipCompressor
+{
+    private static final byte[] HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, 0};
+
+    private final Deflater deflater;
+
+    private final CRC32 crc = new CRC32();
+
+    private final byte[] buffer;
+
+    private final byte[] output;
+
+    /**
+     * @param level
+     *         compression level, from 0 to 9, or -1 for the default level
+     * @param bufferSize
+     *         size of the content buffer, and of the buffer for compressed output
+     */
+    public GZipCompressor(int level, int bufferSize)
+    {
+        deflater = new Deflater(level, true);
+        buffer = new byte[bufferSize];
+        output = new byte[bufferSize];
+    }
+
+    /**
+     * Returns the buffer into which content may be accumulated before it is compressed.
+     */
+    public byte[] getBuffer()
+    {
+        return buffer;
+    }
+
+    /**
+     * Writes the GZIP header; invoked before any content is compressed.
+     */
+    public void start(OutputStream out) throws IOException
+    {
+        out.write(HEADER);
+    }
+
+    /**
+     * Compresses the content, writing any compressed output that is ready.
+     */
+    public void compress(byte[] content, int offset, int length, OutputStream out) throws IOException
+    {
+        if (length == 0)
+        {
+            return;
+        }
+
+        crc.update(content, offset, length);
+
+        deflater.setInput(content, offset, length);
+
+        while (!deflater.needsInput())
+        {
+            write(deflater.deflate(output, 0, output.length), out);
+        }
+    }
+
+    /**
+     * Writes out all compressed output for the content so far, so that it may be sent to the client.
+     */
+    public void flush(OutputStream out) throws IOException
+    {
+        int count;
+
+        do
+        {
+            count = deflater.deflate(output, 0, output.length, Deflater.SYNC_FLUSH);
+
+            write(count, out);
+        } while (count == output.length);
+    }
+
+    /**
+     * Writes the remaining compressed output, and the GZIP trailer.
+     */
+    public void finish(OutputStream out) throws IOException
+    {
+        deflater.finish();
+
+        while (!deflater.finished())
+        {
+            write(deflater.deflate(output, 0, output.length), out);
+        }
+
+        writeInt((int) crc.getValue(), out);
+        writeInt((int) deflater.getBytesRead(), out);
+    }
+
+    /**
+     * Prepares the compressor for reuse.
+     */
+    public void reset()
+    {
+        deflater.reset();
+        crc.reset();
+    }
+
+    /**
+     * Releases the native resources of the compressor, which may not be used afterwards.
+     */
+    public void end()
+    {
+        deflater.end();
+    }
+
+    private void write(int count, OutputStream out) throws IOException
+    {
+        if (count > 0)
+        {
+            out.write(output, 0, count);
+        }
+    }
+
+    /**
+     * Writes the value in little-endian order, as required by the GZIP format.
+     */
+    private static void writeInt(int value, OutputStream out) throws IOException
+    {
+        out.write(value & 0xff);
+        out.write((value >> 8) & 0xff);
+        out.write((value >> 16) & 0xff);
+        out.write((value >> 24) & 0xff);
+    }
+}
@@ -0,0 +1,67 @@
+// Copyright 2021 The Apache Software Foundation
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package org.apache.tapestry5.http.internal.gzip;
+
+import org.apache.tapestry5.http.internal.util.ObjectPool;
+
+/**
+ * A pool of {@link GZipCompressor}s, all with the same compression level and buffer size. Creating a compressor is
+ * relatively expensive (the underlying zlib stream allocates several hundred kilobytes of native memory), so each
+ * is reused for many responses. Compressors released beyond the maximum number of idle compressors are
+ * {@linkplain GZipCompressor#end() ended}.
+ *
+ * @since 5.7.0
+ */
+public final class GZipCompressorPool extends ObjectPool<GZipCompressor>
+{
+    private final int level;
+
+    private final int bufferSize;
+
+    /**
+     * @param level
+     *         compression level, from 0 to 9, or -1 for the default level
+     * @param bufferSize
+     *         size of the buffers of each compressor
+     * @param maxIdle
+     *         maximum number of compressors kept for reuse
+     */
+    public GZipCompressorPool(int level, int bufferSize, int maxIdle)
+    {
+        super(maxIdle);
+
+        this.level = level;
+        this.bufferSize = bufferSize;
+    }
+
+    @Override
+    protected GZipCompressor create()
+    {
+        return new GZipCompressor(level, bufferSize);
+    }
+
+    @Override
+    protected void reset(GZipCompressor compressor)
+    {
+        compressor.reset();
+    }
+
+    @Override
+    protected void discard(GZipCompressor compressor)
+    {
+        compressor.end();
+    }
+}
@@ -31,30 +31,43 @@ import org.apache.tapestry5.ioc.annotations.Symbol;
  */
 public class GZipFilter implements HttpServletRequestFilter
 {
+    /**
+     * Minimum size of the buffer used to accumulate content before it is compressed.
+     */
+    private static final int BUFFER_SIZE = 8192;
+
     private final int cutover;
 
     private final ResponseCompressionAnalyzer responseAnalyzer;
 
     private final CompressionAnalyzer compressionAnalyzer;
 
+    private final GZipCompressorPool pool;
+
     public GZipFilter(
             @Symbol(TapestryHttpSymbolConstants.MIN_GZIP_SIZE)
             int cutover,
 
             ResponseCompressionAnalyzer responseAnalyzer,
 
-            CompressionAnalyzer compressionAnalyzer)
+            CompressionAnalyzer compressionAnalyzer,
+
+            @Symbol(TapestryHttpSymbolConstants.GZIP_COMPRESSION_LEVEL)
+            int compressionLevel)
     {
         this.cutover = cutover;
         this.responseAnalyzer = responseAnalyzer;
         this.compressionAnalyzer = compressionAnalyzer;
+
+        pool = new GZipCompressorPool(compressionLevel, Math.max(cutover, BUFFER_SIZE),
+                2 * Runtime.getRuntime().availableProcessors());
     }
 
     public boolean service(HttpServletRequest request, HttpServletResponse response, HttpServletRequestHandler handler)
             throws IOException
     {
         HttpServletResponse newResponse = responseAnalyzer.isGZipSupported()
-                ? new GZIPEnabledResponse(response, request, cutover, compressionAnalyzer)
+                ? new GZIPEnabledResponse(response, request, cutover, compressionAnalyzer, pool)
                 : response;
 
         return handler.service(request, newResponse);
@@ -1,4 +1,4 @@
-//  Copyright 2011, 2013, 2020 The Apache Software Foundation
+//  Copyright 2011, 2013, 2020, 2021 The Apache Software Foundation
 //
 //  Licensed under the Apache License, Version 2.0 (the "License");
 //  you may not use this file except in compliance with the License.
@@ -27,6 +27,11 @@ import java.util.Map;
  * session attributes at the end of the request (see {@link #restoreDirtyObjects()}). This is only
  * used when {@linkplain org.apache.tapestry5.SymbolConstants#CLUSTERED_SESSIONS clustering}.
  *
+ * When {@linkplain org.apache.tapestry5.http.TapestryHttpSymbolConstants#CLUSTERED_SESSION_FINGERPRINTS fingerprinting},
+ * a {@link SessionFingerprint} of each attribute is computed when it is first read, and the attribute is only re-stored
+ * if its fingerprint has changed by the end of the request. The {@link SessionPersistedObjectAnalyzer} is only consulted
+ * for attributes that can not be fingerprinted.
+ *
  * @since 5.3
  * @see SessionPersistedObjectAnalyzer
  */
@@ -41,13 +46,46 @@ public class ClusteredSessionImpl extends SessionImpl
      */
     private final Map<String, Object> sessionAttributeCache = CollectionFactory.newMap();
 
+    private final boolean fingerprinting;
+
+    private final SessionReplicationTracker tracker;
+
+    /**
+     * Fingerprints of attributes when read from, or written to, the real session; only used when fingerprinting.
+     */
+    private Map<String, SessionFingerprint> fingerprints;
+
+    /**
+     * Number of attributes, and their size in bytes, stored into the real session during this request.
+     */
+    private int storedAttributes;
+
+    private long storedBytes;
+
     public ClusteredSessionImpl(HttpServletRequest request,
             HttpSession session,
             SessionLock lock, SessionPersistedObjectAnalyzer analyzer)
+    {
+        this(request, session, lock, analyzer, false, null);
+    }
+
+    /**
+     * @param fingerprinting
+     *         if true, attributes are re-stored based on their {@link SessionFingerprint}
+     * @param tracker
+     *         used to report the attributes stored during the request, or null
+     * @since 5.7.0
+     */
+    public ClusteredSessionImpl(HttpServletRequest request,
+            HttpSession session,
+            SessionLock lock, SessionPersistedObjectAnalyzer analyzer,
+            boolean fingerprinting, SessionReplicationTracker tracker)
     {
         super(request, session, lock);
 
         this.analyzer = analyzer;
+        this.fingerprinting = fingerprinting;
+        this.tracker = tracker;
     }
 
     @Override
@@ -55,6 +93,13 @@ public class ClusteredSessionImpl extends SessionImpl
     {
         Object result = super.getAttribute(name);
 
+        // Only the first read is fingerprinted; later reads may see changes made during this request.
+
+        if (fingerprinting && result != null && !sessionAttributeCache.containsKey(name))
+        {
+            fingerprint(name, result);
+        }
+
         sessionAttributeCache.put(name, result);
 
         return result;
@@ -65,6 +110,37 @@ public class ClusteredSessionImpl extends SessionImpl
         super.setAttribute(name, value);
 
         sessionAttributeCache.put(name, value);
+
+        if (value == null)
+        {
+            return;
+        }
+
+        storedAttributes++;
+
+        if (fingerprinting)
+        {
+            SessionFingerprint fingerprint = fingerprint(name, value);
+
+            if (fingerprint != null)
+            {
+                storedBytes += fingerprint.length;
+            }
+        }
+    }
+
+    private SessionFingerprint fingerprint(String name, Object value)
+    {
+        if (fingerprints == null)
+        {
+            fingerprints = CollectionFactory.newMap();
+        }
+
+        SessionFingerprint result = SessionFingerprint.of(value);
+
+        fingerprints.put(name, result);
+
+        return result;
     }
 
     public void invalidate()
@@ -72,6 +148,11 @@ public class ClusteredSessionImpl extends SessionImpl
         super.invalidate();
 
         sessionAttributeCache.clear();
+
+        if (fingerprints != null)
+        {
+            fingerprints.clear();
+        }
     }
 
     public void restoreDirtyObjects()
@@ -86,6 +167,22 @@ public class ClusteredSessionImpl extends SessionImpl
             return;
         }
 
+        if (fingerprinting)
+        {
+            restoreChangedObjects();
+        } else
+        {
+            restoreObjectsMarkedDirty();
+        }
+
+        if (tracker != null)
+        {
+            tracker.record(storedAttributes, storedBytes);
+        }
+    }
+
+    private void restoreObjectsMarkedDirty()
+    {
         for (Map.Entry<String, Object> entry : sessionAttributeCache.entrySet())
         {
             String attributeName = entry.getKey();
@@ -100,6 +197,53 @@ public class ClusteredSessionImpl extends SessionImpl
             if (analyzer.checkAndResetDirtyState(attributeValue))
             {
                 super.setAttribute(attributeName, attributeValue);
+
+                storedAttributes++;
+            }
+        }
+    }
+
+    private void restoreChangedObjects()
+    {
+        for (Map.Entry<String, Object> entry : sessionAttributeCache.entrySet())
+        {
+            String attributeName = entry.getKey();
+
+            Object attributeValue = entry.getValue();
+
+            if (attributeValue == null)
+            {
+                continue;
+            }
+
+            SessionFingerprint original = fingerprints == null ? null : fingerprints.get(attributeName);
+
+            SessionFingerprint current = original == null ? null : SessionFingerprint.of(attributeValue);
+
+            if (current == null)
+            {
+                // Can't be fingerprinted, so rely on the analyzer.
+
+                if (analyzer.checkAndResetDirtyState(attributeValue))
+                {
+                    super.setAttribute(attributeName, attributeValue);
+
+                    storedAttributes++;
+                }
+
+                continue;
+            }
+
+            // Keep the analyzer's view of the object consistent, even though it is not used to decide.
+
+            analyzer.checkAndResetDirtyState(attributeValue);
+
+            if (!current.equals(original))
+            {
+                super.setAttribute(attributeName, attributeValue);
+
+                storedAttributes++;
+                storedBytes += current.length;
             }
         }
     }
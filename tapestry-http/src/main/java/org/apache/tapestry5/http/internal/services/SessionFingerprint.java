@@ -0,0 +1,122 @@
+// Copyright 2021 The Apache Software Foundation
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.apache.tapestry5.http.internal.services;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+
+/**
+ * A fingerprint of the serialized form of a session attribute: its length, and a 64 bit hash of its content. The
+ * value is serialized to a stream that just computes the hash, so no copy of the serialized form is kept.
+ *
+ * @see org.apache.tapestry5.http.TapestryHttpSymbolConstants#CLUSTERED_SESSION_FINGERPRINTS
+ * @since 5.7.0
+ */
+public final class SessionFingerprint
+{
+    /**
+     * Computes a 64 bit FNV-1a hash of the bytes written.
+     */
+    private static final class HashOutputStream extends OutputStream
+    {
+        private long hash = 0xcbf29ce484222325L;
+
+        private long length;
+
+        @Override
+        public void write(int b)
+        {
+            hash = (hash ^ (b & 0xff)) * 0x100000001b3L;
+            length++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len)
+        {
+            long h = hash;
+
+            for (int i = off; i < off + len; i++)
+            {
+                h = (h ^ (b[i] & 0xff)) * 0x100000001b3L;
+            }
+
+            hash = h;
+            length += len;
+        }
+    }
+
+    private final long hash;
+
+    /**
+     * The length, in bytes, of the serialized value.
+     */
+    public final long length;
+
+    private SessionFingerprint(long hash, long length)
+    {
+        this.hash = hash;
+        this.length = length;
+    }
+
+    /**
+     * Computes the fingerprint of the value.
+     *
+     * @return the fingerprint, or null if the value can not be serialized
+     */
+    public static SessionFingerprint of(Object value)
+    {
+        if (!(value instanceof Serializable))
+        {
+            return null;
+        }
+
+        HashOutputStream hashStream = new HashOutputStream();
+
+        try
+        {
+            ObjectOutputStream stream = new ObjectOutputStream(hashStream);
+
+            stream.writeObject(value);
+            stream.close();
+        } catch (IOException | RuntimeException ex)
+        {
+            // Typically, a NotSerializableException for some object referenced by the value; a custom writeObject()
+            // may also fail with a runtime exception (such as a ConcurrentModificationException when a collection is
+            // changed by another thread). Either way, the value is treated as one that can't be fingerprinted.
+            return null;
+        }
+
+        return new SessionFingerprint(hashStream.hash, hashStream.length);
+    }
+
+    @Override
+    public boolean equals(Object obj)
+    {
+        if (this == obj) return true;
+        if (!(obj instanceof SessionFingerprint)) return false;
+
+        SessionFingerprint other = (SessionFingerprint) obj;
+
+        return hash == other.hash && length == other.length;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return (int) (hash ^ (hash >>> 32));
+    }
+}
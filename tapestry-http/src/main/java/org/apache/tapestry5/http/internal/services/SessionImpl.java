@@ -47,7 +47,7 @@ public class SessionImpl implements Session
 
     public Object getAttribute(String name)
     {
-        lock.acquireWriteLock();
+        lock.acquireAttributeLock(name);
 
         return session.getAttribute(name);
     }
@@ -61,7 +61,7 @@ public class SessionImpl implements Session
 
     public void setAttribute(String name, Object value)
     {
-        lock.acquireWriteLock();
+        lock.acquireAttributeLock(name);
 
         session.setAttribute(name, value);
     }
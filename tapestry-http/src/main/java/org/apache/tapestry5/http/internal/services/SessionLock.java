@@ -33,4 +33,15 @@ public interface SessionLock
      * this may block for a while. Does nothing if the write lock is already held by this thread.
      */
     void acquireWriteLock();
+
+    /**
+     * Acquires the lock needed to get or set the named attribute. Unless the locks are
+     * {@linkplain org.apache.tapestry5.http.TapestryHttpSymbolConstants#SESSION_LOCK_STRIPES striped}, this is the
+     * exclusive write lock.
+     *
+     * @param name
+     *         name of the session attribute
+     * @since 5.7.0
+     */
+    void acquireAttributeLock(String name);
 }
@@ -0,0 +1,65 @@
+// Copyright 2021 The Apache Software Foundation
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.apache.tapestry5.http.internal.services;
+
+/**
+ * A snapshot of the statistics gathered by the {@link TapestrySessionFactory} about the session locks. Only
+ * acquisitions that had to wait for another thread are counted. The counters are cumulative since the application
+ * started.
+ *
+ * @see TapestrySessionFactory#getLockStatistics()
+ * @since 5.7.0
+ */
+public final class SessionLockStatistics
+{
+    /**
+     * Number of times a thread had to wait for a session lock.
+     */
+    public final long waits;
+
+    /**
+     * Total time, in milliseconds, spent waiting for session locks.
+     */
+    public final double totalWaitTime;
+
+    /**
+     * The longest time, in milliseconds, spent waiting for a single session lock.
+     */
+    public final double maxWaitTime;
+
+    /**
+     * Number of times a thread released the locks of session attribute stripes it held, so as to acquire another
+     * lock in order.
+     *
+     * @see org.apache.tapestry5.http.TapestryHttpSymbolConstants#SESSION_LOCK_STRIPES
+     */
+    public final long reorderings;
+
+    public SessionLockStatistics(long waits, double totalWaitTime, double maxWaitTime, long reorderings)
+    {
+        this.waits = waits;
+        this.totalWaitTime = totalWaitTime;
+        this.maxWaitTime = maxWaitTime;
+        this.reorderings = reorderings;
+    }
+
+    /**
+     * Returns the average time, in milliseconds, of a wait for a session lock, or 0 if no thread has waited.
+     */
+    public double getAverageWaitTime()
+    {
+        return waits == 0 ? 0 : totalWaitTime / waits;
+    }
+}
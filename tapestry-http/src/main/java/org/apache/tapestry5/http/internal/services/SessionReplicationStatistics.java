@@ -0,0 +1,57 @@
+// Copyright 2021 The Apache Software Foundation
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+package org.apache.tapestry5.http.internal.services;
+
+/**
+ * A snapshot of the statistics gathered about the session attributes re-stored at the end of each request, when
+ * {@linkplain org.apache.tapestry5.http.TapestryHttpSymbolConstants#CLUSTERED_SESSIONS clustering}. The counters are
+ * cumulative since the application started. Bytes are only counted for attributes checked using
+ * {@linkplain org.apache.tapestry5.http.TapestryHttpSymbolConstants#CLUSTERED_SESSION_FINGERPRINTS fingerprints}.
+ *
+ * @see TapestrySessionFactory#getReplicationStatistics()
+ * @since 5.7.0
+ */
+public final class SessionReplicationStatistics
+{
+    /**
+     * Number of requests that used the session.
+     */
+    public final long requests;
+
+    /**
+     * Number of attributes stored into the session, either explicitly or because they were found to be dirty at the
+     * end of the request.
+     */
+    public final long storedAttributes;
+
+    /**
+     * Total size, in bytes, of the serialized form of the stored attributes.
+     */
+    public final long storedBytes;
+
+    public SessionReplicationStatistics(long requests, long storedAttributes, long storedBytes)
+    {
+        this.requests = requests;
+        this.storedAttributes = storedAttributes;
+        this.storedBytes = storedBytes;
+    }
+
+    /**
+     * Returns the average number of bytes stored into the session per request, or 0 if there have been no requests.
+     */
+    public double getAverageBytesPerRequest()
+    {
+        return requests == 0 ? 0 : (double) storedBytes / requests;
+    }
+}
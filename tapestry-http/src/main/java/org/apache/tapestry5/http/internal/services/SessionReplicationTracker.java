@@ -0,0 +1,45 @@
+// Copyright 2021 The Apache Software Foundation
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+package org.apache.tapestry5.http.internal.services;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Accumulates, across all requests, the statistics reported by each {@link ClusteredSessionImpl}.
+ *
+ * @since 5.7.0
+ */
+public class SessionReplicationTracker
+{
+    private final LongAdder requests = new LongAdder();
+
+    private final LongAdder storedAttributes = new LongAdder();
+
+    private final LongAdder storedBytes = new LongAdder();
+
+    /**
+     * Records the attributes stored by a single request.
+     */
+    public void record(int attributes, long bytes)
+    {
+        requests.increment();
+        storedAttributes.add(attributes);
+        storedBytes.add(bytes);
+    }
+
+    public SessionReplicationStatistics getStatistics()
+    {
+        return new SessionReplicationStatistics(requests.sum(), storedAttributes.sum(), storedBytes.sum());
+    }
+}
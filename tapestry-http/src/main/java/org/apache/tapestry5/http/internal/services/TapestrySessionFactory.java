@@ -26,4 +26,19 @@ import org.apache.tapestry5.http.services.Session;
 public interface TapestrySessionFactory
 {
     Session getSession(boolean create);
+
+    /**
+     * Returns the statistics gathered about waits for session locks.
+     *
+     * @since 5.7.0
+     */
+    SessionLockStatistics getLockStatistics();
+
+    /**
+     * Returns the statistics gathered about session attributes re-stored at the end of each request, when
+     * {@linkplain org.apache.tapestry5.http.TapestryHttpSymbolConstants#CLUSTERED_SESSIONS clustering}.
+     *
+     * @since 5.7.0
+     */
+    SessionReplicationStatistics getReplicationStatistics();
 }
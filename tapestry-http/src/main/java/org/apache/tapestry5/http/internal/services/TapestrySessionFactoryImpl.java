@@ -1,4 +1,4 @@
-//  Copyright 2011, 2013 The Apache Software Foundation
+//  Copyright 2011, 2013, 2021 The Apache Software Foundation
 //
 //  Licensed under the Apache License, Version 2.0 (the "License");
 //  you may not use this file except in compliance with the License.
@@ -14,8 +14,13 @@
 
 package org.apache.tapestry5.http.internal.services;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
@@ -41,6 +46,20 @@ public class TapestrySessionFactoryImpl implements TapestrySessionFactory
 
     private final boolean sessionLockingEnabled;
 
+    private final int lockStripes;
+
+    private final boolean fingerprinting;
+
+    private final SessionReplicationTracker replicationTracker = new SessionReplicationTracker();
+
+    private final LongAdder waits = new LongAdder();
+
+    private final LongAdder totalWaitNanos = new LongAdder();
+
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    private final LongAdder reorderings = new LongAdder();
+
     private final Lock mapLock = new ReentrantLock();
 
     private final Map<HttpSession, SessionLock> sessionToLock = new WeakHashMap<HttpSession, SessionLock>();
@@ -54,8 +73,53 @@ public class TapestrySessionFactoryImpl implements TapestrySessionFactory
         public void acquireWriteLock()
         {
         }
+
+        public void acquireAttributeLock(String name)
+        {
+        }
     };
 
+    /**
+     * Acquires the lock, keeping track of the time spent waiting when it is not immediately available.
+     */
+    private void lock(Lock lock)
+    {
+        if (lock.tryLock())
+        {
+            return;
+        }
+
+        long start = System.nanoTime();
+
+        lock.lock();
+
+        recordWait(System.nanoTime() - start);
+    }
+
+    private void recordWait(long nanos)
+    {
+        waits.increment();
+        totalWaitNanos.add(nanos);
+
+        long max = maxWaitNanos.get();
+
+        while (nanos > max && !maxWaitNanos.compareAndSet(max, nanos))
+        {
+            max = maxWaitNanos.get();
+        }
+    }
+
+    private void unlockAtEndOfRequest(final Lock lock)
+    {
+        perthreadManager.addThreadCleanupCallback(new Runnable()
+        {
+            public void run()
+            {
+                lock.unlock();
+            }
+        });
+    }
+
     private class SessionLockImpl implements SessionLock
     {
 
@@ -78,7 +142,7 @@ public class TapestrySessionFactoryImpl implements TapestrySessionFactory
                 return;
             }
 
-            lock.readLock().lock();
+            lock(lock.readLock());
 
             perthreadManager.addThreadCleanupCallback(new Runnable()
             {
@@ -107,7 +171,7 @@ public class TapestrySessionFactoryImpl implements TapestrySessionFactory
 
             // During this window, no lock is held, and the next call may block.
 
-            lock.writeLock().lock();
+            lock(lock.writeLock());
 
             perthreadManager.addThreadCleanupCallback(new Runnable()
             {
@@ -118,6 +182,162 @@ public class TapestrySessionFactoryImpl implements TapestrySessionFactory
                 }
             });
         }
+
+        public void acquireAttributeLock(String name)
+        {
+            acquireWriteLock();
+        }
+    }
+
+    /**
+     * Divides the session's attributes between a number of stripes, each with its own exclusive lock. Attribute
+     * locks are held along with the shared session lock, so that the whole session may still be locked exclusively.
+     * To avoid deadlocks, locks are always acquired in the same order: the session lock, then the stripes in index
+     * order. As threads may use attributes in any order, a thread that needs a lock that comes before a stripe it
+     * already holds first releases the stripes that come after, then acquires all of them in order.
+     */
+    private class StripedSessionLock implements SessionLock
+    {
+        private final ReentrantReadWriteLock sessionLock = new ReentrantReadWriteLock();
+
+        private final ReentrantLock[] stripes = new ReentrantLock[lockStripes];
+
+        StripedSessionLock()
+        {
+            for (int i = 0; i < stripes.length; i++)
+            {
+                stripes[i] = new ReentrantLock();
+            }
+        }
+
+        private boolean isReadLocked()
+        {
+            return sessionLock.getReadHoldCount() != 0;
+        }
+
+        private boolean isWriteLocked()
+        {
+            return sessionLock.isWriteLockedByCurrentThread();
+        }
+
+        /**
+         * Unlocks the stripes, after the index, that are held by the current thread.
+         *
+         * @return the unlocked stripes, in index order
+         */
+        private List<ReentrantLock> unlockStripesAfter(int index)
+        {
+            List<ReentrantLock> result = null;
+
+            for (int i = index + 1; i < stripes.length; i++)
+            {
+                ReentrantLock stripe = stripes[i];
+
+                if (stripe.isHeldByCurrentThread())
+                {
+                    if (result == null)
+                    {
+                        result = new ArrayList<ReentrantLock>();
+                    }
+
+                    stripe.unlock();
+
+                    result.add(stripe);
+                }
+            }
+
+            if (result == null)
+            {
+                return Collections.emptyList();
+            }
+
+            reorderings.increment();
+
+            return result;
+        }
+
+        /**
+         * Locks the stripes again; the unlock callbacks registered when they were first locked still apply.
+         */
+        private void relock(List<ReentrantLock> unlocked)
+        {
+            for (ReentrantLock stripe : unlocked)
+            {
+                lock(stripe);
+            }
+        }
+
+        public void acquireReadLock()
+        {
+            if (isReadLocked() || isWriteLocked())
+            {
+                return;
+            }
+
+            lock(sessionLock.readLock());
+
+            perthreadManager.addThreadCleanupCallback(new Runnable()
+            {
+                public void run()
+                {
+                    // The read lock may have been released, if upgraded to a write lock.
+                    if (isReadLocked())
+                    {
+                        sessionLock.readLock().unlock();
+                    }
+                }
+            });
+        }
+
+        public void acquireWriteLock()
+        {
+            if (isWriteLocked())
+            {
+                return;
+            }
+
+            if (isReadLocked())
+            {
+                sessionLock.readLock().unlock();
+            }
+
+            // Other threads holding the shared lock may be waiting for a stripe held by this thread.
+
+            List<ReentrantLock> unlocked = unlockStripesAfter(-1);
+
+            lock(sessionLock.writeLock());
+
+            unlockAtEndOfRequest(sessionLock.writeLock());
+
+            relock(unlocked);
+        }
+
+        public void acquireAttributeLock(String name)
+        {
+            acquireReadLock();
+
+            if (isWriteLocked())
+            {
+                return;
+            }
+
+            int index = (name.hashCode() & Integer.MAX_VALUE) % stripes.length;
+
+            ReentrantLock stripe = stripes[index];
+
+            if (stripe.isHeldByCurrentThread())
+            {
+                return;
+            }
+
+            List<ReentrantLock> unlocked = unlockStripesAfter(index);
+
+            lock(stripe);
+
+            unlockAtEndOfRequest(stripe);
+
+            relock(unlocked);
+        }
     }
 
     public TapestrySessionFactoryImpl(
@@ -127,13 +347,19 @@ public class TapestrySessionFactoryImpl implements TapestrySessionFactory
             HttpServletRequest request,
             PerthreadManager perthreadManager,
             @Symbol(TapestryHttpSymbolConstants.SESSION_LOCKING_ENABLED)
-            boolean sessionLockingEnabled)
+            boolean sessionLockingEnabled,
+            @Symbol(TapestryHttpSymbolConstants.SESSION_LOCK_STRIPES)
+            int lockStripes,
+            @Symbol(TapestryHttpSymbolConstants.CLUSTERED_SESSION_FINGERPRINTS)
+            boolean fingerprinting)
     {
         this.clustered = clustered;
         this.analyzer = analyzer;
         this.request = request;
         this.perthreadManager = perthreadManager;
         this.sessionLockingEnabled = sessionLockingEnabled;
+        this.lockStripes = lockStripes;
+        this.fingerprinting = fingerprinting;
     }
 
     public Session getSession(boolean create)
@@ -149,7 +375,7 @@ public class TapestrySessionFactoryImpl implements TapestrySessionFactory
 
         if (clustered)
         {
-            return new ClusteredSessionImpl(request, httpSession, lock, analyzer);
+            return new ClusteredSessionImpl(request, httpSession, lock, analyzer, fingerprinting, replicationTracker);
         }
 
         return new SessionImpl(request, httpSession, lock);
@@ -172,7 +398,7 @@ public class TapestrySessionFactoryImpl implements TapestrySessionFactory
 
             if (result == null)
             {
-                result = new SessionLockImpl();
+                result = lockStripes > 0 ? new StripedSessionLock() : new SessionLockImpl();
                 sessionToLock.put(session, result);
             }
 
@@ -182,4 +408,15 @@ public class TapestrySessionFactoryImpl implements TapestrySessionFactory
             mapLock.unlock();
         }
     }
+
+    public SessionLockStatistics getLockStatistics()
+    {
+        return new SessionLockStatistics(waits.sum(), totalWaitNanos.sum() / 1000000d,
+                maxWaitNanos.get() / 1000000d, reorderings.sum());
+    }
+
+    public SessionReplicationStatistics getReplicationStatistics()
+    {
+        return replicationTracker.getStatistics();
+    }
 }
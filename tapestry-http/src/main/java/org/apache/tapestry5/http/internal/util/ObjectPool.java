@@ -0,0 +1,103 @@
+// Copyright 2021 The Apache Software Foundation
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package org.apache.tapestry5.http.internal.util;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A thread safe pool of objects that are relatively expensive to create, but can be reset and reused. The pool grows
+ * to the largest number of objects in use concurrently, up to a maximum number of idle objects; objects released
+ * beyond that are discarded.
+ *
+ * @param <T>
+ *         type of pooled object
+ * @since 5.7.0
+ */
+public abstract class ObjectPool<T>
+{
+    private final int maxIdle;
+
+    private final Queue<T> idle = new ConcurrentLinkedQueue<T>();
+
+    private final AtomicInteger idleCount = new AtomicInteger();
+
+    /**
+     * @param maxIdle
+     *         maximum number of objects kept for reuse
+     */
+    protected ObjectPool(int maxIdle)
+    {
+        this.maxIdle = maxIdle;
+    }
+
+    /**
+     * Creates a new object, when there are no idle objects.
+     */
+    protected abstract T create();
+
+    /**
+     * Resets an object that has been released, so that it may be reused. Does nothing by default.
+     */
+    protected void reset(T object)
+    {
+    }
+
+    /**
+     * Invoked when a released object is not kept, to free any resources it holds. Does nothing by default.
+     */
+    protected void discard(T object)
+    {
+    }
+
+    /**
+     * Returns an idle object, or a new one if none are idle. The object should be
+     * {@linkplain #release(Object) released} once it is no longer needed.
+     */
+    public T acquire()
+    {
+        T result = idle.poll();
+
+        if (result == null)
+        {
+            return create();
+        }
+
+        idleCount.decrementAndGet();
+
+        return result;
+    }
+
+    /**
+     * Returns the object to the pool. The object must not be used by the caller afterwards.
+     */
+    public void release(T object)
+    {
+        if (idleCount.incrementAndGet() > maxIdle)
+        {
+            idleCount.decrementAndGet();
+
+            discard(object);
+
+            return;
+        }
+
+        reset(object);
+
+        idle.offer(object);
+    }
+}
@@ -15,6 +15,7 @@ package org.apache.tapestry5.http.modules;
 import java.io.IOException;
 import java.util.List;
 import java.util.Map;
+import java.util.zip.Deflater;
 
 import javax.servlet.ServletContext;
 import javax.servlet.http.HttpServletRequest;
@@ -99,11 +100,14 @@ public final class TapestryHttpModule {
     public static void contributeFactoryDefaults(MappedConfiguration<String, Object> configuration)
     {
         configuration.add(TapestryHttpSymbolConstants.SESSION_LOCKING_ENABLED, true);
+        configuration.add(TapestryHttpSymbolConstants.SESSION_LOCK_STRIPES, 0);
+        configuration.add(TapestryHttpSymbolConstants.CLUSTERED_SESSION_FINGERPRINTS, false);
         configuration.add(TapestryHttpSymbolConstants.CLUSTERED_SESSIONS, true);
         configuration.add(TapestryHttpSymbolConstants.CHARSET, "UTF-8");
         configuration.add(TapestryHttpSymbolConstants.APPLICATION_VERSION, "0.0.1");
         configuration.add(TapestryHttpSymbolConstants.GZIP_COMPRESSION_ENABLED, true);
         configuration.add(TapestryHttpSymbolConstants.MIN_GZIP_SIZE, 100);
+        configuration.add(TapestryHttpSymbolConstants.GZIP_COMPRESSION_LEVEL, Deflater.DEFAULT_COMPRESSION);
         
         // The default values denote "use values from request"
         configuration.add(TapestryHttpSymbolConstants.HOSTNAME, "");
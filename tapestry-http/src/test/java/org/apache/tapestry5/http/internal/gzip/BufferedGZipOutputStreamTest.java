@@ -0,0 +1,243 @@
+// Copyright 2021 The Apache Software Foundation
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.apache.tapestry5.http.internal.gzip;
+
+import org.apache.tapestry5.http.internal.TapestryHttpInternalConstants;
+import org.apache.tapestry5.http.services.CompressionAnalyzer;
+import org.apache.tapestry5.test.ioc.TestBase;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import static org.apache.tapestry5.http.internal.gzip.GZipCompressorTest.BUFFER_SIZE;
+import static org.apache.tapestry5.http.internal.gzip.GZipCompressorTest.content;
+import static org.apache.tapestry5.http.internal.gzip.GZipCompressorTest.gunzip;
+
+public class BufferedGZipOutputStreamTest extends TestBase
+{
+    private static final String CONTENT_TYPE = "text/html";
+
+    private static final int CUTOVER = 100;
+
+    private final GZipCompressorPool pool = new GZipCompressorPool(Deflater.DEFAULT_COMPRESSION, BUFFER_SIZE, 2);
+
+    private static class CapturingOutputStream extends ServletOutputStream
+    {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        boolean closed;
+
+        @Override
+        public void write(int b)
+        {
+            bytes.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len)
+        {
+            bytes.write(b, off, len);
+        }
+
+        @Override
+        public void close()
+        {
+            closed = true;
+        }
+    }
+
+    private CapturingOutputStream out;
+
+    private BufferedGZipOutputStream newStream(boolean compressed) throws IOException
+    {
+        HttpServletResponse response = newMock(HttpServletResponse.class);
+        CompressionAnalyzer analyzer = newMock(CompressionAnalyzer.class);
+
+        out = new CapturingOutputStream();
+
+        expect(response.getOutputStream()).andReturn(out);
+
+        if (compressed)
+        {
+            expect(analyzer.isCompressable(CONTENT_TYPE)).andReturn(true);
+
+            response.setHeader(TapestryHttpInternalConstants.CONTENT_ENCODING_HEADER,
+                    TapestryHttpInternalConstants.GZIP_CONTENT_ENCODING);
+        }
+
+        replay();
+
+        return new BufferedGZipOutputStream(CONTENT_TYPE, response, CUTOVER, analyzer, pool);
+    }
+
+    private void write(BufferedGZipOutputStream stream, byte[] content, int chunkSize) throws IOException
+    {
+        for (int offset = 0; offset < content.length; offset += chunkSize)
+        {
+            int length = Math.min(chunkSize, content.length - offset);
+
+            if (length == 1)
+            {
+                stream.write(content[offset]);
+            } else
+            {
+                stream.write(content, offset, length);
+            }
+        }
+    }
+
+    @DataProvider
+    public Object[][] sizes()
+    {
+        return new Object[][]{
+                {CUTOVER - 1, false, 1},
+                {CUTOVER - 1, false, CUTOVER - 1},
+                {CUTOVER, true, 1},
+                {CUTOVER, true, CUTOVER},
+                {CUTOVER + 1, true, 1},
+                {CUTOVER + 1, true, CUTOVER + 1},
+                {BUFFER_SIZE, true, 7},
+                {BUFFER_SIZE + 1, true, BUFFER_SIZE + 1},
+                {10 * BUFFER_SIZE + 3, true, 333},
+        };
+    }
+
+    @Test(dataProvider = "sizes")
+    public void content_is_compressed_from_the_cutover(int size, boolean compressed, int chunkSize) throws IOException
+    {
+        BufferedGZipOutputStream stream = newStream(compressed);
+
+        byte[] content = content(size);
+
+        write(stream, content, chunkSize);
+
+        stream.close();
+
+        verify();
+
+        assertTrue(out.closed);
+
+        byte[] written = out.bytes.toByteArray();
+
+        assertEquals(compressed ? gunzip(written) : written, content);
+    }
+
+    @Test
+    public void content_is_not_compressed_after_flush_before_the_cutover() throws IOException
+    {
+        BufferedGZipOutputStream stream = newStream(false);
+
+        byte[] content = content(3 * BUFFER_SIZE);
+
+        stream.write(content, 0, 10);
+        stream.flush();
+
+        assertEquals(out.bytes.toByteArray(), Arrays.copyOf(content, 10));
+
+        write(stream, Arrays.copyOfRange(content, 10, content.length), 50);
+
+        stream.close();
+
+        verify();
+
+        assertEquals(out.bytes.toByteArray(), content);
+    }
+
+    @Test
+    public void flush_after_the_cutover_sends_content_so_far() throws IOException, DataFormatException
+    {
+        BufferedGZipOutputStream stream = newStream(true);
+
+        byte[] content = content(3 * BUFFER_SIZE);
+
+        stream.write(content, 0, CUTOVER + 50);
+        stream.flush();
+
+        byte[] flushed = out.bytes.toByteArray();
+
+        Inflater inflater = new Inflater(true);
+        inflater.setInput(flushed, 10, flushed.length - 10);
+
+        byte[] inflated = new byte[CUTOVER + 50];
+
+        assertEquals(inflater.inflate(inflated), inflated.length);
+        assertEquals(inflated, Arrays.copyOf(content, inflated.length));
+
+        inflater.end();
+
+        // Repeated flushes, and writes between them, are fine.
+
+        stream.flush();
+        stream.write(content, CUTOVER + 50, BUFFER_SIZE);
+        stream.flush();
+        write(stream, Arrays.copyOfRange(content, CUTOVER + 50 + BUFFER_SIZE, content.length), 1);
+
+        stream.close();
+
+        verify();
+
+        assertEquals(gunzip(out.bytes.toByteArray()), content);
+    }
+
+    @Test
+    public void large_writes_bypass_the_buffer() throws IOException
+    {
+        BufferedGZipOutputStream stream = newStream(true);
+
+        byte[] content = content(12 * BUFFER_SIZE);
+
+        stream.write(content, 0, 20);
+        stream.write(content, 20, 5 * BUFFER_SIZE);
+        stream.write(content, 20 + 5 * BUFFER_SIZE, BUFFER_SIZE);
+        stream.write(content, 20 + 6 * BUFFER_SIZE, content.length - 20 - 6 * BUFFER_SIZE);
+
+        stream.close();
+
+        verify();
+
+        assertEquals(gunzip(out.bytes.toByteArray()), content);
+    }
+
+    @Test
+    public void write_after_close_fails() throws IOException
+    {
+        BufferedGZipOutputStream stream = newStream(false);
+
+        stream.close();
+
+        // A second close is ignored.
+
+        stream.close();
+
+        try
+        {
+            stream.write(1);
+            unreachable();
+        } catch (IOException ex)
+        {
+            assertEquals(ex.getMessage(), "Stream is closed.");
+        }
+
+        verify();
+    }
+}
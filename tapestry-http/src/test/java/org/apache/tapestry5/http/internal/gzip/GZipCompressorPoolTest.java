@@ -0,0 +1,84 @@
+// Copyright 2021 The Apache Software Foundation
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.apache.tapestry5.http.internal.gzip;
+
+import org.apache.tapestry5.test.ioc.TestBase;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.Deflater;
+
+import static org.apache.tapestry5.http.internal.gzip.GZipCompressorTest.BUFFER_SIZE;
+import static org.apache.tapestry5.http.internal.gzip.GZipCompressorTest.content;
+import static org.apache.tapestry5.http.internal.gzip.GZipCompressorTest.gunzip;
+
+public class GZipCompressorPoolTest extends TestBase
+{
+    private static byte[] compress(GZipCompressor compressor, byte[] content) throws IOException
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        compressor.start(out);
+        compressor.compress(content, 0, content.length, out);
+        compressor.finish(out);
+
+        return out.toByteArray();
+    }
+
+    @Test
+    public void released_compressor_is_reset_for_the_next_response() throws IOException
+    {
+        GZipCompressorPool pool = new GZipCompressorPool(Deflater.DEFAULT_COMPRESSION, BUFFER_SIZE, 1);
+
+        GZipCompressor compressor = pool.acquire();
+
+        // Released part way through a response.
+
+        compressor.compress(content(2000), 0, 2000, new ByteArrayOutputStream());
+
+        pool.release(compressor);
+
+        assertSame(pool.acquire(), compressor);
+
+        byte[] content = content(3000);
+
+        assertEquals(gunzip(compress(compressor, content)), content);
+    }
+
+    @Test
+    public void compressors_beyond_the_limit_are_ended() throws IOException
+    {
+        GZipCompressorPool pool = new GZipCompressorPool(Deflater.DEFAULT_COMPRESSION, BUFFER_SIZE, 1);
+
+        GZipCompressor kept = pool.acquire();
+        GZipCompressor discarded = pool.acquire();
+
+        pool.release(kept);
+        pool.release(discarded);
+
+        try
+        {
+            compress(discarded, content(100));
+            unreachable();
+        } catch (NullPointerException ex)
+        {
+            // The Deflater has been ended.
+        }
+
+        assertSame(pool.acquire(), kept);
+        assertNotSame(pool.acquire(), discarded);
+    }
+}
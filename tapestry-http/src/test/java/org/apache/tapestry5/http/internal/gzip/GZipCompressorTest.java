@@ -0,0 +1,186 @@
+// Copyright 2021 The Apache Software Foundation
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.apache.tapestry5.http.internal.gzip;
+
+import org.apache.tapestry5.test.ioc.TestBase;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+
+public class GZipCompressorTest extends TestBase
+{
+    static final int BUFFER_SIZE = 1024;
+
+    /**
+     * Content that is partly repetitive text, and partly random (so that its compressed form is larger than the
+     * compressor's buffers).
+     */
+    static byte[] content(int length)
+    {
+        byte[] result = new byte[length];
+
+        Random random = new Random(length);
+
+        for (int i = 0; i < length; i++)
+        {
+            result[i] = (i / 512) % 2 == 0 ? (byte) ('a' + i % 26) : (byte) random.nextInt();
+        }
+
+        return result;
+    }
+
+    static byte[] gunzip(byte[] compressed) throws IOException
+    {
+        GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed));
+
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+
+        byte[] buffer = new byte[500];
+
+        int count;
+
+        while ((count = in.read(buffer)) > 0)
+        {
+            result.write(buffer, 0, count);
+        }
+
+        in.close();
+
+        return result.toByteArray();
+    }
+
+    private static int readInt(byte[] bytes, int offset)
+    {
+        return (bytes[offset] & 0xff)
+                | (bytes[offset + 1] & 0xff) << 8
+                | (bytes[offset + 2] & 0xff) << 16
+                | (bytes[offset + 3] & 0xff) << 24;
+    }
+
+    private static byte[] compress(GZipCompressor compressor, byte[] content, int chunkSize) throws IOException
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        compressor.start(out);
+
+        for (int offset = 0; offset < content.length; offset += chunkSize)
+        {
+            compressor.compress(content, offset, Math.min(chunkSize, content.length - offset), out);
+        }
+
+        compressor.finish(out);
+
+        return out.toByteArray();
+    }
+
+    @Test
+    public void header_and_trailer() throws IOException
+    {
+        byte[] content = content(5000);
+
+        byte[] compressed = compress(new GZipCompressor(Deflater.DEFAULT_COMPRESSION, BUFFER_SIZE), content, 700);
+
+        assertEquals(Arrays.copyOf(compressed, 3), new byte[]{0x1f, (byte) 0x8b, Deflater.DEFLATED});
+
+        CRC32 crc = new CRC32();
+        crc.update(content);
+
+        assertEquals(readInt(compressed, compressed.length - 8), (int) crc.getValue());
+        assertEquals(readInt(compressed, compressed.length - 4), content.length);
+
+        assertEquals(gunzip(compressed), content);
+    }
+
+    @Test
+    public void empty_content() throws IOException
+    {
+        byte[] compressed = compress(new GZipCompressor(Deflater.DEFAULT_COMPRESSION, BUFFER_SIZE), new byte[0], 1);
+
+        assertEquals(readInt(compressed, compressed.length - 8), 0);
+        assertEquals(readInt(compressed, compressed.length - 4), 0);
+
+        assertEquals(gunzip(compressed), new byte[0]);
+    }
+
+    @Test
+    public void content_larger_than_the_buffers() throws IOException
+    {
+        byte[] content = content(20 * BUFFER_SIZE + 17);
+
+        byte[] compressed = compress(new GZipCompressor(Deflater.BEST_SPEED, BUFFER_SIZE), content, content.length);
+
+        assertEquals(gunzip(compressed), content);
+    }
+
+    @Test
+    public void sync_flush_makes_content_so_far_readable() throws IOException, DataFormatException
+    {
+        GZipCompressor compressor = new GZipCompressor(Deflater.DEFAULT_COMPRESSION, BUFFER_SIZE);
+
+        byte[] content = content(3 * BUFFER_SIZE);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        compressor.start(out);
+        compressor.compress(content, 0, 2 * BUFFER_SIZE, out);
+        compressor.flush(out);
+
+        // Everything compressed so far can be inflated, without the rest of the stream.
+
+        byte[] flushed = out.toByteArray();
+
+        Inflater inflater = new Inflater(true);
+        inflater.setInput(flushed, 10, flushed.length - 10);
+
+        byte[] inflated = new byte[2 * BUFFER_SIZE];
+
+        assertEquals(inflater.inflate(inflated), inflated.length);
+        assertEquals(inflated, Arrays.copyOf(content, 2 * BUFFER_SIZE));
+
+        inflater.end();
+
+        compressor.compress(content, 2 * BUFFER_SIZE, BUFFER_SIZE, out);
+        compressor.flush(out);
+        compressor.finish(out);
+
+        assertEquals(gunzip(out.toByteArray()), content);
+    }
+
+    @Test
+    public void reset_compressor_is_reusable() throws IOException
+    {
+        GZipCompressor compressor = new GZipCompressor(Deflater.DEFAULT_COMPRESSION, BUFFER_SIZE);
+
+        byte[] first = content(4000);
+        byte[] second = content(300);
+
+        assertEquals(gunzip(compress(compressor, first, 100)), first);
+
+        compressor.reset();
+
+        assertEquals(gunzip(compress(compressor, second, 100)), second);
+
+        compressor.end();
+    }
+}
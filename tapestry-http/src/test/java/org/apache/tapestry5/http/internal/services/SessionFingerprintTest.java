@@ -0,0 +1,66 @@
+// Copyright 2021 The Apache Software Foundation
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.apache.tapestry5.http.internal.services;
+
+import org.apache.tapestry5.test.ioc.TestBase;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+public class SessionFingerprintTest extends TestBase
+{
+    private static class Holder implements Serializable
+    {
+        private static final long serialVersionUID = 1L;
+
+        Object value;
+
+        Holder(Object value)
+        {
+            this.value = value;
+        }
+    }
+
+    private static class Failing implements Serializable
+    {
+        private static final long serialVersionUID = 1L;
+
+        private void writeObject(ObjectOutputStream out) throws IOException
+        {
+            throw new IllegalStateException("Changed while being serialized.");
+        }
+    }
+
+    @Test
+    public void equal_values_have_equal_fingerprints()
+    {
+        SessionFingerprint first = SessionFingerprint.of(new ArrayList<String>(Arrays.asList("fred", "barney")));
+
+        assertEquals(SessionFingerprint.of(new ArrayList<String>(Arrays.asList("fred", "barney"))), first);
+        assertFalse(first.equals(SessionFingerprint.of(new ArrayList<String>(Arrays.asList("fred", "wilma")))));
+    }
+
+    @Test
+    public void values_that_can_not_be_serialized_have_no_fingerprint()
+    {
+        assertNull(SessionFingerprint.of(new Object()));
+        assertNull(SessionFingerprint.of(new Holder(new Object())));
+        assertNull(SessionFingerprint.of(new Holder(new Failing())));
+    }
+}
@@ -0,0 +1,151 @@
+// Copyright 2021 The Apache Software Foundation
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.apache.tapestry5.http.internal.util;
+
+import org.apache.tapestry5.test.ioc.TestBase;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class ObjectPoolTest extends TestBase
+{
+    private static class Pooled
+    {
+        boolean dirty;
+
+        boolean discarded;
+    }
+
+    private static class PooledPool extends ObjectPool<Pooled>
+    {
+        int created;
+
+        PooledPool(int maxIdle)
+        {
+            super(maxIdle);
+        }
+
+        @Override
+        protected Pooled create()
+        {
+            created++;
+
+            return new Pooled();
+        }
+
+        @Override
+        protected void reset(Pooled object)
+        {
+            object.dirty = false;
+        }
+
+        @Override
+        protected void discard(Pooled object)
+        {
+            object.discarded = true;
+        }
+    }
+
+    @Test
+    public void released_objects_are_reset_and_reused()
+    {
+        PooledPool pool = new PooledPool(2);
+
+        Pooled first = pool.acquire();
+
+        first.dirty = true;
+
+        pool.release(first);
+
+        assertFalse(first.dirty);
+
+        assertSame(pool.acquire(), first);
+        assertEquals(pool.created, 1);
+    }
+
+    @Test
+    public void objects_are_created_when_none_are_idle()
+    {
+        PooledPool pool = new PooledPool(2);
+
+        Set<Pooled> acquired = new HashSet<Pooled>();
+
+        for (int i = 0; i < 5; i++)
+        {
+            acquired.add(pool.acquire());
+        }
+
+        assertEquals(acquired.size(), 5);
+        assertEquals(pool.created, 5);
+    }
+
+    @Test
+    public void objects_beyond_the_limit_are_discarded()
+    {
+        PooledPool pool = new PooledPool(2);
+
+        List<Pooled> acquired = new ArrayList<Pooled>();
+
+        for (int i = 0; i < 5; i++)
+        {
+            acquired.add(pool.acquire());
+        }
+
+        for (Pooled object : acquired)
+        {
+            object.dirty = true;
+
+            pool.release(object);
+        }
+
+        assertFalse(acquired.get(0).discarded);
+        assertFalse(acquired.get(0).dirty);
+        assertFalse(acquired.get(1).discarded);
+
+        for (Pooled object : acquired.subList(2, 5))
+        {
+            assertTrue(object.discarded);
+        }
+
+        // Only the idle objects are reused; the pool then creates new ones.
+
+        Set<Pooled> reacquired = new HashSet<Pooled>();
+
+        for (int i = 0; i < 3; i++)
+        {
+            reacquired.add(pool.acquire());
+        }
+
+        assertTrue(reacquired.contains(acquired.get(0)));
+        assertTrue(reacquired.contains(acquired.get(1)));
+        assertEquals(pool.created, 6);
+    }
+
+    @Test
+    public void pool_with_no_idle_objects_discards_all()
+    {
+        PooledPool pool = new PooledPool(0);
+
+        Pooled object = pool.acquire();
+
+        pool.release(object);
+
+        assertTrue(object.discarded);
+        assertNotSame(pool.acquire(), object);
+    }
+}
@@ -12,9 +12,15 @@
 
 package org.apache.tapestry5.ioc.internal.services;
 
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
-import java.util.Map;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.tapestry5.commons.ObjectCreator;
@@ -31,20 +37,107 @@ public class PerthreadManagerImpl implements PerthreadManager
 {
     private final PerThreadValue<List<Runnable>> callbacksValue;
 
-    private static class MapHolder extends ThreadLocal<Map>
+    /**
+     * Each value is assigned an index (its slot); the values for a thread are stored in an array of chunks of slots,
+     * so that a thread only allocates storage for the chunks it actually uses (values are created in bulk as each
+     * page is loaded, so the values used by a request tend to be adjacent). The slot of a value that has been
+     * garbage collected is reused, so that the number of slots stays proportional to the number of live values,
+     * even as pages are reloaded.
+     */
+    private static final int CHUNK_SHIFT = 6;
+
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    /**
+     * The values for a single thread. Each slot stores the value's owner (the {@link PerThreadValue} or
+     * {@link ObjectCreator}), and the value. A value that does not exist is null; {@link #NULL_VALUE} is a value that
+     * exists, but is null. As the owner is strongly referenced, its slot is not reused while any thread still stores
+     * a value for it.
+     */
+    private static final class Slots
     {
-        @Override
-        protected Map initialValue()
+        private Object[][] chunks = new Object[4][];
+
+        Object get(int index, Object owner)
+        {
+            int chunkIndex = index >>> CHUNK_SHIFT;
+
+            if (chunkIndex >= chunks.length)
+            {
+                return null;
+            }
+
+            Object[] chunk = chunks[chunkIndex];
+
+            if (chunk == null)
+            {
+                return null;
+            }
+
+            int offset = (index & CHUNK_MASK) << 1;
+
+            return chunk[offset] == owner ? chunk[offset + 1] : null;
+        }
+
+        void set(int index, Object owner, Object value)
+        {
+            int chunkIndex = index >>> CHUNK_SHIFT;
+
+            if (chunkIndex >= chunks.length)
+            {
+                chunks = Arrays.copyOf(chunks, Math.max(chunkIndex + 1, chunks.length * 2));
+            }
+
+            Object[] chunk = chunks[chunkIndex];
+
+            if (chunk == null)
+            {
+                chunk = new Object[CHUNK_SIZE << 1];
+                chunks[chunkIndex] = chunk;
+            }
+
+            int offset = (index & CHUNK_MASK) << 1;
+
+            chunk[offset] = owner;
+            chunk[offset + 1] = value;
+        }
+    }
+
+    /**
+     * Returns the slot of a value to the free slots once the value has been garbage collected.
+     */
+    private static final class SlotReference extends WeakReference<Object>
+    {
+        final int slot;
+
+        SlotReference(Object owner, int slot, ReferenceQueue<Object> queue)
         {
-            return CollectionFactory.newMap();
+            super(owner, queue);
+
+            this.slot = slot;
         }
     }
 
     private final Logger logger;
 
-    private final MapHolder holder = new MapHolder();
+    /**
+     * The values of the current thread; null until the thread first stores a value.
+     */
+    private final ThreadLocal<Slots> holder = new ThreadLocal<Slots>();
+
+    private final AtomicInteger slotGenerator = new AtomicInteger();
 
-    private final AtomicInteger uuidGenerator = new AtomicInteger();
+    private final ReferenceQueue<Object> collectedOwners = new ReferenceQueue<Object>();
+
+    /**
+     * Keeps the references themselves reachable until they are enqueued.
+     */
+    private final Set<SlotReference> slotReferences = Collections.newSetFromMap(
+            new ConcurrentHashMap<SlotReference, Boolean>());
+
+    private final Queue<Integer> freeSlots = new ConcurrentLinkedQueue<Integer>();
 
     private volatile boolean shutdown = false;
 
@@ -68,17 +161,57 @@ public class PerthreadManagerImpl implements PerthreadManager
         });
     }
 
-    private Map getPerthreadMap()
+    /**
+     * Returns the values of the current thread, or null if none have been stored and create is false.
+     */
+    private Slots getPerthreadSlots(boolean create)
     {
         // This is a degenerate case; it may not even exist; but if during registry shutdown somehow code executes
-        // that attempts to create new values or add new listeners, those go into a new map instance that is
+        // that attempts to create new values or add new listeners, those go into a new instance that is
         // not referenced (and so immediately GCed).
         if (shutdown)
         {
-            return CollectionFactory.newMap();
+            return create ? new Slots() : null;
         }
 
-        return holder.get();
+        Slots result = holder.get();
+
+        if (result == null && create)
+        {
+            result = new Slots();
+            holder.set(result);
+        }
+
+        return result;
+    }
+
+    private Object getStoredValue(int slot, Object owner)
+    {
+        Slots slots = getPerthreadSlots(false);
+
+        return slots == null ? null : slots.get(slot, owner);
+    }
+
+    /**
+     * Assigns a slot to a new value, reusing the slot of a value that has been garbage collected if possible.
+     */
+    private int allocateSlot(Object owner)
+    {
+        SlotReference collected;
+
+        while ((collected = (SlotReference) collectedOwners.poll()) != null)
+        {
+            slotReferences.remove(collected);
+            freeSlots.offer(collected.slot);
+        }
+
+        Integer free = freeSlots.poll();
+
+        int slot = free == null ? slotGenerator.getAndIncrement() : free;
+
+        slotReferences.add(new SlotReference(owner, slot, collectedOwners));
+
+        return slot;
     }
 
     private List<Runnable> getCallbacks()
@@ -124,6 +257,15 @@ public class PerthreadManagerImpl implements PerthreadManager
     @Override
     public void cleanup()
     {
+        Slots slots = holder.get();
+
+        // Nothing (not even a callback) was stored by this thread.
+
+        if (slots == null)
+        {
+            return;
+        }
+
         List<Runnable> callbacks = getCallbacks();
 
         callbacksValue.set(null);
@@ -142,35 +284,29 @@ public class PerthreadManagerImpl implements PerthreadManager
         // Listeners should not re-add themselves or store any per-thread state
         // here, it will be lost.
 
-        // Discard the per-thread map of values, including the key that stores
+        // Discard the per-thread values, including the slot that stores
         // the listeners. This means that if a listener attempts to register
         // new listeners, the new listeners will not be triggered and will be
         // released to the GC.
 
+        // The storage is removed from the thread (rather than cleared for its next request), so that
+        // a pooled thread does not keep a reference to the application's class loader once the
+        // application has been stopped.
+
         holder.remove();
     }
 
     private static Object NULL_VALUE = new Object();
 
-    <T> ObjectCreator<T> createValue(final Object key, final ObjectCreator<T> delegate)
-    {
-        return new DefaultObjectCreator<T>(key, delegate);
-    }
-
     public <T> ObjectCreator<T> createValue(ObjectCreator<T> delegate)
     {
-        return createValue(uuidGenerator.getAndIncrement(), delegate);
-    }
-
-    <T> PerThreadValue<T> createValue(final Object key)
-    {
-        return new DefaultPerThreadValue(key);
+        return new DefaultObjectCreator<T>(delegate);
     }
 
     @Override
     public <T> PerThreadValue<T> createValue()
     {
-        return createValue(uuidGenerator.getAndIncrement());
+        return new DefaultPerThreadValue();
     }
 
     @Override
@@ -201,13 +337,13 @@ public class PerthreadManagerImpl implements PerthreadManager
 
     private final class DefaultPerThreadValue<T> implements PerThreadValue<T>
     {
-        private final Object key;
+        private final int slot;
 
-        DefaultPerThreadValue(final Object key)
+        DefaultPerThreadValue()
         {
-            this.key = key;
-
+            slot = allocateSlot(this);
         }
+
         @Override
         public T get()
         {
@@ -217,9 +353,7 @@ public class PerthreadManagerImpl implements PerthreadManager
         @Override
         public T get(T defaultValue)
         {
-            Map map = getPerthreadMap();
-
-            Object storedValue = map.get(key);
+            Object storedValue = getStoredValue(slot, this);
 
             if (storedValue == null)
             {
@@ -237,7 +371,7 @@ public class PerthreadManagerImpl implements PerthreadManager
         @Override
         public T set(T newValue)
         {
-            getPerthreadMap().put(key, newValue == null ? NULL_VALUE : newValue);
+            getPerthreadSlots(true).set(slot, this, newValue == null ? NULL_VALUE : newValue);
 
             return newValue;
         }
@@ -245,26 +379,26 @@ public class PerthreadManagerImpl implements PerthreadManager
         @Override
         public boolean exists()
         {
-            return getPerthreadMap().containsKey(key);
+            return getStoredValue(slot, this) != null;
         }
     }
 
     private final class DefaultObjectCreator<T> implements ObjectCreator<T>
     {
 
-        private final Object key;
+        private final int slot;
         private final ObjectCreator<T> delegate;
 
-        DefaultObjectCreator(final Object key, final ObjectCreator<T> delegate)
+        DefaultObjectCreator(final ObjectCreator<T> delegate)
         {
-            this.key = key;
             this.delegate = delegate;
+
+            slot = allocateSlot(this);
         }
 
         public T createObject()
         {
-            Map map = getPerthreadMap();
-            T storedValue = (T) map.get(key);
+            T storedValue = (T) getStoredValue(slot, this);
 
             if (storedValue != null)
             {
@@ -273,7 +407,7 @@ public class PerthreadManagerImpl implements PerthreadManager
 
             T newValue = delegate.createObject();
 
-            map.put(key, newValue == null ? NULL_VALUE : newValue);
+            getPerthreadSlots(true).set(slot, this, newValue == null ? NULL_VALUE : newValue);
 
             return newValue;
         }
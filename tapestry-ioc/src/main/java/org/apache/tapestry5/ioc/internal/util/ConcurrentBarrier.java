@@ -32,7 +32,8 @@ public class ConcurrentBarrier
      * at the end of the request, and that means a thread can hold a reference to the class and the class loader which
      * loaded it. This may cause redeployment problems (leaked classes and class loaders). Apparently JDK 1.6 provides
      * the APIs to check to see if the current thread has a read lock. So, we tend to remove the TL, rather than set its
-     * value to false.
+     * value to false. The value is only ever accessed by its own thread, so no synchronization is needed (contending for
+     * a monitor would pin a virtual thread to its carrier thread).
      */
     private static class ThreadBoolean extends ThreadLocal<Boolean>
     {
@@ -61,21 +62,13 @@ public class ConcurrentBarrier
      */
     public <T> T withRead(Invokable<T> invokable)
     {
-        boolean readLockedAtEntry;
-
-        synchronized (threadHasReadLock)
-        {
-            readLockedAtEntry = threadHasReadLock.get();
-        }
+        boolean readLockedAtEntry = threadHasReadLock.get();
 
         if (!readLockedAtEntry)
         {
             lock.readLock().lock();
 
-            synchronized (threadHasReadLock)
-            {
-                threadHasReadLock.set(true);
-            }
+            threadHasReadLock.set(true);
         }
 
         try
@@ -88,10 +81,7 @@ public class ConcurrentBarrier
             {
                 lock.readLock().unlock();
 
-                synchronized (threadHasReadLock)
-                {
-                    threadHasReadLock.remove();
-                }
+                threadHasReadLock.remove();
             }
         }
     }
@@ -147,21 +137,13 @@ public class ConcurrentBarrier
 
     private boolean releaseReadLock()
     {
-        boolean readLockedAtEntry;
-
-        synchronized (threadHasReadLock)
-        {
-            readLockedAtEntry = threadHasReadLock.get();
-        }
+        boolean readLockedAtEntry = threadHasReadLock.get();
 
         if (readLockedAtEntry)
         {
             lock.readLock().unlock();
 
-            synchronized (threadHasReadLock)
-            {
-                threadHasReadLock.set(false);
-            }
+            threadHasReadLock.set(false);
         }
 
         return readLockedAtEntry;
@@ -173,17 +155,11 @@ public class ConcurrentBarrier
         {
             lock.readLock().lock();
 
-            synchronized (threadHasReadLock)
-            {
-                threadHasReadLock.set(true);
-            }
+            threadHasReadLock.set(true);
         }
         else
         {
-            synchronized (threadHasReadLock)
-            {
-                threadHasReadLock.remove();
-            }
+            threadHasReadLock.remove();
         }
     }
 
@@ -1,4 +1,4 @@
-// Copyright 2006, 2007, 2008, 2010 The Apache Software Foundation
+// Copyright 2006, 2007, 2008, 2010, 2021 The Apache Software Foundation
 //
 // Licensed under the Apache License, Version 2.0 (the "License");
 // you may not use this file except in compliance with the License.
@@ -22,7 +22,16 @@ import java.io.File;
 import java.io.IOException;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Collections;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Given a (growing) set of URLs, can periodically check to see if any of the underlying resources has changed. This
@@ -30,6 +39,12 @@ import java.util.Map;
  * granularity is used by default. Second-level granularity is provided for compatibility with browsers vis-a-vis
  * resource caching -- that's how granular they get with their "If-Modified-Since", "Last-Modified" and "Expires"
  * headers.
+ *
+ * Normally, each check for changes reads the timestamp of every tracked file. Optionally, a {@link WatchService} can be
+ * used instead; the folders containing the tracked files are registered with the service, and each check just
+ * processes the events received since the previous check (reading the timestamps of just the files those events refer
+ * to). The service is closed when the tracker is {@linkplain #clear() cleared} (a new one is opened as files are added
+ * again), and should be closed, via {@link #close()}, once the tracker is no longer needed.
  */
 public class URLChangeTracker
 {
@@ -37,6 +52,29 @@ public class URLChangeTracker
 
     private final Map<File, Long> fileToTimestamp = CollectionFactory.newConcurrentMap();
 
+    private final Map<File, URL> fileToURL = CollectionFactory.newConcurrentMap();
+
+    private final Set<Path> watchedFolders = Collections.newSetFromMap(CollectionFactory.<Path, Boolean>newConcurrentMap());
+
+    private final Set<String> changedURLs = CollectionFactory.newSet();
+
+    private boolean structuralChange;
+
+    private volatile boolean forced;
+
+    /**
+     * Guarded by this tracker; null until a file is added, or if watching is disabled or unsupported.
+     */
+    private volatile WatchService watchService;
+
+    private final boolean watchForChanges;
+
+    /**
+     * Set when a folder can not be watched (from then on, timestamps are read for all files), or when the tracker
+     * is closed.
+     */
+    private boolean watchDisabled;
+
     private final boolean granularitySeconds;
 
     private final boolean trackFolderChanges;
@@ -96,10 +134,33 @@ public class URLChangeTracker
      */
     public URLChangeTracker(ClasspathURLConverter classpathURLConverter, boolean granularitySeconds,
             boolean trackFolderChanges)
+    {
+        this(classpathURLConverter, granularitySeconds, trackFolderChanges, false);
+    }
+
+    /**
+     * Creates a new URL change tracker, using either millisecond-level granularity or second-level granularity, and
+     * optionally using a {@link WatchService} to detect changes.
+     *
+     * @param classpathURLConverter
+     *            used to convert URLs from one protocol to another
+     * @param granularitySeconds
+     *            whether or not to use second granularity (as opposed to millisecond granularity)
+     * @param trackFolderChanges
+     *            if true, then adding a file URL will also track the folder containing the file (this
+     *            is useful when concerned about additions to a folder)
+     * @param watchForChanges
+     *            if true, changes are detected using a {@link WatchService}, rather than by reading the timestamp of
+     *            every tracked file; if the file system does not support watching, timestamps are read as usual
+     * @since 5.7.0
+     */
+    public URLChangeTracker(ClasspathURLConverter classpathURLConverter, boolean granularitySeconds,
+            boolean trackFolderChanges, boolean watchForChanges)
     {
         this.granularitySeconds = granularitySeconds;
         this.classpathURLConverter = classpathURLConverter;
         this.trackFolderChanges = trackFolderChanges;
+        this.watchForChanges = watchForChanges;
     }
 
     /**
@@ -155,11 +216,12 @@ public class URLChangeTracker
         // is added, add the directory containing the file as well.
 
         fileToTimestamp.put(resourceFile, timestamp);
+        fileToURL.put(resourceFile, url);
+
+        File dir = resourceFile.getParentFile();
 
         if (trackFolderChanges)
         {
-            File dir = resourceFile.getParentFile();
-
             if (!fileToTimestamp.containsKey(dir))
             {
                 long dirTimestamp = readTimestamp(dir);
@@ -167,9 +229,61 @@ public class URLChangeTracker
             }
         }
 
+        watch(dir);
+
         return timestamp;
     }
 
+    private void watch(File dir)
+    {
+        if (!watchForChanges || dir == null || watchedFolders.contains(dir.toPath()))
+        {
+            return;
+        }
+
+        synchronized (this)
+        {
+            Path path = dir.toPath();
+
+            if (watchDisabled || watchedFolders.contains(path))
+            {
+                return;
+            }
+
+            try
+            {
+                if (watchService == null)
+                {
+                    watchService = FileSystems.getDefault().newWatchService();
+                }
+
+                path.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_DELETE,
+                        StandardWatchEventKinds.ENTRY_MODIFY);
+
+                watchedFolders.add(path);
+            } catch (IOException | UnsupportedOperationException ex)
+            {
+                // Not every folder can be watched; revert to reading timestamps, for all files.
+                watchDisabled = true;
+
+                closeWatchService();
+            }
+        }
+    }
+
+    private synchronized void closeWatchService()
+    {
+        WatchService service = watchService;
+
+        watchService = null;
+        watchedFolders.clear();
+
+        if (service != null)
+        {
+            InternalUtils.close(service);
+        }
+    }
+
     private long timestampForNonFileURL(URL url)
     {
         long timestamp;
@@ -187,37 +301,154 @@ public class URLChangeTracker
     }
 
     /**
-     * Clears all URL and timestamp data stored in the tracker.
+     * Clears all URL and timestamp data stored in the tracker, and closes its {@link WatchService}, if any.
      */
     public void clear()
     {
         fileToTimestamp.clear();
+        fileToURL.clear();
+
+        closeWatchService();
     }
 
     /**
-     * Re-acquires the last updated timestamp for each URL and returns true if any timestamp has changed.
+     * Clears the tracker, and stops using a {@link WatchService}, releasing the resources it holds. Files added
+     * afterwards are tracked by reading their timestamps.
+     *
+     * @since 5.7.0
      */
-    public boolean containsChanges()
+    public void close()
     {
-        boolean result = false;
+        synchronized (this)
+        {
+            watchDisabled = true;
+        }
 
+        clear();
+    }
+
+    /**
+     * Re-acquires the last updated timestamp for each URL (or, when using a {@link WatchService}, for each URL
+     * that the service reported as changed) and returns true if any timestamp has changed.
+     */
+    public boolean containsChanges()
+    {
         // This code would be highly suspect if this method was expected to be invoked
         // concurrently, but CheckForUpdatesFilter ensures that it will be invoked
         // synchronously.
 
-        for (Map.Entry<File, Long> entry : fileToTimestamp.entrySet())
+        changedURLs.clear();
+        structuralChange = forced;
+        forced = false;
+
+        WatchService service = watchService;
+
+        if (service == null)
+        {
+            for (Map.Entry<File, Long> entry : fileToTimestamp.entrySet())
+            {
+                checkForChange(entry.getKey());
+            }
+        } else
+        {
+            processWatchEvents(service);
+        }
+
+        return structuralChange || !changedURLs.isEmpty();
+    }
+
+    private void processWatchEvents(WatchService service)
+    {
+        while (true)
         {
-            long newTimestamp = readTimestamp(entry.getKey());
-            long current = entry.getValue();
+            WatchKey key;
+
+            try
+            {
+                key = service.poll();
+            } catch (ClosedWatchServiceException ex)
+            {
+                // The tracker was cleared or closed, so there is nothing left to check.
+                return;
+            }
 
-            if (current == newTimestamp)
-                continue;
+            if (key == null)
+            {
+                return;
+            }
+
+            Path folder = (Path) key.watchable();
 
-            result = true;
-            entry.setValue(newTimestamp);
+            for (WatchEvent<?> event : key.pollEvents())
+            {
+                if (event.kind() == StandardWatchEventKinds.OVERFLOW)
+                {
+                    // Some events were lost, so the changes are not known.
+                    structuralChange = true;
+                    continue;
+                }
+
+                checkForChange(folder.resolve((Path) event.context()).toFile());
+
+                // Files added to or removed from a tracked folder change its timestamp, but there is no
+                // separate event for that.
+
+                if (event.kind() != StandardWatchEventKinds.ENTRY_MODIFY)
+                {
+                    checkForChange(folder.toFile());
+                }
+            }
+
+            if (!key.reset())
+            {
+                watchedFolders.remove(folder);
+            }
+        }
+    }
+
+    private void checkForChange(File file)
+    {
+        Long current = fileToTimestamp.get(file);
+
+        if (current == null)
+        {
+            return;
+        }
+
+        long newTimestamp = readTimestamp(file);
+
+        if (current == newTimestamp)
+        {
+            return;
         }
 
-        return result;
+        fileToTimestamp.put(file, newTimestamp);
+
+        // Changes to the content of files are tracked individually; a file that was created or deleted, or
+        // a change to a folder, may affect which files are used at all.
+
+        URL url = fileToURL.get(file);
+
+        if (url == null || current == FILE_DOES_NOT_EXIST_TIMESTAMP || newTimestamp == FILE_DOES_NOT_EXIST_TIMESTAMP)
+        {
+            structuralChange = true;
+        } else
+        {
+            changedURLs.add(url.toExternalForm());
+        }
+    }
+
+    /**
+     * Returns the URLs (in external form, as originally {@linkplain #add(URL) added}) of the files whose content
+     * was found to have changed by the most recent invocation of {@link #containsChanges()}. Returns null if other
+     * changes were found as well: files that were created or deleted, or changes to tracked folders. Such changes may
+     * affect which files are used at all; everything derived from the tracked files should be considered changed.
+     *
+     * @since 5.7.0
+     */
+    public Set<String> getChangedURLs()
+    {
+        return structuralChange ? null : Collections.unmodifiableSet(CollectionFactory.newSet(changedURLs));
     }
 
     /**
@@ -253,6 +484,8 @@ public class URLChangeTracker
         {
             e.setValue(0l);
         }
+
+        forced = true;
     }
 
     /**
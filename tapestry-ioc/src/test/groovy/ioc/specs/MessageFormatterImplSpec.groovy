@@ -25,6 +25,44 @@ class MessageFormatterImplSpec extends Specification {
         "%s is %s at version %d." | ["Tapestry", "cool", 5]                         | "Tapestry is cool at version 5."                 | "multiple conversions"
         "%s failed: %s"           | ["Something", new RuntimeException("bad wolf")] | "Something failed: bad wolf"                     | "expansion of exception message"
         "%s failed: %s"           | ["Another", new NullPointerException()]         | "Another failed: java.lang.NullPointerException" | "expansion of exception without message is exception class name"
+        '%2$s, %1$s'              | ["first", "second"]                             | "second, first"                                  | "explicit argument indexes"
+        "[%-5s|%05d|%.2f]"        | ["ab", 42, 1.5d]                                | "[ab   |00042|1.50]"                             | "flags, width and precision"
+        "100%% of %s"             | ["it"]                                          | "100% of it"                                     | "escaped percent sign"
+        "%s is %d"                | [null, -3]                                      | "null is -3"                                     | "null and negative values"
+    }
+
+    def "formatTo() appends to the builder"() {
+
+        def mf = new MessageFormatterImpl("%s is %s.", null)
+        def builder = new StringBuilder("Result: ")
+
+        when:
+
+        mf.formatTo(builder, "Tapestry", "cool")
+
+        then:
+
+        builder.toString() == "Result: Tapestry is cool."
+    }
+
+    def "errors are reported as by String.format()"() {
+
+        def mf = new MessageFormatterImpl(format, null)
+
+        when:
+
+        mf.format(* args)
+
+        then:
+
+        thrown(expected)
+
+        where:
+
+        format      | args    | expected
+        "%s and %s" | ["one"] | MissingFormatArgumentException
+        "%d%q"      | [1]     | UnknownFormatConversionException
+        "%d"        | ["one"] | IllegalFormatConversionException
     }
 
     def "toString() of a MessageFormatter is the format"() {
@@ -179,5 +179,108 @@ class PerthreadManagerImplSpec extends Specification {
 
   }
 
+  def "many values are stored independently, and all are discarded by cleanup"() {
+    Logger logger = Mock()
+    def manager = new PerthreadManagerImpl(logger)
+
+    def values = (0..<500).collect { manager.createValue() }
+
+    when:
+
+    values.eachWithIndex { value, i -> value.set(i % 7 == 0 ? null : i) }
+
+    then:
+
+    values.every { it.exists() }
+    (0..<500).every { i -> values[i].get() == (i % 7 == 0 ? null : i) }
+
+    when:
+
+    manager.cleanup()
+
+    then:
+
+    values.every { !it.exists() }
+
+    when:
+
+    values.last().set "reused"
+
+    then:
+
+    values.last().get() == "reused"
+    !values.first().exists()
+  }
+
+  def "values are per-thread"() {
+    Logger logger = Mock()
+    def manager = new PerthreadManagerImpl(logger)
+    def value = manager.createValue()
+    def other = null
+
+    when:
+
+    value.set "main"
+
+    def thread = Thread.start { other = value.exists() }
+    thread.join()
+
+    then:
+
+    value.get() == "main"
+    other == false
+  }
 
+  def "cleanup removes the thread's storage"() {
+    Logger logger = Mock()
+    def manager = new PerthreadManagerImpl(logger)
+    def value = manager.createValue()
+
+    when:
+
+    value.set "stored"
+
+    then:
+
+    manager.holder.get() != null
+
+    when:
+
+    manager.cleanup()
+
+    then:
+
+    manager.holder.get() == null
+  }
+
+  def "the slot of a value that has been garbage collected is reused"() {
+    Logger logger = Mock()
+    def manager = new PerthreadManagerImpl(logger)
+    def value = manager.createValue()
+    def slot = value.slot
+    def created = []
+
+    value.set "discarded"
+
+    // The stored value keeps the slot in use until the thread is cleaned up.
+
+    manager.cleanup()
+    value = null
+
+    when:
+
+    for (int i = 0; i < 100 && !created.any { it.slot == slot }; i++) {
+      System.gc()
+      Thread.sleep 10
+      created << manager.createValue()
+    }
+
+    def reused = created.find { it.slot == slot }
+
+    then:
+
+    reused != null
+    !reused.exists()
+    manager.slotGenerator.get() < slot + 1 + created.size()
+  }
 }
@@ -1,5 +1,6 @@
 package ioc.specs
 
+import java.lang.ref.WeakReference
 import java.time.DayOfWeek
 import java.time.Duration
 import java.time.Instant
@@ -17,6 +18,9 @@ import java.time.ZoneId
 import java.time.ZoneOffset
 import java.time.ZonedDateTime
 
+import org.apache.tapestry5.commons.internal.services.TypeCoercerImpl
+import org.apache.tapestry5.commons.services.Coercion
+import org.apache.tapestry5.commons.services.CoercionTuple
 import org.apache.tapestry5.commons.services.TypeCoercer
 import org.apache.tapestry5.commons.util.TimeInterval
 import org.apache.tapestry5.func.F
@@ -270,4 +274,68 @@ class TypeCoercerSpec extends AbstractSharedRegistrySpecification {
 
     !c1.is(c3)
   }
+
+  def "coercion to a target type may be obtained once and reused"() {
+    def c = coercer.getCoercionTo(int)
+    def input = new Integer(-37)
+
+    expect:
+
+    c.coerce("37") == 37
+    c.coerce(42l) == 42
+    c.coerce(new StringBuilder("99")) == 99
+    c.coerce(input).is(input)
+    c.coerce(null) == null
+
+    coercer.getCoercionTo(AnnotationUseContext).coerce("page") == AnnotationUseContext.PAGE
+  }
+
+  def "coercion to a target type remains valid after the cache is cleared"() {
+    def c = coercer.getCoercionTo(Long)
+
+    when:
+
+    coercer.clearCache()
+
+    then:
+
+    c.coerce(new StringBuilder("12")) == 12l
+  }
+
+  def "exception when a coercion to a target type fails"() {
+    when:
+
+    coercer.getCoercionTo(Integer).coerce("fred")
+
+    then:
+
+    RuntimeException e = thrown()
+
+    e.message.contains "Coercion of fred to type java.lang.Integer"
+    e.cause instanceof NumberFormatException
+  }
+
+  def "cached coercions do not keep a discarded TypeCoercer reachable"() {
+    def tuple = new CoercionTuple(String, StringBuilder, { new StringBuilder(it) } as Coercion)
+    def local = new TypeCoercerImpl([(tuple.key): tuple])
+
+    // The coercions are cached on String and StringBuilder, which are never unloaded.
+
+    local.coerce("abc", StringBuilder).toString() == "abc"
+    local.getCoercionTo(StringBuilder).coerce("def").toString() == "def"
+
+    def reference = new WeakReference(local)
+    local = null
+
+    when:
+
+    for (int i = 0; i < 50 && reference.get() != null; i++) {
+      System.gc()
+      Thread.sleep 10
+    }
+
+    then:
+
+    reference.get() == null
+  }
 }
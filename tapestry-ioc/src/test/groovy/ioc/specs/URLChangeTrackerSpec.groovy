@@ -6,6 +6,8 @@ import org.apache.tapestry5.ioc.services.ClasspathURLConverter
 import spock.lang.Shared
 import spock.lang.Specification
 
+import java.nio.file.ClosedWatchServiceException
+
 class URLChangeTrackerSpec extends Specification {
 
   @Shared
@@ -184,4 +186,141 @@ class URLChangeTrackerSpec extends Specification {
     updated % 1000 == 0
     updated != initial
   }
+
+  def "files whose content changed are identified by URL"() {
+    tracker = new URLChangeTracker(converter, false, false)
+
+    def file = newFile()
+    def url = file.toURL()
+
+    tracker.add(url)
+    tracker.add(newFile().toURL())
+
+    when:
+
+    touch(file)
+
+    then:
+
+    tracker.containsChanges()
+    tracker.changedURLs == [url.toExternalForm()] as Set
+  }
+
+  def "a deleted file can not be identified as a single changed URL"() {
+    def file = newFile()
+
+    tracker.add(file.toURL())
+
+    when:
+
+    file.delete()
+
+    then:
+
+    tracker.containsChanges()
+    tracker.changedURLs == null
+  }
+
+  def waitForChanges(URLChangeTracker tracker) {
+    // Watch events are delivered asynchronously (and, on some platforms, only every few seconds)
+    for (int i = 0; i < 300; i++) {
+      if (tracker.containsChanges()) { return true }
+      Thread.sleep(50)
+    }
+
+    return false
+  }
+
+  def "a watching tracker is notified of changes"() {
+    def dir = File.createTempDir()
+    def file = new File(dir, "watched.txt")
+    file.text = "initial"
+
+    tracker = new URLChangeTracker(converter, false, false, true)
+
+    when:
+
+    tracker.add(file.toURL())
+
+    then:
+
+    !tracker.containsChanges()
+
+    when:
+
+    touch(file)
+
+    then:
+
+    waitForChanges(tracker)
+    tracker.changedURLs == [file.toURL().toExternalForm()] as Set
+    !tracker.containsChanges()
+
+    when:
+
+    file.delete()
+
+    then:
+
+    waitForChanges(tracker)
+    tracker.changedURLs == null
+
+    cleanup:
+
+    dir.deleteDir()
+  }
+
+  def "clearing a watching tracker closes its watch service until files are added again"() {
+    def dir = File.createTempDir()
+    def file = new File(dir, "watched.txt")
+    file.text = "initial"
+
+    tracker = new URLChangeTracker(converter, false, false, true)
+
+    tracker.add(file.toURL())
+
+    def first = tracker.@watchService
+
+    when:
+
+    tracker.clear()
+
+    then:
+
+    tracker.@watchService == null
+
+    when:
+
+    first.poll()
+
+    then:
+
+    thrown(ClosedWatchServiceException)
+
+    when:
+
+    tracker.add(file.toURL())
+    touch(file)
+
+    then:
+
+    tracker.@watchService != null
+    waitForChanges(tracker)
+    tracker.changedURLs == [file.toURL().toExternalForm()] as Set
+
+    when:
+
+    tracker.close()
+    tracker.add(file.toURL())
+    touch(file)
+
+    then:
+
+    tracker.@watchService == null
+    tracker.containsChanges()
+
+    cleanup:
+
+    dir.deleteDir()
+  }
 }
@@ -0,0 +1,76 @@
+// Copyright 2021 The Apache Software Foundation
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.apache.tapestry5.internal.jmx;
+
+import org.apache.tapestry5.internal.services.PageSource;
+import org.apache.tapestry5.jmx.PageCacheMXBean;
+
+public class PageCacheMXBeanImpl implements PageCacheMXBean
+{
+    private final PageSource pageSource;
+
+    public PageCacheMXBeanImpl(PageSource pageSource)
+    {
+        this.pageSource = pageSource;
+    }
+
+    @Override
+    public long getHits()
+    {
+        return pageSource.getCacheStatistics().hits;
+    }
+
+    @Override
+    public long getMisses()
+    {
+        return pageSource.getCacheStatistics().misses;
+    }
+
+    @Override
+    public long getLoads()
+    {
+        return pageSource.getCacheStatistics().loads;
+    }
+
+    @Override
+    public double getAverageLoadTime()
+    {
+        return pageSource.getCacheStatistics().getAverageLoadTime();
+    }
+
+    @Override
+    public long getEvictions()
+    {
+        return pageSource.getCacheStatistics().evictions;
+    }
+
+    @Override
+    public int getCachedPages()
+    {
+        return pageSource.getCacheStatistics().cachedPages;
+    }
+
+    @Override
+    public int getMaxSize()
+    {
+        return pageSource.getCacheStatistics().maxSize;
+    }
+
+    @Override
+    public void clearCache()
+    {
+        pageSource.clearCache();
+    }
+}
@@ -0,0 +1,65 @@
+// Copyright 2021 The Apache Software Foundation
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.apache.tapestry5.jmx;
+
+/**
+ * Management interface for Tapestry's cache of loaded pages, registered as
+ * {@value org.apache.tapestry5.jmx.modules.JmxModule#PAGE_CACHE_OBJECT_NAME}. The counters are cumulative since the
+ * application started.
+ *
+ * @since 5.7.0
+ */
+public interface PageCacheMXBean
+{
+    /**
+     * Number of requests for a page that were satisfied from the cache.
+     */
+    long getHits();
+
+    /**
+     * Number of requests for a page that required it to be loaded (or to wait while another thread loaded it).
+     */
+    long getMisses();
+
+    /**
+     * Number of times a page was actually loaded.
+     */
+    long getLoads();
+
+    /**
+     * Average time, in milliseconds, to load a page.
+     */
+    double getAverageLoadTime();
+
+    /**
+     * Number of pages discarded from a bounded cache to make room for other pages.
+     */
+    long getEvictions();
+
+    /**
+     * Number of pages currently in the cache.
+     */
+    int getCachedPages();
+
+    /**
+     * Maximum number of pages kept in the cache, or 0 if unbounded.
+     */
+    int getMaxSize();
+
+    /**
+     * Discards all cached pages; they will be reloaded as needed.
+     */
+    void clearCache();
+}
@@ -1,4 +1,4 @@
-// Copyright 2010-2013 The Apache Software Foundation
+// Copyright 2010-2013, 2021 The Apache Software Foundation
 //
 // Licensed under the Apache License, Version 2.0 (the "License");
 // you may not use this file except in compliance with the License.
@@ -15,7 +15,10 @@
 package org.apache.tapestry5.jmx.modules;
 
 import org.apache.tapestry5.internal.jmx.MBeanSupportImpl;
+import org.apache.tapestry5.internal.jmx.PageCacheMXBeanImpl;
+import org.apache.tapestry5.internal.services.PageSource;
 import org.apache.tapestry5.ioc.ServiceBinder;
+import org.apache.tapestry5.ioc.annotations.Startup;
 import org.apache.tapestry5.jmx.MBeanSupport;
 
 /**
@@ -23,8 +26,26 @@ import org.apache.tapestry5.jmx.MBeanSupport;
  */
 public class JmxModule
 {
+    /**
+     * The name under which the {@link org.apache.tapestry5.jmx.PageCacheMXBean} is registered.
+     *
+     * @since 5.7.0
+     */
+    public static final String PAGE_CACHE_OBJECT_NAME = "org.apache.tapestry5:service=PageCache";
+
     public static void bind(ServiceBinder binder)
     {
         binder.bind(MBeanSupport.class, MBeanSupportImpl.class);
     }
+
+    /**
+     * Exposes the statistics of the page cache as an MBean.
+     *
+     * @since 5.7.0
+     */
+    @Startup
+    public static void registerPageCacheMXBean(PageSource pageSource, MBeanSupport managedBeanSupport)
+    {
+        managedBeanSupport.register(new PageCacheMXBeanImpl(pageSource), PAGE_CACHE_OBJECT_NAME);
+    }
 }
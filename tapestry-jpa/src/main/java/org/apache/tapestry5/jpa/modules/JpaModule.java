@@ -1,4 +1,4 @@
-// Copyright 2011-2014 The Apache Software Foundation
+// Copyright 2011-2014, 2021 The Apache Software Foundation
 //
 // Licensed under the Apache License, Version 2.0 (the "License");
 // you may not use this file except in compliance with the License.
@@ -36,6 +36,7 @@ import org.apache.tapestry5.internal.jpa.EntityManagerObjectProvider;
 import org.apache.tapestry5.internal.jpa.EntityManagerSourceImpl;
 import org.apache.tapestry5.internal.jpa.EntityPersistentFieldStrategy;
 import org.apache.tapestry5.internal.jpa.EntityTransactionManagerImpl;
+import org.apache.tapestry5.internal.jpa.JpaEntityClientDataCodec;
 import org.apache.tapestry5.internal.jpa.JpaTransactionAdvisorImpl;
 import org.apache.tapestry5.internal.jpa.JpaValueEncoder;
 import org.apache.tapestry5.internal.jpa.PackageNamePersistenceUnitConfigurer;
@@ -65,6 +66,8 @@ import org.apache.tapestry5.services.ApplicationStateContribution;
 import org.apache.tapestry5.services.ApplicationStateManager;
 import org.apache.tapestry5.services.ApplicationStatePersistenceStrategy;
 import org.apache.tapestry5.services.ApplicationStatePersistenceStrategySource;
+import org.apache.tapestry5.services.ClientDataCodec;
+import org.apache.tapestry5.services.ClientDataEncoder;
 import org.apache.tapestry5.services.PersistentFieldStrategy;
 import org.apache.tapestry5.services.ValueEncoderFactory;
 import org.apache.tapestry5.services.ValueEncoderSource;
@@ -194,6 +197,39 @@ public class JpaModule
         }
     }
 
+    /**
+     * Contributes {@link ClientDataCodec}s for all entity classes, so that only the id of an entity (as encoded by its
+     * {@link ValueEncoder}) is stored in client data, such as form data. Entities that are not managed by the current
+     * entity manager are still serialized.
+     *
+     * @since 5.7.0
+     */
+    @Contribute(ClientDataEncoder.class)
+    @SuppressWarnings("unchecked")
+    public static void provideEntityClientDataCodecs(final MappedConfiguration<Class, ClientDataCodec> configuration,
+                                                     @Symbol(JpaSymbols.PROVIDE_ENTITY_VALUE_ENCODERS)
+                                                     final boolean provideEncoders,
+                                                     final EntityManagerSource entityManagerSource,
+                                                     final EntityManagerManager entityManagerManager,
+                                                     final ValueEncoderSource valueEncoderSource)
+    {
+        if (!provideEncoders)
+            return;
+
+        for (final PersistenceUnitInfo info : entityManagerSource.getPersistenceUnitInfos())
+        {
+            final EntityManagerFactory emf = entityManagerSource.getEntityManagerFactory(info.getPersistenceUnitName());
+
+            for (final EntityType<?> entity : emf.getMetamodel().getEntities())
+            {
+                final Class javaType = entity.getJavaType();
+
+                configuration.add(javaType, new JpaEntityClientDataCodec(valueEncoderSource, javaType,
+                        entityManagerManager, info.getPersistenceUnitName()));
+            }
+        }
+    }
+
     @Contribute(ApplicationStateManager.class)
     public static void provideApplicationStateContributions(
             final MappedConfiguration<Class, ApplicationStateContribution> configuration,
@@ -24,6 +24,7 @@ import org.apache.commons.io.IOUtils;
 import org.apache.tapestry5.TapestryConstants;
 import org.apache.tapestry5.commons.util.CollectionFactory;
 import org.apache.tapestry5.http.services.Request;
+import org.apache.tapestry5.http.services.RequestGlobals;
 import org.apache.tapestry5.ioc.OperationTracker;
 import org.apache.tapestry5.ioc.internal.util.InternalUtils;
 import org.apache.tapestry5.services.assets.AssetChecksumGenerator;
@@ -45,7 +46,7 @@ public class GoogleClosureMinimizer extends AbstractMinimizer
 
     private final List<SourceFile> EXTERNS = Collections.emptyList();
 
-    private final Request request;
+    private final RequestGlobals requestGlobals;
     private final GoogleClosureMinimizerOptionsProvider optionsProvider;
 
     static
@@ -56,18 +57,22 @@ public class GoogleClosureMinimizer extends AbstractMinimizer
     public GoogleClosureMinimizer(Logger logger,
                                   OperationTracker tracker,
                                   AssetChecksumGenerator checksumGenerator,
-                                  Request request,
+                                  RequestGlobals requestGlobals,
                                   GoogleClosureMinimizerOptionsProvider optionsProvider)
     {
         super(logger, tracker, checksumGenerator, "text/javascript");
-        this.request = request;
+        this.requestGlobals = requestGlobals;
         this.optionsProvider = optionsProvider;
     }
 
     @Override
     protected boolean isEnabled(StreamableResource resource)
     {
-        return request.getAttribute(TapestryConstants.DISABLE_JAVASCRIPT_MINIMIZATION) == null;
+        Request request = requestGlobals.getRequest();
+
+        // There's no request when assets are warmed up in the background.
+
+        return request == null || request.getAttribute(TapestryConstants.DISABLE_JAVASCRIPT_MINIMIZATION) == null;
     }
 
     @Override